@@ -71,11 +71,246 @@ public class AlerterProperties {
      */
     private String gotifyNotifyUrl = "https://push.example.de/message?token=";
 
+    /**
+     * Alarm calculate shard threads, frames of a monitor are always calculated by the same thread.
+     * 0 means the number of available processors
+     */
+    private int calculateThreads = 0;
+
+    /**
+     * Alarm calculate state persistence properties
+     */
+    private StateProperties state = new StateProperties();
+
+    /**
+     * Alarm notification delivery properties
+     */
+    private NotifyProperties notify = new NotifyProperties();
+
+    /**
+     * Alarm write-behind store properties
+     */
+    private StoreProperties store = new StoreProperties();
+
+    /**
+     * Alarm summary counters and history retention properties
+     */
+    private RetentionProperties retention = new RetentionProperties();
+
+    /**
+     * Alarm converge state properties
+     */
+    private ConvergeProperties converge = new ConvergeProperties();
+
+    /**
+     * External alarm report ingest properties
+     */
+    private ReportProperties report = new ReportProperties();
+
     /**
      * Data entry configuration properties
      */
     private EntranceProperties entrance;
 
+    /**
+     * Alarm calculate state persistence properties
+     */
+    @Getter
+    @Setter
+    public static class StateProperties {
+
+        /**
+         * Whether persist the triggered and not recovered alert state to local disk
+         */
+        private boolean enabled = true;
+
+        /**
+         * The local dir of the state snapshot and write-ahead log
+         */
+        private String path = "./data/alerter-state";
+
+        /**
+         * Snapshot interval seconds, the write-ahead log is truncated after every snapshot
+         */
+        private int snapshotInterval = 60;
+    }
+
+    /**
+     * Alarm notification delivery properties
+     */
+    @Getter
+    @Setter
+    public static class NotifyProperties {
+
+        /**
+         * Delivery threads of each receiver type, a slow channel only blocks its own threads
+         */
+        private int threadsPerType = 4;
+
+        /**
+         * Receivers of each receiver type waiting for a delivery thread, a receiver waits once however many
+         * notifications it has pending
+         */
+        private int queueCapacity = 1000;
+
+        /**
+         * Pending notifications of one receiver sent in order, the notifications are dropped when it is full
+         */
+        private int receiverQueueCapacity = 100;
+
+        /**
+         * Max notifications per second sent to one receiver, 0 means no limit
+         */
+        private double receiverRateLimit = 5;
+
+        /**
+         * Max retry times after the first failed send
+         */
+        private int maxRetries = 2;
+
+        /**
+         * The first retry delay milliseconds, doubled on every retry
+         */
+        private long retryBackoff = 1000;
+
+        /**
+         * Consecutive failures of a receiver to open its circuit breaker
+         */
+        private int breakerFailureThreshold = 5;
+
+        /**
+         * Seconds the circuit breaker stays open before a trial send
+         */
+        private int breakerOpenSeconds = 30;
+
+        /**
+         * Aggregation window milliseconds of one receiver, also the max latency of a folded alert, 0 means no digest
+         */
+        private long digestWindow = 30000;
+
+        /**
+         * Notifications sent one by one to a receiver in a window, the later alerts are folded into one digest
+         */
+        private int digestThreshold = 5;
+
+        /**
+         * Max sample alerts listed in a digest, the highest priority and the latest first
+         */
+        private int digestSamples = 5;
+    }
+
+    /**
+     * Alarm write-behind store properties
+     */
+    @Getter
+    @Setter
+    public static class StoreProperties {
+
+        /**
+         * Max alerts saved in one batch insert
+         */
+        private int batchSize = 200;
+
+        /**
+         * Max milliseconds an alert waits in the buffer before flushed
+         */
+        private long flushInterval = 500;
+
+        /**
+         * Buffer capacity, the dispatcher waits when the buffer is full
+         */
+        private int queueCapacity = 10000;
+
+        /**
+         * Wait for the batch flushed before the alert is acknowledged and notified
+         */
+        private boolean durable = false;
+
+        /**
+         * Max milliseconds to wait for the flush in durable mode
+         */
+        private long durableTimeout = 5000;
+    }
+
+    /**
+     * Alarm summary counters and history retention properties
+     */
+    @Getter
+    @Setter
+    public static class RetentionProperties {
+
+        /**
+         * Seconds between the reconciliations of the in-memory summary counters against the database
+         */
+        private int reconcileInterval = 600;
+
+        /**
+         * Whether delete the alerts created before the retention days
+         */
+        private boolean enabled = false;
+
+        /**
+         * Days the alerts are retained
+         */
+        private int days = 90;
+
+        /**
+         * Max alerts deleted in one batch, each batch is a short transaction
+         */
+        private int batchSize = 1000;
+
+        /**
+         * Minutes between the retention runs
+         */
+        private int interval = 60;
+    }
+
+    /**
+     * Alarm converge state properties
+     */
+    @Getter
+    @Setter
+    public static class ConvergeProperties {
+
+        /**
+         * Max converging alert fingerprints kept in memory, the soonest expiring ones are evicted beyond it
+         */
+        private int maxEntries = 100000;
+
+        /**
+         * Expiry time wheel tick milliseconds, the converge state expires within one tick after its eval interval
+         */
+        private long tick = 1000;
+
+        /**
+         * Expiry time wheel slot size
+         */
+        private int wheelSize = 512;
+    }
+
+    /**
+     * External alarm report ingest properties
+     */
+    @Getter
+    @Setter
+    public static class ReportProperties {
+
+        /**
+         * Max reports waiting for the reduce, the batch reports beyond it are rejected
+         */
+        private int queueCapacity = 10000;
+
+        /**
+         * Threads reducing the queued reports
+         */
+        private int threads = 2;
+
+        /**
+         * Max reports in one batch request
+         */
+        private int maxBatchSize = 1000;
+    }
+
     /**
      * Data entry configuration properties
      */
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.alert.calculate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.hertzbeat.alert.service.AlertDefineService;
+import org.dromara.hertzbeat.common.entity.alerter.AlertDefine;
+import org.dromara.hertzbeat.common.support.event.AlertDefineChangeEvent;
+import org.dromara.hertzbeat.common.support.event.MonitorDeletedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Versioned in-memory index of the alert defines bound to (monitorId, app, metrics)
+ * 告警计算使用的告警定义缓存, 告警定义或关联关系变更时通过事件失效
+ * @author tom
+ */
+@Component
+@Slf4j
+public class AlertDefineCache implements MeterBinder {
+
+    private static final long MAX_CACHE_SIZE = 200_000L;
+
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofMinutes(30);
+
+    private final AlertDefineService alertDefineService;
+
+    /**
+     * Incremented on every define or bind change, entries loaded under an older version are treated as miss
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * key - monitorId:app:metrics  value - field - define[]
+     */
+    private final Cache<String, VersionedEntry<Map<String, List<AlertDefine>>>> defineCache;
+
+    /**
+     * key - monitorId:app:metrics  value - availability define, value is null when no define bound
+     */
+    private final Cache<String, VersionedEntry<AlertDefine>> avaDefineCache;
+
+    /**
+     * key - alertDefineId  value - compiled rule of the define expr
+     */
+    private final Map<Long, CompiledAlertRule> compiledRuleMap = new ConcurrentHashMap<>(64);
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder invalidateCount = new LongAdder();
+
+    public AlertDefineCache(AlertDefineService alertDefineService) {
+        this.alertDefineService = alertDefineService;
+        this.defineCache = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHE_SIZE)
+                .expireAfterWrite(EXPIRE_AFTER_WRITE)
+                .build();
+        this.avaDefineCache = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHE_SIZE)
+                .expireAfterWrite(EXPIRE_AFTER_WRITE)
+                .build();
+    }
+
+    /**
+     * Query the alarm definitions that match the specified metrics associated with the monitoring ID
+     * @param monitorId Monitor the ID
+     * @param app Monitoring type
+     * @param metrics metrics
+     * @return field - define[]
+     */
+    public Map<String, List<AlertDefine>> getMonitorBindAlertDefines(long monitorId, String app, String metrics) {
+        String key = buildKey(monitorId, app, metrics);
+        long currentVersion = version.get();
+        VersionedEntry<Map<String, List<AlertDefine>>> entry = defineCache.getIfPresent(key);
+        if (entry != null && entry.version == currentVersion) {
+            hitCount.increment();
+            return entry.value;
+        }
+        missCount.increment();
+        Map<String, List<AlertDefine>> defineMap = alertDefineService.getMonitorBindAlertDefines(monitorId, app, metrics);
+        defineMap = defineMap == null || defineMap.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(defineMap);
+        if (currentVersion == version.get()) {
+            defineCache.put(key, new VersionedEntry<>(currentVersion, defineMap));
+        }
+        return defineMap;
+    }
+
+    /**
+     * Query the availability alarm definition associated with the monitoring ID
+     * @param monitorId Monitor the ID
+     * @param app Monitoring type
+     * @param metrics metrics
+     * @return availability define, null when not exist
+     */
+    public AlertDefine getMonitorBindAlertAvaDefine(long monitorId, String app, String metrics) {
+        String key = buildKey(monitorId, app, metrics);
+        long currentVersion = version.get();
+        VersionedEntry<AlertDefine> entry = avaDefineCache.getIfPresent(key);
+        if (entry != null && entry.version == currentVersion) {
+            hitCount.increment();
+            return entry.value;
+        }
+        missCount.increment();
+        AlertDefine define = alertDefineService.getMonitorBindAlertAvaDefine(monitorId, app, metrics);
+        if (currentVersion == version.get()) {
+            avaDefineCache.put(key, new VersionedEntry<>(currentVersion, define));
+        }
+        return define;
+    }
+
+    /**
+     * Get the compiled rule of the alert define, the expr is compiled only once until the define changed
+     * @param define alert define
+     * @return compiled rule
+     */
+    public CompiledAlertRule getCompiledRule(AlertDefine define) {
+        if (define.getId() == null) {
+            return CompiledAlertRule.compile(define);
+        }
+        CompiledAlertRule rule = compiledRuleMap.get(define.getId());
+        if (rule != null && Objects.equals(rule.getDefine().getExpr(), define.getExpr())) {
+            return rule;
+        }
+        rule = CompiledAlertRule.compile(define);
+        compiledRuleMap.put(define.getId(), rule);
+        return rule;
+    }
+
+    /**
+     * Invalidate all cached defines
+     */
+    public void invalidateAll() {
+        version.incrementAndGet();
+        invalidateCount.increment();
+        defineCache.invalidateAll();
+        avaDefineCache.invalidateAll();
+        compiledRuleMap.clear();
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public double getHitRate() {
+        long hits = hitCount.sum();
+        long total = hits + missCount.sum();
+        return total == 0 ? 0d : (double) hits / total;
+    }
+
+    @TransactionalEventListener(value = AlertDefineChangeEvent.class, fallbackExecution = true)
+    public void onAlertDefineChangeEvent(AlertDefineChangeEvent event) {
+        log.debug("alert define cache receive define change event, invalidate all.");
+        invalidateAll();
+    }
+
+    @EventListener(MonitorDeletedEvent.class)
+    public void onMonitorDeletedEvent(MonitorDeletedEvent event) {
+        String prefix = event.getMonitorId() + ":";
+        defineCache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        avaDefineCache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("hertzbeat.alerter.define.cache.hits", hitCount, LongAdder::sum)
+                .description("alert define cache hit count")
+                .register(registry);
+        FunctionCounter.builder("hertzbeat.alerter.define.cache.misses", missCount, LongAdder::sum)
+                .description("alert define cache miss count")
+                .register(registry);
+        FunctionCounter.builder("hertzbeat.alerter.define.cache.invalidations", invalidateCount, LongAdder::sum)
+                .description("alert define cache invalidate count")
+                .register(registry);
+        Gauge.builder("hertzbeat.alerter.define.cache.hit.rate", this, AlertDefineCache::getHitRate)
+                .description("alert define cache hit rate")
+                .register(registry);
+        Gauge.builder("hertzbeat.alerter.define.cache.size", this,
+                        cache -> cache.defineCache.estimatedSize() + cache.avaDefineCache.estimatedSize())
+                .description("alert define cache entry size")
+                .register(registry);
+        Gauge.builder("hertzbeat.alerter.define.compiled.size", compiledRuleMap, Map::size)
+                .description("alert define compiled rule size")
+                .register(registry);
+    }
+
+    private static String buildKey(long monitorId, String app, String metrics) {
+        return monitorId + ":" + app + ":" + metrics;
+    }
+
+    private static final class VersionedEntry<T> {
+        private final long version;
+        private final T value;
+
+        private VersionedEntry(long version, T value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.alert.calculate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.hertzbeat.common.entity.alerter.Alert;
+import org.dromara.hertzbeat.common.util.JsonUtil;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local disk snapshot and write-ahead log of the alert state of one calculate shard.
+ * Both files are json lines of {@link StateRecord}, the snapshot holds the full state and the wal holds the changes after it.
+ * 告警计算分片状态的本地快照与预写日志
+ * @author tom
+ */
+@Slf4j
+class AlertStateJournal implements Closeable {
+
+    static final String MAP_TRIGGERED = "T";
+
+    static final String MAP_NOT_RECOVERED = "N";
+
+    static final String OP_PUT = "P";
+
+    static final String OP_REMOVE = "R";
+
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    private static final String WAL_SUFFIX = ".wal";
+
+    private static final String FILE_PREFIX = "shard-";
+
+    private final Path snapshotFile;
+
+    private final Path walFile;
+
+    private BufferedWriter walWriter;
+
+    private boolean dirty;
+
+    AlertStateJournal(Path dir, int shardIndex) throws IOException {
+        Files.createDirectories(dir);
+        this.snapshotFile = dir.resolve(FILE_PREFIX + shardIndex + SNAPSHOT_SUFFIX);
+        this.walFile = dir.resolve(FILE_PREFIX + shardIndex + WAL_SUFFIX);
+    }
+
+    /**
+     * append a put record to the wal
+     * @param map map type
+     * @param key alert key
+     * @param alert alert state
+     */
+    void appendPut(String map, String key, Alert alert) {
+        append(new StateRecord(OP_PUT, map, key, alert));
+    }
+
+    /**
+     * append a remove record to the wal
+     * @param map map type
+     * @param key alert key
+     */
+    void appendRemove(String map, String key) {
+        append(new StateRecord(OP_REMOVE, map, key, null));
+    }
+
+    /**
+     * flush the appended records to the file
+     */
+    void flush() {
+        if (!dirty || walWriter == null) {
+            return;
+        }
+        try {
+            walWriter.flush();
+            dirty = false;
+        } catch (IOException e) {
+            log.error("flush alert state wal {} error: {}.", walFile, e.getMessage());
+        }
+    }
+
+    /**
+     * write the full state into a new snapshot and truncate the wal
+     * @param triggeredAlertMap triggered alert state
+     * @param notRecoveredAlertMap not recovered alert state
+     * @return the record count of the snapshot
+     * @throws IOException write error
+     */
+    int snapshot(Map<String, Alert> triggeredAlertMap, Map<String, Alert> notRecoveredAlertMap) throws IOException {
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        int count = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Alert> entry : triggeredAlertMap.entrySet()) {
+                writeRecord(writer, new StateRecord(OP_PUT, MAP_TRIGGERED, entry.getKey(), entry.getValue()));
+                count++;
+            }
+            for (Map.Entry<String, Alert> entry : notRecoveredAlertMap.entrySet()) {
+                writeRecord(writer, new StateRecord(OP_PUT, MAP_NOT_RECOVERED, entry.getKey(), entry.getValue()));
+                count++;
+            }
+        }
+        Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (walWriter != null) {
+            walWriter.close();
+        }
+        walWriter = Files.newBufferedWriter(walFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        dirty = false;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (walWriter != null) {
+            walWriter.close();
+            walWriter = null;
+        }
+    }
+
+    private void append(StateRecord record) {
+        try {
+            if (walWriter == null) {
+                walWriter = Files.newBufferedWriter(walFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+            }
+            writeRecord(walWriter, record);
+            dirty = true;
+        } catch (IOException e) {
+            log.error("append alert state wal {} error: {}.", walFile, e.getMessage());
+        }
+    }
+
+    private static void writeRecord(BufferedWriter writer, StateRecord record) throws IOException {
+        String line = JsonUtil.toJson(record);
+        if (line != null) {
+            writer.write(line);
+            writer.newLine();
+        }
+    }
+
+    /**
+     * read all the shard snapshots and wal in the dir, the records of each shard are returned in apply order:
+     * the snapshot first and then the wal
+     * @param dir state dir
+     * @return records
+     */
+    static List<StateRecord> readAll(Path dir) {
+        List<StateRecord> records = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return records;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, FILE_PREFIX + "*" + SNAPSHOT_SUFFIX)) {
+            for (Path snapshot : stream) {
+                readFile(snapshot, records);
+                String name = snapshot.getFileName().toString();
+                readFile(snapshot.resolveSibling(name.substring(0, name.length() - SNAPSHOT_SUFFIX.length()) + WAL_SUFFIX), records);
+            }
+        } catch (IOException e) {
+            log.error("read alert state dir {} error: {}.", dir, e.getMessage());
+        }
+        // wal without snapshot, the shard crashed before the first snapshot
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, FILE_PREFIX + "*" + WAL_SUFFIX)) {
+            for (Path wal : stream) {
+                String name = wal.getFileName().toString();
+                Path snapshot = wal.resolveSibling(name.substring(0, name.length() - WAL_SUFFIX.length()) + SNAPSHOT_SUFFIX);
+                if (!Files.exists(snapshot)) {
+                    readFile(wal, records);
+                }
+            }
+        } catch (IOException e) {
+            log.error("read alert state dir {} error: {}.", dir, e.getMessage());
+        }
+        return records;
+    }
+
+    private static void readFile(Path file, List<StateRecord> records) {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                // the last line may be partially written when the process crashed, skip it
+                StateRecord record = JsonUtil.fromJson(line, StateRecord.class);
+                if (record != null && record.getKey() != null) {
+                    records.add(record);
+                }
+            }
+        } catch (IOException e) {
+            log.error("read alert state file {} error: {}.", file, e.getMessage());
+        }
+    }
+
+    /**
+     * one alert state change
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class StateRecord {
+
+        /**
+         * P - put, R - remove
+         */
+        private String op;
+
+        /**
+         * T - triggered alert map, N - not recovered alert map
+         */
+        private String map;
+
+        private String key;
+
+        private Alert alert;
+    }
+}
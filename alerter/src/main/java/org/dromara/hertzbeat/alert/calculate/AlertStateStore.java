@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.alert.calculate;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.hertzbeat.alert.AlerterProperties;
+import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.dromara.hertzbeat.common.entity.alerter.Alert;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+/**
+ * Persist and restore the alert state of the calculate shards with periodic snapshots and write-ahead log on local disk
+ * 告警计算状态的本地持久化, 周期快照加预写日志, 启动时快速恢复
+ * @author tom
+ */
+@Slf4j
+class AlertStateStore {
+
+    private static final String STATE_FILE_PATTERN = "shard-*";
+
+    private static final long STOP_WAIT_SECONDS = 5;
+
+    private final boolean enabled;
+
+    private final Path dir;
+
+    private final int snapshotInterval;
+
+    private final AtomicInteger lastSnapshotRecords = new AtomicInteger();
+
+    private ScheduledExecutorService snapshotExecutor;
+
+    private CalculateShard[] shards;
+
+    private volatile Timer snapshotTimer;
+
+    AlertStateStore(AlerterProperties.StateProperties properties) {
+        this.enabled = properties != null && properties.isEnabled();
+        this.dir = enabled ? Paths.get(properties.getPath()) : null;
+        this.snapshotInterval = enabled ? Math.max(properties.getSnapshotInterval(), 1) : 0;
+    }
+
+    /**
+     * create the calculate shards with their state journal
+     * @param shardNum shard num
+     * @return shards
+     */
+    CalculateShard[] createShards(int shardNum) {
+        CalculateShard[] created = new CalculateShard[shardNum];
+        for (int index = 0; index < shardNum; index++) {
+            AlertStateJournal journal = null;
+            if (enabled) {
+                try {
+                    journal = new AlertStateJournal(dir, index);
+                } catch (IOException e) {
+                    log.error("create alert state journal in {} error, state of shard {} will not be persisted: {}.",
+                            dir, index, e.getMessage());
+                }
+            }
+            created[index] = new CalculateShard(index, journal);
+        }
+        this.shards = created;
+        return created;
+    }
+
+    /**
+     * restore the state from the local snapshots and wal into the shards, must be called before the shard threads start
+     * @param shardRouter get the shard of the monitor id
+     */
+    void restore(LongFunction<CalculateShard> shardRouter) {
+        if (!enabled) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        List<AlertStateJournal.StateRecord> records = AlertStateJournal.readAll(dir);
+        Map<String, Alert> triggeredAlertMap = new LinkedHashMap<>(records.size());
+        Map<String, Alert> notRecoveredAlertMap = new LinkedHashMap<>(records.size());
+        for (AlertStateJournal.StateRecord record : records) {
+            Map<String, Alert> target = AlertStateJournal.MAP_TRIGGERED.equals(record.getMap())
+                    ? triggeredAlertMap : notRecoveredAlertMap;
+            if (AlertStateJournal.OP_PUT.equals(record.getOp()) && record.getAlert() != null) {
+                target.put(record.getKey(), record.getAlert());
+            } else {
+                target.remove(record.getKey());
+            }
+        }
+        int restored = 0;
+        restored += route(triggeredAlertMap, shardRouter, true);
+        restored += route(notRecoveredAlertMap, shardRouter, false);
+        log.info("restore {} alert states from {} records in {} ms.", restored, records.size(),
+                System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * write the startup snapshot of every shard and remove the state files of the shards no longer exist,
+     * then schedule the periodic snapshot. must be called before the shard threads start
+     */
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        for (CalculateShard shard : shards) {
+            snapshot(shard);
+        }
+        removeStaleShardFiles();
+        snapshotExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("alerter-state-snapshot-%d")
+                .build());
+        snapshotExecutor.scheduleWithFixedDelay(this::snapshotAll, snapshotInterval, snapshotInterval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * take the last snapshot in the shard threads and stop the periodic snapshot
+     */
+    void stop() {
+        if (!enabled || snapshotExecutor == null) {
+            return;
+        }
+        snapshotExecutor.shutdownNow();
+        CountDownLatch latch = new CountDownLatch(shards.length);
+        try {
+            for (CalculateShard shard : shards) {
+                shard.submit(current -> {
+                    snapshot(current);
+                    latch.countDown();
+                });
+            }
+            if (!latch.await(STOP_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("alert state last snapshot not finished in {} seconds.", STOP_WAIT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void bindTo(MeterRegistry registry) {
+        Gauge.builder("hertzbeat.alerter.state.size", this,
+                        store -> store.shards == null ? 0 : Arrays.stream(store.shards).mapToInt(CalculateShard::getStateSize).sum())
+                .description("alarm calculate triggered and not recovered alert state size")
+                .register(registry);
+        Gauge.builder("hertzbeat.alerter.state.snapshot.records", lastSnapshotRecords, AtomicInteger::get)
+                .description("alarm calculate state record size of the last snapshot")
+                .register(registry);
+        this.snapshotTimer = Timer.builder("hertzbeat.alerter.state.snapshot")
+                .description("alarm calculate state snapshot duration")
+                .register(registry);
+    }
+
+    private void snapshotAll() {
+        for (CalculateShard shard : shards) {
+            try {
+                shard.submit(this::snapshot);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void snapshot(CalculateShard shard) {
+        long startTime = System.nanoTime();
+        try {
+            int records = shard.snapshot();
+            if (records >= 0) {
+                lastSnapshotRecords.set(records);
+            }
+        } catch (IOException e) {
+            log.error("snapshot alert state of shard {} error: {}.", shard.getIndex(), e.getMessage());
+        } finally {
+            Timer timer = this.snapshotTimer;
+            if (timer != null) {
+                timer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private int route(Map<String, Alert> alertMap, LongFunction<CalculateShard> shardRouter, boolean triggered) {
+        int count = 0;
+        for (Map.Entry<String, Alert> entry : alertMap.entrySet()) {
+            Map<String, String> tags = entry.getValue().getTags();
+            String monitorId = tags == null ? null : tags.get(CommonConstants.TAG_MONITOR_ID);
+            if (monitorId == null) {
+                continue;
+            }
+            try {
+                CalculateShard shard = shardRouter.apply(Long.parseLong(monitorId));
+                if (triggered) {
+                    shard.getTriggeredAlertMap().put(entry.getKey(), entry.getValue());
+                } else {
+                    shard.getNotRecoveredAlertMap().put(entry.getKey(), entry.getValue());
+                }
+                count++;
+            } catch (NumberFormatException ignored) {}
+        }
+        return count;
+    }
+
+    private void removeStaleShardFiles() {
+        try (var stream = Files.newDirectoryStream(dir, STATE_FILE_PATTERN)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                String index = name.substring(STATE_FILE_PATTERN.length() - 1, name.indexOf('.'));
+                try {
+                    if (Integer.parseInt(index) >= shards.length) {
+                        Files.deleteIfExists(file);
+                    }
+                } catch (NumberFormatException ignored) {}
+            }
+        } catch (IOException e) {
+            log.error("remove stale alert state files in {} error: {}.", dir, e.getMessage());
+        }
+    }
+}
@@ -17,17 +17,17 @@
 
 package org.dromara.hertzbeat.alert.calculate;
 
-import com.googlecode.aviator.AviatorEvaluator;
-import com.googlecode.aviator.Expression;
-import com.googlecode.aviator.exception.CompileExpressionErrorException;
-import com.googlecode.aviator.exception.ExpressionRuntimeException;
-import com.googlecode.aviator.exception.ExpressionSyntaxErrorException;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.dromara.hertzbeat.alert.AlerterProperties;
 import org.dromara.hertzbeat.alert.AlerterWorkerPool;
 import org.dromara.hertzbeat.alert.dao.AlertMonitorDao;
 import org.dromara.hertzbeat.alert.reduce.AlarmCommonReduce;
-import org.dromara.hertzbeat.alert.service.AlertDefineService;
 import org.dromara.hertzbeat.alert.service.AlertService;
 import org.dromara.hertzbeat.alert.util.AlertTemplateUtil;
 import org.dromara.hertzbeat.common.constants.CommonConstants;
@@ -39,8 +39,9 @@ import org.dromara.hertzbeat.common.entity.message.CollectRep;
 import org.dromara.hertzbeat.common.queue.CommonDataQueue;
 import org.dromara.hertzbeat.common.support.event.MonitorDeletedEvent;
 import org.dromara.hertzbeat.common.support.event.SystemConfigChangeEvent;
-import org.dromara.hertzbeat.common.util.CommonUtil;
 import org.dromara.hertzbeat.common.util.ResourceBundleUtil;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.context.event.EventListener;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
@@ -48,9 +49,10 @@ import org.springframework.util.CollectionUtils;
 
 import javax.persistence.criteria.Predicate;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
 import java.util.stream.Collectors;
 
+import static org.dromara.hertzbeat.alert.calculate.CompiledAlertRule.SYSTEM_VALUE_ROW_COUNT;
 import static org.dromara.hertzbeat.common.constants.CommonConstants.*;
 
 /**
@@ -59,40 +61,53 @@ import static org.dromara.hertzbeat.common.constants.CommonConstants.*;
  */
 @Component
 @Slf4j
-public class CalculateAlarm {
+public class CalculateAlarm implements MeterBinder, SmartInitializingSingleton, DisposableBean {
 
-    private static final String SYSTEM_VALUE_ROW_COUNT = "system_value_row_count";
+    private static final long DROP_WARN_INTERVAL_MILLIS = 10_000L;
 
     /**
-     * The alarm in the process is triggered
-     * 触发中告警信息
-     * key - monitorId+alertDefineId+tags 为普通阈值告警 ｜ The alarm is a common threshold alarm
-     * key - monitorId 为任务状态可用性可达性告警 ｜ Indicates the monitoring status availability reachability alarm
+     * Single thread calculate shards, frames are routed to the shard by monitor id
+     * 告警计算分片, 数据帧按监控ID路由到固定分片单线程计算
      */
-    private final Map<String, Alert>  triggeredAlertMap;
+    private final CalculateShard[] shards;
     /**
-     * The not recover alert
-     * key - monitorId + alertDefineId + tags
+     * the last time the dropped frames are warned, only accessed by the dispatcher thread
      */
-    private final Map<String, Alert> notRecoveredAlertMap;
+    private long lastDropWarnTime;
+    /**
+     * Local disk persistence of the shard alert state, restored on startup
+     * 告警计算状态本地持久化, 重启时恢复
+     */
+    private final AlertStateStore stateStore;
     private final AlerterWorkerPool workerPool;
     private final CommonDataQueue dataQueue;
-    private final AlertDefineService alertDefineService;
+    private final AlertDefineCache alertDefineCache;
     private final AlarmCommonReduce alarmCommonReduce;
     private ResourceBundle bundle;
     private final AlertService alertService;
+    private final AlertMonitorDao monitorDao;
 
     public CalculateAlarm(AlerterWorkerPool workerPool, CommonDataQueue dataQueue,
-                          AlertDefineService alertDefineService, AlertMonitorDao monitorDao,
-                          AlarmCommonReduce alarmCommonReduce, AlertService alertService) {
+                          AlertDefineCache alertDefineCache, AlertMonitorDao monitorDao,
+                          AlarmCommonReduce alarmCommonReduce, AlertService alertService,
+                          AlerterProperties alerterProperties) {
         this.workerPool = workerPool;
         this.dataQueue = dataQueue;
         this.alarmCommonReduce = alarmCommonReduce;
-        this.alertDefineService = alertDefineService;
+        this.alertDefineCache = alertDefineCache;
         this.alertService = alertService;
+        this.monitorDao = monitorDao;
         this.bundle = ResourceBundleUtil.getBundle("alerter");
-        this.triggeredAlertMap = new ConcurrentHashMap<>(16);
-        this.notRecoveredAlertMap = new ConcurrentHashMap<>(16);
+        int shardNum = alerterProperties.getCalculateThreads() > 0
+                ? alerterProperties.getCalculateThreads() : Runtime.getRuntime().availableProcessors();
+        this.stateStore = new AlertStateStore(alerterProperties.getState());
+        this.shards = stateStore.createShards(shardNum);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Restore the alert state persisted before restart
+        stateStore.restore(this::shardOf);
         // Initialize stateAlertMap
         List<Monitor> monitors = monitorDao.findMonitorsByStatus(CommonConstants.UN_AVAILABLE_CODE);
         if (monitors != null) {
@@ -101,20 +116,45 @@ public class CalculateAlarm {
                 tags.put(TAG_MONITOR_ID, String.valueOf(monitor.getId()));
                 tags.put(TAG_MONITOR_NAME, monitor.getName());
                 tags.put(TAG_MONITOR_APP, monitor.getApp());
-                this.notRecoveredAlertMap.put(monitor.getId() + CommonConstants.AVAILABILITY,
+                shardOf(monitor.getId()).getNotRecoveredAlertMap().putIfAbsent(monitor.getId() + CommonConstants.AVAILABILITY,
                         Alert.builder().tags(tags).target(AVAILABILITY).status(ALERT_STATUS_CODE_PENDING).build());
             }
         }
+        stateStore.start();
         startCalculate();
     }
 
+    @Override
+    public void destroy() {
+        stateStore.stop();
+    }
+
     private void startCalculate() {
-        Runnable runnable = () -> {
+        ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setUncaughtExceptionHandler((thread, throwable) -> {
+                    log.error("calculate shard has uncaughtException.");
+                    log.error(throwable.getMessage(), throwable);
+                })
+                .setDaemon(true)
+                .setNameFormat("alerter-calculate-shard-%d")
+                .build();
+        for (CalculateShard shard : shards) {
+            threadFactory.newThread(shard).start();
+        }
+        // Route the frames to the shards, frames of the same monitor are calculated in order by one thread
+        Runnable dispatcher = () -> {
             while (!Thread.currentThread().isInterrupted()) {
                 try {
                     CollectRep.MetricsData metricsData = dataQueue.pollMetricsDataToAlerter();
-                    if (metricsData != null) {
-                        calculate(metricsData);
+                    if (metricsData == null) {
+                        continue;
+                    }
+                    CalculateShard target = shardOf(metricsData.getId());
+                    if (metricsData.getPriority() == 0) {
+                        // the availability frames carry the one-off state transitions, wait for the shard instead of dropping
+                        target.submit(shard -> calculate(shard, metricsData));
+                    } else if (!target.offer(shard -> calculate(shard, metricsData))) {
+                        warnDropped(target);
                     }
                 } catch (InterruptedException ignored) {
 
@@ -123,12 +163,30 @@ public class CalculateAlarm {
                 }
             }
         };
-        workerPool.executeJob(runnable);
-        workerPool.executeJob(runnable);
-        workerPool.executeJob(runnable);
+        workerPool.executeJob(dispatcher);
+    }
+
+    /**
+     * the threshold frames are shed when the shard is full, warn at most once per interval
+     */
+    private void warnDropped(CalculateShard shard) {
+        long now = System.currentTimeMillis();
+        if (now - lastDropWarnTime < DROP_WARN_INTERVAL_MILLIS) {
+            return;
+        }
+        lastDropWarnTime = now;
+        long dropped = 0;
+        for (CalculateShard item : shards) {
+            dropped += item.getDroppedCount();
+        }
+        log.warn("calculate shard {} is full, the threshold frames are dropped, {} dropped in total.", shard.getIndex(), dropped);
     }
 
-    private void calculate(CollectRep.MetricsData metricsData) {
+    private CalculateShard shardOf(long monitorId) {
+        return shards[(int) Math.floorMod(monitorId, (long) shards.length)];
+    }
+
+    private void calculate(CalculateShard shard, CollectRep.MetricsData metricsData) {
         long currentTimeMilli = System.currentTimeMillis();
         long monitorId = metricsData.getId();
         String app = metricsData.getApp();
@@ -139,17 +197,17 @@ public class CalculateAlarm {
         // If the metrics whose scheduling priority is 0 has the status of collecting response data UN_REACHABLE/UN_CONNECTABLE,
         // the highest severity alarm is generated to monitor the status change
         if (metricsData.getPriority() == 0) {
-            handlerAvailableMetrics(monitorId, app, metricsData);
+            handlerAvailableMetrics(shard, monitorId, app, metricsData);
         }
         // Query the alarm definitions associated with the metrics of the monitoring type
         // field - define[]
-        Map<String, List<AlertDefine>> defineMap = alertDefineService.getMonitorBindAlertDefines(monitorId, app, metrics);
+        Map<String, List<AlertDefine>> defineMap = alertDefineCache.getMonitorBindAlertDefines(monitorId, app, metrics);
         if (defineMap.isEmpty()) {
             return;
         }
-        List<CollectRep.Field> fields = metricsData.getFieldsList();
-        Map<String, Object> fieldValueMap = new HashMap<>(8);
-        int valueRowCount = metricsData.getValuesCount();
+        // Decode the frame columns once, shared by all the bound rules
+        MetricsFrame frame = new MetricsFrame(metricsData);
+        int valueRowCount = frame.getRowCount();
         for (Map.Entry<String, List<AlertDefine>> entry : defineMap.entrySet()) {
             List<AlertDefine> defines = entry.getValue();
             for (AlertDefine define : defines) {
@@ -157,22 +215,27 @@ public class CalculateAlarm {
                 if (StringUtils.isBlank(expr)) {
                     continue;
                 }
-                if (expr.contains(SYSTEM_VALUE_ROW_COUNT) && metricsData.getValuesCount() == 0) {
-                    fieldValueMap.put(SYSTEM_VALUE_ROW_COUNT, valueRowCount);
+                CompiledAlertRule rule = alertDefineCache.getCompiledRule(define);
+                if (!rule.isEvaluable()) {
+                    continue;
+                }
+                if (rule.isRowCountRule() && valueRowCount == 0) {
                     try {
-                        boolean match = execAlertExpression(fieldValueMap, expr);
+                        boolean match = rule.evaluateRowCount(valueRowCount);
                         try {
                             if (match) {
                                 // If the threshold rule matches, the number of times the threshold has been triggered is determined and an alarm is triggered
                                 // 阈值规则匹配，判断已触发阈值次数，触发告警
-                                afterThresholdRuleMatch(currentTimeMilli, monitorId, app, metrics, "", fieldValueMap, define);
+                                Map<String, Object> fieldValueMap = new HashMap<>(8);
+                                fieldValueMap.put(SYSTEM_VALUE_ROW_COUNT, valueRowCount);
+                                afterThresholdRuleMatch(shard, currentTimeMilli, monitorId, app, metrics, "", fieldValueMap, define);
                                 // 若此阈值已被触发，则其它数据行的触发忽略
                                 continue;
                             } else {
                                 String alarmKey = String.valueOf(monitorId) + define.getId();
-                                triggeredAlertMap.remove(alarmKey);
+                                shard.removeTriggered(alarmKey);
                                 if (define.isRecoverNotice()) {
-                                    handleRecoveredAlert(currentTimeMilli, define, expr, alarmKey);
+                                    handleRecoveredAlert(shard, currentTimeMilli, define, expr, alarmKey);
                                 }
                             }
                         } catch (Exception e) {
@@ -180,57 +243,26 @@ public class CalculateAlarm {
                         }
                     } catch (Exception ignored) {} 
                 }
-                for (CollectRep.ValueRow valueRow : metricsData.getValuesList()) {
-
-                    if (CollectionUtils.isEmpty(valueRow.getColumnsList())) {
+                for (int row = 0; row < valueRowCount; row++) {
+                    if (!frame.hasColumns(row)) {
                         continue;
                     }
-                    fieldValueMap.clear();
-                    fieldValueMap.put(SYSTEM_VALUE_ROW_COUNT, valueRowCount);
-                    StringBuilder tagBuilder = new StringBuilder();
-                    for (int index = 0; index < valueRow.getColumnsList().size(); index++) {
-                        String valueStr = valueRow.getColumns(index);
-                        if (CommonConstants.NULL_VALUE.equals(valueStr)) {
-                            continue;
-                        }
-
-                        final CollectRep.Field field = fields.get(index);
-                        final int fieldType = field.getType();
-
-                        if (fieldType == CommonConstants.TYPE_NUMBER) {
-                            final Double doubleValue;
-                            if ((doubleValue = CommonUtil.parseStrDouble(valueStr)) != null) {
-                                fieldValueMap.put(field.getName(), doubleValue);
-                            }
-                        } else if (fieldType == CommonConstants.TYPE_TIME) {
-                            final Integer integerValue;
-                            if ((integerValue = CommonUtil.parseStrInteger(valueStr)) != null) {
-                                fieldValueMap.put(field.getName(), integerValue);
-                            }
-                        } else {
-                            if (StringUtils.isNotEmpty(valueStr)) {
-                                fieldValueMap.put(field.getName(), valueStr);
-                            }
-                        }
-
-                        if (field.getLabel()) {
-                            tagBuilder.append("-").append(valueStr);
-                        }
-                    }
+                    String tagStr = frame.labelKey(row);
                     try {
-                        boolean match = execAlertExpression(fieldValueMap, expr);
+                        boolean match = rule.evaluate(frame, row);
                         try {
                             if (match) {
                                 // If the threshold rule matches, the number of times the threshold has been triggered is determined and an alarm is triggered
                                 // 阈值规则匹配，判断已触发阈值次数，触发告警
-                                afterThresholdRuleMatch(currentTimeMilli, monitorId, app, metrics, tagBuilder.toString(), fieldValueMap, define);
+                                Map<String, Object> fieldValueMap = frame.fieldValueMap(row);
+                                afterThresholdRuleMatch(shard, currentTimeMilli, monitorId, app, metrics, tagStr, fieldValueMap, define);
                                 // 若此阈值已被触发，则其它数据行的触发忽略
                                 break;
                             } else {
-                                String alarmKey = String.valueOf(monitorId) + define.getId() + tagBuilder;
-                                triggeredAlertMap.remove(alarmKey);
+                                String alarmKey = String.valueOf(monitorId) + define.getId() + tagStr;
+                                shard.removeTriggered(alarmKey);
                                 if (define.isRecoverNotice()) {
-                                    handleRecoveredAlert(currentTimeMilli, define, expr, alarmKey);
+                                    handleRecoveredAlert(shard, currentTimeMilli, define, expr, alarmKey);
                                 }
                             }   
                         } catch (Exception e) {
@@ -242,8 +274,8 @@ public class CalculateAlarm {
         }
     }
 
-    private void handleRecoveredAlert(long currentTimeMilli, AlertDefine define, String expr, String alarmKey) {
-        Alert notResolvedAlert = notRecoveredAlertMap.remove(alarmKey);
+    private void handleRecoveredAlert(CalculateShard shard, long currentTimeMilli, AlertDefine define, String expr, String alarmKey) {
+        Alert notResolvedAlert = shard.removeNotRecovered(alarmKey);
         if (notResolvedAlert != null) {
             // Sending an alarm Restore
             Map<String, String> tags = notResolvedAlert.getTags();
@@ -262,10 +294,10 @@ public class CalculateAlarm {
         }
     }
 
-    private void afterThresholdRuleMatch(long currentTimeMilli, long monitorId, String app, String metrics, String tagStr, 
+    private void afterThresholdRuleMatch(CalculateShard shard, long currentTimeMilli, long monitorId, String app, String metrics, String tagStr, 
                                          Map<String, Object> fieldValueMap, AlertDefine define) {
         String alarmKey = String.valueOf(monitorId) + define.getId() + tagStr;
-        Alert triggeredAlert = triggeredAlertMap.get(alarmKey);
+        Alert triggeredAlert = shard.getTriggered(alarmKey);
         if (triggeredAlert != null) {
             int times = triggeredAlert.getTriggerTimes() + 1;
             triggeredAlert.setTriggerTimes(times);
@@ -274,9 +306,11 @@ public class CalculateAlarm {
             int defineTimes = define.getTimes() == null ? 1 : define.getTimes();
             if (times >= defineTimes) {
                 triggeredAlert.setStatus(ALERT_STATUS_CODE_PENDING);
-                triggeredAlertMap.remove(alarmKey);
-                notRecoveredAlertMap.put(alarmKey, triggeredAlert);
+                shard.removeTriggered(alarmKey);
+                shard.putNotRecovered(alarmKey, triggeredAlert);
                 alarmCommonReduce.reduceAndSendAlarm(triggeredAlert.clone());
+            } else {
+                shard.putTriggered(alarmKey, triggeredAlert);
             }
         } else {
             fieldValueMap.put(TAG_MONITOR_APP, app);
@@ -306,50 +340,25 @@ public class CalculateAlarm {
             int defineTimes = define.getTimes() == null ? 1 : define.getTimes();
             if (1 >= defineTimes) {
                 alert.setStatus(ALERT_STATUS_CODE_PENDING);
-                notRecoveredAlertMap.put(alarmKey, alert);
+                shard.putNotRecovered(alarmKey, alert);
                 alarmCommonReduce.reduceAndSendAlarm(alert.clone());
             } else {
-                triggeredAlertMap.put(alarmKey, alert);
+                shard.putTriggered(alarmKey, alert);
             }
         }
     }
 
-    private boolean execAlertExpression(Map<String, Object> fieldValueMap, String expr) {
-        Boolean match;
-        try {
-            Expression expression = AviatorEvaluator.compile(expr, true);
-            expression.getVariableNames().forEach(variable -> {
-                if (!fieldValueMap.containsKey(variable)) {
-                    throw new ExpressionRuntimeException("metrics value not contains expr field: " + variable);
-                }
-            });
-            match = (Boolean) expression.execute(fieldValueMap);
-        } catch (CompileExpressionErrorException |
-                 ExpressionSyntaxErrorException compileException) {
-            log.error("Alert Define Rule: {} Compile Error: {}.", expr, compileException.getMessage());
-            throw compileException;
-        } catch (ExpressionRuntimeException expressionRuntimeException) {
-            log.error("Alert Define Rule: {} Run Error: {}.", expr, expressionRuntimeException.getMessage());
-            throw expressionRuntimeException;
-        } catch (Exception e) {
-            log.error("Alert Define Rule: {} Unknown Error: {}.", expr, e.getMessage());
-            throw e;
-        }
-        return match != null && match;
-    }
-
-    private void handlerAvailableMetrics(long monitorId, String app, CollectRep.MetricsData metricsData) {
+    private void handlerAvailableMetrics(CalculateShard shard, long monitorId, String app, CollectRep.MetricsData metricsData) {
         if (metricsData.getCode() == CollectRep.Code.TIMEOUT) {
             return;
         }
-        // TODO CACHE getMonitorBindAlertAvaDefine
-        AlertDefine avaAlertDefine = alertDefineService.getMonitorBindAlertAvaDefine(monitorId, app, CommonConstants.AVAILABILITY);
+        AlertDefine avaAlertDefine = alertDefineCache.getMonitorBindAlertAvaDefine(monitorId, app, CommonConstants.AVAILABILITY);
         if (avaAlertDefine == null) {
             return;
         }
         long currentTimeMill = System.currentTimeMillis();
         if (metricsData.getCode() != CollectRep.Code.SUCCESS ) {
-            Alert preAlert = triggeredAlertMap.get(String.valueOf(monitorId));
+            Alert preAlert = shard.getTriggered(String.valueOf(monitorId));
             Map<String, String> tags = new HashMap<>(6);
             tags.put(CommonConstants.TAG_MONITOR_ID, String.valueOf(monitorId));
             tags.put(CommonConstants.TAG_MONITOR_APP, app);
@@ -378,10 +387,10 @@ public class CalculateAlarm {
                 if (avaAlertDefine.getTimes() == null || avaAlertDefine.getTimes() <= 1) {
                     String notResolvedAlertKey = monitorId + CommonConstants.AVAILABILITY;
                     alertBuilder.status(ALERT_STATUS_CODE_PENDING);
-                    notRecoveredAlertMap.put(notResolvedAlertKey, alertBuilder.build());
+                    shard.putNotRecovered(notResolvedAlertKey, alertBuilder.build());
                     alarmCommonReduce.reduceAndSendAlarm(alertBuilder.build());
                 } else {
-                    triggeredAlertMap.put(String.valueOf(monitorId), alertBuilder.build());   
+                    shard.putTriggered(String.valueOf(monitorId), alertBuilder.build());   
                 }
             } else {
                 int times = preAlert.getTriggerTimes() + 1;
@@ -392,18 +401,20 @@ public class CalculateAlarm {
                 if (times >= defineTimes) {
                     preAlert.setStatus(ALERT_STATUS_CODE_PENDING);
                     String notResolvedAlertKey = monitorId + CommonConstants.AVAILABILITY;
-                    notRecoveredAlertMap.put(notResolvedAlertKey, preAlert.clone());
+                    shard.putNotRecovered(notResolvedAlertKey, preAlert.clone());
                     alarmCommonReduce.reduceAndSendAlarm(preAlert.clone());
-                    triggeredAlertMap.remove(String.valueOf(monitorId));
+                    shard.removeTriggered(String.valueOf(monitorId));
+                } else {
+                    shard.putTriggered(String.valueOf(monitorId), preAlert);
                 }
             }
         } else {
             // Check whether an availability or unreachable alarm is generated before the association monitoring
             // and send a clear alarm to clear the monitoring status
             // 判断关联监控之前是否有可用性或者不可达告警,发送恢复告警进行任务状态恢复
-            triggeredAlertMap.remove(String.valueOf(monitorId));
+            shard.removeTriggered(String.valueOf(monitorId));
             String notResolvedAlertKey = monitorId + CommonConstants.AVAILABILITY;
-            Alert notResolvedAlert = notRecoveredAlertMap.remove(notResolvedAlertKey);
+            Alert notResolvedAlert = shard.removeNotRecovered(notResolvedAlertKey);
             if (notResolvedAlert != null) {
                 // Sending an alarm Restore
                 Map<String, String> tags = notResolvedAlert.getTags();
@@ -464,6 +475,21 @@ public class CalculateAlarm {
         return alertService.getAlerts(specification);
     }
 
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (CalculateShard shard : shards) {
+            Gauge.builder("hertzbeat.alerter.calculate.shard.pending", shard, CalculateShard::getPendingTaskSize)
+                    .description("alarm calculate shard pending task size")
+                    .tag("shard", String.valueOf(shard.getIndex()))
+                    .register(registry);
+            FunctionCounter.builder("hertzbeat.alerter.calculate.shard.dropped", shard, CalculateShard::getDroppedCount)
+                    .description("alarm calculate frames dropped when the shard is full")
+                    .tag("shard", String.valueOf(shard.getIndex()))
+                    .register(registry);
+        }
+        stateStore.bindTo(registry);
+    }
+
     @EventListener(SystemConfigChangeEvent.class)
     public void onSystemConfigChangeEvent(SystemConfigChangeEvent event) {
         log.info("calculate alarm receive system config change event: {}.", event.getSource());
@@ -473,7 +499,12 @@ public class CalculateAlarm {
     @EventListener(MonitorDeletedEvent.class)
     public void onMonitorDeletedEvent(MonitorDeletedEvent event) {
         log.info("calculate alarm receive monitor {} has been deleted.", event.getMonitorId());
-        this.triggeredAlertMap.remove(String.valueOf(event.getMonitorId()));
+        String monitorKey = String.valueOf(event.getMonitorId());
+        try {
+            shardOf(event.getMonitorId()).submit(shard -> shard.removeTriggered(monitorKey));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
 }
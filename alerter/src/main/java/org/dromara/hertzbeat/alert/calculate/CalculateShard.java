@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.alert.calculate;
+
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.hertzbeat.common.entity.alerter.Alert;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Single thread alarm calculate shard, all the frames of a monitor are routed to the same shard in order.
+ * The alert state maps are only accessed by the shard thread, so no lock is needed.
+ * 单线程告警计算分片, 同一监控的数据帧按序路由到同一分片, 分片状态只由分片线程访问
+ * @author tom
+ */
+@Slf4j
+class CalculateShard implements Runnable {
+
+    private static final int MAX_PENDING_TASKS = 10_000;
+
+    private final int index;
+
+    /**
+     * The alarm in the process is triggered
+     * key - monitorId+alertDefineId+tags 为普通阈值告警 ｜ The alarm is a common threshold alarm
+     * key - monitorId 为任务状态可用性可达性告警 ｜ Indicates the monitoring status availability reachability alarm
+     */
+    private final Map<String, Alert> triggeredAlertMap = new HashMap<>(16);
+
+    /**
+     * The not recover alert
+     * key - monitorId + alertDefineId + tags
+     */
+    private final Map<String, Alert> notRecoveredAlertMap = new HashMap<>(16);
+
+    private final BlockingQueue<Consumer<CalculateShard>> taskQueue = new LinkedBlockingQueue<>(MAX_PENDING_TASKS);
+
+    /**
+     * threshold frame tasks dropped because the shard has too many pending tasks
+     */
+    private final LongAdder droppedCount = new LongAdder();
+
+    /**
+     * local disk state journal, null when the alert state persistence is disabled
+     */
+    private final AlertStateJournal journal;
+
+    CalculateShard(int index) {
+        this(index, null);
+    }
+
+    CalculateShard(int index, AlertStateJournal journal) {
+        this.index = index;
+        this.journal = journal;
+    }
+
+    /**
+     * offer the threshold frame task to the shard without blocking the caller, so a slow shard does not hold back
+     * the frames of the other shards
+     * @param task task run in the shard thread
+     * @return false and the task is dropped when the shard has too many pending tasks
+     */
+    boolean offer(Consumer<CalculateShard> task) {
+        if (taskQueue.offer(task)) {
+            return true;
+        }
+        droppedCount.increment();
+        return false;
+    }
+
+    /**
+     * submit the task to the shard, block when the shard has too many pending tasks,
+     * used by the availability frames and the state tasks which must not be dropped
+     * @param task task run in the shard thread
+     * @throws InterruptedException interrupted when wait
+     */
+    void submit(Consumer<CalculateShard> task) throws InterruptedException {
+        taskQueue.put(task);
+    }
+
+    @Override
+    public void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Consumer<CalculateShard> task = taskQueue.poll(2, TimeUnit.SECONDS);
+                if (task != null) {
+                    task.accept(this);
+                    if (journal != null) {
+                        journal.flush();
+                    }
+                }
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("calculate shard {} error: {}.", index, e.getMessage(), e);
+            }
+        }
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    int getPendingTaskSize() {
+        return taskQueue.size();
+    }
+
+    long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    int getStateSize() {
+        return triggeredAlertMap.size() + notRecoveredAlertMap.size();
+    }
+
+    Map<String, Alert> getTriggeredAlertMap() {
+        return triggeredAlertMap;
+    }
+
+    Map<String, Alert> getNotRecoveredAlertMap() {
+        return notRecoveredAlertMap;
+    }
+
+    Alert getTriggered(String key) {
+        return triggeredAlertMap.get(key);
+    }
+
+    /**
+     * put or update the triggered alert, must be called again after the alert is modified in place
+     * @param key alert key
+     * @param alert alert
+     */
+    void putTriggered(String key, Alert alert) {
+        triggeredAlertMap.put(key, alert);
+        if (journal != null) {
+            journal.appendPut(AlertStateJournal.MAP_TRIGGERED, key, alert);
+        }
+    }
+
+    Alert removeTriggered(String key) {
+        Alert alert = triggeredAlertMap.remove(key);
+        if (alert != null && journal != null) {
+            journal.appendRemove(AlertStateJournal.MAP_TRIGGERED, key);
+        }
+        return alert;
+    }
+
+    void putNotRecovered(String key, Alert alert) {
+        notRecoveredAlertMap.put(key, alert);
+        if (journal != null) {
+            journal.appendPut(AlertStateJournal.MAP_NOT_RECOVERED, key, alert);
+        }
+    }
+
+    Alert removeNotRecovered(String key) {
+        Alert alert = notRecoveredAlertMap.remove(key);
+        if (alert != null && journal != null) {
+            journal.appendRemove(AlertStateJournal.MAP_NOT_RECOVERED, key);
+        }
+        return alert;
+    }
+
+    /**
+     * write the shard state snapshot, must be called in the shard thread
+     * @return the record count of the snapshot, -1 when persistence is disabled
+     * @throws IOException write error
+     */
+    int snapshot() throws IOException {
+        if (journal == null) {
+            return -1;
+        }
+        return journal.snapshot(triggeredAlertMap, notRecoveredAlertMap);
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.alert.calculate;
+
+import com.googlecode.aviator.AviatorEvaluator;
+import com.googlecode.aviator.Expression;
+import com.googlecode.aviator.exception.ExpressionRuntimeException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.dromara.hertzbeat.common.entity.alerter.AlertDefine;
+import org.dromara.hertzbeat.common.entity.message.CollectRep;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Alert define rule with its compiled expression and the variable - column slots resolved against the frame fields
+ * 预编译的告警阈值规则, 表达式只编译一次, 变量按数据帧字段预先解析为列下标
+ * @author tom
+ */
+@Slf4j
+public class CompiledAlertRule {
+
+    /**
+     * the expr variable for the row count of the metrics data
+     */
+    public static final String SYSTEM_VALUE_ROW_COUNT = "system_value_row_count";
+
+    /**
+     * variable not exist in the frame fields
+     */
+    static final int SLOT_MISSING = -1;
+
+    /**
+     * variable is the row count of the frame
+     */
+    static final int SLOT_ROW_COUNT = -2;
+
+    /**
+     * reusable expression environment, the rule only be evaluated by the calculate thread
+     */
+    private static final ThreadLocal<Map<String, Object>> ENV_HOLDER = ThreadLocal.withInitial(() -> new HashMap<>(8));
+
+    private final AlertDefine define;
+
+    private final Expression expression;
+
+    private final String[] variables;
+
+    private final boolean rowCountRule;
+
+    /**
+     * the last frame fields and the resolved slots of the variables
+     */
+    private volatile SlotBinding binding;
+
+    private CompiledAlertRule(AlertDefine define, Expression expression, String[] variables) {
+        this.define = define;
+        this.expression = expression;
+        this.variables = variables;
+        this.rowCountRule = define.getExpr() != null && define.getExpr().contains(SYSTEM_VALUE_ROW_COUNT);
+    }
+
+    /**
+     * compile the alert define expr
+     * @param define alert define
+     * @return compiled rule, the rule is not evaluable when expr is blank or compile error
+     */
+    public static CompiledAlertRule compile(AlertDefine define) {
+        String expr = define.getExpr();
+        if (StringUtils.isBlank(expr)) {
+            return new CompiledAlertRule(define, null, new String[0]);
+        }
+        try {
+            Expression expression = AviatorEvaluator.compile(expr, true);
+            List<String> variableNames = expression.getVariableNames();
+            return new CompiledAlertRule(define, expression, variableNames.toArray(new String[0]));
+        } catch (Exception e) {
+            log.error("Alert Define Rule: {} Compile Error: {}.", expr, e.getMessage());
+            return new CompiledAlertRule(define, null, new String[0]);
+        }
+    }
+
+    public AlertDefine getDefine() {
+        return define;
+    }
+
+    /**
+     * @return whether the rule has a valid compiled expression
+     */
+    public boolean isEvaluable() {
+        return expression != null;
+    }
+
+    /**
+     * @return whether the expr use the row count variable
+     */
+    public boolean isRowCountRule() {
+        return rowCountRule;
+    }
+
+    /**
+     * evaluate the rule with the row count only, used when the frame has no value rows
+     * @param rowCount value row count
+     * @return match or not
+     * @throws ExpressionRuntimeException when the expr use a variable other than row count
+     */
+    public boolean evaluateRowCount(int rowCount) {
+        Map<String, Object> env = ENV_HOLDER.get();
+        env.clear();
+        for (String variable : variables) {
+            if (!SYSTEM_VALUE_ROW_COUNT.equals(variable)) {
+                throw new ExpressionRuntimeException("metrics value not contains expr field: " + variable);
+            }
+            env.put(variable, rowCount);
+        }
+        return execute(env);
+    }
+
+    /**
+     * evaluate the rule on a row of the columnar decoded frame, the columns are shared by all the rules of the frame
+     * @param frame decoded metrics frame
+     * @param row row index
+     * @return match or not
+     * @throws ExpressionRuntimeException when the row not contains a variable of the expr
+     */
+    boolean evaluate(MetricsFrame frame, int row) {
+        int[] slots = resolveSlots(frame.getFields());
+        Map<String, Object> env = ENV_HOLDER.get();
+        env.clear();
+        for (int index = 0; index < variables.length; index++) {
+            String variable = variables[index];
+            int slot = slots[index];
+            Object value = slot == SLOT_ROW_COUNT ? Integer.valueOf(frame.getRowCount()) : frame.value(slot, row);
+            if (value == null) {
+                throw new ExpressionRuntimeException("metrics value not contains expr field: " + variable);
+            }
+            env.put(variable, value);
+        }
+        return execute(env);
+    }
+
+    int[] resolveSlots(List<CollectRep.Field> fields) {
+        SlotBinding current = this.binding;
+        if (current != null && current.sameSchema(fields)) {
+            return current.slots;
+        }
+        int[] slots = new int[variables.length];
+        for (int index = 0; index < variables.length; index++) {
+            String variable = variables[index];
+            if (SYSTEM_VALUE_ROW_COUNT.equals(variable)) {
+                slots[index] = SLOT_ROW_COUNT;
+                continue;
+            }
+            slots[index] = SLOT_MISSING;
+            for (int fieldIndex = 0; fieldIndex < fields.size(); fieldIndex++) {
+                if (variable.equals(fields.get(fieldIndex).getName())) {
+                    slots[index] = fieldIndex;
+                    break;
+                }
+            }
+        }
+        this.binding = new SlotBinding(fields, slots);
+        return slots;
+    }
+
+    private boolean execute(Map<String, Object> env) {
+        try {
+            Boolean match = (Boolean) expression.execute(env);
+            return match != null && match;
+        } catch (ExpressionRuntimeException expressionRuntimeException) {
+            log.error("Alert Define Rule: {} Run Error: {}.", define.getExpr(), expressionRuntimeException.getMessage());
+            throw expressionRuntimeException;
+        } catch (Exception e) {
+            log.error("Alert Define Rule: {} Unknown Error: {}.", define.getExpr(), e.getMessage());
+            throw e;
+        }
+    }
+
+    private static final class SlotBinding {
+        private final List<CollectRep.Field> fields;
+        private final int[] slots;
+
+        private SlotBinding(List<CollectRep.Field> fields, int[] slots) {
+            this.fields = fields;
+            this.slots = slots;
+        }
+
+        private boolean sameSchema(List<CollectRep.Field> other) {
+            if (fields == other) {
+                return true;
+            }
+            if (fields.size() != other.size()) {
+                return false;
+            }
+            for (int index = 0; index < fields.size(); index++) {
+                if (!fields.get(index).getName().equals(other.get(index).getName())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
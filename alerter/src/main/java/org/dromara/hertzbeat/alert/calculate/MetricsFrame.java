@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.alert.calculate;
+
+import org.apache.commons.lang3.StringUtils;
+import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.dromara.hertzbeat.common.entity.message.CollectRep;
+import org.dromara.hertzbeat.common.util.CommonUtil;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.dromara.hertzbeat.alert.calculate.CompiledAlertRule.SYSTEM_VALUE_ROW_COUNT;
+
+/**
+ * Columnar view of a metrics frame, every column is parsed at most once into a typed array
+ * and shared by all the alert rules bound to the frame. Columns are decoded on first access,
+ * so the columns no rule refers to are never parsed.
+ * 数据帧的列式解码视图, 每列只解析一次为类型化数组, 供该帧绑定的所有告警规则共用
+ * @author tom
+ */
+class MetricsFrame {
+
+    private final List<CollectRep.Field> fields;
+
+    private final List<CollectRep.ValueRow> rows;
+
+    private final int rowCount;
+
+    /**
+     * decoded columns, index - field index
+     */
+    private final Column[] columns;
+
+    /**
+     * label tag key of each row: -label1-label2
+     */
+    private String[] labelKeys;
+
+    MetricsFrame(CollectRep.MetricsData metricsData) {
+        this.fields = metricsData.getFieldsList();
+        this.rows = metricsData.getValuesList();
+        this.rowCount = rows.size();
+        this.columns = new Column[fields.size()];
+    }
+
+    List<CollectRep.Field> getFields() {
+        return fields;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @param row row index
+     * @return whether the row has any column value
+     */
+    boolean hasColumns(int row) {
+        return rows.get(row).getColumnsCount() > 0;
+    }
+
+    /**
+     * get the typed value of the cell
+     * @param column field index
+     * @param row row index
+     * @return Double for number, Integer for time, String for string, null when the value is null or can not be parsed
+     */
+    Object value(int column, int row) {
+        if (column < 0 || column >= columns.length) {
+            return null;
+        }
+        return column(column).value(row);
+    }
+
+    /**
+     * get the label tag key of the row, the labels are joined once per frame
+     * @param row row index
+     * @return -label1-label2
+     */
+    String labelKey(int row) {
+        if (labelKeys == null) {
+            labelKeys = buildLabelKeys();
+        }
+        return labelKeys[row];
+    }
+
+    /**
+     * build the field - value map of the row, used to render the alert template
+     * @param row row index
+     * @return field - typed value
+     */
+    Map<String, Object> fieldValueMap(int row) {
+        Map<String, Object> fieldValueMap = new HashMap<>(8);
+        fieldValueMap.put(SYSTEM_VALUE_ROW_COUNT, rowCount);
+        int columnCount = Math.min(rows.get(row).getColumnsCount(), columns.length);
+        for (int index = 0; index < columnCount; index++) {
+            Object value = value(index, row);
+            if (value != null) {
+                fieldValueMap.put(fields.get(index).getName(), value);
+            }
+        }
+        return fieldValueMap;
+    }
+
+    private Column column(int index) {
+        Column column = columns[index];
+        if (column == null) {
+            column = decode(index, fields.get(index).getType());
+            columns[index] = column;
+        }
+        return column;
+    }
+
+    private Column decode(int index, int fieldType) {
+        if (fieldType == CommonConstants.TYPE_NUMBER) {
+            double[] values = new double[rowCount];
+            boolean[] present = new boolean[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                String valueStr = cell(index, row);
+                if (valueStr != null && !CommonConstants.NULL_VALUE.equals(valueStr)) {
+                    Double value = CommonUtil.parseStrDouble(valueStr);
+                    if (value != null) {
+                        values[row] = value;
+                        present[row] = true;
+                    }
+                }
+            }
+            return new NumberColumn(values, present);
+        } else if (fieldType == CommonConstants.TYPE_TIME) {
+            int[] values = new int[rowCount];
+            boolean[] present = new boolean[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                String valueStr = cell(index, row);
+                if (valueStr != null && !CommonConstants.NULL_VALUE.equals(valueStr)) {
+                    Integer value = CommonUtil.parseStrInteger(valueStr);
+                    if (value != null) {
+                        values[row] = value;
+                        present[row] = true;
+                    }
+                }
+            }
+            return new TimeColumn(values, present);
+        } else {
+            String[] values = new String[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                String valueStr = cell(index, row);
+                if (StringUtils.isNotEmpty(valueStr) && !CommonConstants.NULL_VALUE.equals(valueStr)) {
+                    values[row] = valueStr;
+                }
+            }
+            return new StringColumn(values);
+        }
+    }
+
+    private String cell(int column, int row) {
+        CollectRep.ValueRow valueRow = rows.get(row);
+        return column < valueRow.getColumnsCount() ? valueRow.getColumns(column) : null;
+    }
+
+    private String[] buildLabelKeys() {
+        String[] keys = new String[rowCount];
+        int[] labelColumns = IntStream.range(0, fields.size())
+                .filter(index -> fields.get(index).getLabel())
+                .toArray();
+        StringBuilder tagBuilder = new StringBuilder();
+        for (int row = 0; row < rowCount; row++) {
+            tagBuilder.setLength(0);
+            for (int column : labelColumns) {
+                String valueStr = cell(column, row);
+                if (valueStr == null || CommonConstants.NULL_VALUE.equals(valueStr)) {
+                    continue;
+                }
+                tagBuilder.append("-").append(valueStr);
+            }
+            keys[row] = tagBuilder.toString();
+        }
+        return keys;
+    }
+
+    private interface Column {
+        Object value(int row);
+    }
+
+    private static final class NumberColumn implements Column {
+        private final double[] values;
+        private final boolean[] present;
+
+        private NumberColumn(double[] values, boolean[] present) {
+            this.values = values;
+            this.present = present;
+        }
+
+        @Override
+        public Object value(int row) {
+            return present[row] ? values[row] : null;
+        }
+    }
+
+    private static final class TimeColumn implements Column {
+        private final int[] values;
+        private final boolean[] present;
+
+        private TimeColumn(int[] values, boolean[] present) {
+            this.values = values;
+            this.present = present;
+        }
+
+        @Override
+        public Object value(int row) {
+            return present[row] ? values[row] : null;
+        }
+    }
+
+    private static final class StringColumn implements Column {
+        private final String[] values;
+
+        private StringColumn(String[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Object value(int row) {
+            return values[row];
+        }
+    }
+}
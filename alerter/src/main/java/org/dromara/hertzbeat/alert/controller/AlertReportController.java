@@ -1,20 +1,27 @@
 package org.dromara.hertzbeat.alert.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
+import org.dromara.hertzbeat.alert.dto.AlertReportBatchResult;
 import org.dromara.hertzbeat.alert.dto.CloudAlertReportAbstract;
 import org.dromara.hertzbeat.alert.dto.GeneralCloudAlertReport;
 import org.dromara.hertzbeat.alert.enums.CloudServiceAlarmInformationEnum;
 import org.dromara.hertzbeat.alert.service.AlertService;
+import org.dromara.hertzbeat.common.constants.CommonConstants;
 import org.dromara.hertzbeat.common.entity.dto.AlertReport;
 import org.dromara.hertzbeat.common.entity.dto.Message;
 import org.dromara.hertzbeat.common.util.JsonUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.regex.Pattern;
 import java.util.Optional;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
@@ -29,6 +36,12 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 @Slf4j
 public class AlertReportController {
 
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private static final String JSON_ARRAY_START = "[";
+
+    private static final Pattern LINE_SPLITTER = Pattern.compile("\\r?\\n");
+
     @Autowired
     private AlertService alertService;
 
@@ -49,16 +62,7 @@ public class AlertReportController {
                         .fromJson(alertReport, cloudService.getCloudServiceAlarmInformationEntity());
                 // 模板填充
                 assert cloudAlertReport != null;
-                alert = AlertReport.builder()
-                        .content(cloudAlertReport.getContent())
-                        .alertName(cloudAlertReport.getAlertName())
-                        .alertTime(cloudAlertReport.getAlertTime())
-                        .alertDuration(cloudAlertReport.getAlertDuration())
-                        .priority(cloudAlertReport.getPriority())
-                        .reportType(cloudAlertReport.getReportType())
-                        .labels(cloudAlertReport.getLabels())
-                        .annotations(cloudAlertReport.getAnnotations())
-                        .build();
+                alert = toAlertReport(cloudAlertReport);
             } catch (Exception e) {
                 log.error("[AlertReportController]：解析云服务告警内容失败！云服务商：" +
                         cloudService.name() + ";传入JSON字符串：" + alertReport);
@@ -93,4 +97,87 @@ public class AlertReportController {
         alertService.addNewAlertReport(alertReport);
         return ResponseEntity.ok(Message.success("Add report success"));
     }
+
+    @PostMapping(path = "/batch", consumes = {APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Interface for reporting general alarms in batch, json array or ndjson ｜ 对外批量上报通用告警接口",
+            description = "批量上报通用告警, 校验后异步处理, 返回202")
+    public ResponseEntity<Message<AlertReportBatchResult>> addNewAlertReports(@RequestBody String alertReports) {
+        return addNewAlertReports(alertReports, GeneralCloudAlertReport.class);
+    }
+
+    @PostMapping(path = "/batch/{cloud}", consumes = {APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Interface for reporting cloud service alarms in batch, json array or ndjson ｜ 对外批量上报云服务告警接口",
+            description = "批量上报云服务告警, 校验后异步处理, 返回202")
+    public ResponseEntity<Message<AlertReportBatchResult>> addNewAlertReportsFromCloud(@PathVariable("cloud") String cloudServiceName,
+                                                                                       @RequestBody String alertReports) {
+        CloudServiceAlarmInformationEnum cloudService = CloudServiceAlarmInformationEnum
+                .getEnumFromCloudServiceName(cloudServiceName);
+        if (cloudService == null) {
+            throw new IllegalArgumentException("Not support the cloud service: " + cloudServiceName);
+        }
+        return addNewAlertReports(alertReports, cloudService.getCloudServiceAlarmInformationEntity());
+    }
+
+    private ResponseEntity<Message<AlertReportBatchResult>> addNewAlertReports(String body, Class<?> reportClass) {
+        List<AlertReport> alertReports = new ArrayList<>();
+        for (JsonNode node : parseReportNodes(body)) {
+            Object report = node == null || !node.isObject() ? null : JsonUtil.fromJson(node, reportClass);
+            if (report instanceof CloudAlertReportAbstract) {
+                try {
+                    alertReports.add(toAlertReport((CloudAlertReportAbstract) report));
+                } catch (Exception e) {
+                    alertReports.add(null);
+                }
+            } else {
+                alertReports.add((AlertReport) report);
+            }
+        }
+        AlertReportBatchResult result = alertService.addNewAlertReports(alertReports);
+        Message<AlertReportBatchResult> message = Message.success(result);
+        if (result.getAccepted() == 0 && result.getRejected() > 0) {
+            message.setCode(CommonConstants.FAIL_CODE);
+            message.setMsg("The alarm report queue is full, retry later");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(message);
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(message);
+    }
+
+    /**
+     * the body is a json array or one json object per line
+     * @param body request body
+     * @return json nodes, null element for the line can not be parsed
+     */
+    private static List<JsonNode> parseReportNodes(String body) {
+        List<JsonNode> nodes = new ArrayList<>();
+        if (body == null || body.isBlank()) {
+            return nodes;
+        }
+        if (body.stripLeading().startsWith(JSON_ARRAY_START)) {
+            JsonNode arrayNode = JsonUtil.fromJson(body);
+            if (arrayNode == null || !arrayNode.isArray()) {
+                throw new IllegalArgumentException("The alarm reports are not a valid json array");
+            }
+            arrayNode.forEach(nodes::add);
+            return nodes;
+        }
+        for (String line : LINE_SPLITTER.split(body)) {
+            if (!line.isBlank()) {
+                nodes.add(JsonUtil.fromJson(line));
+            }
+        }
+        return nodes;
+    }
+
+    private static AlertReport toAlertReport(CloudAlertReportAbstract cloudAlertReport) {
+        return AlertReport.builder()
+                .content(cloudAlertReport.getContent())
+                .alertName(cloudAlertReport.getAlertName())
+                .alertTime(cloudAlertReport.getAlertTime())
+                .alertDuration(cloudAlertReport.getAlertDuration())
+                .priority(cloudAlertReport.getPriority())
+                .reportType(cloudAlertReport.getReportType())
+                .labels(cloudAlertReport.getLabels())
+                .annotations(cloudAlertReport.getAnnotations())
+                .build();
+    }
 }
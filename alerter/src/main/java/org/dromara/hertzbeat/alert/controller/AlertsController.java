@@ -20,6 +20,7 @@ package org.dromara.hertzbeat.alert.controller;
 import org.dromara.hertzbeat.alert.dto.AlertSummary;
 import org.dromara.hertzbeat.common.entity.alerter.Alert;
 import org.dromara.hertzbeat.alert.service.AlertService;
+import org.dromara.hertzbeat.common.constants.CommonConstants;
 import org.dromara.hertzbeat.common.entity.dto.Message;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -29,14 +30,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.Predicate;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
@@ -50,6 +57,8 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 @RequestMapping(path = "/api/alerts", produces = {APPLICATION_JSON_VALUE})
 public class AlertsController {
 
+    private static final String EXPORT_TYPE_CSV = "csv";
+
     @Autowired
     private AlertService alertService;
 
@@ -66,35 +75,7 @@ public class AlertsController {
             @Parameter(description = "List current page | 列表当前分页", example = "0") @RequestParam(defaultValue = "0") int pageIndex,
             @Parameter(description = "Number of list pagination | 列表分页数量", example = "8") @RequestParam(defaultValue = "8") int pageSize) {
 
-        Specification<Alert> specification = (root, query, criteriaBuilder) -> {
-            List<Predicate> andList = new ArrayList<>();
-
-            if (ids != null && !ids.isEmpty()) {
-                CriteriaBuilder.In<Long> inPredicate = criteriaBuilder.in(root.get("id"));
-                for (long id : ids) {
-                    inPredicate.value(id);
-                }
-                andList.add(inPredicate);
-            }
-            if (monitorId != null) {
-                Predicate predicate = criteriaBuilder.like(root.get("tags").as(String.class), "%" + monitorId + "%");
-                andList.add(predicate);
-            }
-            if (priority != null) {
-                Predicate predicate = criteriaBuilder.equal(root.get("priority"), priority);
-                andList.add(predicate);
-            }
-            if (status != null) {
-                Predicate predicate = criteriaBuilder.equal(root.get("status"), status);
-                andList.add(predicate);
-            }
-            if (content != null && !content.isEmpty()) {
-                Predicate predicateContent = criteriaBuilder.like(root.get("content"), "%" + content + "%");
-                andList.add(predicateContent);
-            }
-            Predicate[] predicates = new Predicate[andList.size()];
-            return criteriaBuilder.and(andList.toArray(predicates));
-        };
+        Specification<Alert> specification = buildSpecification(ids, monitorId, priority, status, content);
         Sort sortExp = Sort.by(new Sort.Order(Sort.Direction.fromString(order), sort));
         PageRequest pageRequest = PageRequest.of(pageIndex, pageSize, sortExp);
         Page<Alert> alertPage = alertService.getAlerts(specification, pageRequest);
@@ -133,6 +114,42 @@ public class AlertsController {
         return ResponseEntity.ok(message);
     }
 
+    @PutMapping(path = "/status/{status}/filter")
+    @Operation(summary = "Batch modify the status of the alarms matching the filter items", description = "根据过滤项批量修改告警状态")
+    public ResponseEntity<Message<Integer>> applyAlertsStatusByFilter(
+            @Parameter(description = "Alarm status value | 告警状态值", example = "3") @PathVariable Byte status,
+            @Parameter(description = "Alarm monitor object ID | 告警监控对象ID", example = "6565463543") @RequestParam(required = false) Long monitorId,
+            @Parameter(description = "Alarm level | 告警级别", example = "1") @RequestParam(required = false) Byte priority,
+            @Parameter(description = "Current alarm status | 当前告警状态", example = "0") @RequestParam(required = false) Byte currentStatus,
+            @Parameter(description = "Alarm content fuzzy query | 告警内容模糊查询", example = "linux") @RequestParam(required = false) String content) {
+        if (monitorId == null && priority == null && currentStatus == null && (content == null || content.isEmpty())) {
+            // an empty filter matches every alarm, the whole table is not updated by accident
+            return ResponseEntity.badRequest().body(Message.fail(CommonConstants.PARAM_INVALID_CODE,
+                    "at least one filter item is required"));
+        }
+        Specification<Alert> specification = buildSpecification(null, monitorId, priority, currentStatus, content);
+        int rows = alertService.editAlertStatusByFilter(status, specification);
+        return ResponseEntity.ok(Message.success(rows));
+    }
+
+    @GetMapping(path = "/export")
+    @Operation(summary = "Stream export the alarms matching the filter items as ndjson or csv", description = "根据过滤项流式导出告警, 支持ndjson或csv")
+    public void exportAlerts(
+            @Parameter(description = "Export type: ndjson, csv | 导出类型", example = "csv") @RequestParam(defaultValue = "ndjson") String type,
+            @Parameter(description = "Alarm monitor object ID | 告警监控对象ID", example = "6565463543") @RequestParam(required = false) Long monitorId,
+            @Parameter(description = "Alarm level | 告警级别", example = "1") @RequestParam(required = false) Byte priority,
+            @Parameter(description = "Alarm Status | 告警状态", example = "0") @RequestParam(required = false) Byte status,
+            @Parameter(description = "Alarm content fuzzy query | 告警内容模糊查询", example = "linux") @RequestParam(required = false) String content,
+            HttpServletResponse res) throws IOException {
+        // the type is validated by the export writer before anything is written
+        String exportType = type.toLowerCase(Locale.ROOT);
+        String fileName = "hertzbeat-alerts." + exportType;
+        res.setContentType((EXPORT_TYPE_CSV.equals(exportType) ? "text/csv" : "application/x-ndjson") + ";charset=UTF-8");
+        res.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment;filename=" + URLEncoder.encode(fileName, StandardCharsets.UTF_8));
+        res.setHeader("Access-Control-Expose-Headers", "Content-Disposition");
+        alertService.exportAlerts(buildSpecification(null, monitorId, priority, status, content), exportType, res.getOutputStream());
+    }
+
     @GetMapping(path = "/summary")
     @Operation(summary = "Get alarm statistics", description = "获取告警统计信息")
     public ResponseEntity<Message<AlertSummary>> getAlertsSummary() {
@@ -140,5 +157,36 @@ public class AlertsController {
         Message<AlertSummary> message = Message.success(alertSummary);
         return ResponseEntity.ok(message);
     }
-    
+
+    private Specification<Alert> buildSpecification(List<Long> ids, Long monitorId, Byte priority, Byte status, String content) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> andList = new ArrayList<>();
+
+            if (ids != null && !ids.isEmpty()) {
+                CriteriaBuilder.In<Long> inPredicate = criteriaBuilder.in(root.get("id"));
+                for (long id : ids) {
+                    inPredicate.value(id);
+                }
+                andList.add(inPredicate);
+            }
+            if (monitorId != null) {
+                Predicate predicate = criteriaBuilder.like(root.get("tags").as(String.class), "%" + monitorId + "%");
+                andList.add(predicate);
+            }
+            if (priority != null) {
+                Predicate predicate = criteriaBuilder.equal(root.get("priority"), priority);
+                andList.add(predicate);
+            }
+            if (status != null) {
+                Predicate predicate = criteriaBuilder.equal(root.get("status"), status);
+                andList.add(predicate);
+            }
+            if (content != null && !content.isEmpty()) {
+                Predicate predicateContent = criteriaBuilder.like(root.get("content"), "%" + content + "%");
+                andList.add(predicateContent);
+            }
+            Predicate[] predicates = new Predicate[andList.size()];
+            return criteriaBuilder.and(andList.toArray(predicates));
+        };
+    }
 }
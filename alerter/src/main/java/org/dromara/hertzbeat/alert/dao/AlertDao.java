@@ -19,12 +19,15 @@ package org.dromara.hertzbeat.alert.dao;
 
 import org.dromara.hertzbeat.alert.dto.AlertPriorityNum;
 import org.dromara.hertzbeat.common.entity.alerter.Alert;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -56,4 +59,29 @@ public interface AlertDao extends JpaRepository<Alert, Long>, JpaSpecificationEx
      */
     @Query("select new org.dromara.hertzbeat.alert.dto.AlertPriorityNum(mo.priority, count(mo.id)) from Alert mo where mo.status = 0 group by mo.priority")
     List<AlertPriorityNum> findAlertPriorityNum();
+
+    /**
+     * Query the number of unhandled alarms of each alarm severity in the alarm ids
+     * @param ids alarm ids
+     * @return List of alerts num
+     */
+    @Query("select new org.dromara.hertzbeat.alert.dto.AlertPriorityNum(mo.priority, count(mo.id)) from Alert mo where mo.status = 0 and mo.id in :ids group by mo.priority")
+    List<AlertPriorityNum> findAlertPriorityNumByIds(@Param(value = "ids") Collection<Long> ids);
+
+    /**
+     * Query the number of alarms of each alarm severity in the alarm ids, any status
+     * @param ids alarm ids
+     * @return List of alerts num
+     */
+    @Query("select new org.dromara.hertzbeat.alert.dto.AlertPriorityNum(mo.priority, count(mo.id)) from Alert mo where mo.id in :ids group by mo.priority")
+    List<AlertPriorityNum> findAllPriorityNumByIds(@Param(value = "ids") Collection<Long> ids);
+
+    /**
+     * Query the ids of the alarms created before the time, walk the gmtCreate index in order
+     * @param time create time
+     * @param pageable batch size
+     * @return alarm ids
+     */
+    @Query("select mo.id from Alert mo where mo.gmtCreate < :time order by mo.gmtCreate")
+    List<Long> findIdsCreatedBefore(@Param(value = "time") LocalDateTime time, Pageable pageable);
 }
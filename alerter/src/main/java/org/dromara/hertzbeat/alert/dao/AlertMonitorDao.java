@@ -46,4 +46,11 @@ public interface AlertMonitorDao extends JpaRepository<Monitor, Long>, JpaSpecif
      */
     @Query("select tag from Tag tag join TagMonitorBind bind on bind.tagId = tag.id where bind.monitorId = :monitorId")
     List<Tag> findMonitorIdBindTags(@Param(value = "monitorId") Long monitorId);
+
+    /**
+     * find all the monitors with their bind tags in one query
+     * @return monitors
+     */
+    @Query("select distinct monitor from Monitor monitor left join fetch monitor.tags")
+    List<Monitor> findAllWithTags();
 }
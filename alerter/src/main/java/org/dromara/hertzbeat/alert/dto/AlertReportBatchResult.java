@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.alert.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.swagger.v3.oas.annotations.media.Schema.AccessMode.READ_ONLY;
+
+/**
+ * Result of the batch alarm report ingest
+ * 批量告警上报结果
+ * @author tom
+ */
+@Data
+@Schema(description = "Batch alarm report result | 批量告警上报结果")
+public class AlertReportBatchResult {
+
+    /**
+     * max error messages returned, the others are only counted
+     */
+    private static final int MAX_ERRORS = 100;
+
+    @Schema(title = "Number of the reports in the batch", description = "批量上报告警数量",
+            example = "100", accessMode = READ_ONLY)
+    private int total;
+
+    @Schema(title = "Number of the reports accepted into the ingest queue", description = "进入处理队列的告警数量",
+            example = "98", accessMode = READ_ONLY)
+    private int accepted;
+
+    @Schema(title = "Number of the invalid reports", description = "校验失败的告警数量",
+            example = "1", accessMode = READ_ONLY)
+    private int invalid;
+
+    @Schema(title = "Number of the reports rejected by the full ingest queue", description = "处理队列已满被拒绝的告警数量",
+            example = "1", accessMode = READ_ONLY)
+    private int rejected;
+
+    @Schema(title = "Errors of the invalid reports, index: reason", description = "校验失败原因, 序号: 原因",
+            example = "[\"3: priority is required\"]", accessMode = READ_ONLY)
+    private List<String> errors = new ArrayList<>();
+
+    public void addInvalid(int index, String reason) {
+        invalid++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(index + ": " + reason);
+        }
+    }
+}
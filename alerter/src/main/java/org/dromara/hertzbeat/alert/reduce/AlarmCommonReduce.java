@@ -2,15 +2,12 @@ package org.dromara.hertzbeat.alert.reduce;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.dromara.hertzbeat.alert.dao.AlertMonitorDao;
 import org.dromara.hertzbeat.common.constants.CommonConstants;
 import org.dromara.hertzbeat.common.entity.alerter.Alert;
-import org.dromara.hertzbeat.common.entity.manager.Tag;
 import org.dromara.hertzbeat.common.queue.CommonDataQueue;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -28,7 +25,7 @@ public class AlarmCommonReduce {
 	
 	private final CommonDataQueue dataQueue;
 	
-	private final AlertMonitorDao alertMonitorDao;
+	private final MonitorMetadataCache monitorMetadataCache;
 	
     public void reduceAndSendAlarm(Alert alert) {
 		alert.setTimes(1);
@@ -42,10 +39,12 @@ public class AlarmCommonReduce {
             log.debug("receiver extern alarm message: {}", alert);
 	    } else {
             long monitorId = Long.parseLong(monitorIdStr);
-            List<Tag> tagList = alertMonitorDao.findMonitorIdBindTags(monitorId);
-			for (Tag tag : tagList) {
-				if (!tags.containsKey(tag.getName())) {
-					tags.put(tag.getName(), tag.getValue());
+            MonitorMetadataCache.MonitorMetadata metadata = monitorMetadataCache.get(monitorId);
+			if (metadata != null) {
+				for (Map.Entry<String, String> tag : metadata.getTags().entrySet()) {
+					if (!tags.containsKey(tag.getKey())) {
+						tags.put(tag.getKey(), tag.getValue());
+					}
 				}
 			}
         }
@@ -1,35 +1,43 @@
 package org.dromara.hertzbeat.alert.reduce;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.dromara.hertzbeat.alert.AlerterProperties;
 import org.dromara.hertzbeat.alert.dao.AlertConvergeDao;
 import org.dromara.hertzbeat.common.cache.CacheFactory;
 import org.dromara.hertzbeat.common.cache.ICacheService;
+import org.dromara.hertzbeat.common.cache.TagRuleIndex;
 import org.dromara.hertzbeat.common.constants.CommonConstants;
 import org.dromara.hertzbeat.common.entity.alerter.Alert;
 import org.dromara.hertzbeat.common.entity.alerter.AlertConverge;
-import org.dromara.hertzbeat.common.entity.manager.TagItem;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
- * alarm converge
+ * alarm converge, the converge state is kept in a time wheel and expires after the converge eval interval
  *
  * @author tom
  */
 @Service
-public class AlarmConvergeReduce {
+public class AlarmConvergeReduce implements MeterBinder {
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+
+    private static final byte[] PRIORITIES = {CommonConstants.ALERT_PRIORITY_CODE_EMERGENCY,
+            CommonConstants.ALERT_PRIORITY_CODE_CRITICAL, CommonConstants.ALERT_PRIORITY_CODE_WARNING};
 
     private final AlertConvergeDao alertConvergeDao;
 
-    private final Map<Integer, Alert> converageAlertMap;
+    private final ConvergeStateWheel convergeStateWheel;
 
-    public AlarmConvergeReduce(AlertConvergeDao alertConvergeDao) {
+    public AlarmConvergeReduce(AlertConvergeDao alertConvergeDao, AlerterProperties alerterProperties) {
         this.alertConvergeDao = alertConvergeDao;
-        this.converageAlertMap = new ConcurrentHashMap<>(16);
+        this.convergeStateWheel = new ConvergeStateWheel(alerterProperties.getConverge() == null
+                ? new AlerterProperties.ConvergeProperties() : alerterProperties.getConverge());
     }
 
     /**
@@ -44,26 +52,20 @@ public class AlarmConvergeReduce {
         if (currentAlert.getTags() != null && currentAlert.getTags().containsKey(CommonConstants.IGNORE)) {
             return true;
         }
+        long tagsFingerprint = ConvergeStateWheel.tagsFingerprint(currentAlert.getTags());
         if (currentAlert.getStatus() == CommonConstants.ALERT_STATUS_CODE_RESTORED) {
             // restored alert
-            int alertHash = Objects.hash(CommonConstants.ALERT_PRIORITY_CODE_CRITICAL)
-                    + Arrays.hashCode(currentAlert.getTags().keySet().toArray(new String[0]))
-                    + Arrays.hashCode(currentAlert.getTags().values().toArray(new String[0]));
-            converageAlertMap.remove(alertHash);
-            alertHash = Objects.hash(CommonConstants.ALERT_PRIORITY_CODE_EMERGENCY)
-                    + Arrays.hashCode(currentAlert.getTags().keySet().toArray(new String[0]))
-                    + Arrays.hashCode(currentAlert.getTags().values().toArray(new String[0]));
-            converageAlertMap.remove(alertHash);
-            alertHash = Objects.hash(CommonConstants.ALERT_PRIORITY_CODE_WARNING)
-                    + Arrays.hashCode(currentAlert.getTags().keySet().toArray(new String[0]))
-                    + Arrays.hashCode(currentAlert.getTags().values().toArray(new String[0]));
-            converageAlertMap.remove(alertHash);
+            for (byte priority : PRIORITIES) {
+                convergeStateWheel.remove(ConvergeStateWheel.fingerprint(priority, tagsFingerprint));
+            }
             return true;
         }
         ICacheService<String, Object> convergeCache = CacheFactory.getAlertConvergeCache();
-        List<AlertConverge> alertConvergeList = (List<AlertConverge>) convergeCache.get(CommonConstants.CACHE_ALERT_CONVERGE);
-        if (alertConvergeList == null) {
-            alertConvergeList = alertConvergeDao.findAll();
+        TagRuleIndex<AlertConverge> convergeIndex = (TagRuleIndex<AlertConverge>) convergeCache.get(CommonConstants.CACHE_ALERT_CONVERGE);
+        if (convergeIndex == null) {
+            List<AlertConverge> alertConvergeList = alertConvergeDao.findAll().stream()
+                    .filter(AlertConverge::isEnable)
+                    .collect(Collectors.toList());
             // matchAll is in the last
             alertConvergeList.sort((item1, item2) -> {
                 if (item1.isMatchAll()) {
@@ -74,73 +76,35 @@ public class AlarmConvergeReduce {
                     return 0;
                 }
             });
-            convergeCache.put(CommonConstants.CACHE_ALERT_CONVERGE, alertConvergeList);
+            convergeIndex = TagRuleIndex.build(alertConvergeList, AlertConverge::isMatchAll, AlertConverge::getTags,
+                    AlertConverge::getPriorities, false, true);
+            convergeCache.put(CommonConstants.CACHE_ALERT_CONVERGE, convergeIndex);
         }
-        for (AlertConverge alertConverge : alertConvergeList) {
-            if (!alertConverge.isEnable()) {
-                continue;
-            }
-            boolean match = alertConverge.isMatchAll();
-            if (!match) {
-                List<TagItem> tags = alertConverge.getTags();
-                if (currentAlert.getTags() != null && !currentAlert.getTags().isEmpty()) {
-                    Map<String, String> alertTagMap = currentAlert.getTags();
-                    match = tags.stream().anyMatch(item -> {
-                        if (alertTagMap.containsKey(item.getName())) {
-                            String tagValue = alertTagMap.get(item.getName());
-                            if (tagValue == null && item.getValue() == null) {
-                                return true;
-                            } else {
-                                return tagValue != null && tagValue.equals(item.getValue());
-                            }
-                        } else {
-                            return false;
-                        }
-                    });
-                } else {
-                    match = true;
-                }
-                if (match && alertConverge.getPriorities() != null && !alertConverge.getPriorities().isEmpty()) {
-                    match = alertConverge.getPriorities().stream().anyMatch(item -> item != null && item == currentAlert.getPriority());
-                }
-            }
-            if (match) {
-                long evalInterval = alertConverge.getEvalInterval() * 1000;
-                long now = System.currentTimeMillis();
-                if (evalInterval <= 0) {
-                    return true;
-                }
-                int alertHash = Objects.hash(currentAlert.getPriority())
-                        + Arrays.hashCode(currentAlert.getTags().keySet().toArray(new String[0]))
-                        + Arrays.hashCode(currentAlert.getTags().values().toArray(new String[0]));
-                Alert preAlert = converageAlertMap.get(alertHash);
-                if (preAlert == null) {
-                    currentAlert.setTimes(1);
-                    currentAlert.setFirstAlarmTime(now);
-                    currentAlert.setLastAlarmTime(now);
-                    converageAlertMap.put(alertHash, currentAlert.clone());
-                    return true;
-                } else {
-                    if (now - preAlert.getFirstAlarmTime() < evalInterval) {
-                        preAlert.setTimes(preAlert.getTimes() + 1);
-                        preAlert.setLastAlarmTime(now);
-                        return false;
-                    } else {
-                        currentAlert.setTimes(preAlert.getTimes());
-                        if (preAlert.getTimes() == 1) {
-                            currentAlert.setFirstAlarmTime(now);
-                        } else {
-                            currentAlert.setFirstAlarmTime(preAlert.getFirstAlarmTime());
-                        }
-                        currentAlert.setLastAlarmTime(now);
-                        preAlert.setFirstAlarmTime(now);
-                        preAlert.setLastAlarmTime(now);
-                        preAlert.setTimes(1);
-                        return true;
-                    }
-                }
+        // the rules matching the alert tags and priority, in order
+        for (AlertConverge alertConverge : convergeIndex.match(currentAlert.getTags(), currentAlert.getPriority())) {
+            long evalInterval = alertConverge.getEvalInterval() * MILLIS_PER_SECOND;
+            if (evalInterval <= 0) {
+                return true;
             }
+            long fingerprint = ConvergeStateWheel.fingerprint(currentAlert.getPriority(), tagsFingerprint);
+            return convergeStateWheel.converge(fingerprint, currentAlert, evalInterval, System.currentTimeMillis());
         }
         return true;
     }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("hertzbeat.alerter.converge.size", convergeStateWheel, ConvergeStateWheel::size)
+                .description("alarm converge state entry size")
+                .register(registry);
+        FunctionCounter.builder("hertzbeat.alerter.converge.converged", convergeStateWheel, ConvergeStateWheel::getConvergedCount)
+                .description("alarm filtered by converge count")
+                .register(registry);
+        FunctionCounter.builder("hertzbeat.alerter.converge.expired", convergeStateWheel, ConvergeStateWheel::getExpiredCount)
+                .description("alarm converge state expired count")
+                .register(registry);
+        FunctionCounter.builder("hertzbeat.alerter.converge.evicted", convergeStateWheel, ConvergeStateWheel::getEvictedCount)
+                .description("alarm converge state evicted by the max entries count")
+                .register(registry);
+    }
 }
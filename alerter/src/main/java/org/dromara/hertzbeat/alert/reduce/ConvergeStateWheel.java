@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.alert.reduce;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.dromara.hertzbeat.alert.AlerterProperties;
+import org.dromara.hertzbeat.common.entity.alerter.Alert;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Converge state of the alerts keyed by the 64-bit fingerprint of priority and tags. Every state is placed in
+ * the slot of its expiry tick in a hashed time wheel, the passed slots are swept on the next alert, so a state
+ * is dropped within one tick after no alert of it arrived for the eval interval. Beyond the max entries the
+ * states of the soonest expiring slots are evicted.
+ * 告警收敛状态, 以优先级与标签的64位指纹为键, 按过期时间放入时间轮槽位, 新告警到达时清理过期槽位, 超过上限时淘汰最早过期的状态
+ * @author tom
+ */
+class ConvergeStateWheel {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private static final byte SEPARATOR = 0;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int maxEntries;
+
+    private final long tick;
+
+    private final int wheelSize;
+
+    /**
+     * fingerprint - converge state
+     */
+    private final Map<Long, ConvergeState> states = new ConcurrentHashMap<>(INITIAL_CAPACITY);
+
+    /**
+     * fingerprints of each slot, a state may stay in an earlier slot after extended and is moved when swept
+     */
+    private final List<Set<Long>> slots;
+
+    private final ReentrantLock sweepLock = new ReentrantLock();
+
+    /**
+     * the last swept tick, guarded by the sweep lock
+     */
+    private long sweptTick = Long.MIN_VALUE;
+
+    private final LongAdder convergedCount = new LongAdder();
+
+    private final LongAdder expiredCount = new LongAdder();
+
+    private final LongAdder evictedCount = new LongAdder();
+
+    ConvergeStateWheel(AlerterProperties.ConvergeProperties properties) {
+        this.maxEntries = Math.max(properties.getMaxEntries(), 1);
+        this.tick = Math.max(properties.getTick(), 1);
+        this.wheelSize = Math.max(properties.getWheelSize(), 1);
+        this.slots = new ArrayList<>(wheelSize);
+        for (int index = 0; index < wheelSize; index++) {
+            slots.add(ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * 64-bit fingerprint of the alert tags, independent of the tag order
+     * @param tags alert tags
+     * @return tags fingerprint
+     */
+    static long tagsFingerprint(Map<String, String> tags) {
+        Hasher hasher = HASH_FUNCTION.newHasher();
+        if (tags != null && !tags.isEmpty()) {
+            List<Map.Entry<String, String>> entries = new ArrayList<>(tags.entrySet());
+            entries.sort(Map.Entry.comparingByKey(Comparator.nullsFirst(Comparator.naturalOrder())));
+            for (Map.Entry<String, String> entry : entries) {
+                putString(hasher, entry.getKey());
+                putString(hasher, entry.getValue());
+            }
+        }
+        return hasher.hash().asLong();
+    }
+
+    /**
+     * @param priority alert priority
+     * @param tagsFingerprint fingerprint of the alert tags
+     * @return alert fingerprint
+     */
+    static long fingerprint(byte priority, long tagsFingerprint) {
+        return HASH_FUNCTION.newHasher().putLong(tagsFingerprint).putByte(priority).hash().asLong();
+    }
+
+    private static void putString(Hasher hasher, String value) {
+        if (value != null) {
+            hasher.putString(value, StandardCharsets.UTF_8);
+        }
+        hasher.putByte(SEPARATOR);
+    }
+
+    /**
+     * converge the alert, the first alert of a fingerprint and the first one after the eval interval are
+     * sent with the alarm times in the passed interval, the others in the interval are filtered
+     * @param fingerprint alert fingerprint
+     * @param currentAlert current alert
+     * @param evalInterval converge eval interval milliseconds
+     * @param now current time milliseconds
+     * @return true when not filter
+     */
+    boolean converge(long fingerprint, Alert currentAlert, long evalInterval, long now) {
+        sweep(now);
+        boolean[] result = new boolean[2];
+        ConvergeState current = states.compute(fingerprint, (key, state) -> {
+            if (state == null || state.expireTime <= now) {
+                currentAlert.setTimes(1);
+                currentAlert.setFirstAlarmTime(now);
+                currentAlert.setLastAlarmTime(now);
+                result[0] = true;
+                result[1] = state == null;
+                return new ConvergeState(now, now + evalInterval);
+            }
+            if (now - state.firstAlarmTime < evalInterval) {
+                state.times++;
+                state.expireTime = now + evalInterval;
+                return state;
+            }
+            currentAlert.setTimes(state.times);
+            currentAlert.setFirstAlarmTime(state.times == 1 ? now : state.firstAlarmTime);
+            currentAlert.setLastAlarmTime(now);
+            state.times = 1;
+            state.firstAlarmTime = now;
+            state.expireTime = now + evalInterval;
+            result[0] = true;
+            return state;
+        });
+        if (result[1]) {
+            slotOf(current.expireTime).add(fingerprint);
+            if (states.size() > maxEntries) {
+                evict();
+            }
+        }
+        if (!result[0]) {
+            convergedCount.increment();
+        }
+        return result[0];
+    }
+
+    /**
+     * drop the converge state, the recovered alert ends its converge
+     * @param fingerprint alert fingerprint
+     */
+    void remove(long fingerprint) {
+        states.remove(fingerprint);
+    }
+
+    /**
+     * sweep the slots of the ticks passed, expired states are dropped and extended ones moved to their slot
+     * @param now current time milliseconds
+     */
+    void sweep(long now) {
+        if (!sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            long currentTick = now / tick;
+            if (sweptTick == Long.MIN_VALUE) {
+                sweptTick = currentTick - 1;
+                return;
+            }
+            long lastTick = currentTick - 1;
+            long fromTick = Math.max(sweptTick + 1, lastTick - wheelSize + 1);
+            for (long sweepTick = fromTick; sweepTick <= lastTick; sweepTick++) {
+                sweepSlot(slots.get(slotIndex(sweepTick)), now);
+            }
+            sweptTick = Math.max(sweptTick, lastTick);
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    private void sweepSlot(Set<Long> slot, long now) {
+        Iterator<Long> iterator = slot.iterator();
+        while (iterator.hasNext()) {
+            Long fingerprint = iterator.next();
+            boolean[] expired = new boolean[1];
+            ConvergeState state = states.computeIfPresent(fingerprint, (key, value) -> {
+                if (value.expireTime <= now) {
+                    expired[0] = true;
+                    return null;
+                }
+                return value;
+            });
+            if (expired[0]) {
+                expiredCount.increment();
+            }
+            if (state == null) {
+                iterator.remove();
+                // a new state of the same fingerprint may be created while removing
+                ConvergeState recreated = states.get(fingerprint);
+                if (recreated != null) {
+                    slotOf(recreated.expireTime).add(fingerprint);
+                }
+                continue;
+            }
+            Set<Long> target = slotOf(state.expireTime);
+            if (target != slot) {
+                iterator.remove();
+                target.add(fingerprint);
+            }
+        }
+    }
+
+    /**
+     * evict the states of the soonest expiring slots until below the max entries
+     */
+    private void evict() {
+        sweepLock.lock();
+        try {
+            long startTick = sweptTick == Long.MIN_VALUE ? 0 : sweptTick + 1;
+            for (int offset = 0; offset < wheelSize && states.size() > maxEntries; offset++) {
+                Iterator<Long> iterator = slots.get(slotIndex(startTick + offset)).iterator();
+                while (iterator.hasNext() && states.size() > maxEntries) {
+                    if (states.remove(iterator.next()) != null) {
+                        evictedCount.increment();
+                    }
+                    iterator.remove();
+                }
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    private Set<Long> slotOf(long expireTime) {
+        return slots.get(slotIndex(expireTime / tick));
+    }
+
+    private int slotIndex(long tickIndex) {
+        return (int) Math.floorMod(tickIndex, (long) wheelSize);
+    }
+
+    int size() {
+        return states.size();
+    }
+
+    long getConvergedCount() {
+        return convergedCount.sum();
+    }
+
+    long getExpiredCount() {
+        return expiredCount.sum();
+    }
+
+    long getEvictedCount() {
+        return evictedCount.sum();
+    }
+
+    /**
+     * converge state of one fingerprint, only changed in the map compute of its key
+     */
+    private static final class ConvergeState {
+        private int times;
+        private long firstAlarmTime;
+        private volatile long expireTime;
+
+        private ConvergeState(long firstAlarmTime, long expireTime) {
+            this.times = 1;
+            this.firstAlarmTime = firstAlarmTime;
+            this.expireTime = expireTime;
+        }
+    }
+}
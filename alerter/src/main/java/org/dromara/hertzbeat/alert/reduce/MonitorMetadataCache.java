@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.alert.reduce;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.hertzbeat.alert.dao.AlertMonitorDao;
+import org.dromara.hertzbeat.common.entity.manager.Monitor;
+import org.dromara.hertzbeat.common.entity.manager.Tag;
+import org.dromara.hertzbeat.common.support.event.MonitorChangeEvent;
+import org.dromara.hertzbeat.common.support.event.MonitorDeletedEvent;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of the monitor metadata (name, host, status, bind tags) used by the alert reduce and store path,
+ * loaded in bulk on startup and invalidated by the monitor and tag change events
+ * 告警收敛与存储使用的监控元数据缓存, 启动时批量加载, 监控或标签变更事件失效
+ * @author tom
+ */
+@Component
+@Slf4j
+public class MonitorMetadataCache implements MeterBinder, SmartInitializingSingleton {
+
+    private static final long MAX_CACHE_SIZE = 200_000L;
+
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofHours(1);
+
+    private final AlertMonitorDao alertMonitorDao;
+
+    /**
+     * Incremented on every change event, the loads started before the change are not cached
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * key - monitorId  value - monitor metadata
+     */
+    private final Cache<Long, MonitorMetadata> cache;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    public MonitorMetadataCache(AlertMonitorDao alertMonitorDao) {
+        this.alertMonitorDao = alertMonitorDao;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHE_SIZE)
+                .expireAfterWrite(EXPIRE_AFTER_WRITE)
+                .build();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long startTime = System.currentTimeMillis();
+        try {
+            long currentVersion = version.get();
+            List<Monitor> monitors = alertMonitorDao.findAllWithTags();
+            if (monitors == null || currentVersion != version.get()) {
+                return;
+            }
+            for (Monitor monitor : monitors) {
+                cache.put(monitor.getId(), MonitorMetadata.of(monitor, monitor.getTags()));
+            }
+            log.info("load {} monitor metadata in {} ms.", monitors.size(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("load monitor metadata error, will be loaded on demand: {}.", e.getMessage());
+        }
+    }
+
+    /**
+     * get the monitor metadata, load from the database when not cached
+     * @param monitorId monitor id
+     * @return metadata, null when the monitor not exist
+     */
+    public MonitorMetadata get(long monitorId) {
+        MonitorMetadata metadata = cache.getIfPresent(monitorId);
+        if (metadata != null) {
+            hitCount.increment();
+            return metadata;
+        }
+        missCount.increment();
+        long currentVersion = version.get();
+        Monitor monitor = alertMonitorDao.findById(monitorId).orElse(null);
+        if (monitor == null) {
+            return null;
+        }
+        metadata = MonitorMetadata.of(monitor, alertMonitorDao.findMonitorIdBindTags(monitorId));
+        if (currentVersion == version.get()) {
+            cache.put(monitorId, metadata);
+        }
+        return metadata;
+    }
+
+    /**
+     * invalidate the monitor metadata
+     * @param monitorId monitor id, null for all the monitors
+     */
+    public void invalidate(Long monitorId) {
+        version.incrementAndGet();
+        if (monitorId == null) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidate(monitorId);
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    @TransactionalEventListener(value = MonitorChangeEvent.class, fallbackExecution = true)
+    public void onMonitorChangeEvent(MonitorChangeEvent event) {
+        invalidate(event.getMonitorId());
+    }
+
+    @EventListener(MonitorDeletedEvent.class)
+    public void onMonitorDeletedEvent(MonitorDeletedEvent event) {
+        invalidate(event.getMonitorId());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("hertzbeat.alerter.monitor.cache.hits", hitCount, LongAdder::sum)
+                .description("monitor metadata cache hit count")
+                .register(registry);
+        FunctionCounter.builder("hertzbeat.alerter.monitor.cache.misses", missCount, LongAdder::sum)
+                .description("monitor metadata cache miss count")
+                .register(registry);
+        Gauge.builder("hertzbeat.alerter.monitor.cache.size", cache, Cache::estimatedSize)
+                .description("monitor metadata cache entry size")
+                .register(registry);
+    }
+
+    /**
+     * immutable monitor metadata
+     */
+    public static final class MonitorMetadata {
+
+        private final long id;
+        private final String name;
+        private final String host;
+        private final String app;
+        private final byte status;
+        /**
+         * tag name - tag value, the first bind tag wins when the names are duplicated
+         */
+        private final Map<String, String> tags;
+
+        private MonitorMetadata(long id, String name, String host, String app, byte status, Map<String, String> tags) {
+            this.id = id;
+            this.name = name;
+            this.host = host;
+            this.app = app;
+            this.status = status;
+            this.tags = tags;
+        }
+
+        static MonitorMetadata of(Monitor monitor, List<Tag> bindTags) {
+            Map<String, String> tags = Collections.emptyMap();
+            if (bindTags != null && !bindTags.isEmpty()) {
+                Map<String, String> tagMap = new LinkedHashMap<>(bindTags.size());
+                for (Tag tag : bindTags) {
+                    if (!tagMap.containsKey(tag.getName())) {
+                        tagMap.put(tag.getName(), tag.getValue());
+                    }
+                }
+                tags = Collections.unmodifiableMap(tagMap);
+            }
+            return new MonitorMetadata(monitor.getId(), monitor.getName(), monitor.getHost(), monitor.getApp(),
+                    monitor.getStatus(), tags);
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public String getApp() {
+            return app;
+        }
+
+        public byte getStatus() {
+            return status;
+        }
+
+        public Map<String, String> getTags() {
+            return tags;
+        }
+    }
+}
@@ -17,6 +17,7 @@
 
 package org.dromara.hertzbeat.alert.service;
 
+import org.dromara.hertzbeat.alert.dto.AlertReportBatchResult;
 import org.dromara.hertzbeat.alert.dto.AlertSummary;
 import org.dromara.hertzbeat.common.entity.alerter.Alert;
 import org.dromara.hertzbeat.common.entity.dto.AlertReport;
@@ -24,6 +25,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.HashSet;
 import java.util.List;
 
@@ -40,6 +43,14 @@ public interface AlertService {
      */
     void addAlert(Alert alert) throws RuntimeException;
 
+    /**
+     * Add alarm records in one transaction by the jdbc batch insert
+     * 批量新增告警记录
+     * @param alerts Alert entities
+     * @throws RuntimeException Add process exception throw
+     */
+    void addAlerts(List<Alert> alerts) throws RuntimeException;
+
     /**
      * Dynamic conditional query
      * @param specification Query conditions        
@@ -68,6 +79,26 @@ public interface AlertService {
      */
     void editAlertStatus(Byte status, List<Long> ids);
 
+    /**
+     * Update the status of all the alarms matching the filter in one statement
+     * 根据过滤条件批量更新告警状态
+     * @param status Alarm status to be modified
+     * @param specification Query conditions of the alarms to be modified
+     * @return modified alarm number
+     */
+    int editAlertStatusByFilter(Byte status, Specification<Alert> specification);
+
+    /**
+     * Stream the alarms matching the filter to the output, the alarms are read by keyset pages of the id desc,
+     * only one page is in memory at a time
+     * 流式导出告警, 按ID键集分页读取
+     * @param specification Query conditions
+     * @param type export type, ndjson or csv
+     * @param outputStream output stream
+     * @throws IOException write error
+     */
+    void exportAlerts(Specification<Alert> specification, String type, OutputStream outputStream) throws IOException;
+
     /**
      * Get alarm statistics information
      * @return Alarm statistics information 
@@ -80,6 +111,14 @@ public interface AlertService {
      */
     void addNewAlertReport(AlertReport alertReport);
 
+    /**
+     * A third party reports alarms in batch, the valid ones are enqueued and reduced asynchronously
+     * @param alertReports The alarm information list, null element means the report can not be parsed
+     * @return accepted, invalid and rejected number of the reports
+     * @throws IllegalArgumentException the batch is larger than the max batch size
+     */
+    AlertReportBatchResult addNewAlertReports(List<AlertReport> alertReports);
+
     /**
      * Dynamic conditional query
      * @param specification Query conditions        
@@ -25,7 +25,9 @@ import org.dromara.hertzbeat.common.entity.alerter.AlertDefine;
 import org.dromara.hertzbeat.common.entity.alerter.AlertDefineMonitorBind;
 import org.dromara.hertzbeat.alert.service.AlertDefineService;
 import lombok.extern.slf4j.Slf4j;
+import org.dromara.hertzbeat.common.support.event.AlertDefineChangeEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
@@ -56,6 +58,9 @@ public class AlertDefineServiceImpl implements AlertDefineService {
     @Autowired
     private AlertDefineBindDao alertDefineBindDao;
 
+    @Autowired
+    private ApplicationContext applicationContext;
+
     private final Map<String, AlertDefineImExportService> alertDefineImExportServiceMap = new HashMap<>();
 
     public AlertDefineServiceImpl(List<AlertDefineImExportService> alertDefineImExportServiceList) {
@@ -77,16 +82,19 @@ public class AlertDefineServiceImpl implements AlertDefineService {
     @Override
     public void addAlertDefine(AlertDefine alertDefine) throws RuntimeException {
         alertDefineDao.save(alertDefine);
+        applicationContext.publishEvent(new AlertDefineChangeEvent(applicationContext));
     }
 
     @Override
     public void modifyAlertDefine(AlertDefine alertDefine) throws RuntimeException {
         alertDefineDao.save(alertDefine);
+        applicationContext.publishEvent(new AlertDefineChangeEvent(applicationContext));
     }
 
     @Override
     public void deleteAlertDefine(long alertId) throws RuntimeException {
         alertDefineDao.deleteById(alertId);
+        applicationContext.publishEvent(new AlertDefineChangeEvent(applicationContext));
     }
 
     @Override
@@ -98,6 +106,7 @@ public class AlertDefineServiceImpl implements AlertDefineService {
     @Override
     public void deleteAlertDefines(Set<Long> alertIds) throws RuntimeException {
         alertDefineDao.deleteAlertDefinesByIdIn(alertIds);
+        applicationContext.publishEvent(new AlertDefineChangeEvent(applicationContext));
     }
 
     @Override
@@ -116,6 +125,7 @@ public class AlertDefineServiceImpl implements AlertDefineService {
         alertDefineBindDao.deleteAlertDefineBindsByAlertDefineIdEquals(alertId);
         // Save the associated
         alertDefineBindDao.saveAll(alertDefineBinds);
+        applicationContext.publishEvent(new AlertDefineChangeEvent(applicationContext));
     }
 
     @Override
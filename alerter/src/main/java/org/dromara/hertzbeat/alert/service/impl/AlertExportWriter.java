@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.alert.service.impl;
+
+import org.dromara.hertzbeat.common.entity.alerter.Alert;
+import org.dromara.hertzbeat.common.util.JsonUtil;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Write the alerts one by one to the export stream as NDJSON or CSV, nothing is buffered but the writer buffer
+ * 告警流式导出, 逐条写出为NDJSON或CSV
+ * @author tom
+ */
+abstract class AlertExportWriter {
+
+    static final String TYPE_NDJSON = "ndjson";
+
+    static final String TYPE_CSV = "csv";
+
+    private static final String LINE_SEPARATOR = "\n";
+
+    protected final Writer writer;
+
+    private AlertExportWriter(OutputStream outputStream) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param type export type, ndjson or csv
+     * @param outputStream export stream
+     * @return writer
+     * @throws IllegalArgumentException not support type
+     */
+    static AlertExportWriter of(String type, OutputStream outputStream) {
+        if (TYPE_NDJSON.equalsIgnoreCase(type)) {
+            return new NdjsonWriter(outputStream);
+        }
+        if (TYPE_CSV.equalsIgnoreCase(type)) {
+            return new CsvWriter(outputStream);
+        }
+        throw new IllegalArgumentException("not support export type: " + type);
+    }
+
+    void writeHeader() throws IOException {
+    }
+
+    abstract void write(Alert alert) throws IOException;
+
+    void flush() throws IOException {
+        writer.flush();
+    }
+
+    private static final class NdjsonWriter extends AlertExportWriter {
+
+        private NdjsonWriter(OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        void write(Alert alert) throws IOException {
+            writer.write(JsonUtil.toJson(alert));
+            writer.write(LINE_SEPARATOR);
+        }
+    }
+
+    private static final class CsvWriter extends AlertExportWriter {
+
+        private static final String HEADER = "id,target,alertDefineId,priority,status,times,firstAlarmTime,lastAlarmTime,content,tags,gmtCreate";
+
+        private CsvWriter(OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        void writeHeader() throws IOException {
+            writer.write(HEADER);
+            writer.write(LINE_SEPARATOR);
+        }
+
+        @Override
+        void write(Alert alert) throws IOException {
+            writer.write(String.valueOf(alert.getId()));
+            writer.write(',');
+            writeField(alert.getTarget());
+            writer.write(',');
+            writeField(alert.getAlertDefineId());
+            writer.write(',');
+            writer.write(String.valueOf(alert.getPriority()));
+            writer.write(',');
+            writer.write(String.valueOf(alert.getStatus()));
+            writer.write(',');
+            writeField(alert.getTimes());
+            writer.write(',');
+            writeField(alert.getFirstAlarmTime());
+            writer.write(',');
+            writeField(alert.getLastAlarmTime());
+            writer.write(',');
+            writeField(alert.getContent());
+            writer.write(',');
+            writeField(alert.getTags() == null ? null : JsonUtil.toJson(alert.getTags()));
+            writer.write(',');
+            writeField(alert.getGmtCreate());
+            writer.write(LINE_SEPARATOR);
+        }
+
+        private void writeField(Object value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            String text = value.toString();
+            boolean quote = text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                    || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(text);
+                return;
+            }
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
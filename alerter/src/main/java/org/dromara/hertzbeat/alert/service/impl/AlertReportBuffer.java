@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.alert.service.impl;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.hertzbeat.alert.AlerterProperties;
+import org.dromara.hertzbeat.alert.reduce.AlarmCommonReduce;
+import org.dromara.hertzbeat.common.entity.alerter.Alert;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded ingest queue of the external alarm reports, the reports are reduced and sent to the alert data queue
+ * by the ingest threads, the request thread only validates and enqueues them
+ * 第三方告警上报处理队列, 有界队列, 告警收敛与发送在处理线程中异步执行
+ * @author tom
+ */
+@Component
+@Slf4j
+class AlertReportBuffer implements DisposableBean, MeterBinder {
+
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5L;
+
+    private final AlarmCommonReduce alarmCommonReduce;
+
+    private final ThreadPoolExecutor executor;
+
+    private final int maxBatchSize;
+
+    private final LongAdder acceptedCount = new LongAdder();
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private final LongAdder failedCount = new LongAdder();
+
+    /**
+     * the reduce is lazy, the meter binder is created with the meter registry before it
+     */
+    AlertReportBuffer(@Lazy AlarmCommonReduce alarmCommonReduce, AlerterProperties alerterProperties) {
+        this.alarmCommonReduce = alarmCommonReduce;
+        AlerterProperties.ReportProperties properties = alerterProperties.getReport() == null
+                ? new AlerterProperties.ReportProperties() : alerterProperties.getReport();
+        this.maxBatchSize = Math.max(properties.getMaxBatchSize(), 1);
+        int threads = Math.max(properties.getThreads(), 1);
+        this.executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(Math.max(properties.getQueueCapacity(), 1)),
+                new ThreadFactoryBuilder()
+                        .setDaemon(true)
+                        .setNameFormat("alerter-report-ingest-%d")
+                        .build(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * enqueue the alert to be reduced and sent
+     * @param alert alert built from the report
+     * @return false when the queue is full
+     */
+    boolean offer(Alert alert) {
+        try {
+            executor.execute(() -> reduce(alert));
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            return false;
+        }
+        acceptedCount.increment();
+        return true;
+    }
+
+    private void reduce(Alert alert) {
+        try {
+            alarmCommonReduce.reduceAndSendAlarm(alert);
+        } catch (Exception e) {
+            failedCount.increment();
+            log.error("reduce the reported alert error: {}, alert: {}.", e.getMessage(), alert);
+        }
+    }
+
+    int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    long getAcceptedCount() {
+        return acceptedCount.sum();
+    }
+
+    long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("hertzbeat.alerter.report.pending", executor, item -> item.getQueue().size())
+                .description("external alarm report waiting for the reduce size")
+                .register(registry);
+        FunctionCounter.builder("hertzbeat.alerter.report.accepted", acceptedCount, LongAdder::sum)
+                .description("external alarm report accepted count")
+                .register(registry);
+        FunctionCounter.builder("hertzbeat.alerter.report.rejected", rejectedCount, LongAdder::sum)
+                .description("external alarm report rejected by the full queue count")
+                .register(registry);
+        FunctionCounter.builder("hertzbeat.alerter.report.failed", failedCount, LongAdder::sum)
+                .description("external alarm report reduce failed count")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("{} reported alerts are not reduced before shutdown.", executor.shutdownNow().size());
+        }
+    }
+}
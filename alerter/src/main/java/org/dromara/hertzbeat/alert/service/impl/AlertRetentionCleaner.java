@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.alert.service.impl;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.hertzbeat.alert.AlerterProperties;
+import org.dromara.hertzbeat.alert.dao.AlertDao;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delete the alerts created before the retention days. The expired ids are walked by the gmtCreate index
+ * and deleted by primary key in small batches, each batch is a short transaction, the table is never scanned.
+ * 过期告警清理, 按创建时间索引分批查询ID并按主键删除, 每批独立短事务
+ * @author tom
+ */
+@Component
+@Slf4j
+class AlertRetentionCleaner implements SmartInitializingSingleton, DisposableBean {
+
+    private static final int INITIAL_DELAY_MINUTES = 5;
+
+    private final AlertDao alertDao;
+
+    private final AlertSummaryCounter alertSummaryCounter;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AlerterProperties.RetentionProperties properties;
+
+    private ScheduledExecutorService scheduledExecutor;
+
+    AlertRetentionCleaner(AlertDao alertDao, AlertSummaryCounter alertSummaryCounter,
+                          TransactionTemplate transactionTemplate, AlerterProperties alerterProperties) {
+        this.alertDao = alertDao;
+        this.alertSummaryCounter = alertSummaryCounter;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = alerterProperties.getRetention() == null
+                ? new AlerterProperties.RetentionProperties() : alerterProperties.getRetention();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!properties.isEnabled() || properties.getDays() <= 0) {
+            return;
+        }
+        scheduledExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("alerter-retention-%d")
+                .build());
+        scheduledExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                clean(LocalDateTime.now().minusDays(properties.getDays()));
+            } catch (Exception e) {
+                log.error("clean expired alerts error: {}.", e.getMessage());
+            }
+        }, INITIAL_DELAY_MINUTES, Math.max(properties.getInterval(), 1), TimeUnit.MINUTES);
+    }
+
+    /**
+     * delete the alerts created before the time batch by batch
+     * @param expireTime alerts created before this time are deleted
+     * @return deleted alert number
+     */
+    long clean(LocalDateTime expireTime) {
+        int batchSize = Math.max(properties.getBatchSize(), 1);
+        long deleted = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            Integer rows = transactionTemplate.execute(status -> {
+                List<Long> ids = alertDao.findIdsCreatedBefore(expireTime, PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                alertDao.deleteAllByIdInBatch(ids);
+                return ids.size();
+            });
+            if (rows == null || rows == 0) {
+                break;
+            }
+            deleted += rows;
+            if (rows < batchSize) {
+                break;
+            }
+        }
+        if (deleted > 0) {
+            log.info("deleted {} alerts created before {}.", deleted, expireTime);
+            alertSummaryCounter.reconcile();
+        }
+        return deleted;
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduledExecutor != null) {
+            scheduledExecutor.shutdownNow();
+        }
+    }
+}
@@ -20,12 +20,15 @@ package org.dromara.hertzbeat.alert.service.impl;
 import org.dromara.hertzbeat.alert.reduce.AlarmCommonReduce;
 import org.dromara.hertzbeat.alert.dao.AlertDao;
 import org.dromara.hertzbeat.alert.dto.AlertPriorityNum;
+import org.dromara.hertzbeat.alert.dto.AlertReportBatchResult;
+import org.dromara.hertzbeat.alert.dto.GeneralCloudAlertReport;
 import org.dromara.hertzbeat.alert.dto.AlertSummary;
 import org.dromara.hertzbeat.common.entity.alerter.Alert;
 import org.dromara.hertzbeat.alert.service.AlertService;
 import org.dromara.hertzbeat.common.entity.dto.AlertReport;
 import org.dromara.hertzbeat.common.constants.CommonConstants;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -33,11 +36,22 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -51,15 +65,42 @@ import java.util.Map;
 @Slf4j
 public class AlertServiceImpl implements AlertService {
 
+    private static final int EXPORT_PAGE_SIZE = 500;
+
+    private static final String ID = "id";
+
+    private static final String STATUS = "status";
+
+    private static final String PRIORITY = "priority";
+
     @Autowired
     private AlertDao alertDao;
     
     @Autowired
     private AlarmCommonReduce alarmCommonReduce;
 
+    @Autowired
+    private AlertSummaryCounter alertSummaryCounter;
+
+    @Autowired
+    private AlertReportBuffer alertReportBuffer;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Override
     public void addAlert(Alert alert) throws RuntimeException {
         alertDao.save(alert);
+        alertSummaryCounter.onAdded(Collections.singletonList(alert));
+    }
+
+    @Override
+    public void addAlerts(List<Alert> alerts) throws RuntimeException {
+        // the ids are assigned before stored, the session save inserts them without the merge lookup of the dao save
+        Session session = entityManager.unwrap(Session.class);
+        alerts.forEach(session::save);
+        session.flush();
+        alertSummaryCounter.onAdded(alerts);
     }
 
     @Override
@@ -69,43 +110,119 @@ public class AlertServiceImpl implements AlertService {
 
     @Override
     public void deleteAlerts(HashSet<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        List<AlertPriorityNum> removedPending = alertDao.findAlertPriorityNumByIds(ids);
+        long removedTotal = sumNum(alertDao.findAllPriorityNumByIds(ids));
         alertDao.deleteAlertsByIdIn(ids);
+        alertSummaryCounter.onRemoved(removedPending, removedTotal);
     }
 
     @Override
     public void clearAlerts() {
         alertDao.deleteAll();
+        alertSummaryCounter.onCleared();
     }
 
     @Override
     public void editAlertStatus(Byte status, List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        List<AlertPriorityNum> pendingBefore = alertDao.findAlertPriorityNumByIds(ids);
         alertDao.updateAlertsStatus(status, ids);
+        List<AlertPriorityNum> pendingAfter = status != null && status == CommonConstants.ALERT_STATUS_CODE_PENDING
+                ? alertDao.findAllPriorityNumByIds(ids) : null;
+        alertSummaryCounter.onStatusChanged(pendingBefore, pendingAfter);
     }
 
     @Override
-    public AlertSummary getAlertsSummary() {
-        AlertSummary alertSummary = new AlertSummary();
-        // Statistics on the alarm information in the alarm state
-        List<AlertPriorityNum> priorityNums = alertDao.findAlertPriorityNum();
-        if (priorityNums != null) {
-            for (AlertPriorityNum priorityNum : priorityNums) {
-                switch (priorityNum.getPriority()) {
-                    case CommonConstants
-                            .ALERT_PRIORITY_CODE_WARNING:
-                        alertSummary.setPriorityWarningNum(priorityNum.getNum());
-                        break;
-                    case CommonConstants.ALERT_PRIORITY_CODE_CRITICAL:
-                        alertSummary.setPriorityCriticalNum(priorityNum.getNum());
-                        break;
-                    case CommonConstants.ALERT_PRIORITY_CODE_EMERGENCY:
-                        alertSummary.setPriorityEmergencyNum(priorityNum.getNum());
-                        break;
-                    default:
-                        break;
-                }
+    public int editAlertStatusByFilter(Byte status, Specification<Alert> specification) {
+        if (status == null) {
+            return 0;
+        }
+        // the rows to be updated are the rows matching the filter before the update
+        List<AlertPriorityNum> pendingBefore = countPriorityByFilter(specification, true);
+        List<AlertPriorityNum> pendingAfter = status == CommonConstants.ALERT_STATUS_CODE_PENDING
+                ? countPriorityByFilter(specification, false) : null;
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Alert> update = criteriaBuilder.createCriteriaUpdate(Alert.class);
+        Root<Alert> root = update.from(Alert.class);
+        update.set(root.<Byte>get(STATUS), status);
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, null, criteriaBuilder);
+        if (predicate != null) {
+            update.where(predicate);
+        }
+        int rows = entityManager.createQuery(update).executeUpdate();
+        alertSummaryCounter.onStatusChanged(pendingBefore, pendingAfter);
+        return rows;
+    }
+
+    private List<AlertPriorityNum> countPriorityByFilter(Specification<Alert> specification, boolean pendingOnly) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AlertPriorityNum> query = criteriaBuilder.createQuery(AlertPriorityNum.class);
+        Root<Alert> root = query.from(Alert.class);
+        List<Predicate> predicates = new ArrayList<>(2);
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            predicates.add(predicate);
+        }
+        if (pendingOnly) {
+            predicates.add(criteriaBuilder.equal(root.get(STATUS), CommonConstants.ALERT_STATUS_CODE_PENDING));
+        }
+        query.select(criteriaBuilder.construct(AlertPriorityNum.class, root.get(PRIORITY), criteriaBuilder.count(root)))
+                .where(predicates.toArray(new Predicate[0]))
+                .groupBy(root.get(PRIORITY));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAlerts(Specification<Alert> specification, String type, OutputStream outputStream) throws IOException {
+        AlertExportWriter exportWriter = AlertExportWriter.of(type, outputStream);
+        exportWriter.writeHeader();
+        Long lastId = null;
+        while (true) {
+            List<Alert> alerts = findAlertsBefore(specification, lastId);
+            for (Alert alert : alerts) {
+                exportWriter.write(alert);
+            }
+            exportWriter.flush();
+            // detach the written page, the persistence context never holds more than one page
+            entityManager.clear();
+            if (alerts.size() < EXPORT_PAGE_SIZE) {
+                break;
             }
+            lastId = alerts.get(alerts.size() - 1).getId();
+        }
+    }
+
+    private List<Alert> findAlertsBefore(Specification<Alert> specification, Long lastId) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Alert> query = criteriaBuilder.createQuery(Alert.class);
+        Root<Alert> root = query.from(Alert.class);
+        List<Predicate> predicates = new ArrayList<>(2);
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            predicates.add(predicate);
         }
-        long total = alertDao.count();
+        if (lastId != null) {
+            predicates.add(criteriaBuilder.lessThan(root.get(ID), lastId));
+        }
+        query.select(root).where(predicates.toArray(new Predicate[0])).orderBy(criteriaBuilder.desc(root.get(ID)));
+        return entityManager.createQuery(query).setMaxResults(EXPORT_PAGE_SIZE).getResultList();
+    }
+
+    @Override
+    public AlertSummary getAlertsSummary() {
+        AlertSummary alertSummary = new AlertSummary();
+        // Statistics on the alarm information in the alarm state, maintained incrementally by the counter
+        long[] counters = alertSummaryCounter.snapshot();
+        alertSummary.setPriorityWarningNum(counters[AlertSummaryCounter.prioritySlot(CommonConstants.ALERT_PRIORITY_CODE_WARNING)]);
+        alertSummary.setPriorityCriticalNum(counters[AlertSummaryCounter.prioritySlot(CommonConstants.ALERT_PRIORITY_CODE_CRITICAL)]);
+        alertSummary.setPriorityEmergencyNum(counters[AlertSummaryCounter.prioritySlot(CommonConstants.ALERT_PRIORITY_CODE_EMERGENCY)]);
+        long total = counters[AlertSummaryCounter.TOTAL];
         alertSummary.setTotal(total);
         long dealNum = total - alertSummary.getPriorityCriticalNum()
                 - alertSummary.getPriorityEmergencyNum() - alertSummary.getPriorityWarningNum();
@@ -130,12 +247,74 @@ public class AlertServiceImpl implements AlertService {
         alarmCommonReduce.reduceAndSendAlarm(buildAlertData(alertReport));
     }
 
+    @Override
+    public AlertReportBatchResult addNewAlertReports(List<AlertReport> alertReports) {
+        if (alertReports.size() > alertReportBuffer.getMaxBatchSize()) {
+            throw new IllegalArgumentException("The batch size " + alertReports.size()
+                    + " is larger than the max batch size " + alertReportBuffer.getMaxBatchSize());
+        }
+        AlertReportBatchResult result = new AlertReportBatchResult();
+        result.setTotal(alertReports.size());
+        for (int index = 0; index < alertReports.size(); index++) {
+            AlertReport alertReport = alertReports.get(index);
+            String invalidReason = validateAlertReport(alertReport);
+            if (invalidReason != null) {
+                result.addInvalid(index, invalidReason);
+            } else if (alertReportBuffer.offer(buildAlertData(alertReport))) {
+                result.setAccepted(result.getAccepted() + 1);
+            } else {
+                result.setRejected(result.getRejected() + 1);
+            }
+        }
+        return result;
+    }
+
     @Override
     public List<Alert> getAlerts(Specification<Alert> specification) {
 
         return alertDao.findAll(specification);
     }
 
+    private static long sumNum(List<AlertPriorityNum> priorityNums) {
+        long sum = 0;
+        if (priorityNums != null) {
+            for (AlertPriorityNum priorityNum : priorityNums) {
+                sum += priorityNum.getNum();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @param alertReport alarm body
+     * @return the invalid reason, null when valid
+     */
+    private static String validateAlertReport(AlertReport alertReport) {
+        if (alertReport == null) {
+            return "can not parse the report";
+        }
+        if (alertReport instanceof GeneralCloudAlertReport) {
+            try {
+                ((GeneralCloudAlertReport) alertReport).refreshAlertTime();
+            } catch (Exception e) {
+                return "can not parse the alert time";
+            }
+        }
+        if (alertReport.getAlertTime() <= 0) {
+            return "alertTime is required";
+        }
+        Integer priority = alertReport.getPriority();
+        if (priority == null || priority < CommonConstants.ALERT_PRIORITY_CODE_EMERGENCY
+                || priority > CommonConstants.ALERT_PRIORITY_CODE_WARNING) {
+            return "priority must be 0, 1 or 2";
+        }
+        boolean noContent = alertReport.getContent() == null || alertReport.getContent().isEmpty();
+        if (noContent && (alertReport.getAnnotations() == null || alertReport.getAnnotations().isEmpty())) {
+            return "content or annotations is required";
+        }
+        return null;
+    }
+
     /**
      * The external alarm information is converted to Alert  
      * @param alertReport alarm body
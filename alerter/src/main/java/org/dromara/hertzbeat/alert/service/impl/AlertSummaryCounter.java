@@ -0,0 +1,340 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.alert.service.impl;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.hertzbeat.alert.AlerterProperties;
+import org.dromara.hertzbeat.alert.dao.AlertDao;
+import org.dromara.hertzbeat.alert.dto.AlertPriorityNum;
+import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.dromara.hertzbeat.common.entity.alerter.Alert;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory alarm summary counters, the total and the unhandled number of each priority. They are updated
+ * by the alarm service after its transaction committed, and reconciled against the database periodically.
+ * 告警统计计数器, 告警增删改提交后增量更新, 定时与数据库对账
+ * @author tom
+ */
+@Component
+@Slf4j
+class AlertSummaryCounter implements SmartInitializingSingleton, DisposableBean {
+
+    static final int TOTAL = 0;
+
+    /**
+     * slot of the unhandled alarm priority is 1 + priority
+     */
+    private static final int PRIORITY_OFFSET = 1;
+
+    private static final int SLOT_SIZE = 4;
+
+    private static final int INITIAL_DELAY_SECONDS = 60;
+
+    private static final int RECONCILE_ATTEMPTS = 3;
+
+    private final AlertDao alertDao;
+
+    private final int reconcileInterval;
+
+    private final AtomicLongArray counters = new AtomicLongArray(SLOT_SIZE);
+
+    private final Object reconcileLock = new Object();
+
+    /**
+     * guards the delta application against the reconcile epoch switch
+     */
+    private final Object deltaLock = new Object();
+
+    /**
+     * number of the transactions between their commit and the delta application, their changes may or may not
+     * be in the reconcile query numbers
+     */
+    private int committing;
+
+    /**
+     * a reconcile query is running
+     */
+    private boolean epochRunning;
+
+    /**
+     * the counters are changed or a transaction is committing while the reconcile query runs
+     */
+    private boolean epochChanged;
+
+    /**
+     * the deltas applied while the reconcile query runs
+     */
+    private final long[] epochDeltas = new long[SLOT_SIZE];
+
+    /**
+     * the alarms are cleared while the reconcile query runs
+     */
+    private boolean epochCleared;
+
+    private volatile boolean initialized;
+
+    private ScheduledExecutorService scheduledExecutor;
+
+    AlertSummaryCounter(AlertDao alertDao, AlerterProperties alerterProperties) {
+        this.alertDao = alertDao;
+        this.reconcileInterval = alerterProperties.getRetention() == null
+                ? new AlerterProperties.RetentionProperties().getReconcileInterval()
+                : alerterProperties.getRetention().getReconcileInterval();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (reconcileInterval <= 0) {
+            return;
+        }
+        scheduledExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("alerter-summary-reconcile-%d")
+                .build());
+        scheduledExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                reconcile();
+            } catch (Exception e) {
+                log.error("reconcile alert summary counters error: {}.", e.getMessage());
+            }
+        }, INITIAL_DELAY_SECONDS, reconcileInterval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return counters, index {@link #TOTAL} is the total, 1 + priority is the unhandled number of the priority
+     */
+    long[] snapshot() {
+        if (!initialized) {
+            reconcile();
+        }
+        long[] values = new long[SLOT_SIZE];
+        for (int slot = 0; slot < SLOT_SIZE; slot++) {
+            values[slot] = Math.max(counters.get(slot), 0);
+        }
+        return values;
+    }
+
+    static int prioritySlot(byte priority) {
+        return PRIORITY_OFFSET + priority;
+    }
+
+    void onAdded(List<Alert> alerts) {
+        long[] delta = new long[SLOT_SIZE];
+        for (Alert alert : alerts) {
+            delta[TOTAL]++;
+            if (alert.getStatus() == CommonConstants.ALERT_STATUS_CODE_PENDING && validPriority(alert.getPriority())) {
+                delta[prioritySlot(alert.getPriority())]++;
+            }
+        }
+        applyAfterCommit(delta);
+    }
+
+    /**
+     * @param removedPending unhandled number of each priority in the removed alarms
+     * @param removedTotal removed alarm number
+     */
+    void onRemoved(List<AlertPriorityNum> removedPending, long removedTotal) {
+        long[] delta = new long[SLOT_SIZE];
+        delta[TOTAL] = -removedTotal;
+        subtract(delta, removedPending);
+        applyAfterCommit(delta);
+    }
+
+    /**
+     * @param pendingBefore unhandled number of each priority in the alarms before the status update
+     * @param pendingAfter unhandled number of each priority in the alarms after the status update
+     */
+    void onStatusChanged(List<AlertPriorityNum> pendingBefore, List<AlertPriorityNum> pendingAfter) {
+        long[] delta = new long[SLOT_SIZE];
+        subtract(delta, pendingBefore);
+        if (pendingAfter != null) {
+            for (AlertPriorityNum priorityNum : pendingAfter) {
+                if (validPriority(priorityNum.getPriority())) {
+                    delta[prioritySlot(priorityNum.getPriority())] += priorityNum.getNum();
+                }
+            }
+        }
+        applyAfterCommit(delta);
+    }
+
+    void onCleared() {
+        runAfterCommit(() -> {
+            synchronized (deltaLock) {
+                for (int slot = 0; slot < SLOT_SIZE; slot++) {
+                    counters.set(slot, 0);
+                }
+                if (epochRunning) {
+                    Arrays.fill(epochDeltas, 0);
+                    epochCleared = true;
+                    epochChanged = true;
+                }
+            }
+        });
+    }
+
+    /**
+     * replace the counters with the database numbers. The numbers are only taken when no transaction committed
+     * while the query ran, otherwise a committed change may be both in the numbers and in the counters,
+     * the query is retried and at last left to the next reconcile.
+     */
+    void reconcile() {
+        synchronized (reconcileLock) {
+            for (int attempt = 1; attempt <= RECONCILE_ATTEMPTS; attempt++) {
+                synchronized (deltaLock) {
+                    epochRunning = true;
+                    epochChanged = committing > 0;
+                    epochCleared = false;
+                    Arrays.fill(epochDeltas, 0);
+                }
+                long[] actual;
+                try {
+                    actual = queryActual();
+                } finally {
+                    synchronized (deltaLock) {
+                        epochRunning = false;
+                    }
+                }
+                synchronized (deltaLock) {
+                    if (!epochChanged) {
+                        replaceCounters(actual);
+                        initialized = true;
+                        return;
+                    }
+                    if (!initialized && attempt == RECONCILE_ATTEMPTS) {
+                        // the counters have nothing to keep yet, take the numbers with the deltas applied meanwhile
+                        for (int slot = 0; slot < SLOT_SIZE; slot++) {
+                            actual[slot] = (epochCleared ? 0 : actual[slot]) + epochDeltas[slot];
+                        }
+                        replaceCounters(actual);
+                        initialized = true;
+                        return;
+                    }
+                }
+            }
+            log.debug("alert summary counters changed while reconciling, reconcile next time.");
+        }
+    }
+
+    private void replaceCounters(long[] actual) {
+        for (int slot = 0; slot < SLOT_SIZE; slot++) {
+            long current = counters.get(slot);
+            if (initialized && current != actual[slot]) {
+                log.debug("alert summary counter slot {} drift {}, reconciled.", slot, current - actual[slot]);
+            }
+            counters.set(slot, actual[slot]);
+        }
+    }
+
+    private long[] queryActual() {
+        long[] actual = new long[SLOT_SIZE];
+        actual[TOTAL] = alertDao.count();
+        List<AlertPriorityNum> priorityNums = alertDao.findAlertPriorityNum();
+        if (priorityNums != null) {
+            for (AlertPriorityNum priorityNum : priorityNums) {
+                if (validPriority(priorityNum.getPriority())) {
+                    actual[prioritySlot(priorityNum.getPriority())] = priorityNum.getNum();
+                }
+            }
+        }
+        return actual;
+    }
+
+    private void subtract(long[] delta, List<AlertPriorityNum> priorityNums) {
+        if (priorityNums == null) {
+            return;
+        }
+        for (AlertPriorityNum priorityNum : priorityNums) {
+            if (validPriority(priorityNum.getPriority())) {
+                delta[prioritySlot(priorityNum.getPriority())] -= priorityNum.getNum();
+            }
+        }
+    }
+
+    private void applyAfterCommit(long[] delta) {
+        runAfterCommit(() -> {
+            synchronized (deltaLock) {
+                for (int slot = 0; slot < SLOT_SIZE; slot++) {
+                    if (delta[slot] != 0) {
+                        counters.addAndGet(slot, delta[slot]);
+                        if (epochRunning) {
+                            epochDeltas[slot] += delta[slot];
+                            epochChanged = true;
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean committingCounted;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                synchronized (deltaLock) {
+                    committing++;
+                    committingCounted = true;
+                    epochChanged |= epochRunning;
+                }
+            }
+
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (committingCounted) {
+                    synchronized (deltaLock) {
+                        committing--;
+                    }
+                }
+            }
+        });
+    }
+
+    private static boolean validPriority(byte priority) {
+        return priority >= CommonConstants.ALERT_PRIORITY_CODE_EMERGENCY && priority <= CommonConstants.ALERT_PRIORITY_CODE_WARNING;
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduledExecutor != null) {
+            scheduledExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.dromara.hertzbeat.alert.calculate;
+
+import org.dromara.hertzbeat.alert.service.AlertDefineService;
+import org.dromara.hertzbeat.common.entity.alerter.AlertDefine;
+import org.dromara.hertzbeat.common.support.event.AlertDefineChangeEvent;
+import org.dromara.hertzbeat.common.support.event.MonitorDeletedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test case for {@link AlertDefineCache}
+ */
+@ExtendWith(MockitoExtension.class)
+class AlertDefineCacheTest {
+
+    @Mock
+    private AlertDefineService alertDefineService;
+
+    private AlertDefineCache alertDefineCache;
+
+    private Map<String, List<AlertDefine>> defineMap;
+
+    @BeforeEach
+    void setUp() {
+        alertDefineCache = new AlertDefineCache(alertDefineService);
+        AlertDefine define = AlertDefine.builder().id(1L).app("app").metric("cpu").field("usage").expr("usage > 90").build();
+        defineMap = Collections.singletonMap("usage", Collections.singletonList(define));
+    }
+
+    @Test
+    void getMonitorBindAlertDefinesHitCache() {
+        when(alertDefineService.getMonitorBindAlertDefines(1L, "app", "cpu")).thenReturn(defineMap);
+        assertEquals(defineMap, alertDefineCache.getMonitorBindAlertDefines(1L, "app", "cpu"));
+        assertEquals(defineMap, alertDefineCache.getMonitorBindAlertDefines(1L, "app", "cpu"));
+        verify(alertDefineService, times(1)).getMonitorBindAlertDefines(1L, "app", "cpu");
+        assertEquals(1, alertDefineCache.getHitCount());
+        assertEquals(1, alertDefineCache.getMissCount());
+        assertEquals(0.5d, alertDefineCache.getHitRate());
+    }
+
+    @Test
+    void invalidateOnDefineChange() {
+        when(alertDefineService.getMonitorBindAlertDefines(1L, "app", "cpu")).thenReturn(defineMap);
+        alertDefineCache.getMonitorBindAlertDefines(1L, "app", "cpu");
+        alertDefineCache.onAlertDefineChangeEvent(new AlertDefineChangeEvent(this));
+        alertDefineCache.getMonitorBindAlertDefines(1L, "app", "cpu");
+        verify(alertDefineService, times(2)).getMonitorBindAlertDefines(1L, "app", "cpu");
+        assertEquals(1, alertDefineCache.getVersion());
+    }
+
+    @Test
+    void invalidateOnMonitorDeleted() {
+        when(alertDefineService.getMonitorBindAlertAvaDefine(1L, "app", "availability")).thenReturn(null);
+        assertNull(alertDefineCache.getMonitorBindAlertAvaDefine(1L, "app", "availability"));
+        assertNull(alertDefineCache.getMonitorBindAlertAvaDefine(1L, "app", "availability"));
+        alertDefineCache.onMonitorDeletedEvent(new MonitorDeletedEvent(this, 1L));
+        assertNull(alertDefineCache.getMonitorBindAlertAvaDefine(1L, "app", "availability"));
+        verify(alertDefineService, times(2)).getMonitorBindAlertAvaDefine(1L, "app", "availability");
+    }
+}
@@ -0,0 +1,89 @@
+package org.dromara.hertzbeat.alert.calculate;
+
+import org.dromara.hertzbeat.alert.AlerterProperties;
+import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.dromara.hertzbeat.common.entity.alerter.Alert;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for {@link AlertStateJournal}
+ */
+class AlertStateJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void walReplayAfterSnapshot() throws IOException {
+        AlertStateJournal journal = new AlertStateJournal(dir, 0);
+        CalculateShard shard = new CalculateShard(0, journal);
+        shard.putTriggered("1-1", Alert.builder().target("cpu").tags(monitorTags(2)).triggerTimes(1).build());
+        shard.putNotRecovered("1-2", Alert.builder().target("disk").tags(monitorTags(2)).build());
+        assertEquals(2, shard.snapshot());
+
+        Alert alert = shard.getTriggered("1-1");
+        alert.setTriggerTimes(2);
+        shard.putTriggered("1-1", alert);
+        shard.removeNotRecovered("1-2");
+        shard.putNotRecovered("1-3", Alert.builder().target("mem").tags(monitorTags(3)).build());
+        shard.putNotRecovered("1-4", Alert.builder().target("no monitor").build());
+        journal.flush();
+        journal.close();
+
+        AlerterProperties.StateProperties properties = new AlerterProperties.StateProperties();
+        properties.setPath(dir.toString());
+        AlertStateStore stateStore = new AlertStateStore(properties);
+        CalculateShard[] shards = stateStore.createShards(2);
+        stateStore.restore(monitorId -> shards[(int) Math.floorMod(monitorId, (long) shards.length)]);
+
+        // the states are routed to the shard of their monitor
+        assertEquals(1, shards[0].getTriggeredAlertMap().size());
+        assertEquals(2, shards[0].getTriggeredAlertMap().get("1-1").getTriggerTimes());
+        assertTrue(shards[0].getNotRecoveredAlertMap().isEmpty());
+        assertTrue(shards[1].getTriggeredAlertMap().isEmpty());
+        assertEquals(1, shards[1].getNotRecoveredAlertMap().size());
+        assertTrue(shards[1].getNotRecoveredAlertMap().containsKey("1-3"));
+    }
+
+    @Test
+    void snapshotTruncateWal() throws IOException {
+        AlertStateJournal journal = new AlertStateJournal(dir, 1);
+        CalculateShard shard = new CalculateShard(1, journal);
+        shard.putTriggered("2-1", Alert.builder().target("cpu").build());
+        journal.flush();
+        assertTrue(Files.size(dir.resolve("shard-1.wal")) > 0);
+        shard.snapshot();
+        assertEquals(0, Files.size(dir.resolve("shard-1.wal")));
+        List<AlertStateJournal.StateRecord> records = AlertStateJournal.readAll(dir);
+        assertEquals(1, records.size());
+        assertEquals(AlertStateJournal.MAP_TRIGGERED, records.get(0).getMap());
+        journal.close();
+    }
+
+    @Test
+    void skipPartialLine() throws IOException {
+        AlertStateJournal journal = new AlertStateJournal(dir, 2);
+        journal.appendPut(AlertStateJournal.MAP_TRIGGERED, "3-1", Alert.builder().target("cpu").build());
+        journal.flush();
+        journal.close();
+        Files.writeString(dir.resolve("shard-2.wal"), "{\"op\":\"P\",\"ma", StandardOpenOption.APPEND);
+        assertEquals(1, AlertStateJournal.readAll(dir).size());
+        Files.delete(dir.resolve("shard-2.wal"));
+        assertTrue(AlertStateJournal.readAll(dir).isEmpty());
+    }
+
+    private static Map<String, String> monitorTags(long monitorId) {
+        return new HashMap<>(Map.of(CommonConstants.TAG_MONITOR_ID, String.valueOf(monitorId)));
+    }
+}
@@ -0,0 +1,55 @@
+package org.dromara.hertzbeat.alert.calculate;
+
+import org.dromara.hertzbeat.common.entity.alerter.Alert;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for {@link CalculateShard}
+ */
+class CalculateShardTest {
+
+    @Test
+    void runTasksInOrder() throws InterruptedException {
+        CalculateShard shard = new CalculateShard(0);
+        Thread thread = new Thread(shard);
+        thread.setDaemon(true);
+        thread.start();
+        List<Integer> executed = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        for (int index = 0; index < 100; index++) {
+            int value = index;
+            shard.submit(current -> {
+                executed.add(value);
+                current.getTriggeredAlertMap().put(String.valueOf(value), Alert.builder().triggerTimes(value).build());
+            });
+        }
+        shard.submit(current -> latch.countDown());
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        thread.interrupt();
+        for (int index = 0; index < 100; index++) {
+            assertEquals(index, executed.get(index));
+        }
+        assertEquals(100, shard.getTriggeredAlertMap().size());
+        assertEquals(0, shard.getPendingTaskSize());
+    }
+
+    @Test
+    void dropWhenFull() {
+        CalculateShard shard = new CalculateShard(0);
+        int accepted = 0;
+        while (shard.offer(current -> { })) {
+            accepted++;
+        }
+        assertEquals(accepted, shard.getPendingTaskSize());
+        assertEquals(1, shard.getDroppedCount());
+        assertFalse(shard.offer(current -> { }));
+        assertEquals(2, shard.getDroppedCount());
+    }
+}
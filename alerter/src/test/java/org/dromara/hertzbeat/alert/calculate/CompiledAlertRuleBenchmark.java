@@ -0,0 +1,131 @@
+package org.dromara.hertzbeat.alert.calculate;
+
+import com.googlecode.aviator.AviatorEvaluator;
+import com.googlecode.aviator.Expression;
+import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.dromara.hertzbeat.common.entity.alerter.AlertDefine;
+import org.dromara.hertzbeat.common.entity.message.CollectRep;
+import org.dromara.hertzbeat.common.util.CommonUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the alert rule evaluation hot path, compare the compiled rule with the compile per row way.
+ * run the main method with the alerter test classpath, it is not executed by the unit test phase
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class CompiledAlertRuleBenchmark {
+
+    @Param({"100", "10000"})
+    private int ruleCount;
+
+    @Param({"1000"})
+    private int rowCount;
+
+    private List<CollectRep.Field> fields;
+
+    private CollectRep.MetricsData metricsData;
+
+    private List<AlertDefine> defines;
+
+    private List<CompiledAlertRule> rules;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CollectRep.MetricsData.Builder builder = CollectRep.MetricsData.newBuilder()
+                .setId(1L).setApp("linux").setMetrics("disk");
+        builder.addFields(CollectRep.Field.newBuilder().setName("mount").setType(CommonConstants.TYPE_STRING).setLabel(true).build());
+        builder.addFields(CollectRep.Field.newBuilder().setName("usage").setType(CommonConstants.TYPE_NUMBER).build());
+        builder.addFields(CollectRep.Field.newBuilder().setName("available").setType(CommonConstants.TYPE_NUMBER).build());
+        builder.addFields(CollectRep.Field.newBuilder().setName("inode").setType(CommonConstants.TYPE_NUMBER).build());
+        for (int index = 0; index < rowCount; index++) {
+            builder.addValues(CollectRep.ValueRow.newBuilder()
+                    .addColumns("/data" + index)
+                    .addColumns(String.valueOf(index % 100))
+                    .addColumns(String.valueOf(index * 1024))
+                    .addColumns(String.valueOf(index % 50))
+                    .build());
+        }
+        metricsData = builder.build();
+        fields = metricsData.getFieldsList();
+        defines = new ArrayList<>(ruleCount);
+        rules = new ArrayList<>(ruleCount);
+        for (int index = 0; index < ruleCount; index++) {
+            AlertDefine define = AlertDefine.builder()
+                    .id((long) index)
+                    .app("linux").metric("disk").field("usage")
+                    .expr("usage > " + (90 + index % 10) + " && inode > " + (index % 50))
+                    .build();
+            defines.add(define);
+            rules.add(CompiledAlertRule.compile(define));
+        }
+    }
+
+    @Benchmark
+    public void compiledRule(Blackhole blackhole) {
+        MetricsFrame frame = new MetricsFrame(metricsData);
+        int valueRowCount = frame.getRowCount();
+        for (CompiledAlertRule rule : rules) {
+            for (int row = 0; row < valueRowCount; row++) {
+                blackhole.consume(rule.evaluate(frame, row));
+            }
+        }
+    }
+
+    @Benchmark
+    public void compilePerRow(Blackhole blackhole) {
+        int valueRowCount = metricsData.getValuesCount();
+        Map<String, Object> fieldValueMap = new HashMap<>(8);
+        for (AlertDefine define : defines) {
+            for (CollectRep.ValueRow valueRow : metricsData.getValuesList()) {
+                fieldValueMap.clear();
+                fieldValueMap.put(CompiledAlertRule.SYSTEM_VALUE_ROW_COUNT, valueRowCount);
+                for (int index = 0; index < valueRow.getColumnsCount(); index++) {
+                    CollectRep.Field field = fields.get(index);
+                    String valueStr = valueRow.getColumns(index);
+                    if (field.getType() == CommonConstants.TYPE_NUMBER) {
+                        fieldValueMap.put(field.getName(), CommonUtil.parseStrDouble(valueStr));
+                    } else {
+                        fieldValueMap.put(field.getName(), valueStr);
+                    }
+                }
+                Expression expression = AviatorEvaluator.compile(define.getExpr(), true);
+                for (String variable : expression.getVariableNames()) {
+                    blackhole.consume(fieldValueMap.containsKey(variable));
+                }
+                blackhole.consume(expression.execute(fieldValueMap));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CompiledAlertRuleBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,62 @@
+package org.dromara.hertzbeat.alert.calculate;
+
+import com.googlecode.aviator.exception.ExpressionRuntimeException;
+import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.dromara.hertzbeat.common.entity.alerter.AlertDefine;
+import org.dromara.hertzbeat.common.entity.message.CollectRep;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for {@link CompiledAlertRule}
+ */
+class CompiledAlertRuleTest {
+
+    private MetricsFrame frame;
+
+    @BeforeEach
+    void setUp() {
+        CollectRep.MetricsData metricsData = CollectRep.MetricsData.newBuilder()
+                .addFields(CollectRep.Field.newBuilder().setName("mount").setType(CommonConstants.TYPE_STRING).setLabel(true).build())
+                .addFields(CollectRep.Field.newBuilder().setName("usage").setType(CommonConstants.TYPE_NUMBER).build())
+                .addFields(CollectRep.Field.newBuilder().setName("free").setType(CommonConstants.TYPE_NUMBER).build())
+                .addValues(CollectRep.ValueRow.newBuilder().addColumns("/data").addColumns("95.5").addColumns(CommonConstants.NULL_VALUE).build())
+                .build();
+        frame = new MetricsFrame(metricsData);
+    }
+
+    @Test
+    void evaluate() {
+        CompiledAlertRule rule = CompiledAlertRule.compile(AlertDefine.builder().id(1L).expr("usage > 90 && mount == '/data'").build());
+        assertTrue(rule.isEvaluable());
+        assertFalse(rule.isRowCountRule());
+        assertTrue(rule.evaluate(frame, 0));
+        rule = CompiledAlertRule.compile(AlertDefine.builder().id(2L).expr("usage > 99").build());
+        assertFalse(rule.evaluate(frame, 0));
+    }
+
+    @Test
+    void evaluateMissingVariable() {
+        CompiledAlertRule rule = CompiledAlertRule.compile(AlertDefine.builder().id(1L).expr("free < 10").build());
+        assertThrows(ExpressionRuntimeException.class, () -> rule.evaluate(frame, 0));
+        CompiledAlertRule unknownRule = CompiledAlertRule.compile(AlertDefine.builder().id(2L).expr("unknown < 10").build());
+        assertThrows(ExpressionRuntimeException.class, () -> unknownRule.evaluate(frame, 0));
+    }
+
+    @Test
+    void evaluateRowCount() {
+        CompiledAlertRule rule = CompiledAlertRule.compile(AlertDefine.builder().id(1L).expr("system_value_row_count < 1").build());
+        assertTrue(rule.isRowCountRule());
+        assertTrue(rule.evaluateRowCount(0));
+        assertFalse(rule.evaluate(frame, 0));
+    }
+
+    @Test
+    void compileError() {
+        CompiledAlertRule rule = CompiledAlertRule.compile(AlertDefine.builder().id(1L).expr("usage >>> ").build());
+        assertFalse(rule.isEvaluable());
+        assertFalse(CompiledAlertRule.compile(AlertDefine.builder().id(2L).expr(" ").build()).isEvaluable());
+    }
+}
@@ -0,0 +1,135 @@
+package org.dromara.hertzbeat.alert.calculate;
+
+import com.googlecode.aviator.AviatorEvaluator;
+import com.googlecode.aviator.Expression;
+import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.dromara.hertzbeat.common.entity.alerter.AlertDefine;
+import org.dromara.hertzbeat.common.entity.message.CollectRep;
+import org.dromara.hertzbeat.common.util.CommonUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the per frame alert evaluation cost as the rules and rows grow,
+ * compare the columnar decoded frame with the row by row parse of every rule.
+ * run the main method with the alerter test classpath, it is not executed by the unit test phase
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class MetricsFrameBenchmark {
+
+    @Param({"1", "20", "100"})
+    private int ruleCount;
+
+    @Param({"50", "500", "5000"})
+    private int rowCount;
+
+    private CollectRep.MetricsData metricsData;
+
+    private List<CompiledAlertRule> rules;
+
+    private List<Expression> expressions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CollectRep.MetricsData.Builder builder = CollectRep.MetricsData.newBuilder()
+                .setId(1L).setApp("linux").setMetrics("disk");
+        builder.addFields(CollectRep.Field.newBuilder().setName("mount").setType(CommonConstants.TYPE_STRING).setLabel(true).build());
+        builder.addFields(CollectRep.Field.newBuilder().setName("device").setType(CommonConstants.TYPE_STRING).setLabel(true).build());
+        builder.addFields(CollectRep.Field.newBuilder().setName("usage").setType(CommonConstants.TYPE_NUMBER).build());
+        builder.addFields(CollectRep.Field.newBuilder().setName("available").setType(CommonConstants.TYPE_NUMBER).build());
+        builder.addFields(CollectRep.Field.newBuilder().setName("inode").setType(CommonConstants.TYPE_NUMBER).build());
+        for (int index = 0; index < rowCount; index++) {
+            builder.addValues(CollectRep.ValueRow.newBuilder()
+                    .addColumns("/data" + index)
+                    .addColumns("sd" + index)
+                    .addColumns(String.valueOf(index % 100))
+                    .addColumns(String.valueOf(index * 1024))
+                    .addColumns(String.valueOf(index % 50))
+                    .build());
+        }
+        metricsData = builder.build();
+        rules = new ArrayList<>(ruleCount);
+        expressions = new ArrayList<>(ruleCount);
+        for (int index = 0; index < ruleCount; index++) {
+            // thresholds never match, so every rule scans all the rows like a healthy frame
+            String expr = "usage > " + (100 + index) + " && inode > " + (index % 50);
+            rules.add(CompiledAlertRule.compile(AlertDefine.builder()
+                    .id((long) index)
+                    .app("linux").metric("disk").field("usage")
+                    .expr(expr)
+                    .build()));
+            expressions.add(AviatorEvaluator.compile(expr, true));
+        }
+    }
+
+    @Benchmark
+    public void columnarFrame(Blackhole blackhole) {
+        MetricsFrame frame = new MetricsFrame(metricsData);
+        int valueRowCount = frame.getRowCount();
+        for (CompiledAlertRule rule : rules) {
+            for (int row = 0; row < valueRowCount; row++) {
+                blackhole.consume(frame.labelKey(row));
+                blackhole.consume(rule.evaluate(frame, row));
+            }
+        }
+    }
+
+    @Benchmark
+    public void parsePerRule(Blackhole blackhole) {
+        List<CollectRep.Field> fields = metricsData.getFieldsList();
+        int valueRowCount = metricsData.getValuesCount();
+        Map<String, Object> fieldValueMap = new HashMap<>(8);
+        for (Expression expression : expressions) {
+            for (CollectRep.ValueRow valueRow : metricsData.getValuesList()) {
+                fieldValueMap.clear();
+                fieldValueMap.put(CompiledAlertRule.SYSTEM_VALUE_ROW_COUNT, valueRowCount);
+                StringBuilder tagBuilder = new StringBuilder();
+                for (int index = 0; index < valueRow.getColumnsCount(); index++) {
+                    CollectRep.Field field = fields.get(index);
+                    String valueStr = valueRow.getColumns(index);
+                    if (field.getLabel()) {
+                        tagBuilder.append("-").append(valueStr);
+                    }
+                    if (field.getType() == CommonConstants.TYPE_NUMBER) {
+                        fieldValueMap.put(field.getName(), CommonUtil.parseStrDouble(valueStr));
+                    } else {
+                        fieldValueMap.put(field.getName(), valueStr);
+                    }
+                }
+                blackhole.consume(tagBuilder.toString());
+                blackhole.consume(expression.execute(fieldValueMap));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MetricsFrameBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,73 @@
+package org.dromara.hertzbeat.alert.calculate;
+
+import com.googlecode.aviator.exception.ExpressionRuntimeException;
+import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.dromara.hertzbeat.common.entity.alerter.AlertDefine;
+import org.dromara.hertzbeat.common.entity.message.CollectRep;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for {@link MetricsFrame}
+ */
+class MetricsFrameTest {
+
+    private MetricsFrame frame;
+
+    @BeforeEach
+    void setUp() {
+        CollectRep.MetricsData metricsData = CollectRep.MetricsData.newBuilder()
+                .addFields(CollectRep.Field.newBuilder().setName("mount").setType(CommonConstants.TYPE_STRING).setLabel(true).build())
+                .addFields(CollectRep.Field.newBuilder().setName("usage").setType(CommonConstants.TYPE_NUMBER).build())
+                .addFields(CollectRep.Field.newBuilder().setName("uptime").setType(CommonConstants.TYPE_TIME).build())
+                .addFields(CollectRep.Field.newBuilder().setName("device").setType(CommonConstants.TYPE_STRING).setLabel(true).build())
+                .addValues(CollectRep.ValueRow.newBuilder().addColumns("/data").addColumns("95.5").addColumns("100").addColumns("sda").build())
+                .addValues(CollectRep.ValueRow.newBuilder().addColumns("/home").addColumns(CommonConstants.NULL_VALUE)
+                        .addColumns("abc").addColumns(CommonConstants.NULL_VALUE).build())
+                .addValues(CollectRep.ValueRow.newBuilder().build())
+                .build();
+        frame = new MetricsFrame(metricsData);
+    }
+
+    @Test
+    void value() {
+        assertEquals(3, frame.getRowCount());
+        assertEquals("/data", frame.value(0, 0));
+        assertEquals(95.5, frame.value(1, 0));
+        assertEquals(100, frame.value(2, 0));
+        assertNull(frame.value(1, 1));
+        assertNull(frame.value(2, 1));
+        assertNull(frame.value(1, 2));
+        assertNull(frame.value(CompiledAlertRule.SLOT_MISSING, 0));
+        assertTrue(frame.hasColumns(0));
+        assertFalse(frame.hasColumns(2));
+    }
+
+    @Test
+    void labelKey() {
+        assertEquals("-/data-sda", frame.labelKey(0));
+        assertEquals("-/home", frame.labelKey(1));
+        assertEquals("", frame.labelKey(2));
+    }
+
+    @Test
+    void fieldValueMap() {
+        Map<String, Object> fieldValueMap = frame.fieldValueMap(1);
+        assertEquals(3, fieldValueMap.get(CompiledAlertRule.SYSTEM_VALUE_ROW_COUNT));
+        assertEquals("/home", fieldValueMap.get("mount"));
+        assertFalse(fieldValueMap.containsKey("usage"));
+        assertFalse(fieldValueMap.containsKey("device"));
+    }
+
+    @Test
+    void evaluateRule() {
+        CompiledAlertRule rule = CompiledAlertRule.compile(AlertDefine.builder().id(1L)
+                .expr("usage > 90 && uptime >= 100 && system_value_row_count == 3").build());
+        assertTrue(rule.evaluate(frame, 0));
+        assertThrows(ExpressionRuntimeException.class, () -> rule.evaluate(frame, 1));
+    }
+}
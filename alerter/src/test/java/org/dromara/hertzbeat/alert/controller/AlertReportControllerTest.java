@@ -5,9 +5,12 @@ import org.dromara.hertzbeat.alert.dto.TenCloudAlertReport;
 import org.dromara.hertzbeat.alert.service.AlertService;
 import org.dromara.hertzbeat.common.constants.CommonConstants;
 import org.dromara.hertzbeat.common.util.JsonUtil;
+import org.dromara.hertzbeat.alert.dto.AlertReportBatchResult;
+import org.dromara.hertzbeat.common.entity.dto.AlertReport;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -16,6 +19,13 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -25,6 +35,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * @author tom
  */
 @ExtendWith(MockitoExtension.class)
+@SuppressWarnings("unchecked")
 class AlertReportControllerTest {
     
     private MockMvc mockMvc;
@@ -106,4 +117,68 @@ class AlertReportControllerTest {
                 .andExpect(content().json("{\"data\":null,\"msg\":\"Add report success\",\"code\":0}"))
                 .andReturn();
     }
+
+    @Test
+    void addNewAlertReportsJsonArray() throws Exception {
+        AlertReportBatchResult result = new AlertReportBatchResult();
+        result.setTotal(3);
+        result.setAccepted(2);
+        result.addInvalid(2, "can not parse the report");
+        when(alertService.addNewAlertReports(anyList())).thenReturn(result);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                                .post("/api/alerts/report/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[{\"alertName\":\"a\",\"priority\":1,\"alertTime\":1},"
+                                        + "{\"alertName\":\"b\",\"priority\":2,\"alertTime\":1},\"bad\"]")
+                )
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.code").value((int) CommonConstants.SUCCESS_CODE))
+                .andExpect(jsonPath("$.data.accepted").value(2))
+                .andExpect(jsonPath("$.data.errors[0]").value("2: can not parse the report"))
+                .andReturn();
+        ArgumentCaptor<List<AlertReport>> captor = ArgumentCaptor.forClass(List.class);
+        verify(alertService).addNewAlertReports(captor.capture());
+        List<AlertReport> reports = captor.getValue();
+        assertEquals(3, reports.size());
+        assertEquals("b", reports.get(1).getAlertName());
+        assertNull(reports.get(2));
+    }
+
+    @Test
+    void addNewAlertReportsNdjson() throws Exception {
+        AlertReportBatchResult result = new AlertReportBatchResult();
+        result.setAccepted(2);
+        when(alertService.addNewAlertReports(anyList())).thenReturn(result);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                                .post("/api/alerts/report/batch")
+                                .contentType("application/x-ndjson")
+                                .content("{\"alertName\":\"a\",\"priority\":1}\n\n{\"alertName\":\"b\",\"priority\":0}\n")
+                )
+                .andExpect(status().isAccepted())
+                .andReturn();
+        ArgumentCaptor<List<AlertReport>> captor = ArgumentCaptor.forClass(List.class);
+        verify(alertService).addNewAlertReports(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertEquals(0, captor.getValue().get(1).getPriority());
+    }
+
+    @Test
+    void addNewAlertReportsQueueFull() throws Exception {
+        AlertReportBatchResult result = new AlertReportBatchResult();
+        result.setTotal(1);
+        result.setRejected(1);
+        when(alertService.addNewAlertReports(anyList())).thenReturn(result);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                                .post("/api/alerts/report/batch/tencloud")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[{\"sessionId\":\"123\"}]")
+                )
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.code").value((int) CommonConstants.FAIL_CODE))
+                .andExpect(jsonPath("$.data.rejected").value(1))
+                .andReturn();
+    }
 }
@@ -6,6 +6,7 @@ import org.dromara.hertzbeat.common.entity.alerter.Alert;
 import org.dromara.hertzbeat.common.entity.dto.AlertReport;
 import org.dromara.hertzbeat.common.constants.CommonConstants;
 import org.dromara.hertzbeat.common.util.JsonUtil;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -136,6 +137,59 @@ class AlertsControllerTest {
                 .andReturn();
     }
 
+    @Test
+    void applyAlertsStatusByFilter() throws Exception {
+        Mockito.when(alertService.editAlertStatusByFilter(Mockito.eq((byte) 3), Mockito.any(Specification.class))).thenReturn(5);
+
+        mockMvc.perform(
+                        MockMvcRequestBuilders
+                                .put("/api/alerts/status/3/filter")
+                                .param("priority", "1")
+                                .param("currentStatus", "0")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value((int) CommonConstants.SUCCESS_CODE))
+                .andExpect(jsonPath("$.data").value(5))
+                .andReturn();
+    }
+
+    @Test
+    void applyAlertsStatusWithoutFilter() throws Exception {
+        mockMvc.perform(
+                        MockMvcRequestBuilders
+                                .put("/api/alerts/status/3/filter")
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value((int) CommonConstants.PARAM_INVALID_CODE))
+                .andReturn();
+        Mockito.verifyNoInteractions(alertService);
+    }
+
+    @Test
+    void exportAlerts() throws Exception {
+        mockMvc.perform(
+                        MockMvcRequestBuilders
+                                .get("/api/alerts/export")
+                                .param("type", "csv")
+                                .param("status", "0")
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment;filename=hertzbeat-alerts.csv"))
+                .andReturn();
+        Mockito.verify(alertService).exportAlerts(Mockito.any(Specification.class), Mockito.eq("csv"), Mockito.any());
+    }
+
+    @Test
+    void exportAlertsNotSupportType() throws Exception {
+        Mockito.doThrow(new IllegalArgumentException("not support export type: xml")).when(alertService)
+                .exportAlerts(Mockito.any(Specification.class), Mockito.eq("xml"), Mockito.any());
+        Assertions.assertThrows(Exception.class, () -> mockMvc.perform(
+                MockMvcRequestBuilders
+                        .get("/api/alerts/export")
+                        .param("type", "xml")
+        ));
+    }
+
     @Test
     void getAlertsSummary() throws Exception {
         //打桩
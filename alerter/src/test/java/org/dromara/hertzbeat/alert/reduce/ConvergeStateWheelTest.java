@@ -0,0 +1,115 @@
+package org.dromara.hertzbeat.alert.reduce;
+
+import org.dromara.hertzbeat.alert.AlerterProperties;
+import org.dromara.hertzbeat.common.entity.alerter.Alert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for {@link ConvergeStateWheel}
+ */
+class ConvergeStateWheelTest {
+
+    private static final long EVAL_INTERVAL = 10_000L;
+
+    private ConvergeStateWheel convergeStateWheel;
+
+    @BeforeEach
+    void setUp() {
+        AlerterProperties.ConvergeProperties properties = new AlerterProperties.ConvergeProperties();
+        properties.setTick(1000);
+        properties.setWheelSize(8);
+        properties.setMaxEntries(3);
+        convergeStateWheel = new ConvergeStateWheel(properties);
+    }
+
+    @Test
+    void fingerprintIgnoreTagOrder() {
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("monitorId", "1");
+        tags.put("env", "prod");
+        Map<String, String> reversed = new LinkedHashMap<>();
+        reversed.put("env", "prod");
+        reversed.put("monitorId", "1");
+        assertEquals(ConvergeStateWheel.tagsFingerprint(tags), ConvergeStateWheel.tagsFingerprint(reversed));
+        // the key value boundary is part of the fingerprint
+        assertNotEquals(ConvergeStateWheel.tagsFingerprint(Map.of("ab", "c")), ConvergeStateWheel.tagsFingerprint(Map.of("a", "bc")));
+        long tagsFingerprint = ConvergeStateWheel.tagsFingerprint(tags);
+        assertNotEquals(ConvergeStateWheel.fingerprint((byte) 0, tagsFingerprint), ConvergeStateWheel.fingerprint((byte) 1, tagsFingerprint));
+    }
+
+    @Test
+    void convergeInEvalInterval() {
+        long now = 100_000L;
+        Alert first = Alert.builder().build();
+        assertTrue(convergeStateWheel.converge(1L, first, EVAL_INTERVAL, now));
+        assertEquals(1, first.getTimes());
+        assertFalse(convergeStateWheel.converge(1L, Alert.builder().build(), EVAL_INTERVAL, now + 1000));
+        assertFalse(convergeStateWheel.converge(1L, Alert.builder().build(), EVAL_INTERVAL, now + 2000));
+
+        Alert next = Alert.builder().build();
+        assertTrue(convergeStateWheel.converge(1L, next, EVAL_INTERVAL, now + EVAL_INTERVAL));
+        assertEquals(3, next.getTimes());
+        assertEquals(now, next.getFirstAlarmTime());
+        assertEquals(2, convergeStateWheel.getConvergedCount());
+    }
+
+    @Test
+    void expireAfterEvalInterval() {
+        long now = 100_000L;
+        convergeStateWheel.converge(1L, Alert.builder().build(), EVAL_INTERVAL, now);
+        convergeStateWheel.converge(2L, Alert.builder().build(), EVAL_INTERVAL * 3, now);
+        convergeStateWheel.sweep(now + EVAL_INTERVAL - 1);
+        assertEquals(2, convergeStateWheel.size());
+
+        convergeStateWheel.sweep(now + EVAL_INTERVAL + 1000);
+        assertEquals(1, convergeStateWheel.size());
+        assertEquals(1, convergeStateWheel.getExpiredCount());
+
+        // longer than one wheel round, kept until its own expiry
+        convergeStateWheel.sweep(now + EVAL_INTERVAL * 2);
+        assertEquals(1, convergeStateWheel.size());
+        convergeStateWheel.sweep(now + EVAL_INTERVAL * 3 + 1000);
+        assertEquals(0, convergeStateWheel.size());
+    }
+
+    @Test
+    void extendWhenAlarmAgain() {
+        long now = 100_000L;
+        convergeStateWheel.converge(1L, Alert.builder().build(), EVAL_INTERVAL, now);
+        assertFalse(convergeStateWheel.converge(1L, Alert.builder().build(), EVAL_INTERVAL, now + 5000));
+        convergeStateWheel.sweep(now + EVAL_INTERVAL + 1000);
+        assertEquals(1, convergeStateWheel.size());
+        convergeStateWheel.sweep(now + EVAL_INTERVAL + 6000);
+        assertEquals(0, convergeStateWheel.size());
+    }
+
+    @Test
+    void evictBeyondMaxEntries() {
+        long now = 100_000L;
+        convergeStateWheel.converge(1L, Alert.builder().build(), 2000, now);
+        convergeStateWheel.converge(2L, Alert.builder().build(), 5000, now);
+        convergeStateWheel.converge(3L, Alert.builder().build(), 5000, now);
+        convergeStateWheel.converge(4L, Alert.builder().build(), 5000, now);
+        assertEquals(3, convergeStateWheel.size());
+        assertEquals(1, convergeStateWheel.getEvictedCount());
+        // the soonest expiring one is evicted
+        Alert alert = Alert.builder().build();
+        assertTrue(convergeStateWheel.converge(1L, alert, 2000, now + 1000));
+        assertEquals(1, alert.getTimes());
+    }
+
+    @Test
+    void removeOnRestored() {
+        long now = 100_000L;
+        convergeStateWheel.converge(1L, Alert.builder().build(), EVAL_INTERVAL, now);
+        convergeStateWheel.remove(1L);
+        assertEquals(0, convergeStateWheel.size());
+        assertTrue(convergeStateWheel.converge(1L, Alert.builder().build(), EVAL_INTERVAL, now + 1000));
+    }
+}
@@ -0,0 +1,76 @@
+package org.dromara.hertzbeat.alert.reduce;
+
+import org.dromara.hertzbeat.alert.dao.AlertMonitorDao;
+import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.dromara.hertzbeat.common.entity.manager.Monitor;
+import org.dromara.hertzbeat.common.entity.manager.Tag;
+import org.dromara.hertzbeat.common.support.event.MonitorChangeEvent;
+import org.dromara.hertzbeat.common.support.event.MonitorDeletedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test case for {@link MonitorMetadataCache}
+ */
+@ExtendWith(MockitoExtension.class)
+class MonitorMetadataCacheTest {
+
+    @Mock
+    private AlertMonitorDao alertMonitorDao;
+
+    private MonitorMetadataCache monitorMetadataCache;
+
+    private Monitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        monitorMetadataCache = new MonitorMetadataCache(alertMonitorDao);
+        monitor = Monitor.builder().id(1L).name("mysql").host("127.0.0.1").app("mysql")
+                .status(CommonConstants.AVAILABLE_CODE)
+                .tags(List.of(Tag.builder().name("env").value("prod").build(), Tag.builder().name("env").value("dev").build()))
+                .build();
+    }
+
+    @Test
+    void bulkLoad() {
+        when(alertMonitorDao.findAllWithTags()).thenReturn(List.of(monitor));
+        monitorMetadataCache.afterSingletonsInstantiated();
+        MonitorMetadataCache.MonitorMetadata metadata = monitorMetadataCache.get(1L);
+        assertEquals("mysql", metadata.getName());
+        assertEquals("127.0.0.1", metadata.getHost());
+        assertEquals("prod", metadata.getTags().get("env"));
+        assertEquals(1, monitorMetadataCache.getHitCount());
+        verify(alertMonitorDao, never()).findById(anyLong());
+    }
+
+    @Test
+    void loadOnMissAndInvalidate() {
+        when(alertMonitorDao.findById(1L)).thenReturn(Optional.of(monitor));
+        when(alertMonitorDao.findMonitorIdBindTags(1L)).thenReturn(monitor.getTags());
+        assertEquals(CommonConstants.AVAILABLE_CODE, monitorMetadataCache.get(1L).getStatus());
+        monitorMetadataCache.get(1L);
+        verify(alertMonitorDao, times(1)).findById(1L);
+        assertEquals(1, monitorMetadataCache.getHitCount());
+        assertEquals(1, monitorMetadataCache.getMissCount());
+
+        monitor.setStatus(CommonConstants.UN_AVAILABLE_CODE);
+        monitorMetadataCache.onMonitorChangeEvent(new MonitorChangeEvent(this, 1L));
+        assertEquals(CommonConstants.UN_AVAILABLE_CODE, monitorMetadataCache.get(1L).getStatus());
+        monitorMetadataCache.onMonitorChangeEvent(new MonitorChangeEvent(this, null));
+        monitorMetadataCache.get(1L);
+        verify(alertMonitorDao, times(3)).findById(1L);
+
+        when(alertMonitorDao.findById(1L)).thenReturn(Optional.empty());
+        monitorMetadataCache.onMonitorDeletedEvent(new MonitorDeletedEvent(this, 1L));
+        assertNull(monitorMetadataCache.get(1L));
+    }
+}
@@ -11,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationContext;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
@@ -40,6 +41,9 @@ class AlertDefineServiceTest {
     @Mock
     private List<AlertDefineImExportService> alertDefineImExportServiceList;
 
+    @Mock
+    private ApplicationContext applicationContext;
+
     @InjectMocks
     private AlertDefineServiceImpl alertDefineService;
 
@@ -47,6 +51,7 @@ class AlertDefineServiceTest {
     void setUp() {
         ReflectionTestUtils.setField(this.alertDefineService, "alertDefineDao", alertDefineDao);
         ReflectionTestUtils.setField(this.alertDefineService, "alertDefineBindDao", alertDefineBindDao);
+        ReflectionTestUtils.setField(this.alertDefineService, "applicationContext", applicationContext);
 
         this.alertDefine = AlertDefine.builder()
                 .id(1L)
@@ -0,0 +1,53 @@
+package org.dromara.hertzbeat.alert.service.impl;
+
+import org.dromara.hertzbeat.common.entity.alerter.Alert;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test case for {@link AlertExportWriter}
+ */
+class AlertExportWriterTest {
+
+    @Test
+    void writeNdjson() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        AlertExportWriter writer = AlertExportWriter.of("ndjson", outputStream);
+        writer.writeHeader();
+        writer.write(Alert.builder().id(1L).content("cpu high").build());
+        writer.write(Alert.builder().id(2L).content("line\nbreak").build());
+        writer.flush();
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{") && lines[0].contains("\"id\":1"));
+        assertTrue(lines[1].contains("\"id\":2"));
+    }
+
+    @Test
+    void writeCsv() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        AlertExportWriter writer = AlertExportWriter.of("CSV", outputStream);
+        writer.writeHeader();
+        writer.write(Alert.builder().id(1L).target("cpu").priority((byte) 1).status((byte) 0)
+                .content("usage \"high\", 90%").tags(Map.of("monitorId", "6")).build());
+        writer.flush();
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("id,target,"));
+        assertEquals("1,cpu,,1,0,,,,\"usage \"\"high\"\", 90%\",\"{\"\"monitorId\"\":\"\"6\"\"}\",", lines[1]);
+    }
+
+    @Test
+    void notSupportType() {
+        assertThrows(IllegalArgumentException.class, () -> AlertExportWriter.of("xml", new ByteArrayOutputStream()));
+    }
+}
@@ -0,0 +1,68 @@
+package org.dromara.hertzbeat.alert.service.impl;
+
+import org.dromara.hertzbeat.alert.AlerterProperties;
+import org.dromara.hertzbeat.alert.reduce.AlarmCommonReduce;
+import org.dromara.hertzbeat.common.entity.alerter.Alert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test case for {@link AlertReportBuffer}
+ */
+@ExtendWith(MockitoExtension.class)
+class AlertReportBufferTest {
+
+    @Mock
+    private AlarmCommonReduce alarmCommonReduce;
+
+    private AlertReportBuffer alertReportBuffer;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (alertReportBuffer != null) {
+            alertReportBuffer.destroy();
+        }
+    }
+
+    @Test
+    void reduceAsynchronously() {
+        alertReportBuffer = new AlertReportBuffer(alarmCommonReduce, new AlerterProperties());
+        Alert alert = Alert.builder().content("cpu high").build();
+        assertTrue(alertReportBuffer.offer(alert));
+        verify(alarmCommonReduce, timeout(3000)).reduceAndSendAlarm(alert);
+        assertEquals(1, alertReportBuffer.getAcceptedCount());
+    }
+
+    @Test
+    void rejectWhenQueueFull() throws InterruptedException {
+        AlerterProperties alerterProperties = new AlerterProperties();
+        alerterProperties.getReport().setThreads(1);
+        alerterProperties.getReport().setQueueCapacity(1);
+        alertReportBuffer = new AlertReportBuffer(alarmCommonReduce, alerterProperties);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            running.countDown();
+            release.await(3, TimeUnit.SECONDS);
+            return null;
+        }).when(alarmCommonReduce).reduceAndSendAlarm(any());
+
+        assertTrue(alertReportBuffer.offer(Alert.builder().build()));
+        assertTrue(running.await(3, TimeUnit.SECONDS));
+        assertTrue(alertReportBuffer.offer(Alert.builder().build()));
+        assertFalse(alertReportBuffer.offer(Alert.builder().build()));
+        assertEquals(1, alertReportBuffer.getRejectedCount());
+        release.countDown();
+        verify(alarmCommonReduce, timeout(3000).times(2)).reduceAndSendAlarm(any());
+    }
+}
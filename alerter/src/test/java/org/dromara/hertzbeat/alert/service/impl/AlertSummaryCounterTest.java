@@ -0,0 +1,142 @@
+package org.dromara.hertzbeat.alert.service.impl;
+
+import org.dromara.hertzbeat.alert.AlerterProperties;
+import org.dromara.hertzbeat.alert.dao.AlertDao;
+import org.dromara.hertzbeat.alert.dto.AlertPriorityNum;
+import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.dromara.hertzbeat.common.entity.alerter.Alert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test case for {@link AlertSummaryCounter} and {@link AlertRetentionCleaner}
+ */
+@ExtendWith(MockitoExtension.class)
+class AlertSummaryCounterTest {
+
+    @Mock
+    private AlertDao alertDao;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private AlertSummaryCounter alertSummaryCounter;
+
+    private AlerterProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AlerterProperties();
+        alertSummaryCounter = new AlertSummaryCounter(alertDao, properties);
+    }
+
+    private long pending(long[] counters, byte priority) {
+        return counters[AlertSummaryCounter.prioritySlot(priority)];
+    }
+
+    @Test
+    void incrementalCounters() {
+        when(alertDao.count()).thenReturn(10L);
+        when(alertDao.findAlertPriorityNum()).thenReturn(List.of(new AlertPriorityNum(CommonConstants.ALERT_PRIORITY_CODE_WARNING, 4)));
+        long[] counters = alertSummaryCounter.snapshot();
+        assertEquals(10, counters[AlertSummaryCounter.TOTAL]);
+        assertEquals(4, pending(counters, CommonConstants.ALERT_PRIORITY_CODE_WARNING));
+
+        alertSummaryCounter.onAdded(List.of(
+                Alert.builder().priority(CommonConstants.ALERT_PRIORITY_CODE_EMERGENCY).status(CommonConstants.ALERT_STATUS_CODE_PENDING).build(),
+                Alert.builder().priority(CommonConstants.ALERT_PRIORITY_CODE_WARNING).status(CommonConstants.ALERT_STATUS_CODE_RESTORED).build()));
+        counters = alertSummaryCounter.snapshot();
+        assertEquals(12, counters[AlertSummaryCounter.TOTAL]);
+        assertEquals(1, pending(counters, CommonConstants.ALERT_PRIORITY_CODE_EMERGENCY));
+
+        alertSummaryCounter.onStatusChanged(List.of(new AlertPriorityNum(CommonConstants.ALERT_PRIORITY_CODE_WARNING, 3)), null);
+        alertSummaryCounter.onRemoved(List.of(new AlertPriorityNum(CommonConstants.ALERT_PRIORITY_CODE_EMERGENCY, 1)), 2);
+        counters = alertSummaryCounter.snapshot();
+        assertEquals(10, counters[AlertSummaryCounter.TOTAL]);
+        assertEquals(1, pending(counters, CommonConstants.ALERT_PRIORITY_CODE_WARNING));
+        assertEquals(0, pending(counters, CommonConstants.ALERT_PRIORITY_CODE_EMERGENCY));
+        verify(alertDao, times(1)).count();
+
+        alertSummaryCounter.onCleared();
+        assertEquals(0, alertSummaryCounter.snapshot()[AlertSummaryCounter.TOTAL]);
+    }
+
+    @Test
+    void reconcileDrift() {
+        when(alertDao.count()).thenReturn(5L, 7L);
+        when(alertDao.findAlertPriorityNum()).thenReturn(List.of(), List.of(new AlertPriorityNum(CommonConstants.ALERT_PRIORITY_CODE_CRITICAL, 2)));
+        alertSummaryCounter.snapshot();
+        alertSummaryCounter.reconcile();
+        long[] counters = alertSummaryCounter.snapshot();
+        assertEquals(7, counters[AlertSummaryCounter.TOTAL]);
+        assertEquals(2, pending(counters, CommonConstants.ALERT_PRIORITY_CODE_CRITICAL));
+    }
+
+    @Test
+    void reconcileRetryWhenChangedDuringQuery() {
+        when(alertDao.count()).thenReturn(5L);
+        when(alertDao.findAlertPriorityNum()).thenReturn(List.of());
+        alertSummaryCounter.snapshot();
+        // the added alarm committed before the count query read, and is applied while the query runs
+        when(alertDao.count()).thenAnswer(invocation -> {
+            alertSummaryCounter.onAdded(List.of(Alert.builder().status(CommonConstants.ALERT_STATUS_CODE_RESTORED).build()));
+            return 6L;
+        }).thenReturn(6L);
+        alertSummaryCounter.reconcile();
+        assertEquals(6, alertSummaryCounter.snapshot()[AlertSummaryCounter.TOTAL]);
+        verify(alertDao, times(3)).count();
+    }
+
+    @Test
+    void reconcileSkippedWhenCommittingDuringQuery() {
+        when(alertDao.count()).thenReturn(5L);
+        when(alertDao.findAlertPriorityNum()).thenReturn(List.of());
+        alertSummaryCounter.snapshot();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            alertSummaryCounter.onAdded(List.of(Alert.builder().status(CommonConstants.ALERT_STATUS_CODE_RESTORED).build()));
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+            // the transaction committed, the delta is not applied yet
+            when(alertDao.count()).thenReturn(6L);
+            alertSummaryCounter.reconcile();
+            assertEquals(5, alertSummaryCounter.snapshot()[AlertSummaryCounter.TOTAL]);
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(6, alertSummaryCounter.snapshot()[AlertSummaryCounter.TOTAL]);
+        alertSummaryCounter.reconcile();
+        assertEquals(6, alertSummaryCounter.snapshot()[AlertSummaryCounter.TOTAL]);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void retentionDeleteInBatches() {
+        properties.getRetention().setBatchSize(2);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Integer>) invocation.getArgument(0)).doInTransaction(null));
+        when(alertDao.findIdsCreatedBefore(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L), List.of(3L));
+        AlertRetentionCleaner cleaner = new AlertRetentionCleaner(alertDao, alertSummaryCounter, transactionTemplate, properties);
+        assertEquals(3, cleaner.clean(LocalDateTime.now()));
+        verify(alertDao, times(2)).deleteAllByIdInBatch(any());
+        verify(alertDao, times(1)).count();
+    }
+}
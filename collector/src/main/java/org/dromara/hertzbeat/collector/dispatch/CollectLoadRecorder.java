@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.collector.dispatch;
+
+import org.dromara.hertzbeat.common.entity.dto.CollectorLoad;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measure the collect cost of the cyclic jobs, the average milliseconds of one collection of each app is kept as
+ * an exponentially weighted moving average, reported to the manager in the heartbeat for load balancing.
+ * 采集耗时统计, 按应用类型记录单次采集耗时的指数加权平均值, 随心跳上报给管理端用于负载均衡
+ * @author tom
+ */
+@Component
+public class CollectLoadRecorder {
+
+    /**
+     * weight of the history, the new cost weights 1 / EWMA_WEIGHT
+     */
+    private static final int EWMA_WEIGHT = 8;
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+
+    private final WorkerPool workerPool;
+
+    /**
+     * app - average collect milliseconds
+     */
+    private final Map<String, Long> appCosts = new ConcurrentHashMap<>(16);
+
+    public CollectLoadRecorder(WorkerPool workerPool) {
+        this.workerPool = workerPool;
+    }
+
+    /**
+     * record the collect milliseconds of one round of the job
+     * @param app job app
+     * @param cost collect milliseconds
+     */
+    public void record(String app, long cost) {
+        if (app == null || cost < 0) {
+            return;
+        }
+        appCosts.merge(app, cost, (average, current) -> average + (current - average) / EWMA_WEIGHT);
+    }
+
+    /**
+     * @return collector load
+     */
+    public CollectorLoad snapshot() {
+        return CollectorLoad.builder()
+                .capacity(workerPool.getMaximumPoolSize() * MILLIS_PER_SECOND)
+                .appCosts(new HashMap<>(appCosts))
+                .build();
+    }
+}
@@ -82,6 +82,8 @@ public class CommonDispatcher implements MetricsTaskDispatch, CollectDataDispatc
     private final List<UnitConvert> unitConvertList;
 
     private final WorkerPool workerPool;
+
+    private final CollectLoadRecorder collectLoadRecorder;
     
     private final String collectorIdentity;
 
@@ -90,12 +92,14 @@ public class CommonDispatcher implements MetricsTaskDispatch, CollectDataDispatc
                             CommonDataQueue commonDataQueue,
                             WorkerPool workerPool,
                             CollectJobService collectJobService,
+                            CollectLoadRecorder collectLoadRecorder,
                             List<UnitConvert> unitConvertList) {
         this.commonDataQueue = commonDataQueue;
         this.jobRequestQueue = jobRequestQueue;
         this.timerDispatch = timerDispatch;
         this.unitConvertList = unitConvertList;
         this.workerPool = workerPool;
+        this.collectLoadRecorder = collectLoadRecorder;
         this.collectorIdentity = collectJobService.getCollectorIdentity();
         this.metricsTimeoutMonitorMap = new ConcurrentHashMap<>(16);
         this.start();
@@ -231,6 +235,7 @@ public class CommonDispatcher implements MetricsTaskDispatch, CollectDataDispatc
                     return;
                 }
                 long spendTime = System.currentTimeMillis() - job.getDispatchTime();
+                collectLoadRecorder.record(job.getApp(), job.getAndResetCollectCost());
                 long interval = job.getInterval() - spendTime / 1000;
                 interval = interval <= 0 ? 0 : interval;
                 // Reset Construction Execution Metrics Task View 
@@ -328,6 +333,7 @@ public class CommonDispatcher implements MetricsTaskDispatch, CollectDataDispatc
                 return;
             }
             long spendTime = System.currentTimeMillis() - job.getDispatchTime();
+            collectLoadRecorder.record(job.getApp(), job.getAndResetCollectCost());
             long interval = job.getInterval() - spendTime / 1000;
             interval = interval <= 0 ? 0 : interval;
             // Reset Construction Execution Metrics Task View 
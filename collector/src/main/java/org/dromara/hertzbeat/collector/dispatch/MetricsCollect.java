@@ -95,6 +95,11 @@ public class MetricsCollect implements Runnable, Comparable<MetricsCollect> {
 
     protected List<UnitConvert> unitConvertList;
 
+    /**
+     * the job of the metrics, the collect cost is added to it
+     */
+    protected Job job;
+
     public MetricsCollect(Metrics metrics, Timeout timeout,
                           CollectDataDispatch collectDataDispatch,
                           String collectorIdentity,
@@ -104,7 +109,7 @@ public class MetricsCollect implements Runnable, Comparable<MetricsCollect> {
         this.metrics = metrics;
         this.collectorIdentity = collectorIdentity;
         WheelTimerTask timerJob = (WheelTimerTask) timeout.task();
-        Job job = timerJob.getJob();
+        this.job = timerJob.getJob();
         this.monitorId = job.getMonitorId();
         this.tenantId = job.getTenantId();
         this.app = job.getApp();
@@ -365,6 +370,7 @@ public class MetricsCollect implements Runnable, Comparable<MetricsCollect> {
         builder.setTime(endTime);
         long runningTime = endTime - startTime;
         long allTime = endTime - newTime;
+        job.addCollectCost(runningTime);
         if (startTime - newTime >= WARN_DISPATCH_TIME) {
             log.warn("[Collector Dispatch Warn, Dispatch Use {}ms.", startTime - newTime);
         }
@@ -384,6 +390,7 @@ public class MetricsCollect implements Runnable, Comparable<MetricsCollect> {
         long endTime = System.currentTimeMillis();
         long runningTime = endTime - startTime;
         long allTime = endTime - newTime;
+        job.addCollectCost(runningTime);
         if (startTime - newTime >= WARN_DISPATCH_TIME) {
             log.warn("[Collector Dispatch Warn, Dispatch Use {}ms.", startTime - newTime);
         }
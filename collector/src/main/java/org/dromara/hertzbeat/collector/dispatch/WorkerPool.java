@@ -70,6 +70,13 @@ public class WorkerPool implements DisposableBean {
         workerExecutor.execute(runnable);
     }
 
+    /**
+     * @return the max worker threads
+     */
+    public int getMaximumPoolSize() {
+        return workerExecutor.getMaximumPoolSize();
+    }
+
     @Override
     public void destroy() throws Exception {
         if (workerExecutor != null) {
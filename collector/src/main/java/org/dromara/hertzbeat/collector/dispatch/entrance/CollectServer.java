@@ -4,8 +4,10 @@ package org.dromara.hertzbeat.collector.dispatch.entrance;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.netty.channel.Channel;
 import lombok.extern.slf4j.Slf4j;
+import org.dromara.hertzbeat.collector.dispatch.CollectLoadRecorder;
 import org.dromara.hertzbeat.collector.dispatch.DispatchProperties;
 import org.dromara.hertzbeat.collector.dispatch.entrance.internal.CollectJobService;
+import org.dromara.hertzbeat.collector.dispatch.entrance.internal.JobTemplateCache;
 import org.dromara.hertzbeat.collector.dispatch.entrance.processor.*;
 import org.dromara.hertzbeat.collector.dispatch.timer.TimerDispatch;
 import org.dromara.hertzbeat.common.entity.dto.CollectorInfo;
@@ -42,12 +44,17 @@ public class CollectServer implements CommandLineRunner {
 
     private final TimerDispatch timerDispatch;
 
+    private final CollectLoadRecorder collectLoadRecorder;
+
+    private final JobTemplateCache jobTemplateCache = new JobTemplateCache();
+
     private RemotingClient remotingClient;
 
     private ScheduledExecutorService scheduledExecutor;
 
     public CollectServer(final CollectJobService collectJobService,
                          final TimerDispatch timerDispatch,
+                         final CollectLoadRecorder collectLoadRecorder,
                          final DispatchProperties properties,
                          final CommonThreadPool threadPool) {
         if (properties == null || properties.getEntrance() == null || properties.getEntrance().getNetty() == null) {
@@ -60,6 +67,7 @@ public class CollectServer implements CommandLineRunner {
         }
         this.collectJobService = collectJobService;
         this.timerDispatch = timerDispatch;
+        this.collectLoadRecorder = collectLoadRecorder;
         this.collectJobService.setCollectServer(this);
         this.init(properties, threadPool);
     }
@@ -72,7 +80,9 @@ public class CollectServer implements CommandLineRunner {
         this.remotingClient = new NettyRemotingClient(nettyClientConfig, new CollectNettyEventListener(), threadPool);
 
         this.remotingClient.registerProcessor(ClusterMsg.MessageType.HEARTBEAT, new HeartbeatProcessor());
+        this.remotingClient.registerProcessor(ClusterMsg.MessageType.ISSUE_APP_TEMPLATE, new IssueAppTemplateProcessor(this));
         this.remotingClient.registerProcessor(ClusterMsg.MessageType.ISSUE_CYCLIC_TASK, new CollectCyclicDataProcessor(this));
+        this.remotingClient.registerProcessor(ClusterMsg.MessageType.ISSUE_CYCLIC_TASKS, new CollectCyclicTasksProcessor(this));
         this.remotingClient.registerProcessor(ClusterMsg.MessageType.DELETE_CYCLIC_TASK, new DeleteCyclicTaskProcessor(this));
         this.remotingClient.registerProcessor(ClusterMsg.MessageType.ISSUE_ONE_TIME_TASK, new CollectOneTimeDataProcessor(this));
         this.remotingClient.registerProcessor(ClusterMsg.MessageType.GO_OFFLINE, new GoOfflineProcessor());
@@ -90,6 +100,10 @@ public class CollectServer implements CommandLineRunner {
         return collectJobService;
     }
 
+    public JobTemplateCache getJobTemplateCache() {
+        return jobTemplateCache;
+    }
+
     public void sendMsg(final ClusterMsg.Message message) {
         this.remotingClient.sendMsg(message);
     }
@@ -105,6 +119,8 @@ public class CollectServer implements CommandLineRunner {
         public void onChannelActive(Channel channel) {
             String identity = CollectServer.this.collectJobService.getCollectorIdentity();
             String mode = CollectServer.this.collectJobService.getCollectorMode();
+            // the manager issues the app templates again on the new connection
+            jobTemplateCache.clear();
             CollectorInfo collectorInfo = CollectorInfo.builder()
                     .name(identity)
                     .ip(IpDomainUtil.getLocalhostIp())
@@ -137,6 +153,7 @@ public class CollectServer implements CommandLineRunner {
                                 .setIdentity(identity)
                                 .setDirection(ClusterMsg.Direction.REQUEST)
                                 .setType(ClusterMsg.MessageType.HEARTBEAT)
+                                .setMsg(JsonUtil.toJson(collectLoadRecorder.snapshot()))
                                 .build();
                         CollectServer.this.sendMsg(heartbeat);
                         log.info("collector send cluster server heartbeat, time: {}.", System.currentTimeMillis());   
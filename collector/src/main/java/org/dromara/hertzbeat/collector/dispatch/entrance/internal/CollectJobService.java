@@ -141,6 +141,16 @@ public class CollectJobService {
         timerDispatch.addJob(job.clone(), null);
     }
 
+    /**
+     * Issue periodic asynchronous collection tasks in bulk, the jobs are owned by the dispatcher
+     * 批量下发周期性异步采集任务, 首次采集时间在采集间隔内打散
+     *
+     * @param jobs cyclic jobs
+     */
+    public void addAsyncCollectJobs(List<Job> jobs) {
+        timerDispatch.addCyclicJobs(jobs);
+    }
+
     /**
      * Cancel periodic asynchronous collection tasks
      * 取消周期性异步采集任务
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.collector.dispatch.entrance.internal;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.dromara.hertzbeat.common.entity.job.Job;
+import org.dromara.hertzbeat.common.util.JsonUtil;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * App templates issued by the manager on the current connection, kept as parsed json trees. The cyclic jobs
+ * carrying a template id are instantiated from them without parsing the app define again.
+ * 管理端下发的应用模板缓存, 以解析后的JSON树保存, 携带模板ID的周期任务基于模板实例化
+ * @author tom
+ */
+public class JobTemplateCache {
+
+    private static final String TEMPLATE_ID = "templateId";
+
+    /**
+     * template id - template json tree
+     */
+    private final Map<String, JsonNode> templates = new ConcurrentHashMap<>(16);
+
+    /**
+     * @param templateJson template json issued by the manager
+     * @return template id, null when the template is invalid
+     */
+    public String put(String templateJson) {
+        JsonNode template = JsonUtil.fromJson(templateJson);
+        if (template == null || !template.hasNonNull(TEMPLATE_ID)) {
+            return null;
+        }
+        String templateId = template.get(TEMPLATE_ID).asText();
+        templates.put(templateId, template);
+        return templateId;
+    }
+
+    /**
+     * instantiate the job from its template, the job params are kept
+     * @param delta job only carrying its own params and the template id
+     * @return job, null when the template is not issued
+     */
+    public Job instantiate(Job delta) {
+        JsonNode template = templates.get(delta.getTemplateId());
+        if (template == null) {
+            return null;
+        }
+        Job job = JsonUtil.fromJson(template, Job.class);
+        if (job == null) {
+            return null;
+        }
+        job.setId(delta.getId());
+        job.setTenantId(delta.getTenantId());
+        job.setMonitorId(delta.getMonitorId());
+        job.setApp(delta.getApp());
+        job.setTimestamp(delta.getTimestamp());
+        job.setInterval(delta.getInterval());
+        job.setCyclic(delta.isCyclic());
+        job.setConfigmap(delta.getConfigmap());
+        job.setNextFireTime(delta.getNextFireTime());
+        return job;
+    }
+
+    /**
+     * drop the templates, the manager issues them again on the new connection
+     */
+    public void clear() {
+        templates.clear();
+    }
+
+    public int size() {
+        return templates.size();
+    }
+}
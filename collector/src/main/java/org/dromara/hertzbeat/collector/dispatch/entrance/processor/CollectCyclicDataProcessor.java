@@ -26,6 +26,14 @@ public class CollectCyclicDataProcessor implements NettyRemotingProcessor {
             log.error("collector receive cyclic task job is null");
             return null;
         }
+        if (job.getTemplateId() != null && job.getMetrics() == null) {
+            Job instance = collectServer.getJobTemplateCache().instantiate(job);
+            if (instance == null) {
+                log.error("collector receive cyclic task job {} of not issued template {}", job.getId(), job.getTemplateId());
+                return null;
+            }
+            job = instance;
+        }
         collectServer.getCollectJobService().addAsyncCollectJob(job);
         return null;
     }
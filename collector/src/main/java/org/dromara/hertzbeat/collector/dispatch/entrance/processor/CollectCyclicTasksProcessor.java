@@ -0,0 +1,49 @@
+package org.dromara.hertzbeat.collector.dispatch.entrance.processor;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.netty.channel.ChannelHandlerContext;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.hertzbeat.collector.dispatch.entrance.CollectServer;
+import org.dromara.hertzbeat.common.entity.job.Job;
+import org.dromara.hertzbeat.common.entity.message.ClusterMsg;
+import org.dromara.hertzbeat.common.util.JsonUtil;
+import org.dromara.hertzbeat.remoting.netty.NettyRemotingProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * handle cyclic tasks chunk message, the chunk is applied in one pass
+ */
+@Slf4j
+public class CollectCyclicTasksProcessor implements NettyRemotingProcessor {
+    private final CollectServer collectServer;
+
+    public CollectCyclicTasksProcessor(CollectServer collectServer) {
+        this.collectServer = collectServer;
+    }
+
+    @Override
+    public ClusterMsg.Message handle(ChannelHandlerContext ctx, ClusterMsg.Message message) {
+        TypeReference<List<Job>> typeReference = new TypeReference<>() {};
+        List<Job> jobs = JsonUtil.fromJson(message.getMsg(), typeReference);
+        if (jobs == null || jobs.isEmpty()) {
+            log.error("collector receive cyclic tasks is empty");
+            return null;
+        }
+        List<Job> addJobs = new ArrayList<>(jobs.size());
+        for (Job job : jobs) {
+            if (job.getTemplateId() != null && job.getMetrics() == null) {
+                Job instance = collectServer.getJobTemplateCache().instantiate(job);
+                if (instance == null) {
+                    log.error("collector receive cyclic task job {} of not issued template {}", job.getId(), job.getTemplateId());
+                    continue;
+                }
+                job = instance;
+            }
+            addJobs.add(job);
+        }
+        collectServer.getCollectJobService().addAsyncCollectJobs(addJobs);
+        return null;
+    }
+}
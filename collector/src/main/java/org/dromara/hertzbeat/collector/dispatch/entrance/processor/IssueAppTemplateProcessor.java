@@ -0,0 +1,28 @@
+package org.dromara.hertzbeat.collector.dispatch.entrance.processor;
+
+import io.netty.channel.ChannelHandlerContext;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.hertzbeat.collector.dispatch.entrance.CollectServer;
+import org.dromara.hertzbeat.common.entity.message.ClusterMsg;
+import org.dromara.hertzbeat.remoting.netty.NettyRemotingProcessor;
+
+/**
+ * handle issue app template message
+ */
+@Slf4j
+public class IssueAppTemplateProcessor implements NettyRemotingProcessor {
+    private final CollectServer collectServer;
+
+    public IssueAppTemplateProcessor(CollectServer collectServer) {
+        this.collectServer = collectServer;
+    }
+
+    @Override
+    public ClusterMsg.Message handle(ChannelHandlerContext ctx, ClusterMsg.Message message) {
+        String templateId = collectServer.getJobTemplateCache().put(message.getMsg());
+        if (templateId == null) {
+            log.error("collector receive app template is invalid");
+        }
+        return null;
+    }
+}
@@ -40,6 +40,13 @@ public interface TimerDispatch {
      */
     void addJob(Job addJob, CollectResponseEventListener eventListener);
 
+    /**
+     * Add new cyclic jobs, their first collection is spread over the collect interval
+     *
+     * @param addJobs cyclic jobs
+     */
+    void addCyclicJobs(List<Job> addJobs);
+
     /**
      * Cyclic job
      * @param timerTask timerTask
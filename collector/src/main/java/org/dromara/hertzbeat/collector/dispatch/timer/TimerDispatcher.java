@@ -38,6 +38,13 @@ import java.util.concurrent.atomic.AtomicBoolean;
 @Slf4j
 public class TimerDispatcher implements TimerDispatch, DisposableBean {
 
+    /**
+     * fibonacci hashing multiplier, the snowflake job ids are spread evenly
+     */
+    private static final long SPREAD_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+
     /**
      * time round schedule
      */
@@ -81,7 +88,9 @@ public class TimerDispatcher implements TimerDispatch, DisposableBean {
         }
         WheelTimerTask timerJob = new WheelTimerTask(addJob);
         if (addJob.isCyclic()) {
-            Timeout timeout = wheelTimer.newTimeout(timerJob, addJob.getInterval(), TimeUnit.SECONDS);
+            long delay = addJob.getNextFireTime() > 0
+                    ? alignedDelay(addJob, System.currentTimeMillis()) : addJob.getInterval();
+            Timeout timeout = wheelTimer.newTimeout(timerJob, delay, TimeUnit.SECONDS);
             currentCyclicTaskMap.put(addJob.getId(), timeout);
         } else {
             Timeout timeout = wheelTimer.newTimeout(timerJob, 0, TimeUnit.SECONDS);
@@ -90,6 +99,46 @@ public class TimerDispatcher implements TimerDispatch, DisposableBean {
         }
     }
 
+    @Override
+    public void addCyclicJobs(List<Job> addJobs) {
+        if (!this.started.get()) {
+            log.warn("Collector is offline, can not dispatch collect jobs.");
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Job addJob : addJobs) {
+            WheelTimerTask timerJob = new WheelTimerTask(addJob);
+            long delay = addJob.getNextFireTime() > 0 ? alignedDelay(addJob, now) : spreadDelay(addJob);
+            Timeout timeout = wheelTimer.newTimeout(timerJob, delay, TimeUnit.SECONDS);
+            Timeout preTimeout = currentCyclicTaskMap.put(addJob.getId(), timeout);
+            if (preTimeout != null) {
+                preTimeout.cancel();
+            }
+        }
+    }
+
+    /**
+     * the first collect delay of the job, spread over the interval by the job id
+     * @param job cyclic job
+     * @return delay seconds, 1 to interval
+     */
+    static long spreadDelay(Job job) {
+        long interval = Math.max(job.getInterval(), 1);
+        return 1 + Math.floorMod(Long.hashCode(job.getId() * SPREAD_MULTIPLIER), interval);
+    }
+
+    /**
+     * the first collect delay of the job handed over from another collector, aligned with its next fire time
+     * @param job cyclic job with the next fire time
+     * @param now current time milliseconds
+     * @return delay seconds, 1 to interval
+     */
+    static long alignedDelay(Job job, long now) {
+        long interval = Math.max(job.getInterval(), 1);
+        long delay = (job.getNextFireTime() - now + MILLIS_PER_SECOND - 1) / MILLIS_PER_SECOND;
+        return Math.min(Math.max(delay, 1), interval);
+    }
+
     @Override
     public void cyclicJob(WheelTimerTask timerTask, long interval, TimeUnit timeUnit) {
         if (!this.started.get()) {
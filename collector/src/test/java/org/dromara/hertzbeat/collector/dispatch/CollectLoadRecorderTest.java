@@ -0,0 +1,31 @@
+package org.dromara.hertzbeat.collector.dispatch;
+
+import org.dromara.hertzbeat.common.entity.dto.CollectorLoad;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for {@link CollectLoadRecorder}
+ */
+class CollectLoadRecorderTest {
+
+    @Test
+    void averageAppCost() {
+        WorkerPool workerPool = Mockito.mock(WorkerPool.class);
+        Mockito.when(workerPool.getMaximumPoolSize()).thenReturn(10);
+        CollectLoadRecorder recorder = new CollectLoadRecorder(workerPool);
+        recorder.record("mysql", 800);
+        recorder.record("mysql", 1600);
+        recorder.record("ping", 10);
+        recorder.record(null, 10);
+
+        CollectorLoad load = recorder.snapshot();
+
+        assertEquals(10_000, load.getCapacity());
+        assertEquals(900, load.getAppCosts().get("mysql"));
+        assertEquals(10, load.getAppCosts().get("ping"));
+        assertEquals(2, load.getAppCosts().size());
+    }
+}
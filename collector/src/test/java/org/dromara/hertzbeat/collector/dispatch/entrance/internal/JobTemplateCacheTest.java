@@ -0,0 +1,64 @@
+package org.dromara.hertzbeat.collector.dispatch.entrance.internal;
+
+import org.dromara.hertzbeat.common.entity.job.Configmap;
+import org.dromara.hertzbeat.common.entity.job.Job;
+import org.dromara.hertzbeat.common.entity.job.Metrics;
+import org.dromara.hertzbeat.common.entity.message.ClusterMsg;
+import org.dromara.hertzbeat.common.util.JsonUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for {@link JobTemplateCache}
+ */
+class JobTemplateCacheTest {
+
+    @Test
+    void instantiateFromTemplate() {
+        JobTemplateCache jobTemplateCache = new JobTemplateCache();
+        Job template = Job.builder()
+                .category("db")
+                .metrics(List.of(Metrics.builder().name("basic").protocol("jdbc").build()))
+                .templateId("t1")
+                .build();
+        assertEquals("t1", jobTemplateCache.put(JsonUtil.toJson(template)));
+        Job delta = Job.builder()
+                .id(10L)
+                .monitorId(1L)
+                .app("mysql")
+                .interval(30L)
+                .isCyclic(true)
+                .configmap(List.of(new Configmap("host", "127.0.0.1", (byte) 1)))
+                .templateId("t1")
+                .build();
+
+        Job job = jobTemplateCache.instantiate(delta);
+        Job another = jobTemplateCache.instantiate(delta);
+
+        assertNotNull(job);
+        assertEquals(10L, job.getId());
+        assertEquals("mysql", job.getApp());
+        assertEquals("db", job.getCategory());
+        assertTrue(job.isCyclic());
+        assertEquals(30L, job.getInterval());
+        assertEquals("basic", job.getMetrics().get(0).getName());
+        assertEquals("127.0.0.1", job.getConfigmap().get(0).getValue());
+        // every job owns its metrics
+        assertNotSame(job.getMetrics().get(0), another.getMetrics().get(0));
+    }
+
+    @Test
+    void unknownTemplate() {
+        JobTemplateCache jobTemplateCache = new JobTemplateCache();
+        assertNull(jobTemplateCache.put("{}"));
+        jobTemplateCache.put(JsonUtil.toJson(Job.builder().templateId("t1").build()));
+        jobTemplateCache.clear();
+        assertNull(jobTemplateCache.instantiate(Job.builder().templateId("t1").build()));
+        assertEquals("ISSUE_APP_TEMPLATE",
+                ClusterMsg.MessageType.ISSUE_APP_TEMPLATE.getValueDescriptor().getName());
+        assertEquals(ClusterMsg.MessageType.ISSUE_APP_TEMPLATE, ClusterMsg.MessageType.forNumber(9));
+    }
+}
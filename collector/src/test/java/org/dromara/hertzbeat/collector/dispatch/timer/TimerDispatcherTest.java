@@ -0,0 +1,42 @@
+package org.dromara.hertzbeat.collector.dispatch.timer;
+
+import org.dromara.hertzbeat.common.entity.job.Job;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for {@link TimerDispatcher}
+ */
+class TimerDispatcherTest {
+
+    @Test
+    void spreadDelayOverInterval() {
+        Set<Long> delays = new HashSet<>();
+        long jobId = 1_000_000_000L;
+        for (int index = 0; index < 600; index++) {
+            Job job = Job.builder().id(jobId + index).interval(60L).isCyclic(true).build();
+            long delay = TimerDispatcher.spreadDelay(job);
+            assertTrue(delay >= 1 && delay <= 60);
+            delays.add(delay);
+        }
+        // consecutive job ids are not collected at the same second
+        assertTrue(delays.size() > 50);
+        assertEquals(1, TimerDispatcher.spreadDelay(Job.builder().id(jobId).interval(0L).build()));
+    }
+
+    @Test
+    void alignedDelayToNextFireTime() {
+        long now = 1_700_000_000_000L;
+        Job job = Job.builder().id(1L).interval(60L).isCyclic(true).nextFireTime(now + 12_500L).build();
+        assertEquals(13, TimerDispatcher.alignedDelay(job, now));
+        // the missed fire time is collected at once, a far one is bounded by the interval
+        job.setNextFireTime(now - 5_000L);
+        assertEquals(1, TimerDispatcher.alignedDelay(job, now));
+        job.setNextFireTime(now + 600_000L);
+        assertEquals(60, TimerDispatcher.alignedDelay(job, now));
+    }
+}
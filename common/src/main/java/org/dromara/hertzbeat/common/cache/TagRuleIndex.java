@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.common.cache;
+
+import org.dromara.hertzbeat.common.entity.manager.TagItem;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Inverted index of the tag filter rules (silence, converge, notice rule) from (tagName, tagValue) to rules.
+ * A rule matches an alert when it is match all, or any of its tags equals an alert tag and the alert priority
+ * is in its priorities. Matching an alert costs the number of the alert tags instead of the number of rules.
+ * The index is immutable, it is built once when the rules are loaded into the {@link CacheFactory} cache.
+ * 告警标签过滤规则的倒排索引, (标签名, 标签值) -> 规则, 告警匹配复杂度与告警标签数相关而非规则数
+ * @param <T> rule type
+ * @author tom
+ */
+public final class TagRuleIndex<T> {
+
+    private final List<T> rules;
+
+    /**
+     * tagName - tagValue - rule positions
+     */
+    private final Map<String, Map<String, BitSet>> tagIndex;
+
+    /**
+     * rules match every alert without looking at the tags
+     */
+    private final BitSet alwaysCandidates;
+
+    /**
+     * rules whose tags are not required, priorities still checked
+     */
+    private final BitSet tagFreeCandidates;
+
+    /**
+     * rules bypass the priority filter
+     */
+    private final BitSet matchAllRules;
+
+    /**
+     * rule position - allowed priorities, null means any
+     */
+    private final Set<Byte>[] priorities;
+
+    private final boolean emptyAlertTagsMatchAny;
+
+    private TagRuleIndex(List<T> rules, Map<String, Map<String, BitSet>> tagIndex, BitSet alwaysCandidates,
+                         BitSet tagFreeCandidates, BitSet matchAllRules, Set<Byte>[] priorities, boolean emptyAlertTagsMatchAny) {
+        this.rules = rules;
+        this.tagIndex = tagIndex;
+        this.alwaysCandidates = alwaysCandidates;
+        this.tagFreeCandidates = tagFreeCandidates;
+        this.matchAllRules = matchAllRules;
+        this.priorities = priorities;
+        this.emptyAlertTagsMatchAny = emptyAlertTagsMatchAny;
+    }
+
+    /**
+     * build the index of the rules, the match result keeps the order of the rules
+     * @param rules rules in order
+     * @param matchAll whether the rule matches all the alerts
+     * @param tags rule tags
+     * @param priorities rule priorities
+     * @param emptyRuleTagsMatchAny true when a rule without tags matches the alert of any tags (notice rule),
+     *                              false when it matches only the alert without tags (silence, converge)
+     * @param emptyAlertTagsMatchAny true when the alert without tags matches the rule of any tags (silence, converge)
+     * @param <T> rule type
+     * @return index
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> TagRuleIndex<T> build(List<T> rules, Predicate<T> matchAll, Function<T, List<TagItem>> tags,
+                                            Function<T, List<Byte>> priorities,
+                                            boolean emptyRuleTagsMatchAny, boolean emptyAlertTagsMatchAny) {
+        List<T> ruleList = rules == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(rules));
+        Map<String, Map<String, BitSet>> tagIndex = new HashMap<>(16);
+        BitSet alwaysCandidates = new BitSet(ruleList.size());
+        BitSet tagFreeCandidates = new BitSet(ruleList.size());
+        BitSet matchAllRules = new BitSet(ruleList.size());
+        Set<Byte>[] prioritySets = new Set[ruleList.size()];
+        for (int position = 0; position < ruleList.size(); position++) {
+            T rule = ruleList.get(position);
+            if (matchAll.test(rule)) {
+                matchAllRules.set(position);
+                alwaysCandidates.set(position);
+                continue;
+            }
+            List<Byte> rulePriorities = priorities.apply(rule);
+            if (rulePriorities != null && !rulePriorities.isEmpty()) {
+                prioritySets[position] = new HashSet<>(rulePriorities);
+            }
+            List<TagItem> ruleTags = tags.apply(rule);
+            if (ruleTags == null || ruleTags.isEmpty()) {
+                if (emptyRuleTagsMatchAny) {
+                    tagFreeCandidates.set(position);
+                }
+                continue;
+            }
+            for (TagItem tagItem : ruleTags) {
+                tagIndex.computeIfAbsent(tagItem.getName(), key -> new HashMap<>(8))
+                        .computeIfAbsent(tagItem.getValue(), key -> new BitSet())
+                        .set(position);
+            }
+        }
+        return new TagRuleIndex<>(ruleList, tagIndex, alwaysCandidates, tagFreeCandidates, matchAllRules,
+                prioritySets, emptyAlertTagsMatchAny);
+    }
+
+    /**
+     * get the rules matching the alert tags and priority, in the order of the rules
+     * @param alertTags alert tags
+     * @param priority alert priority
+     * @return matched rules
+     */
+    public List<T> match(Map<String, String> alertTags, byte priority) {
+        if (rules.isEmpty()) {
+            return Collections.emptyList();
+        }
+        BitSet candidates = (BitSet) alwaysCandidates.clone();
+        candidates.or(tagFreeCandidates);
+        if (alertTags == null || alertTags.isEmpty()) {
+            if (emptyAlertTagsMatchAny) {
+                candidates.set(0, rules.size());
+            }
+        } else {
+            for (Map.Entry<String, String> entry : alertTags.entrySet()) {
+                Map<String, BitSet> valueIndex = tagIndex.get(entry.getKey());
+                if (valueIndex == null) {
+                    continue;
+                }
+                BitSet positions = valueIndex.get(entry.getValue());
+                if (positions != null) {
+                    candidates.or(positions);
+                }
+            }
+        }
+        List<T> matched = new ArrayList<>(candidates.cardinality());
+        for (int position = candidates.nextSetBit(0); position >= 0; position = candidates.nextSetBit(position + 1)) {
+            if (!matchAllRules.get(position)) {
+                Set<Byte> allowed = priorities[position];
+                if (allowed != null && !allowed.contains(priority)) {
+                    continue;
+                }
+            }
+            matched.add(rules.get(position));
+        }
+        return matched;
+    }
+
+    /**
+     * @return all the indexed rules in order
+     */
+    public List<T> getRules() {
+        return rules;
+    }
+}
@@ -46,7 +46,10 @@ import static io.swagger.v3.oas.annotations.media.Schema.AccessMode.READ_WRITE;
  * @author tom
  */
 @Entity
-@Table(name = "hzb_alert")
+@Table(name = "hzb_alert", indexes = {
+        @Index(name = "alert_status_priority_index", columnList = "status,priority"),
+        @Index(name = "alert_gmt_create_index", columnList = "gmtCreate")
+})
 @Data
 @Builder
 @AllArgsConstructor
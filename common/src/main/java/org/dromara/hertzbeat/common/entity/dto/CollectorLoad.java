@@ -0,0 +1,27 @@
+package org.dromara.hertzbeat.common.entity.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * collector load reported in the heartbeat
+ * @author tom
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "collector load reported in the heartbeat")
+public class CollectorLoad {
+
+    @Schema(description = "collect milliseconds the collector can run per second")
+    private long capacity;
+
+    @Schema(description = "app - measured average milliseconds of one collection of its job")
+    private Map<String, Long> appCosts;
+}
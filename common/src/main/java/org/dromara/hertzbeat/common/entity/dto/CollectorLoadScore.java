@@ -0,0 +1,37 @@
+package org.dromara.hertzbeat.common.entity.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * collector load score
+ * @author tom
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "collector load score")
+public class CollectorLoadScore {
+
+    @Schema(description = "the collector name")
+    private String collector;
+
+    @Schema(description = "the number of jobs assigned to this collector")
+    private int jobNum;
+
+    @Schema(description = "estimated collect milliseconds per second of the assigned jobs")
+    private double load;
+
+    @Schema(description = "collect milliseconds the collector can run per second, 0 when not reported")
+    private long capacity;
+
+    @Schema(description = "load divided by capacity")
+    private double score;
+
+    @Schema(description = "whether new jobs skip this collector")
+    private boolean overloaded;
+}
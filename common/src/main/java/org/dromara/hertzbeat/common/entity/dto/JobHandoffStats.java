@@ -0,0 +1,35 @@
+package org.dromara.hertzbeat.common.entity.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * job handoff statistics between the collectors
+ * 采集器之间任务交接统计
+ * @author tom
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "job handoff statistics between the collectors")
+public class JobHandoffStats {
+
+    @Schema(description = "the handoffs waiting for the first successful collect of the new collector")
+    private int pending;
+
+    @Schema(description = "the handoffs acknowledged by the first successful collect of the new collector")
+    private long completed;
+
+    @Schema(description = "the handoffs not acknowledged in time, the previous collector is released anyway")
+    private long expired;
+
+    @Schema(description = "the handoffs with a collect interval missed between the two collectors")
+    private long gaps;
+
+    @Schema(description = "the duplicate collect data dropped during the handoffs")
+    private long duplicates;
+}
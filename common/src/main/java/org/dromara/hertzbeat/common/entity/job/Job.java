@@ -108,6 +108,18 @@ public class Job {
      * 监控配置参数属性及值 eg: username password timeout host
      */
     private List<Configmap> configmap;
+    /**
+     * App template id, the hash of the template content. A cyclic job with the template id and without metrics
+     * only carries its own params, the collector instantiates it from the template issued before
+     * 应用模板ID, 携带模板ID且无指标的周期任务由采集器基于已下发模板实例化
+     */
+    private String templateId;
+    /**
+     * Time to fire the first collect of the job handed over from another collector, aligned with the collect
+     * phase of the previous owner, 0 when the job has no previous owner
+     * 从其他采集器交接的任务首次采集时间, 与原采集器的采集相位对齐, 无原采集器时为0
+     */
+    private long nextFireTime;
 
     /**
      * the collect data response metrics as env configmap for other collect use. ^o^xxx^o^
@@ -143,6 +155,13 @@ public class Job {
     @JsonIgnore
     private transient List<CollectRep.MetricsData> responseDataTemp;
 
+    /**
+     * collector use - collect milliseconds of the metrics run in this round
+     * collector使用 - 本轮指标采集耗时累计毫秒
+     */
+    @JsonIgnore
+    private transient long collectCost;
+
     /**
      * collector use - construct to initialize metrics execution view
      * collector使用 - 构造初始化指标执行视图
@@ -226,6 +245,24 @@ public class Job {
         }
     }
 
+    /**
+     * collector use - add the collect milliseconds of one metrics run
+     * @param cost collect milliseconds
+     */
+    public synchronized void addCollectCost(long cost) {
+        collectCost += cost;
+    }
+
+    /**
+     * collector use - get the collect milliseconds of this round and start the next round
+     * @return collect milliseconds
+     */
+    public synchronized long getAndResetCollectCost() {
+        long cost = collectCost;
+        collectCost = 0;
+        return cost;
+    }
+
     public void addCollectMetricsData(CollectRep.MetricsData metricsData) {
         if (responseDataTemp == null) {
             responseDataTemp = new LinkedList<>();
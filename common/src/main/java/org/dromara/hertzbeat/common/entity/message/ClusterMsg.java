@@ -95,6 +95,22 @@ public final class ClusterMsg {
          * <code>GO_CLOSE = 8;</code>
          */
         GO_CLOSE(8),
+        /**
+         * <pre>
+         * issue app template, the cyclic tasks of the template only carry their own params
+         * </pre>
+         *
+         * <code>ISSUE_APP_TEMPLATE = 9;</code>
+         */
+        ISSUE_APP_TEMPLATE(9),
+        /**
+         * <pre>
+         * issue a chunk of cyclic tasks
+         * </pre>
+         *
+         * <code>ISSUE_CYCLIC_TASKS = 10;</code>
+         */
+        ISSUE_CYCLIC_TASKS(10),
         UNRECOGNIZED(-1),
         ;
         
@@ -170,6 +186,22 @@ public final class ClusterMsg {
          * <code>GO_CLOSE = 8;</code>
          */
         public static final int GO_CLOSE_VALUE = 8;
+        /**
+         * <pre>
+         * issue app template, the cyclic tasks of the template only carry their own params
+         * </pre>
+         *
+         * <code>ISSUE_APP_TEMPLATE = 9;</code>
+         */
+        public static final int ISSUE_APP_TEMPLATE_VALUE = 9;
+        /**
+         * <pre>
+         * issue a chunk of cyclic tasks
+         * </pre>
+         *
+         * <code>ISSUE_CYCLIC_TASKS = 10;</code>
+         */
+        public static final int ISSUE_CYCLIC_TASKS_VALUE = 10;
         
         
         public final int getNumber() {
@@ -214,6 +246,10 @@ public final class ClusterMsg {
                     return RESPONSE_CYCLIC_TASK_DATA;
                 case 8:
                     return GO_CLOSE;
+                case 9:
+                    return ISSUE_APP_TEMPLATE;
+                case 10:
+                    return ISSUE_CYCLIC_TASKS;
                 default:
                     return null;
             }
@@ -1611,12 +1647,13 @@ public final class ClusterMsg {
                         "dromara.hertzbeat.common.entity.message." +
                         "Direction\022F\n\004type\030\003 \001(\01628.org.dromara.he" +
                         "rtzbeat.common.entity.message.MessageTyp" +
-                        "e\022\013\n\003msg\030\004 \001(\t*\321\001\n\013MessageType\022\r\n\tHEARTB" +
+                        "e\022\013\n\003msg\030\004 \001(\t*\201\002\n\013MessageType\022\r\n\tHEARTB" +
                         "EAT\020\000\022\r\n\tGO_ONLINE\020\001\022\016\n\nGO_OFFLINE\020\002\022\025\n\021" +
                         "ISSUE_CYCLIC_TASK\020\003\022\026\n\022DELETE_CYCLIC_TAS" +
                         "K\020\004\022\027\n\023ISSUE_ONE_TIME_TASK\020\005\022\037\n\033RESPONSE" +
                         "_ONE_TIME_TASK_DATA\020\006\022\035\n\031RESPONSE_CYCLIC" +
-                        "_TASK_DATA\020\007\022\014\n\010GO_CLOSE\020\010*&\n\tDirection\022" +
+                        "_TASK_DATA\020\007\022\014\n\010GO_CLOSE\020\010\022\026\n\022ISSUE_AP" +
+                        "P_TEMPLATE\020\t\022\026\n\022ISSUE_CYCLIC_TASKS\020\n*&\n\tDirection\022" +
                         "\013\n\007REQUEST\020\000\022\014\n\010RESPONSE\020\001b\006proto3"
         };
         descriptor = com.google.protobuf.Descriptors.FileDescriptor
@@ -0,0 +1,14 @@
+package org.dromara.hertzbeat.common.support.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * the event for alert define or alert define monitor bind change
+ * @author tom
+ */
+public class AlertDefineChangeEvent extends ApplicationEvent {
+
+    public AlertDefineChangeEvent(Object source) {
+        super(source);
+    }
+}
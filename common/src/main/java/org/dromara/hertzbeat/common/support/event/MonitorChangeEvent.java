@@ -0,0 +1,38 @@
+package org.dromara.hertzbeat.common.support.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * the event for monitor name, host, status or bind tags change
+ * @author tom
+ */
+public class MonitorChangeEvent extends ApplicationEvent {
+
+    /**
+     * monitoring id, null when the change may affect all the monitors, eg: tag modified
+     */
+    private final Long monitorId;
+
+    /**
+     * the new monitor status when only the status changed, otherwise null
+     */
+    private final Byte status;
+
+    public MonitorChangeEvent(Object source, Long monitorId) {
+        this(source, monitorId, null);
+    }
+
+    public MonitorChangeEvent(Object source, Long monitorId, Byte status) {
+        super(source);
+        this.monitorId = monitorId;
+        this.status = status;
+    }
+
+    public Long getMonitorId() {
+        return monitorId;
+    }
+
+    public Byte getStatus() {
+        return status;
+    }
+}
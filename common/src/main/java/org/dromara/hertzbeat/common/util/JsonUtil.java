@@ -82,6 +82,18 @@ public class JsonUtil {
         }
     }
     
+    public static <T> T fromJson(JsonNode jsonNode, Class<T> clazz) {
+        if (jsonNode == null) {
+            return null;
+        }
+        try {
+            return OBJECT_MAPPER.treeToValue(jsonNode, clazz);
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            return null;
+        }
+    }
+
     public static JsonNode fromJson(String jsonStr) {
         if (!StringUtils.hasText(jsonStr)) {
             return null;
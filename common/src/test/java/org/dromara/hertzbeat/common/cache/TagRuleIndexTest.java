@@ -0,0 +1,59 @@
+package org.dromara.hertzbeat.common.cache;
+
+import org.dromara.hertzbeat.common.entity.alerter.AlertSilence;
+import org.dromara.hertzbeat.common.entity.manager.NoticeRule;
+import org.dromara.hertzbeat.common.entity.manager.TagItem;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test case for {@link TagRuleIndex}
+ */
+class TagRuleIndexTest {
+
+    @Test
+    void silenceMatch() {
+        AlertSilence matchAll = AlertSilence.builder().id(1L).matchAll(true).build();
+        AlertSilence mysql = AlertSilence.builder().id(2L).matchAll(false)
+                .tags(List.of(new TagItem("app", "mysql"), new TagItem("env", "prod")))
+                .priorities(List.of((byte) 0)).build();
+        AlertSilence noTags = AlertSilence.builder().id(3L).matchAll(false).tags(Collections.emptyList()).build();
+        TagRuleIndex<AlertSilence> index = TagRuleIndex.build(List.of(mysql, noTags, matchAll), AlertSilence::isMatchAll,
+                AlertSilence::getTags, AlertSilence::getPriorities, false, true);
+
+        Assertions.assertEquals(List.of(mysql, matchAll), index.match(Map.of("app", "mysql"), (byte) 0));
+        Assertions.assertEquals(List.of(matchAll), index.match(Map.of("app", "mysql"), (byte) 1));
+        Assertions.assertEquals(List.of(matchAll), index.match(Map.of("app", "redis"), (byte) 0));
+        // alert without tags matches every tag rule, priorities still checked
+        Assertions.assertEquals(List.of(mysql, noTags, matchAll), index.match(Collections.emptyMap(), (byte) 0));
+        Assertions.assertEquals(List.of(noTags, matchAll), index.match(null, (byte) 2));
+    }
+
+    @Test
+    void noticeMatch() {
+        NoticeRule filterAll = NoticeRule.builder().id(1L).filterAll(true).build();
+        NoticeRule critical = NoticeRule.builder().id(2L).filterAll(false).priorities(List.of((byte) 1)).build();
+        NoticeRule env = NoticeRule.builder().id(3L).filterAll(false).tags(List.of(new TagItem("env", null))).build();
+        TagRuleIndex<NoticeRule> index = TagRuleIndex.build(List.of(filterAll, critical, env), NoticeRule::isFilterAll,
+                NoticeRule::getTags, NoticeRule::getPriorities, true, false);
+
+        Assertions.assertEquals(List.of(filterAll, critical), index.match(Map.of("app", "mysql"), (byte) 1));
+        Assertions.assertEquals(List.of(filterAll), index.match(Collections.emptyMap(), (byte) 2));
+        Map<String, String> nullValueTags = new HashMap<>(2);
+        nullValueTags.put("env", null);
+        Assertions.assertEquals(List.of(filterAll, env), index.match(nullValueTags, (byte) 0));
+        Assertions.assertEquals(3, index.getRules().size());
+    }
+
+    @Test
+    void emptyRules() {
+        TagRuleIndex<NoticeRule> index = TagRuleIndex.build(null, NoticeRule::isFilterAll,
+                NoticeRule::getTags, NoticeRule::getPriorities, true, false);
+        Assertions.assertTrue(index.match(Map.of("app", "mysql"), (byte) 0).isEmpty());
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.manager.component.alerter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.hertzbeat.alert.AlerterProperties;
+import org.dromara.hertzbeat.alert.service.AlertService;
+import org.dromara.hertzbeat.common.entity.alerter.Alert;
+import org.dromara.hertzbeat.manager.service.MonitorService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind buffer of the alarm store. Alerts are saved by batch inserts flushed by size or interval,
+ * the monitor status changes of the availability alerts are coalesced per monitor and applied before the batch.
+ * 告警写缓冲, 告警按数量或时间批量入库, 可用性告警引起的监控状态变更按监控合并
+ * @author tom
+ */
+@Component
+@Slf4j
+public class AlertStoreBuffer implements InitializingBean, DisposableBean, MeterBinder {
+
+    private final AlertService alertService;
+
+    private final MonitorService monitorService;
+
+    private final AlerterProperties.StoreProperties properties;
+
+    private final BlockingQueue<PendingAlert> queue;
+
+    /**
+     * monitorId - latest status not applied yet
+     */
+    private final Map<Long, Byte> pendingStatus = new ConcurrentHashMap<>(16);
+
+    private final LongAdder storedCount = new LongAdder();
+
+    private final LongAdder failedCount = new LongAdder();
+
+    private final LongAdder statusUpdatedCount = new LongAdder();
+
+    private final Thread flushThread;
+
+    private volatile boolean running = true;
+
+    private volatile Timer flushTimer;
+
+    /**
+     * the services are lazy, the meter binder is created with the meter registry before them
+     */
+    public AlertStoreBuffer(@Lazy AlertService alertService, @Lazy MonitorService monitorService,
+                            AlerterProperties alerterProperties) {
+        this.alertService = alertService;
+        this.monitorService = monitorService;
+        this.properties = alerterProperties.getStore() == null
+                ? new AlerterProperties.StoreProperties() : alerterProperties.getStore();
+        this.queue = new LinkedBlockingQueue<>(Math.max(properties.getQueueCapacity(), 1));
+        this.flushThread = new Thread(this::flushLoop, "alerter-store-flush");
+        this.flushThread.setDaemon(true);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        flushThread.start();
+    }
+
+    /**
+     * add the alert to the buffer, wait for the flush in durable mode
+     * @param alert alert
+     * @throws InterruptedException interrupted when the buffer is full or waiting for the flush
+     */
+    public void store(Alert alert) throws InterruptedException {
+        CompletableFuture<Void> future = properties.isDurable() ? new CompletableFuture<>() : null;
+        queue.put(new PendingAlert(alert, future));
+        if (future == null) {
+            return;
+        }
+        try {
+            future.get(properties.getDurableTimeout(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("store alert error: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            log.warn("store alert not flushed in {} ms, continue.", properties.getDurableTimeout());
+        }
+    }
+
+    /**
+     * coalesce the monitor status change, only the latest status of a monitor is applied in the next flush
+     * @param monitorId monitor id
+     * @param status new status
+     */
+    public void updateMonitorStatus(long monitorId, byte status) {
+        pendingStatus.put(monitorId, status);
+    }
+
+    /**
+     * @param monitorId monitor id
+     * @return the status not applied yet, null when nothing pending
+     */
+    public Byte getPendingStatus(long monitorId) {
+        return pendingStatus.get(monitorId);
+    }
+
+    public long getStoredCount() {
+        return storedCount.sum();
+    }
+
+    private void flushLoop() {
+        int batchSize = Math.max(properties.getBatchSize(), 1);
+        List<PendingAlert> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty() || !pendingStatus.isEmpty()) {
+            try {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getFlushInterval());
+                while (batch.size() < batchSize) {
+                    long waitNanos = deadline - System.nanoTime();
+                    PendingAlert pending = waitNanos > 0 && running ? queue.poll(waitNanos, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (pending == null) {
+                        break;
+                    }
+                    batch.add(pending);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    void flush(List<PendingAlert> batch) {
+        long startTime = System.nanoTime();
+        applyStatus();
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Alert> alerts = new ArrayList<>(batch.size());
+        batch.forEach(pending -> alerts.add(pending.alert));
+        try {
+            alertService.addAlerts(alerts);
+            storedCount.add(alerts.size());
+            batch.forEach(pending -> pending.complete(null));
+        } catch (Exception e) {
+            log.warn("batch store {} alerts error: {}, store them one by one.", alerts.size(), e.getMessage());
+            for (PendingAlert pending : batch) {
+                try {
+                    alertService.addAlert(pending.alert);
+                    storedCount.increment();
+                    pending.complete(null);
+                } catch (Exception exception) {
+                    failedCount.increment();
+                    log.error("store alert error: {}, alert: {}.", exception.getMessage(), pending.alert);
+                    pending.complete(exception);
+                }
+            }
+        }
+        Timer timer = this.flushTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void applyStatus() {
+        if (pendingStatus.isEmpty()) {
+            return;
+        }
+        Map<Long, Byte> statusMap = new HashMap<>(pendingStatus);
+        for (Map.Entry<Long, Byte> entry : statusMap.entrySet()) {
+            try {
+                monitorService.updateMonitorStatus(entry.getKey(), entry.getValue());
+                statusUpdatedCount.increment();
+            } catch (Exception e) {
+                log.error("update monitor {} status error: {}.", entry.getKey(), e.getMessage());
+            }
+            // keep the status changed during the update for the next flush
+            pendingStatus.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.flushTimer = Timer.builder("hertzbeat.alerter.store.flush")
+                .description("alarm store batch flush time")
+                .register(registry);
+        Gauge.builder("hertzbeat.alerter.store.pending", queue, BlockingQueue::size)
+                .description("alarm store pending alert size")
+                .register(registry);
+        FunctionCounter.builder("hertzbeat.alerter.store.stored", storedCount, LongAdder::sum)
+                .description("alarm stored count")
+                .register(registry);
+        FunctionCounter.builder("hertzbeat.alerter.store.failed", failedCount, LongAdder::sum)
+                .description("alarm store failed count")
+                .register(registry);
+        FunctionCounter.builder("hertzbeat.alerter.store.status.updated", statusUpdatedCount, LongAdder::sum)
+                .description("coalesced monitor status update count")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        flushThread.join(Math.max(properties.getDurableTimeout(), properties.getFlushInterval()));
+    }
+
+    static final class PendingAlert {
+        private final Alert alert;
+        private final CompletableFuture<Void> future;
+
+        PendingAlert(Alert alert, CompletableFuture<Void> future) {
+            this.alert = alert;
+            this.future = future;
+        }
+
+        private void complete(Exception exception) {
+            if (future == null) {
+                return;
+            }
+            if (exception == null) {
+                future.complete(null);
+            } else {
+                future.completeExceptionally(exception);
+            }
+        }
+    }
+}
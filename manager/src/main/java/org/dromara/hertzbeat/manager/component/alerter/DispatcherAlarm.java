@@ -26,7 +26,6 @@ import org.dromara.hertzbeat.common.entity.manager.NoticeRule;
 import org.dromara.hertzbeat.common.entity.manager.NoticeTemplate;
 import org.dromara.hertzbeat.common.queue.CommonDataQueue;
 import org.dromara.hertzbeat.manager.service.NoticeConfigService;
-import org.dromara.hertzbeat.manager.support.exception.AlertNoticeException;
 import org.dromara.hertzbeat.manager.support.exception.IgnoreException;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.stereotype.Component;
@@ -50,16 +49,19 @@ public class DispatcherAlarm implements InitializingBean {
     private final NoticeConfigService noticeConfigService;
     private final AlertStoreHandler alertStoreHandler;
     private final Map<Byte, AlertNotifyHandler> alertNotifyHandlerMap;
+    private final NotifyDeliveryEngine notifyDeliveryEngine;
 
     public DispatcherAlarm(AlerterWorkerPool workerPool,
                            CommonDataQueue dataQueue,
                            NoticeConfigService noticeConfigService,
                            AlertStoreHandler alertStoreHandler,
-                           List<AlertNotifyHandler> alertNotifyHandlerList) {
+                           List<AlertNotifyHandler> alertNotifyHandlerList,
+                           NotifyDeliveryEngine notifyDeliveryEngine) {
         this.workerPool = workerPool;
         this.dataQueue = dataQueue;
         this.noticeConfigService = noticeConfigService;
         this.alertStoreHandler = alertStoreHandler;
+        this.notifyDeliveryEngine = notifyDeliveryEngine;
         alertNotifyHandlerMap = Maps.newHashMapWithExpectedSize(alertNotifyHandlerList.size());
         alertNotifyHandlerList.forEach(r -> alertNotifyHandlerMap.put(r.type(), r));
     }
@@ -129,20 +131,21 @@ public class DispatcherAlarm implements InitializingBean {
 
         private void sendNotify(Alert alert) {
             List<NoticeRule> noticeRules = matchNoticeRulesByAlert(alert);
-            // todo Send notification here temporarily single thread     发送通知这里暂时单线程
-            if (noticeRules != null) {
-                for (NoticeRule rule : noticeRules) {
-                    try {
-                        if (rule.getTemplateId() == null) {
-                            sendNoticeMsg(getOneReceiverById(rule.getReceiverId()),
-                                    null, alert);
-                        } else {
-                            sendNoticeMsg(getOneReceiverById(rule.getReceiverId()),
-                                    getOneTemplateById(rule.getTemplateId()), alert);
-                        }
-                    } catch (AlertNoticeException e) {
-                        log.warn("DispatchTask sendNoticeMsg error, message: {}", e.getMessage());
-                    }
+            if (noticeRules == null) {
+                return;
+            }
+            // Deliver asynchronously by the receiver type executors, the handler may modify the alert,
+            // so every delivery except the last one gets its own copy
+            // 按通知类型异步投递, 通知处理可能修改告警内容, 除最后一个外每个投递使用告警副本
+            for (int index = 0; index < noticeRules.size(); index++) {
+                NoticeRule rule = noticeRules.get(index);
+                try {
+                    NoticeReceiver receiver = getOneReceiverById(rule.getReceiverId());
+                    NoticeTemplate template = rule.getTemplateId() == null ? null : getOneTemplateById(rule.getTemplateId());
+                    Alert deliverAlert = index == noticeRules.size() - 1 ? alert : alert.clone();
+                    notifyDeliveryEngine.deliver(receiver, template, deliverAlert);
+                } catch (Exception e) {
+                    log.warn("DispatchTask deliver notice error, message: {}", e.getMessage());
                 }
             }
         }
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.manager.component.alerter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.hertzbeat.common.entity.manager.NoticeTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.ui.freemarker.FreeMarkerTemplateUtils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Compiled FreeMarker templates of the notice templates, keyed by the template id (type for the preset ones)
+ * and checked against the template version, all the templates share one configuration
+ * 通知模板预编译缓存, 按模板ID与版本缓存编译后的FreeMarker模板, 共享同一配置
+ * @author tom
+ */
+@Component
+@Slf4j
+public class NoticeTemplateCache {
+
+    private static final String NUMBER_FORMAT = "0";
+
+    private static final String PRESET_KEY_PREFIX = "preset-";
+
+    private static final long MAX_CACHE_SIZE = 1024L;
+
+    /**
+     * configured once and read only after, safe to be shared by the rendering threads
+     */
+    private final Configuration configuration;
+
+    /**
+     * key - template id or preset type  value - compiled template with its version
+     */
+    private final Cache<String, CompiledTemplate> cache;
+
+    public NoticeTemplateCache() {
+        this.configuration = new Configuration(Configuration.VERSION_2_3_0);
+        this.configuration.setNumberFormat(NUMBER_FORMAT);
+        this.configuration.setLocale(Locale.CHINESE);
+        this.cache = Caffeine.newBuilder().maximumSize(MAX_CACHE_SIZE).build();
+    }
+
+    /**
+     * render the notice template with the model, the template is compiled only on its first use or after edited
+     * @param noticeTemplate notice template
+     * @param model template model
+     * @return rendered content
+     * @throws IOException template syntax error
+     * @throws TemplateException template render error
+     */
+    public String render(NoticeTemplate noticeTemplate, Object model) throws IOException, TemplateException {
+        return FreeMarkerTemplateUtils.processTemplateIntoString(getTemplate(noticeTemplate), model);
+    }
+
+    /**
+     * get the compiled template of the notice template
+     * @param noticeTemplate notice template
+     * @return compiled template
+     * @throws IOException template syntax error
+     */
+    public Template getTemplate(NoticeTemplate noticeTemplate) throws IOException {
+        String content = noticeTemplate.getContent() == null ? "" : noticeTemplate.getContent();
+        String key = cacheKey(noticeTemplate);
+        if (key == null) {
+            return compile("freeMakerTemplate", content);
+        }
+        CompiledTemplate compiled = cache.getIfPresent(key);
+        if (compiled != null && compiled.matches(noticeTemplate.getGmtUpdate(), content)) {
+            return compiled.template;
+        }
+        Template template = compile(key, content);
+        cache.put(key, new CompiledTemplate(noticeTemplate.getGmtUpdate(), content, template));
+        return template;
+    }
+
+    /**
+     * invalidate the compiled template when the notice template is edited or deleted
+     * @param templateId notice template id
+     */
+    public void invalidate(Long templateId) {
+        if (templateId != null) {
+            cache.invalidate(String.valueOf(templateId));
+        }
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private Template compile(String name, String content) throws IOException {
+        return new Template(name, new StringReader(content), configuration);
+    }
+
+    private static String cacheKey(NoticeTemplate noticeTemplate) {
+        if (noticeTemplate.getId() != null) {
+            return String.valueOf(noticeTemplate.getId());
+        }
+        if (noticeTemplate.isPreset() && noticeTemplate.getType() != null) {
+            return PRESET_KEY_PREFIX + noticeTemplate.getType();
+        }
+        return null;
+    }
+
+    private static final class CompiledTemplate {
+        private final LocalDateTime version;
+        private final String content;
+        private final Template template;
+
+        private CompiledTemplate(LocalDateTime version, String content, Template template) {
+            this.version = version;
+            this.content = content;
+            this.template = template;
+        }
+
+        /**
+         * the content is compared as well, the version may not change when the template is saved within the same tick
+         */
+        private boolean matches(LocalDateTime otherVersion, String otherContent) {
+            return Objects.equals(version, otherVersion) && content.equals(otherContent);
+        }
+    }
+}
@@ -0,0 +1,532 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.manager.component.alerter;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.hertzbeat.alert.AlerterProperties;
+import org.dromara.hertzbeat.common.entity.alerter.Alert;
+import org.dromara.hertzbeat.common.entity.manager.NoticeReceiver;
+import org.dromara.hertzbeat.common.entity.manager.NoticeTemplate;
+import org.dromara.hertzbeat.common.support.event.SystemConfigChangeEvent;
+import org.dromara.hertzbeat.common.util.ResourceBundleUtil;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Asynchronous notification delivery. Every receiver type has its own bounded executor, so a slow channel
+ * never blocks the others or the alert storage. The notifications of a receiver wait in its bounded lane and
+ * are sent one by one in order, so a firing alert and its recovery never arrive reversed. Every receiver endpoint
+ * is rate limited and protected by a circuit breaker, the lane waits for the reserved permit and is parked while
+ * the breaker is open, failed sends are retried with exponential backoff. During an alert storm the alerts beyond
+ * the per receiver and template window threshold are folded into one digest, queued at the window end or before
+ * the next alert of the window, whichever comes first.
+ * 异步告警通知投递, 每种通知类型独立有界线程池, 每个接收人有界队列内顺序投递, 端点限流熔断, 熔断期间暂存待半开, 失败指数退避重试,
+ * 告警风暴时按接收人与模板窗口聚合为摘要
+ * @author tom
+ */
+@Component
+@Slf4j
+public class NotifyDeliveryEngine implements MeterBinder, DisposableBean {
+
+    private static final String RESULT_SUCCESS = "success";
+
+    private static final String RESULT_FAILURE = "failure";
+
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    private static final int MAX_BACKOFF_SHIFT = 16;
+
+    private static final long MIN_PARK_MILLIS = 100L;
+
+    /**
+     * the lane of the receivers not saved yet
+     */
+    private static final long UNSAVED_RECEIVER_LANE = -1L;
+
+    /**
+     * the window of the alerts sent by the default template
+     */
+    private static final long DEFAULT_TEMPLATE_WINDOW = -1L;
+
+    private final AlerterProperties.NotifyProperties properties;
+
+    private final Map<Byte, AlertNotifyHandler> alertNotifyHandlerMap;
+
+    /**
+     * receiver type - delivery executor, draining the lanes
+     */
+    private final Map<Byte, ThreadPoolExecutor> executorMap;
+
+    /**
+     * receiver id - the notifications waiting to be sent in order
+     */
+    private final Map<Long, ReceiverLane> laneMap = new ConcurrentHashMap<>(16);
+
+    /**
+     * receiver id - endpoint guard
+     */
+    private final Map<Long, NotifyEndpointGuard> guardMap = new ConcurrentHashMap<>(16);
+
+    /**
+     * delay the retry, rate limited and parked lanes, at most one delay of a lane, never block the delivery threads
+     */
+    private final ScheduledExecutorService delayScheduler;
+
+    /**
+     * receiver id - notice template id - aggregation window, the digest is rendered by the template of its alerts
+     */
+    private final Map<Long, Map<Long, DigestWindow>> windowMap = new ConcurrentHashMap<>(16);
+
+    private final Map<String, Timer> latencyTimerMap = new ConcurrentHashMap<>(16);
+
+    private final LongAdder deliveredCount = new LongAdder();
+
+    private final LongAdder failedCount = new LongAdder();
+
+    private final LongAdder retriedCount = new LongAdder();
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private final LongAdder parkedCount = new LongAdder();
+
+    private final LongAdder foldedCount = new LongAdder();
+
+    private volatile ResourceBundle bundle = ResourceBundleUtil.getBundle("alerter");
+
+    private volatile MeterRegistry meterRegistry;
+
+    public NotifyDeliveryEngine(AlerterProperties alerterProperties, List<AlertNotifyHandler> alertNotifyHandlerList) {
+        this.properties = alerterProperties.getNotify() == null
+                ? new AlerterProperties.NotifyProperties() : alerterProperties.getNotify();
+        this.alertNotifyHandlerMap = new HashMap<>(alertNotifyHandlerList.size());
+        this.executorMap = new HashMap<>(alertNotifyHandlerList.size());
+        int threads = Math.max(properties.getThreadsPerType(), 1);
+        for (AlertNotifyHandler handler : alertNotifyHandlerList) {
+            alertNotifyHandlerMap.put(handler.type(), handler);
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(Math.max(properties.getQueueCapacity(), 1)),
+                    new ThreadFactoryBuilder()
+                            .setDaemon(true)
+                            .setNameFormat("notify-type-" + handler.type() + "-%d")
+                            .build(),
+                    new ThreadPoolExecutor.AbortPolicy());
+            executor.allowCoreThreadTimeOut(true);
+            executorMap.put(handler.type(), executor);
+        }
+        this.delayScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("notify-delay-%d")
+                .build());
+    }
+
+    /**
+     * submit the notification to the receiver lane, return immediately.
+     * the alert is folded into the receiver digest when the receiver window threshold is reached
+     * @param receiver receiver
+     * @param noticeTemplate notice template, null for the default template
+     * @param alert alert, must not be shared with other deliveries since the handler may modify it
+     * @return false when no handler for the receiver type or the receiver queue is full
+     */
+    public boolean deliver(NoticeReceiver receiver, NoticeTemplate noticeTemplate, Alert alert) {
+        if (receiver == null || receiver.getType() == null || !alertNotifyHandlerMap.containsKey(receiver.getType())) {
+            log.warn("notify delivery has no handler for receiver: {}, alert: {}.", receiver, alert);
+            return false;
+        }
+        if (properties.getDigestWindow() > 0 && receiver.getId() != null && fold(receiver, noticeTemplate, alert)) {
+            return true;
+        }
+        return submit(new DeliveryTask(receiver, noticeTemplate, alert, System.nanoTime()));
+    }
+
+    /**
+     * count the alert in the receiver window of its template, fold it into the window digest when the threshold
+     * is reached. The digest of an ended window is queued before the alert starting the next window.
+     * @return true when folded, false when it should be sent directly
+     */
+    private boolean fold(NoticeReceiver receiver, NoticeTemplate noticeTemplate, Alert alert) {
+        long templateKey = noticeTemplate == null || noticeTemplate.getId() == null ? DEFAULT_TEMPLATE_WINDOW : noticeTemplate.getId();
+        DigestWindow window = windowMap.computeIfAbsent(receiver.getId(), id -> new ConcurrentHashMap<>(4))
+                .computeIfAbsent(templateKey, key -> new DigestWindow());
+        long now = System.nanoTime();
+        synchronized (window) {
+            if (now - window.windowEndNanos >= 0) {
+                flushLocked(window);
+                window.windowEndNanos = now + TimeUnit.MILLISECONDS.toNanos(properties.getDigestWindow());
+                window.sentCount = 0;
+            }
+            if (window.sentCount < properties.getDigestThreshold()) {
+                window.sentCount++;
+                return false;
+            }
+            if (window.digest == null) {
+                window.digest = new NotifyDigest(properties.getDigestSamples(), noticeTemplate);
+                window.receiver = receiver;
+                long windowEndNanos = window.windowEndNanos;
+                try {
+                    delayScheduler.schedule(() -> flush(window, windowEndNanos),
+                            Math.max(windowEndNanos - now, 0), TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    window.digest = null;
+                    return false;
+                }
+            }
+            window.digest.add(alert);
+        }
+        foldedCount.increment();
+        return true;
+    }
+
+    /**
+     * flush the digest at the window end, unless it is flushed by the alert starting the next window
+     */
+    private void flush(DigestWindow window, long windowEndNanos) {
+        synchronized (window) {
+            if (window.windowEndNanos == windowEndNanos) {
+                flushLocked(window);
+            }
+        }
+    }
+
+    /**
+     * queue the window digest into the receiver lane, called holding the window lock so the digest is queued
+     * before the alerts of the next window
+     */
+    private void flushLocked(DigestWindow window) {
+        NotifyDigest digest = window.digest;
+        NoticeReceiver receiver = window.receiver;
+        window.digest = null;
+        window.receiver = null;
+        if (digest == null || digest.getCount() == 0) {
+            return;
+        }
+        Alert alert = digest.getSingle();
+        if (alert == null) {
+            alert = digest.toAlert(bundle, Math.max(TimeUnit.MILLISECONDS.toSeconds(properties.getDigestWindow()), 1));
+        }
+        submit(new DeliveryTask(receiver, digest.getNoticeTemplate(), alert, System.nanoTime()));
+    }
+
+    /**
+     * add the notification to its receiver lane, start draining the lane when it is idle
+     * @return false when the lane is full
+     */
+    private boolean submit(DeliveryTask task) {
+        long laneKey = task.receiver.getId() == null ? UNSAVED_RECEIVER_LANE : task.receiver.getId();
+        ReceiverLane lane = laneMap.computeIfAbsent(laneKey, key -> new ReceiverLane());
+        synchronized (lane) {
+            if (lane.tasks.size() >= Math.max(properties.getReceiverQueueCapacity(), 1)) {
+                rejectedCount.increment();
+                log.warn("notify delivery queue of receiver {} is full, drop the notification.", task.receiver.getName());
+                return false;
+            }
+            lane.tasks.addLast(task);
+            if (lane.draining) {
+                return true;
+            }
+            lane.draining = true;
+        }
+        execute(lane);
+        return true;
+    }
+
+    /**
+     * submit the lane drain to the executor of the receiver type of the head notification
+     */
+    private void execute(ReceiverLane lane) {
+        DeliveryTask head;
+        synchronized (lane) {
+            head = lane.tasks.peekFirst();
+            if (head == null) {
+                lane.draining = false;
+                return;
+            }
+        }
+        try {
+            executorMap.get(head.receiver.getType()).execute(() -> drain(lane));
+        } catch (RejectedExecutionException e) {
+            // the executor queue holds one drain of a lane, try again later instead of dropping the lane
+            log.warn("notify delivery executor of type {} is busy, delay the receiver {}.",
+                    head.receiver.getType(), head.receiver.getName());
+            schedule(lane, TimeUnit.MILLISECONDS.toNanos(Math.max(properties.getRetryBackoff(), MIN_PARK_MILLIS)));
+        }
+    }
+
+    /**
+     * send the head notification of the lane, the lane is drained by one thread at a time
+     */
+    private void drain(ReceiverLane lane) {
+        DeliveryTask task;
+        synchronized (lane) {
+            task = lane.tasks.peekFirst();
+            if (task == null) {
+                lane.draining = false;
+                return;
+            }
+        }
+        NotifyEndpointGuard guard = guardOf(task.receiver);
+        long now = System.nanoTime();
+        if (guard != null) {
+            if (!lane.permitReserved) {
+                // the permit is reserved at once, the lane sends after the wait without acquiring it again
+                long waitNanos = guard.reserve(now);
+                lane.permitReserved = true;
+                if (waitNanos > 0) {
+                    schedule(lane, waitNanos);
+                    return;
+                }
+            }
+            if (!guard.allowRequest(now)) {
+                if (!task.parked) {
+                    task.parked = true;
+                    parkedCount.increment();
+                    log.debug("notify receiver {} circuit breaker is open, park the notifications.", task.receiver.getName());
+                }
+                schedule(lane, Math.max(guard.openRemaining(now), TimeUnit.MILLISECONDS.toNanos(MIN_PARK_MILLIS)));
+                return;
+            }
+        }
+        lane.permitReserved = false;
+        long retryNanos = attempt(task, guard);
+        if (retryNanos > 0) {
+            schedule(lane, retryNanos);
+            return;
+        }
+        synchronized (lane) {
+            lane.tasks.pollFirst();
+            if (lane.tasks.isEmpty()) {
+                lane.draining = false;
+                return;
+            }
+        }
+        // yield the delivery thread to the other receivers of the type
+        execute(lane);
+    }
+
+    /**
+     * @return 0 when the notification is finished, otherwise the nanos to retry it after
+     */
+    private long attempt(DeliveryTask task, NotifyEndpointGuard guard) {
+        AlertNotifyHandler handler = alertNotifyHandlerMap.get(task.receiver.getType());
+        try {
+            handler.send(task.receiver, task.noticeTemplate, task.alert);
+            if (guard != null) {
+                guard.onSuccess();
+            }
+            deliveredCount.increment();
+            recordLatency(task, RESULT_SUCCESS);
+            return 0;
+        } catch (Exception e) {
+            if (guard != null) {
+                guard.onFailure(System.nanoTime());
+            }
+            if (task.attempts < properties.getMaxRetries()) {
+                // the retry is parked by the lane when the failure opens the breaker
+                long backoff = properties.getRetryBackoff() << Math.min(task.attempts, MAX_BACKOFF_SHIFT);
+                task.attempts++;
+                retriedCount.increment();
+                log.debug("notify receiver {} error: {}, retry {} after {} ms.",
+                        task.receiver.getName(), e.getMessage(), task.attempts, backoff);
+                return Math.max(TimeUnit.MILLISECONDS.toNanos(backoff), 1);
+            }
+            failedCount.increment();
+            recordLatency(task, RESULT_FAILURE);
+            log.warn("notify receiver {} failed after {} attempts: {}.", task.receiver.getName(),
+                    task.attempts + 1, e.getMessage());
+            return 0;
+        }
+    }
+
+    private void schedule(ReceiverLane lane, long delayNanos) {
+        try {
+            delayScheduler.schedule(() -> execute(lane), delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            synchronized (lane) {
+                lane.draining = false;
+            }
+        }
+    }
+
+    private NotifyEndpointGuard guardOf(NoticeReceiver receiver) {
+        if (receiver.getId() == null) {
+            return null;
+        }
+        return guardMap.computeIfAbsent(receiver.getId(), id -> new NotifyEndpointGuard(properties.getReceiverRateLimit(),
+                properties.getBreakerFailureThreshold(), properties.getBreakerOpenSeconds(), System.nanoTime()));
+    }
+
+    private void recordLatency(DeliveryTask task, String result) {
+        MeterRegistry registry = this.meterRegistry;
+        if (registry == null) {
+            return;
+        }
+        String type = String.valueOf(task.receiver.getType());
+        Timer timer = latencyTimerMap.computeIfAbsent(type + ":" + result, key -> Timer.builder("hertzbeat.alerter.notify.latency")
+                .description("alarm notification delivery latency from submit to the last attempt")
+                .tag("type", type)
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(registry));
+        timer.record(System.nanoTime() - task.submitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * remove the endpoint state of the receiver, called when the receiver is modified or deleted
+     * @param receiverId receiver id
+     */
+    public void resetReceiver(Long receiverId) {
+        if (receiverId != null) {
+            guardMap.remove(receiverId);
+            windowMap.remove(receiverId);
+            laneMap.computeIfPresent(receiverId, (id, lane) -> {
+                synchronized (lane) {
+                    return lane.draining || !lane.tasks.isEmpty() ? lane : null;
+                }
+            });
+        }
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getParkedCount() {
+        return parkedCount.sum();
+    }
+
+    public long getPendingCount() {
+        long pending = 0;
+        for (ReceiverLane lane : laneMap.values()) {
+            synchronized (lane) {
+                pending += lane.tasks.size();
+            }
+        }
+        return pending;
+    }
+
+    public long getFoldedCount() {
+        return foldedCount.sum();
+    }
+
+    @EventListener(SystemConfigChangeEvent.class)
+    public void onSystemConfigChangeEvent(SystemConfigChangeEvent event) {
+        this.bundle = ResourceBundleUtil.getBundle("alerter");
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        FunctionCounter.builder("hertzbeat.alerter.notify.delivered", deliveredCount, LongAdder::sum)
+                .description("alarm notification delivered count")
+                .register(registry);
+        FunctionCounter.builder("hertzbeat.alerter.notify.failed", failedCount, LongAdder::sum)
+                .description("alarm notification failed count after all the retries")
+                .register(registry);
+        FunctionCounter.builder("hertzbeat.alerter.notify.retried", retriedCount, LongAdder::sum)
+                .description("alarm notification retry count")
+                .register(registry);
+        FunctionCounter.builder("hertzbeat.alerter.notify.rejected", rejectedCount, LongAdder::sum)
+                .description("alarm notification dropped count because the receiver queue is full")
+                .register(registry);
+        FunctionCounter.builder("hertzbeat.alerter.notify.parked", parkedCount, LongAdder::sum)
+                .description("alarm notification parked count until the receiver circuit breaker is half open")
+                .register(registry);
+        FunctionCounter.builder("hertzbeat.alerter.notify.folded", foldedCount, LongAdder::sum)
+                .description("alarm notification folded into the receiver digest count")
+                .register(registry);
+        Gauge.builder("hertzbeat.alerter.notify.pending", this, NotifyDeliveryEngine::getPendingCount)
+                .description("alarm notification pending delivery size")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        delayScheduler.shutdownNow();
+        executorMap.values().forEach(ThreadPoolExecutor::shutdown);
+    }
+
+    /**
+     * aggregation window of one receiver and notice template, guarded by itself
+     */
+    private static final class DigestWindow {
+        private long windowEndNanos = System.nanoTime();
+        private int sentCount;
+        private NotifyDigest digest;
+        private NoticeReceiver receiver;
+    }
+
+    /**
+     * the notifications of one receiver sent in order, guarded by itself
+     */
+    private static final class ReceiverLane {
+        private final Deque<DeliveryTask> tasks = new ArrayDeque<>();
+        /**
+         * a drain of the lane is submitted or delayed
+         */
+        private boolean draining;
+        /**
+         * the rate limit permit of the head notification is reserved, only accessed by the drain
+         */
+        private boolean permitReserved;
+    }
+
+    private static final class DeliveryTask {
+        private final NoticeReceiver receiver;
+        private final NoticeTemplate noticeTemplate;
+        private final Alert alert;
+        private final long submitNanos;
+        private int attempts;
+        private boolean parked;
+
+        private DeliveryTask(NoticeReceiver receiver, NoticeTemplate noticeTemplate, Alert alert, long submitNanos) {
+            this.receiver = receiver;
+            this.noticeTemplate = noticeTemplate;
+            this.alert = alert;
+            this.submitNanos = submitNanos;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.manager.component.alerter;
+
+import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.dromara.hertzbeat.common.entity.alerter.Alert;
+import org.dromara.hertzbeat.common.entity.manager.NoticeTemplate;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+/**
+ * Alerts folded into one notification of a receiver aggregation window, only the counts and the top N samples
+ * are kept, so the memory is bounded no matter how many alerts are folded
+ * 接收人聚合窗口内折叠的告警摘要, 仅保留计数与前N条样例, 内存占用与告警数量无关
+ * @author tom
+ */
+class NotifyDigest {
+
+    static final String DIGEST_TARGET = "alert.digest";
+
+    private static final int PRIORITY_SIZE = 3;
+
+    /**
+     * the higher priority (smaller value) first, then the latest
+     */
+    private static final Comparator<Alert> SAMPLE_ORDER = Comparator.comparingInt(Alert::getPriority)
+            .thenComparing(NotifyDigest::alarmTime, Comparator.reverseOrder());
+
+    private final int maxSamples;
+
+    private final List<Alert> samples;
+
+    private final int[] priorityCounts = new int[PRIORITY_SIZE];
+
+    private final NoticeTemplate noticeTemplate;
+
+    private int count;
+
+    private int restoredCount;
+
+    private long firstAlarmTime = Long.MAX_VALUE;
+
+    private long lastAlarmTime = Long.MIN_VALUE;
+
+    /**
+     * @param maxSamples max sample alerts shown in the digest
+     * @param noticeTemplate template of the first folded alert
+     */
+    NotifyDigest(int maxSamples, NoticeTemplate noticeTemplate) {
+        this.maxSamples = Math.max(maxSamples, 0);
+        this.samples = new ArrayList<>(this.maxSamples + 1);
+        this.noticeTemplate = noticeTemplate;
+    }
+
+    void add(Alert alert) {
+        count++;
+        if (alert.getStatus() == CommonConstants.ALERT_STATUS_CODE_RESTORED) {
+            restoredCount++;
+        } else if (alert.getPriority() >= 0 && alert.getPriority() < PRIORITY_SIZE) {
+            priorityCounts[alert.getPriority()]++;
+        }
+        long alarmTime = alarmTime(alert);
+        firstAlarmTime = Math.min(firstAlarmTime, alarmTime);
+        lastAlarmTime = Math.max(lastAlarmTime, alarmTime);
+        if (maxSamples == 0) {
+            return;
+        }
+        if (samples.size() < maxSamples) {
+            samples.add(alert);
+            samples.sort(SAMPLE_ORDER);
+        } else if (SAMPLE_ORDER.compare(alert, samples.get(samples.size() - 1)) < 0) {
+            samples.set(samples.size() - 1, alert);
+            samples.sort(SAMPLE_ORDER);
+        }
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    NoticeTemplate getNoticeTemplate() {
+        return noticeTemplate;
+    }
+
+    /**
+     * @return the only folded alert, null when more than one alert folded
+     */
+    Alert getSingle() {
+        return count == 1 && samples.size() == 1 ? samples.get(0) : null;
+    }
+
+    /**
+     * build the digest alert sent by the notify handlers, the content lists the counts and the samples
+     * @param bundle i18n bundle
+     * @param windowSeconds aggregation window seconds
+     * @return digest alert
+     */
+    Alert toAlert(ResourceBundle bundle, long windowSeconds) {
+        StringBuilder content = new StringBuilder(256);
+        content.append(MessageFormat.format(bundle.getString("alerter.notify.digest.summary"),
+                String.valueOf(count), String.valueOf(windowSeconds)));
+        byte highestPriority = CommonConstants.ALERT_PRIORITY_CODE_WARNING;
+        for (byte priority = 0; priority < PRIORITY_SIZE; priority++) {
+            if (priorityCounts[priority] > 0) {
+                highestPriority = (byte) Math.min(highestPriority, priority);
+                content.append(", ").append(bundle.getString("alerter.priority." + priority))
+                        .append(' ').append(priorityCounts[priority]);
+            }
+        }
+        if (restoredCount > 0) {
+            content.append(", ").append(bundle.getString("alerter.alarm.recover")).append(' ').append(restoredCount);
+        }
+        for (int index = 0; index < samples.size(); index++) {
+            Alert sample = samples.get(index);
+            content.append('\n').append(index + 1).append(". [")
+                    .append(bundle.getString("alerter.priority." + sample.getPriority())).append("] ");
+            String monitorName = sample.getTags() == null ? null : sample.getTags().get(CommonConstants.TAG_MONITOR_NAME);
+            if (monitorName != null) {
+                content.append(monitorName).append(' ');
+            }
+            content.append(sample.getContent());
+        }
+        if (count > samples.size()) {
+            content.append('\n').append(MessageFormat.format(bundle.getString("alerter.notify.digest.more"),
+                    String.valueOf(count - samples.size())));
+        }
+        Map<String, String> tags = new HashMap<>(4);
+        tags.put(DIGEST_TARGET, String.valueOf(count));
+        return Alert.builder()
+                .target(DIGEST_TARGET)
+                .priority(highestPriority)
+                .status(restoredCount == count ? CommonConstants.ALERT_STATUS_CODE_RESTORED
+                        : CommonConstants.ALERT_STATUS_CODE_PENDING)
+                .content(content.toString())
+                .times(count)
+                .firstAlarmTime(firstAlarmTime)
+                .lastAlarmTime(lastAlarmTime)
+                .tags(tags)
+                .build();
+    }
+
+    private static long alarmTime(Alert alert) {
+        if (alert.getLastAlarmTime() != null) {
+            return alert.getLastAlarmTime();
+        }
+        return alert.getFirstAlarmTime() != null ? alert.getFirstAlarmTime() : System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.manager.component.alerter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiter (token bucket) and circuit breaker of one notice receiver endpoint
+ * 通知接收端点的令牌桶限流与熔断
+ * @author tom
+ */
+class NotifyEndpointGuard {
+
+    private final double permitsPerNano;
+
+    private final double maxPermits;
+
+    private final int failureThreshold;
+
+    private final long openNanos;
+
+    private double storedPermits;
+
+    private long lastRefillNanos;
+
+    private int consecutiveFailures;
+
+    /**
+     * the time the breaker is open until, 0 means closed
+     */
+    private long openUntilNanos;
+
+    /**
+     * a trial send is in flight after the open period
+     */
+    private boolean halfOpenTrial;
+
+    /**
+     * @param permitsPerSecond max sends per second, 0 means no limit
+     * @param failureThreshold consecutive failures to open the breaker
+     * @param openSeconds seconds the breaker stays open
+     * @param nowNanos current nano time
+     */
+    NotifyEndpointGuard(double permitsPerSecond, int failureThreshold, int openSeconds, long nowNanos) {
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.maxPermits = Math.max(permitsPerSecond, 1);
+        this.storedPermits = maxPermits;
+        this.lastRefillNanos = nowNanos;
+        this.failureThreshold = Math.max(failureThreshold, 1);
+        this.openNanos = TimeUnit.SECONDS.toNanos(openSeconds);
+    }
+
+    /**
+     * whether the breaker allows a send now, only one trial send is allowed after the open period
+     * @param nowNanos current nano time
+     * @return allow or not
+     */
+    synchronized boolean allowRequest(long nowNanos) {
+        if (openUntilNanos == 0) {
+            return true;
+        }
+        if (nowNanos - openUntilNanos < 0 || halfOpenTrial) {
+            return false;
+        }
+        halfOpenTrial = true;
+        return true;
+    }
+
+    /**
+     * reserve the next send permit, the permits of the later callers are reserved after it
+     * @param nowNanos current nano time
+     * @return 0 when the permit is available now, otherwise the nanos to wait for the reserved permit
+     */
+    synchronized long reserve(long nowNanos) {
+        if (permitsPerNano <= 0) {
+            return 0;
+        }
+        storedPermits = Math.min(maxPermits, storedPermits + (nowNanos - lastRefillNanos) * permitsPerNano);
+        lastRefillNanos = nowNanos;
+        storedPermits -= 1;
+        if (storedPermits >= 0) {
+            return 0;
+        }
+        return (long) Math.ceil(-storedPermits / permitsPerNano);
+    }
+
+    synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        openUntilNanos = 0;
+        halfOpenTrial = false;
+    }
+
+    synchronized void onFailure(long nowNanos) {
+        consecutiveFailures++;
+        if (halfOpenTrial || consecutiveFailures >= failureThreshold) {
+            openUntilNanos = nowNanos + openNanos;
+            if (openUntilNanos == 0) {
+                openUntilNanos = 1;
+            }
+            halfOpenTrial = false;
+        }
+    }
+
+    /**
+     * @param nowNanos current nano time
+     * @return the nanos until the breaker allows a trial send, 0 when closed or half open
+     */
+    synchronized long openRemaining(long nowNanos) {
+        if (openUntilNanos == 0) {
+            return 0;
+        }
+        return Math.max(openUntilNanos - nowNanos, 0);
+    }
+
+    synchronized boolean isOpen(long nowNanos) {
+        return openUntilNanos != 0 && (nowNanos - openUntilNanos < 0 || halfOpenTrial);
+    }
+}
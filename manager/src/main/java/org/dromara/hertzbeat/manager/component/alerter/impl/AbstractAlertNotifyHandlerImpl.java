@@ -17,8 +17,6 @@
 
 package org.dromara.hertzbeat.manager.component.alerter.impl;
 
-import freemarker.cache.StringTemplateLoader;
-import freemarker.template.Configuration;
 import freemarker.template.TemplateException;
 import lombok.extern.slf4j.Slf4j;
 import org.dromara.hertzbeat.alert.AlerterProperties;
@@ -28,9 +26,9 @@ import org.dromara.hertzbeat.common.entity.manager.NoticeTemplate;
 import org.dromara.hertzbeat.common.support.event.SystemConfigChangeEvent;
 import org.dromara.hertzbeat.common.util.ResourceBundleUtil;
 import org.dromara.hertzbeat.manager.component.alerter.AlertNotifyHandler;
+import org.dromara.hertzbeat.manager.component.alerter.NoticeTemplateCache;
 import org.dromara.hertzbeat.manager.service.NoticeConfigService;
 import org.springframework.context.event.EventListener;
-import org.springframework.ui.freemarker.FreeMarkerTemplateUtils;
 import org.springframework.web.client.RestTemplate;
 
 import javax.annotation.Resource;
@@ -39,7 +37,6 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
-import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
 
@@ -51,7 +48,6 @@ import java.util.ResourceBundle;
 @Slf4j
 abstract class AbstractAlertNotifyHandlerImpl implements AlertNotifyHandler {
 
-    private static final String NUMBER_FORMAT = "0";
     protected static final DateTimeFormatter DTF = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     protected ResourceBundle bundle = ResourceBundleUtil.getBundle("alerter");
     @Resource
@@ -60,13 +56,11 @@ abstract class AbstractAlertNotifyHandlerImpl implements AlertNotifyHandler {
     protected AlerterProperties alerterProperties;
     @Resource
     protected NoticeConfigService noticeConfigService;
+    @Resource
+    protected NoticeTemplateCache noticeTemplateCache;
 
 
     protected String renderContent(NoticeTemplate noticeTemplate, Alert alert) throws TemplateException, IOException {
-        StringTemplateLoader stringLoader = new StringTemplateLoader();
-        freemarker.template.Template templateRes;
-        Configuration cfg = new Configuration(Configuration.VERSION_2_3_0);
-        cfg.setNumberFormat(NUMBER_FORMAT);
         Map<String, Object> model = new HashMap<>(16);
         model.put("title", bundle.getString("alerter.notify.title"));
 
@@ -117,12 +111,7 @@ abstract class AbstractAlertNotifyHandlerImpl implements AlertNotifyHandler {
             log.error("alert does not have mapping default notice template. type: {}.", type());
             throw new NullPointerException(type() + " does not have mapping default notice template");
         }
-        // TODO 单实例复用缓存 考虑多线程问题
-        String templateName = "freeMakerTemplate";
-        stringLoader.putTemplate(templateName, noticeTemplate.getContent());
-        cfg.setTemplateLoader(stringLoader);
-        templateRes = cfg.getTemplate(templateName, Locale.CHINESE);
-        String template = FreeMarkerTemplateUtils.processTemplateIntoString(templateRes, model);
+        String template = noticeTemplateCache.render(noticeTemplate, model);
         return template.replaceAll("((\r\n)|\n)[\\s\t ]*(\\1)+", "$1");
     }
 
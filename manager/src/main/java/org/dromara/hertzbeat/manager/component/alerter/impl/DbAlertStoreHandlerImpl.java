@@ -19,12 +19,12 @@ package org.dromara.hertzbeat.manager.component.alerter.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.dromara.hertzbeat.alert.service.AlertService;
+import org.dromara.hertzbeat.alert.reduce.MonitorMetadataCache;
 import org.dromara.hertzbeat.common.constants.CommonConstants;
 import org.dromara.hertzbeat.common.entity.alerter.Alert;
-import org.dromara.hertzbeat.common.entity.manager.Monitor;
+import org.dromara.hertzbeat.common.util.SnowFlakeIdGenerator;
+import org.dromara.hertzbeat.manager.component.alerter.AlertStoreBuffer;
 import org.dromara.hertzbeat.manager.component.alerter.AlertStoreHandler;
-import org.dromara.hertzbeat.manager.service.MonitorService;
 import org.dromara.hertzbeat.manager.support.exception.IgnoreException;
 import org.springframework.stereotype.Component;
 
@@ -41,9 +41,9 @@ import java.util.Map;
 @Slf4j
 final class DbAlertStoreHandlerImpl implements AlertStoreHandler {
 
-    private final MonitorService monitorService;
+    private final MonitorMetadataCache monitorMetadataCache;
 
-    private final AlertService alertService;
+    private final AlertStoreBuffer alertStoreBuffer;
 
     @Override
     public void store(Alert alert) {
@@ -51,7 +51,7 @@ final class DbAlertStoreHandlerImpl implements AlertStoreHandler {
         String monitorIdStr = tags != null ? tags.get(CommonConstants.TAG_MONITOR_ID) : null;
         if (monitorIdStr != null) {
             long monitorId = Long.parseLong(monitorIdStr);
-            Monitor monitor = monitorService.getMonitor(monitorId);
+            MonitorMetadataCache.MonitorMetadata monitor = monitorMetadataCache.get(monitorId);
             if (monitor == null) {
                 log.warn("Dispatch alarm the monitorId: {} not existed, ignored. target: {}.", monitorId, alert.getTarget());
                 return;
@@ -67,14 +67,17 @@ final class DbAlertStoreHandlerImpl implements AlertStoreHandler {
                 return;
             }
             if (CommonConstants.AVAILABILITY.equals(alert.getTarget())) {
-                if (alert.getStatus() == CommonConstants.ALERT_STATUS_CODE_PENDING && monitor.getStatus() == CommonConstants.AVAILABLE_CODE) {
+                // the status change not flushed yet wins over the cached status
+                Byte pendingStatus = alertStoreBuffer.getPendingStatus(monitorId);
+                byte monitorStatus = pendingStatus != null ? pendingStatus : monitor.getStatus();
+                if (alert.getStatus() == CommonConstants.ALERT_STATUS_CODE_PENDING && monitorStatus == CommonConstants.AVAILABLE_CODE) {
                     // Availability Alarm Need to change the monitoring status to unavailable
                     // 可用性告警 需变更任务状态为不可用
-                    monitorService.updateMonitorStatus(monitor.getId(), CommonConstants.UN_AVAILABLE_CODE);
-                } else if (alert.getStatus() == CommonConstants.ALERT_STATUS_CODE_RESTORED && monitor.getStatus() == CommonConstants.UN_AVAILABLE_CODE) {
+                    alertStoreBuffer.updateMonitorStatus(monitorId, CommonConstants.UN_AVAILABLE_CODE);
+                } else if (alert.getStatus() == CommonConstants.ALERT_STATUS_CODE_RESTORED && monitorStatus == CommonConstants.UN_AVAILABLE_CODE) {
                     // If the alarm is restored, the monitoring state needs to be restored
                     // 若是恢复告警 需对任务状态进行恢复
-                    monitorService.updateMonitorStatus(monitorId, CommonConstants.AVAILABLE_CODE);
+                    alertStoreBuffer.updateMonitorStatus(monitorId, CommonConstants.AVAILABLE_CODE);
                 }
             }
         } else {
@@ -83,7 +86,17 @@ final class DbAlertStoreHandlerImpl implements AlertStoreHandler {
         if (tags != null && tags.containsKey(CommonConstants.IGNORE)) {
             throw new IgnoreException("Ignore this alarm.");
         }
-        // Alarm store db
-        alertService.addAlert(alert);
+        // the id is assigned before the notify renders it, the flush thread stores a snapshot
+        // as the notify handlers may still change the alert
+        if (alert.getId() == null) {
+            alert.setId(SnowFlakeIdGenerator.generateId());
+        }
+        // Alarm store db by the write-behind batch
+        try {
+            alertStoreBuffer.store(alert.clone());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("store alert interrupted, alert: {}.", alert);
+        }
     }
 }
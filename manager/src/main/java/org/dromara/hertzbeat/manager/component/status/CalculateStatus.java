@@ -4,24 +4,34 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.extern.slf4j.Slf4j;
 import org.dromara.hertzbeat.common.constants.CommonConstants;
 import org.dromara.hertzbeat.common.entity.manager.*;
+import org.dromara.hertzbeat.common.support.event.MonitorChangeEvent;
+import org.dromara.hertzbeat.common.support.event.MonitorDeletedEvent;
 import org.dromara.hertzbeat.manager.config.StatusProperties;
 import org.dromara.hertzbeat.manager.dao.*;
-import org.springframework.data.jpa.domain.Specification;
+import org.dromara.hertzbeat.manager.pojo.dto.MonitorTagStatus;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.persistence.criteria.JoinType;
-import javax.persistence.criteria.ListJoin;
-import javax.persistence.criteria.Predicate;
 import java.time.*;
 import java.util.*;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 /**
- * calculate component status for status page
+ * calculate component status for status page.
+ * The component states are kept in memory and updated by the monitor status change events, the monitor tags are
+ * reconciled from the database by one query every interval or on the component and monitor changes. The state
+ * history is written in batches when the states change and on the checkpoints, and rolled up into the daily
+ * history in the same transaction.
+ * 状态页组件状态计算, 组件状态由监控状态变更事件增量更新, 状态历史仅在变更和检查点时批量写入并同步汇总至每日历史
  * @author tom
  */
 @Component
@@ -29,27 +39,80 @@ import java.util.concurrent.TimeUnit;
 public class CalculateStatus {
     
     private static final int DEFAULT_CALCULATE_INTERVAL_TIME = 300;
+
+    private static final int DEFAULT_CHECKPOINT_INTERVAL_TIME = 3600;
+
+    /**
+     * the state changes are flushed to the database every 10 seconds
+     */
+    private static final long FLUSH_INTERVAL_SECONDS = 10;
+
+    private static final long INITIAL_DELAY_SECONDS = 5;
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+
+    /**
+     * the state history is kept for the days, the days before are kept in the daily history
+     */
+    private static final int HISTORY_RETENTION_DAYS = 30;
     
     private final StatusPageOrgDao statusPageOrgDao;
     
     private final StatusPageComponentDao statusPageComponentDao;
     
     private final StatusPageHistoryDao statusPageHistoryDao;
+
+    private final StatusPageHistoryDailyDao statusPageHistoryDailyDao;
+
+    private final TransactionTemplate transactionTemplate;
     
     private final MonitorDao monitorDao;
     
     private final int intervals;
 
+    private final int checkpointInterval;
+
+    private final ComponentStateTracker tracker = new ComponentStateTracker();
+
+    private final DailyHistoryRollup dailyRollup;
+
+    /**
+     * increased when the component states, the organization states or the history change
+     */
+    private final AtomicLong stateVersion = new AtomicLong();
+
+    /**
+     * the components or the monitor tags changed, reconcile in the next flush
+     */
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+
+    private long lastReconcileTime;
+
+    private long lastCheckpointTime;
+
+    private LocalDate lastCheckpointDay;
+
+    /**
+     * the daily history is rolled up from the existing history once when it is empty
+     */
+    private boolean dailyBackfilled;
+
     public CalculateStatus(StatusPageOrgDao statusPageOrgDao, StatusPageComponentDao statusPageComponentDao,
                            StatusProperties statusProperties, StatusPageHistoryDao statusPageHistoryDao,
-                           MonitorDao monitorDao) {
+                           StatusPageHistoryDailyDao statusPageHistoryDailyDao, MonitorDao monitorDao,
+                           PlatformTransactionManager transactionManager) {
         this.statusPageOrgDao = statusPageOrgDao;
         this.monitorDao = monitorDao;
         this.statusPageComponentDao = statusPageComponentDao;
         this.statusPageHistoryDao = statusPageHistoryDao;
-        intervals = statusProperties.getCalculate() == null ? DEFAULT_CALCULATE_INTERVAL_TIME : statusProperties.getCalculate().getInterval();
+        this.statusPageHistoryDailyDao = statusPageHistoryDailyDao;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        StatusProperties.CalculateProperties calculate = statusProperties.getCalculate();
+        intervals = calculate == null ? DEFAULT_CALCULATE_INTERVAL_TIME : calculate.getInterval();
+        checkpointInterval = calculate == null ? DEFAULT_CHECKPOINT_INTERVAL_TIME : calculate.getCheckpoint();
+        dailyRollup = new DailyHistoryRollup(intervals, ZoneId.systemDefault());
         startCalculate();
-        startCombineHistory();
+        startPruneHistory();
     }
 
     private void startCalculate() {
@@ -62,90 +125,122 @@ public class CalculateStatus {
                 .setNameFormat("status-page-calculate-%d")
                 .build();
         ScheduledExecutorService scheduledExecutor = Executors.newSingleThreadScheduledExecutor(threadFactory);
-        scheduledExecutor.scheduleAtFixedRate(() -> {
-            log.info("start to calculate status page state");
+        scheduledExecutor.scheduleWithFixedDelay(this::calculate, INITIAL_DELAY_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * reconcile the component states when required, checkpoint the history and flush the changes
+     */
+    synchronized void calculate() {
+        try {
+            if (!dailyBackfilled) {
+                backfillDaily();
+                dailyBackfilled = true;
+            }
+            long now = System.currentTimeMillis();
+            boolean reconciled = false;
+            if (dirty.getAndSet(false) || now - lastReconcileTime >= intervals * MILLIS_PER_SECOND) {
+                reconcile(now);
+                reconciled = true;
+            }
+            LocalDate today = LocalDate.now();
+            if (lastCheckpointDay != null && !today.equals(lastCheckpointDay)) {
+                // the segments are cut at midnight, so the history of a day is combined on its own
+                long midnight = today.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                tracker.checkpoint(Math.min(midnight - 1, now));
+                lastCheckpointTime = now;
+            } else if (now - lastCheckpointTime >= checkpointInterval * MILLIS_PER_SECOND) {
+                tracker.checkpoint(now);
+                lastCheckpointTime = now;
+            }
+            lastCheckpointDay = today;
+            flush(reconciled);
+        } catch (Exception e) {
+            log.error("status page calculate component state error: {}", e.getMessage(), e);
+        }
+    }
+
+    private void reconcile(long now) {
+        List<StatusPageComponent> pageComponentList = statusPageComponentDao.findAll();
+        Set<String> tagNames = pageComponentList.stream()
+                .filter(component -> component.getMethod() != CommonConstants.STATUS_PAGE_CALCULATE_METHOD_MANUAL)
+                .map(StatusPageComponent::getTag)
+                .filter(tagItem -> tagItem != null && tagItem.getName() != null)
+                .map(TagItem::getName)
+                .collect(Collectors.toSet());
+        List<MonitorTagStatus> monitorTags = tagNames.isEmpty() ? Collections.emptyList()
+                : monitorDao.findMonitorTagStatusByTagNameIn(tagNames);
+        tracker.rebuild(pageComponentList, monitorTags, now);
+        lastReconcileTime = now;
+    }
+
+    /**
+     * roll the existing history up when the daily history is empty, such as the first start after upgrade
+     */
+    private void backfillDaily() {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (statusPageHistoryDailyDao.count() > 0) {
+                return;
+            }
+            List<StatusPageHistory> histories = statusPageHistoryDao.findAll();
+            if (!histories.isEmpty()) {
+                statusPageHistoryDailyDao.saveAll(dailyRollup.rollup(histories, Collections.emptyList()));
+                log.info("status page daily history is rolled up from {} history rows.", histories.size());
+            }
+        });
+    }
+
+    private void flush(boolean reconciled) {
+        List<StatusPageHistory> histories = tracker.drainHistories();
+        if (!histories.isEmpty()) {
             try {
-                // calculate component state from tag bind monitors status
-                List<StatusPageOrg> statusPageOrgList = statusPageOrgDao.findAll();
-                for (StatusPageOrg statusPageOrg : statusPageOrgList) {
-                    long orgId = statusPageOrg.getId();
-                    List<StatusPageComponent> pageComponentList = statusPageComponentDao.findByOrgId(orgId);
-                    Set<Byte> stateSet = new HashSet<>(8);
-                    for (StatusPageComponent component : pageComponentList) {
-                        byte state = CommonConstants.STATUS_PAGE_COMPONENT_STATE_NORMAL;
-                        if (component.getMethod() == CommonConstants.STATUS_PAGE_CALCULATE_METHOD_MANUAL) {
-                            state = component.getConfigState();
-                        } else {
-                            TagItem tagItem = component.getTag();
-                            if (tagItem != null) {
-                                Specification<Monitor> specification = (root, query, criteriaBuilder) -> {
-                                    List<Predicate> andList = new ArrayList<>();
-                                    ListJoin<Monitor, Tag> tagJoin = root
-                                            .join(root.getModel()
-                                                    .getList("tags", Tag.class), JoinType.LEFT);
-                                    if (StringUtils.hasText(tagItem.getValue())) {
-                                        andList.add(criteriaBuilder.equal(tagJoin.get("name"), tagItem.getName()));
-                                        andList.add(criteriaBuilder.equal(tagJoin.get("value"), tagItem.getValue()));
-                                    } else {
-                                        andList.add(criteriaBuilder.equal(tagJoin.get("name"), tagItem.getName()));
-                                    }
-                                    Predicate[] andPredicates = new Predicate[andList.size()];
-                                    Predicate andPredicate = criteriaBuilder.and(andList.toArray(andPredicates));
-                                    return query.where(andPredicate).getRestriction();
-                                };
-                                List<Monitor> monitorList = monitorDao.findAll(specification);
-                                state = CommonConstants.STATUS_PAGE_COMPONENT_STATE_UNKNOWN;
-                                for (Monitor monitor : monitorList) {
-                                    if (monitor.getStatus() == CommonConstants.UN_AVAILABLE_CODE) {
-                                        state = CommonConstants.STATUS_PAGE_COMPONENT_STATE_ABNORMAL;
-                                        break;
-                                    } else if (monitor.getStatus() == CommonConstants.AVAILABLE_CODE) {
-                                        state = CommonConstants.STATUS_PAGE_COMPONENT_STATE_NORMAL;
-                                    }
-                                }   
-                            }
-                        }
-                        stateSet.add(state);
-                        component.setState(state);
-                        statusPageComponentDao.save(component);
-                        // insert component state history
-                        StatusPageHistory statusPageHistory = StatusPageHistory.builder()
-                                .componentId(component.getId())
-                                .state(state)
-                                .timestamp(System.currentTimeMillis())
-                                .build();
-                        statusPageHistoryDao.save(statusPageHistory);
-                    }
-                    stateSet.remove(CommonConstants.STATUS_PAGE_COMPONENT_STATE_UNKNOWN);
-                    if (stateSet.remove(CommonConstants.STATUS_PAGE_COMPONENT_STATE_ABNORMAL)) {
-                        if (stateSet.contains(CommonConstants.STATUS_PAGE_COMPONENT_STATE_NORMAL)) {
-                            statusPageOrg.setState(CommonConstants.STATUS_PAGE_ORG_STATE_SOME_ABNORMAL);
-                        } else {
-                            statusPageOrg.setState(CommonConstants.STATUS_PAGE_ORG_STATE_ALL_ABNORMAL);
-                        }
-                    } else {
-                        statusPageOrg.setState(CommonConstants.STATUS_PAGE_ORG_STATE_ALL_NORMAL);
-                    }
+                transactionTemplate.executeWithoutResult(status -> {
+                    statusPageHistoryDao.saveAll(histories);
+                    List<StatusPageHistoryDaily> dailies = statusPageHistoryDailyDao
+                            .findStatusPageHistoryDailiesByTimestampIn(dailyRollup.days(histories));
+                    statusPageHistoryDailyDao.saveAll(dailyRollup.rollup(histories, dailies));
+                });
+            } catch (Exception e) {
+                tracker.requeueHistories(histories);
+                throw e;
+            }
+            stateVersion.incrementAndGet();
+        }
+        Map<Long, Byte> changedStates = tracker.drainChangedStates();
+        if (!changedStates.isEmpty()) {
+            List<StatusPageComponent> changedComponents = statusPageComponentDao.findAllById(changedStates.keySet());
+            changedComponents.forEach(component -> component.setState(changedStates.get(component.getId())));
+            statusPageComponentDao.saveAll(changedComponents);
+            stateVersion.incrementAndGet();
+        }
+        if (reconciled || !changedStates.isEmpty()) {
+            List<StatusPageOrg> changedOrgs = new LinkedList<>();
+            for (StatusPageOrg statusPageOrg : statusPageOrgDao.findAll()) {
+                byte orgState = tracker.orgState(statusPageOrg.getId());
+                if (orgState != statusPageOrg.getState()) {
+                    statusPageOrg.setState(orgState);
                     statusPageOrg.setGmtUpdate(LocalDateTime.now());
-                    statusPageOrgDao.save(statusPageOrg);
+                    changedOrgs.add(statusPageOrg);
                 }
-            } catch (Exception e) {
-                log.error("status page calculate component state error: {}", e.getMessage(), e);
             }
-        }, 5, intervals, TimeUnit.SECONDS);
+            if (!changedOrgs.isEmpty()) {
+                statusPageOrgDao.saveAll(changedOrgs);
+                stateVersion.incrementAndGet();
+            }
+        }
     }
 
-    private void startCombineHistory() {
+    private void startPruneHistory() {
         ThreadFactory threadFactory = new ThreadFactoryBuilder()
                 .setUncaughtExceptionHandler((thread, throwable) -> {
-                    log.error("History combine has uncaughtException.");
+                    log.error("History prune has uncaughtException.");
                     log.error(throwable.getMessage(), throwable);
                 })
                 .setDaemon(true)
                 .setNameFormat("status-page-calculate-%d")
                 .build();
         ScheduledExecutorService scheduledExecutor = Executors.newSingleThreadScheduledExecutor(threadFactory);
-        // combine history every day at 1:00 AM
+        // prune history every day at 1:00 AM
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime nextRun = now.withHour(1).withMinute(0).withSecond(0);
         if(now.isAfter(nextRun)) {
@@ -154,57 +249,69 @@ public class CalculateStatus {
         long delay = Duration.between(now, nextRun).toMillis();
         scheduledExecutor.scheduleAtFixedRate(() -> {
             try {
-                // combine pre day status history to one record
-                LocalDateTime nowTime = LocalDateTime.now();
-                ZoneOffset zoneOffset = ZoneId.systemDefault().getRules().getOffset(Instant.now());
-                LocalDateTime midnight = nowTime.withHour(0).withMinute(0).withSecond(0).withNano(0);
-                LocalDateTime preNight = midnight.minusDays(1);
-                long midnightTimestamp = midnight.toInstant(zoneOffset).toEpochMilli();
-                long preNightTimestamp = preNight.toInstant(zoneOffset).toEpochMilli();
-                List<StatusPageHistory> statusPageHistoryList = statusPageHistoryDao
-                        .findStatusPageHistoriesByTimestampBetween(preNightTimestamp, midnightTimestamp);
-                Map<Long, StatusPageHistory> statusPageHistoryMap = new HashMap<>(8);
-                for (StatusPageHistory statusPageHistory : statusPageHistoryList) {
-                    if (statusPageHistoryMap.containsKey(statusPageHistory.getComponentId())) {
-                        StatusPageHistory history = statusPageHistoryMap.get(statusPageHistory.getComponentId());
-                        if (statusPageHistory.getState() == CommonConstants.STATUS_PAGE_COMPONENT_STATE_ABNORMAL) {
-                            history.setAbnormal(history.getAbnormal() + intervals);
-                        } else if (statusPageHistory.getState() == CommonConstants.STATUS_PAGE_COMPONENT_STATE_UNKNOWN) {
-                            history.setUnknown(history.getUnknown() + intervals);
-                        } else {
-                            history.setNormal(history.getNormal() + intervals);
-                        }
-                        statusPageHistoryMap.put(statusPageHistory.getComponentId(), history);
-                    } else {
-                        if (statusPageHistory.getState() == CommonConstants.STATUS_PAGE_COMPONENT_STATE_ABNORMAL) {
-                            statusPageHistory.setAbnormal(intervals);
-                        } else if (statusPageHistory.getState() == CommonConstants.STATUS_PAGE_COMPONENT_STATE_UNKNOWN) {
-                            statusPageHistory.setUnknown(intervals);
-                        } else {
-                            statusPageHistory.setNormal(intervals);
-                        }
-                        statusPageHistoryMap.put(statusPageHistory.getComponentId(), statusPageHistory);
-                    }
-                }
-                statusPageHistoryDao.deleteAllById(statusPageHistoryMap.keySet());
-                for (StatusPageHistory history : statusPageHistoryMap.values()) {
-                    double uptime = (double) history.getNormal() / (double) (history.getNormal() + history.getAbnormal() + history.getUnknown());
-                    history.setUptime(uptime);
-                    if (history.getAbnormal() > 0) {
-                        history.setState(CommonConstants.STATUS_PAGE_COMPONENT_STATE_ABNORMAL);
-                    } else if (history.getNormal() > 0) {
-                        history.setState(CommonConstants.STATUS_PAGE_COMPONENT_STATE_NORMAL);
-                    } else {
-                        history.setState(CommonConstants.STATUS_PAGE_COMPONENT_STATE_UNKNOWN);
-                    }
-                    statusPageHistoryDao.save(history);
-                }
+                // the days are rolled up into the daily history when the history is written
+                long retentionTimestamp = LocalDate.now().minusDays(HISTORY_RETENTION_DAYS)
+                        .atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                Integer pruned = transactionTemplate.execute(status ->
+                        statusPageHistoryDao.deleteStatusPageHistoriesByTimestampBefore(retentionTimestamp));
+                log.info("status page prune {} history rows before {}.", pruned, retentionTimestamp);
             } catch (Exception e) {
-                log.error("status page combine history error: {}", e.getMessage(), e);
+                log.error("status page prune history error: {}", e.getMessage(), e);
             }
         }, delay, TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * the monitor status changed by the availability alert updates its components at once,
+     * the other monitor changes may change the monitor tags and reconcile in the next flush
+     * @param event monitor change event
+     */
+    @TransactionalEventListener(value = MonitorChangeEvent.class, fallbackExecution = true)
+    public void onMonitorChangeEvent(MonitorChangeEvent event) {
+        if (event.getMonitorId() != null && event.getStatus() != null) {
+            tracker.updateMonitorStatus(event.getMonitorId(), event.getStatus(), System.currentTimeMillis());
+        } else {
+            dirty.set(true);
+        }
+    }
+
+    @EventListener(MonitorDeletedEvent.class)
+    public void onMonitorDeletedEvent(MonitorDeletedEvent event) {
+        dirty.set(true);
+    }
+
+    /**
+     * the status page components changed, reconcile in the next flush
+     */
+    public void refresh() {
+        dirty.set(true);
+    }
+
+    /**
+     * add the seconds of the history to the total, the history rows of the old polling calculation
+     * have no seconds and each of them stands for a calculate interval in its state
+     * @param total total history with the seconds initialized
+     * @param history history row
+     */
+    public void accumulate(StatusPageHistory total, StatusPageHistory history) {
+        dailyRollup.accumulate(total, history);
+    }
+
+    /**
+     * @param componentId component id
+     * @return the current state segment of the component not written to the history yet, null when not calculated
+     */
+    public StatusPageHistory getOpenSegment(long componentId) {
+        return tracker.openSegment(componentId, System.currentTimeMillis());
+    }
+
+    /**
+     * @return the version increased when the component states, the organization states or the history change
+     */
+    public long getStateVersion() {
+        return stateVersion.get();
+    }
+
     /**
      * get calculate status intervals
      * @return intervals
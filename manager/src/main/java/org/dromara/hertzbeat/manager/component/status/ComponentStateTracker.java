@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.manager.component.status;
+
+import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.dromara.hertzbeat.common.entity.manager.StatusPageComponent;
+import org.dromara.hertzbeat.common.entity.manager.StatusPageHistory;
+import org.dromara.hertzbeat.common.entity.manager.TagItem;
+import org.dromara.hertzbeat.manager.pojo.dto.MonitorTagStatus;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In memory state of the status page components. The component members are resolved from the monitor tags on
+ * rebuild, and a monitor status change only recalculates the components it belongs to. The time a component
+ * stays in a state is a segment, a history row with the seconds of the segment is emitted only when the state
+ * changes or on checkpoint.
+ * 状态页组件内存状态, 监控状态变更只重算其所属组件, 组件状态仅在变更或检查点时产生带持续时长的历史记录
+ * @author tom
+ */
+class ComponentStateTracker {
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+
+    /**
+     * componentId - component state
+     */
+    private final Map<Long, ComponentState> components = new HashMap<>(16);
+
+    /**
+     * monitorId - status, only the monitors bound to the tag components
+     */
+    private final Map<Long, Byte> monitorStatus = new HashMap<>(16);
+
+    /**
+     * monitorId - ids of the components the monitor belongs to
+     */
+    private final Map<Long, Set<Long>> monitorComponents = new HashMap<>(16);
+
+    private final List<StatusPageHistory> pendingHistories = new ArrayList<>();
+
+    /**
+     * componentId - state changed and not saved yet
+     */
+    private final Map<Long, Byte> changedStates = new HashMap<>(8);
+
+    /**
+     * rebuild the component members from the monitor tags, the segments of the components kept go on
+     * @param pageComponents all the status page components
+     * @param monitorTags the status of the monitors with the tags of the components
+     * @param now current time milliseconds
+     */
+    synchronized void rebuild(List<StatusPageComponent> pageComponents, List<MonitorTagStatus> monitorTags, long now) {
+        monitorStatus.clear();
+        monitorComponents.clear();
+        Map<String, List<MonitorTagStatus>> tagNameMap = new HashMap<>(8);
+        for (MonitorTagStatus monitorTag : monitorTags) {
+            monitorStatus.put(monitorTag.getMonitorId(), monitorTag.getStatus());
+            tagNameMap.computeIfAbsent(monitorTag.getTagName(), name -> new ArrayList<>()).add(monitorTag);
+        }
+        Map<Long, ComponentState> rebuilt = new HashMap<>(pageComponents.size() * 4 / 3 + 1);
+        for (StatusPageComponent component : pageComponents) {
+            ComponentState state = components.get(component.getId());
+            if (state == null) {
+                state = new ComponentState(component.getId(), component.getState(), now);
+            }
+            state.orgId = component.getOrgId();
+            state.manualState = component.getMethod() == CommonConstants.STATUS_PAGE_CALCULATE_METHOD_MANUAL
+                    ? component.getConfigState() : null;
+            TagItem tagItem = state.manualState == null ? component.getTag() : null;
+            state.tagged = tagItem != null;
+            state.members = new HashSet<>(8);
+            if (tagItem != null) {
+                for (MonitorTagStatus monitorTag : tagNameMap.getOrDefault(tagItem.getName(), Collections.emptyList())) {
+                    if (!StringUtils.hasText(tagItem.getValue()) || tagItem.getValue().equals(monitorTag.getTagValue())) {
+                        state.members.add(monitorTag.getMonitorId());
+                        monitorComponents.computeIfAbsent(monitorTag.getMonitorId(), id -> new HashSet<>(4))
+                                .add(component.getId());
+                    }
+                }
+            }
+            rebuilt.put(component.getId(), state);
+            update(state, now);
+        }
+        changedStates.keySet().retainAll(rebuilt.keySet());
+        components.clear();
+        components.putAll(rebuilt);
+    }
+
+    /**
+     * the monitor status changed, recalculate the components it belongs to
+     * @param monitorId monitor id
+     * @param status monitor status
+     * @param now current time milliseconds
+     * @return whether the monitor belongs to any component
+     */
+    synchronized boolean updateMonitorStatus(long monitorId, byte status, long now) {
+        Set<Long> componentIds = monitorComponents.get(monitorId);
+        if (componentIds == null) {
+            return false;
+        }
+        monitorStatus.put(monitorId, status);
+        for (Long componentId : componentIds) {
+            update(components.get(componentId), now);
+        }
+        return true;
+    }
+
+    /**
+     * close the segments of all the components
+     * @param now checkpoint time milliseconds
+     */
+    synchronized void checkpoint(long now) {
+        for (ComponentState state : components.values()) {
+            closeSegment(state, now);
+        }
+    }
+
+    /**
+     * @return the history rows not saved yet
+     */
+    synchronized List<StatusPageHistory> drainHistories() {
+        List<StatusPageHistory> histories = new ArrayList<>(pendingHistories);
+        pendingHistories.clear();
+        return histories;
+    }
+
+    /**
+     * the history rows failed to save are saved again in the next flush
+     * @param histories history rows
+     */
+    synchronized void requeueHistories(List<StatusPageHistory> histories) {
+        pendingHistories.addAll(0, histories);
+    }
+
+    /**
+     * @return componentId - state changed since the last drain
+     */
+    synchronized Map<Long, Byte> drainChangedStates() {
+        Map<Long, Byte> states = new HashMap<>(changedStates);
+        changedStates.clear();
+        return states;
+    }
+
+    /**
+     * @param orgId org id
+     * @return the org state from the states of its components
+     */
+    synchronized byte orgState(long orgId) {
+        Set<Byte> stateSet = new HashSet<>(8);
+        for (ComponentState state : components.values()) {
+            if (state.orgId != null && state.orgId == orgId) {
+                stateSet.add(state.state);
+            }
+        }
+        stateSet.remove(CommonConstants.STATUS_PAGE_COMPONENT_STATE_UNKNOWN);
+        if (stateSet.remove(CommonConstants.STATUS_PAGE_COMPONENT_STATE_ABNORMAL)) {
+            return stateSet.contains(CommonConstants.STATUS_PAGE_COMPONENT_STATE_NORMAL)
+                    ? CommonConstants.STATUS_PAGE_ORG_STATE_SOME_ABNORMAL : CommonConstants.STATUS_PAGE_ORG_STATE_ALL_ABNORMAL;
+        }
+        return CommonConstants.STATUS_PAGE_ORG_STATE_ALL_NORMAL;
+    }
+
+    /**
+     * @param componentId component id
+     * @param now current time milliseconds
+     * @return the open segment of the component not written to the history yet, null when not tracked
+     */
+    synchronized StatusPageHistory openSegment(long componentId, long now) {
+        ComponentState state = components.get(componentId);
+        return state == null ? null : segment(state, Math.max((now - state.segmentStart) / MILLIS_PER_SECOND, 0), now);
+    }
+
+    private void update(ComponentState state, long now) {
+        byte newState = calculate(state);
+        if (newState != state.state) {
+            closeSegment(state, now);
+            state.state = newState;
+            state.segmentStart = now;
+            changedStates.put(state.componentId, newState);
+        }
+    }
+
+    private byte calculate(ComponentState state) {
+        if (state.manualState != null) {
+            return state.manualState;
+        }
+        if (!state.tagged) {
+            return CommonConstants.STATUS_PAGE_COMPONENT_STATE_NORMAL;
+        }
+        byte result = CommonConstants.STATUS_PAGE_COMPONENT_STATE_UNKNOWN;
+        for (Long monitorId : state.members) {
+            Byte status = monitorStatus.get(monitorId);
+            if (status == null) {
+                continue;
+            }
+            if (status == CommonConstants.UN_AVAILABLE_CODE) {
+                return CommonConstants.STATUS_PAGE_COMPONENT_STATE_ABNORMAL;
+            } else if (status == CommonConstants.AVAILABLE_CODE) {
+                result = CommonConstants.STATUS_PAGE_COMPONENT_STATE_NORMAL;
+            }
+        }
+        return result;
+    }
+
+    private void closeSegment(ComponentState state, long now) {
+        long seconds = (now - state.segmentStart) / MILLIS_PER_SECOND;
+        if (seconds <= 0) {
+            return;
+        }
+        pendingHistories.add(segment(state, seconds, now));
+        // the milliseconds left go on in the next segment
+        state.segmentStart += seconds * MILLIS_PER_SECOND;
+    }
+
+    private static StatusPageHistory segment(ComponentState state, long seconds, long now) {
+        int duration = (int) Math.min(seconds, Integer.MAX_VALUE);
+        return StatusPageHistory.builder()
+                .componentId(state.componentId)
+                .state(state.state)
+                .timestamp(now)
+                .normal(state.state == CommonConstants.STATUS_PAGE_COMPONENT_STATE_NORMAL ? duration : 0)
+                .abnormal(state.state == CommonConstants.STATUS_PAGE_COMPONENT_STATE_ABNORMAL ? duration : 0)
+                .unknown(state.state == CommonConstants.STATUS_PAGE_COMPONENT_STATE_UNKNOWN ? duration : 0)
+                .build();
+    }
+
+    /**
+     * state of a component
+     */
+    private static final class ComponentState {
+        private final long componentId;
+        private Long orgId;
+        /**
+         * the config state of the manual component, null when calculated
+         */
+        private Byte manualState;
+        private boolean tagged;
+        private Set<Long> members = Collections.emptySet();
+        private byte state;
+        /**
+         * time milliseconds the current segment starts
+         */
+        private long segmentStart;
+
+        private ComponentState(long componentId, byte state, long segmentStart) {
+            this.componentId = componentId;
+            this.state = state;
+            this.segmentStart = segmentStart;
+        }
+    }
+}
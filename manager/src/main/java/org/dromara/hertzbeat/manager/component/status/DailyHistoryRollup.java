@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.manager.component.status;
+
+import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.dromara.hertzbeat.common.entity.manager.StatusPageHistory;
+import org.dromara.hertzbeat.common.entity.manager.StatusPageHistoryDaily;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Roll the component state history up into the daily history. The state segments are cut at midnight, so every
+ * history row is added to the day of its timestamp as a whole.
+ * 组件状态历史按天增量汇总, 状态段在零点切分, 每条历史整体计入其时间戳所在日
+ * @author tom
+ */
+class DailyHistoryRollup {
+
+    private static final int NORMAL = 0;
+
+    private static final int ABNORMAL = 1;
+
+    private static final int UNKNOWN = 2;
+
+    private static final int STATE_COUNT = 3;
+
+    /**
+     * the seconds of the history rows without seconds
+     */
+    private final int intervals;
+
+    private final ZoneId zoneId;
+
+    DailyHistoryRollup(int intervals, ZoneId zoneId) {
+        this.intervals = intervals;
+        this.zoneId = zoneId;
+    }
+
+    /**
+     * @param timestamp timestamp
+     * @return the start timestamp of the day
+     */
+    long dayStart(long timestamp) {
+        return Instant.ofEpochMilli(timestamp).atZone(zoneId).toLocalDate()
+                .atStartOfDay(zoneId).toInstant().toEpochMilli();
+    }
+
+    /**
+     * @param histories history rows
+     * @return the start timestamps of the days of the history rows
+     */
+    Set<Long> days(Collection<StatusPageHistory> histories) {
+        return histories.stream().map(history -> dayStart(history.getTimestamp())).collect(Collectors.toSet());
+    }
+
+    /**
+     * add the history rows to the daily history of their days
+     * @param histories history rows
+     * @param dailies the existing daily history of the days
+     * @return the daily history changed or created
+     */
+    Collection<StatusPageHistoryDaily> rollup(Collection<StatusPageHistory> histories, Collection<StatusPageHistoryDaily> dailies) {
+        Map<String, StatusPageHistoryDaily> existing = new LinkedHashMap<>(16);
+        for (StatusPageHistoryDaily daily : dailies) {
+            existing.put(key(daily.getComponentId(), daily.getTimestamp()), daily);
+        }
+        Map<String, StatusPageHistoryDaily> changed = new LinkedHashMap<>(16);
+        for (StatusPageHistory history : histories) {
+            if (history.getComponentId() == null || history.getTimestamp() == null) {
+                continue;
+            }
+            long day = dayStart(history.getTimestamp());
+            String key = key(history.getComponentId(), day);
+            StatusPageHistoryDaily daily = changed.computeIfAbsent(key, k -> Optional.ofNullable(existing.get(k))
+                    .orElseGet(() -> StatusPageHistoryDaily.builder().componentId(history.getComponentId())
+                            .timestamp(day).normal(0).abnormal(0).unknown(0).build()));
+            int[] seconds = seconds(history);
+            daily.setNormal(Optional.ofNullable(daily.getNormal()).orElse(0) + seconds[NORMAL]);
+            daily.setAbnormal(Optional.ofNullable(daily.getAbnormal()).orElse(0) + seconds[ABNORMAL]);
+            daily.setUnknown(Optional.ofNullable(daily.getUnknown()).orElse(0) + seconds[UNKNOWN]);
+        }
+        for (StatusPageHistoryDaily daily : changed.values()) {
+            int total = daily.getNormal() + daily.getAbnormal() + daily.getUnknown();
+            daily.setUptime(total == 0 ? null : (double) daily.getNormal() / (double) total);
+            if (daily.getAbnormal() > 0) {
+                daily.setState(CommonConstants.STATUS_PAGE_COMPONENT_STATE_ABNORMAL);
+            } else if (daily.getNormal() > 0) {
+                daily.setState(CommonConstants.STATUS_PAGE_COMPONENT_STATE_NORMAL);
+            } else {
+                daily.setState(CommonConstants.STATUS_PAGE_COMPONENT_STATE_UNKNOWN);
+            }
+        }
+        return changed.values();
+    }
+
+    /**
+     * add the seconds of the history to the total
+     * @param total total history with the seconds initialized
+     * @param history history row
+     */
+    void accumulate(StatusPageHistory total, StatusPageHistory history) {
+        int[] seconds = seconds(history);
+        total.setNormal(total.getNormal() + seconds[NORMAL]);
+        total.setAbnormal(total.getAbnormal() + seconds[ABNORMAL]);
+        total.setUnknown(total.getUnknown() + seconds[UNKNOWN]);
+    }
+
+    /**
+     * the history rows of the old polling calculation have no seconds and each of them stands for
+     * a calculate interval in its state
+     * @param history history row
+     * @return normal, abnormal and unknown seconds
+     */
+    int[] seconds(StatusPageHistory history) {
+        int[] seconds = new int[STATE_COUNT];
+        if (history.getNormal() == null && history.getAbnormal() == null && history.getUnknown() == null) {
+            if (history.getState() == CommonConstants.STATUS_PAGE_COMPONENT_STATE_ABNORMAL) {
+                seconds[ABNORMAL] = intervals;
+            } else if (history.getState() == CommonConstants.STATUS_PAGE_COMPONENT_STATE_UNKNOWN) {
+                seconds[UNKNOWN] = intervals;
+            } else {
+                seconds[NORMAL] = intervals;
+            }
+            return seconds;
+        }
+        seconds[NORMAL] = Optional.ofNullable(history.getNormal()).orElse(0);
+        seconds[ABNORMAL] = Optional.ofNullable(history.getAbnormal()).orElse(0);
+        seconds[UNKNOWN] = Optional.ofNullable(history.getUnknown()).orElse(0);
+        return seconds;
+    }
+
+    private static String key(long componentId, long day) {
+        return componentId + "-" + day;
+    }
+}
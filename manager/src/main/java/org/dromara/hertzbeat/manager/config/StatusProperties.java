@@ -47,10 +47,15 @@ public class StatusProperties {
     public static class CalculateProperties {
 
         /**
-         * the component status calculate interval(s)
+         * the component status reconcile interval(s), the status changes of the monitors are applied at once
          */
         private Integer interval = 300;
 
+        /**
+         * the component status history checkpoint interval(s), the history is also written when the status changes
+         */
+        private Integer checkpoint = 3600;
+
         public Integer getInterval() {
             return interval;
         }
@@ -58,6 +63,14 @@ public class StatusProperties {
         public void setInterval(Integer interval) {
             this.interval = interval;
         }
+
+        public Integer getCheckpoint() {
+            return checkpoint;
+        }
+
+        public void setCheckpoint(Integer checkpoint) {
+            this.checkpoint = checkpoint;
+        }
     }
 
 }
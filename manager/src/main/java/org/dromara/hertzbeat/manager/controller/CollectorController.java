@@ -21,6 +21,8 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.dromara.hertzbeat.common.entity.dto.CollectorLoadScore;
+import org.dromara.hertzbeat.common.entity.dto.JobHandoffStats;
 import org.dromara.hertzbeat.common.entity.dto.CollectorSummary;
 import org.dromara.hertzbeat.common.entity.dto.Message;
 import org.dromara.hertzbeat.common.entity.manager.Collector;
@@ -36,6 +38,7 @@ import org.springframework.web.bind.annotation.*;
 
 import javax.persistence.criteria.Predicate;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -81,6 +84,26 @@ public class CollectorController {
         return ResponseEntity.ok(message);
     }
 
+    @GetMapping("/load")
+    @Operation(summary = "Get the load scores of the online collectors",
+            description = "获取在线采集器的负载分数")
+    public ResponseEntity<Message<List<CollectorLoadScore>>> getCollectorLoadScores() {
+        if (this.manageServer == null) {
+            return ResponseEntity.ok(Message.success(Collections.emptyList()));
+        }
+        return ResponseEntity.ok(Message.success(this.manageServer.getCollectorAndJobScheduler().getCollectorLoadScores()));
+    }
+
+    @GetMapping("/handoff")
+    @Operation(summary = "Get the job handoff statistics between the collectors",
+            description = "获取采集器之间任务交接统计")
+    public ResponseEntity<Message<JobHandoffStats>> getJobHandoffStats() {
+        if (this.manageServer == null) {
+            return ResponseEntity.ok(Message.success(new JobHandoffStats()));
+        }
+        return ResponseEntity.ok(Message.success(this.manageServer.getCollectorAndJobScheduler().getJobHandoffStats()));
+    }
+
     @PutMapping("/online")
     @Operation(summary = "Online collectors")
     public ResponseEntity<Message<Void>> onlineCollector(
@@ -17,32 +17,47 @@
 
 package org.dromara.hertzbeat.manager.controller;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.dromara.hertzbeat.common.constants.CommonConstants;
 import org.dromara.hertzbeat.common.entity.dto.Message;
 import org.dromara.hertzbeat.common.entity.manager.Monitor;
+import org.dromara.hertzbeat.manager.pojo.dto.ImportProgress;
+import org.dromara.hertzbeat.manager.pojo.dto.ImportResult;
+import org.dromara.hertzbeat.manager.service.ImExportService;
 import org.dromara.hertzbeat.manager.service.MonitorService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.ListJoin;
 import javax.persistence.criteria.Predicate;
 import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
 
 /**
  * Monitor and manage batch API
@@ -51,6 +66,7 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
  * @author tom
  */
 @Tag(name = "Monitor Manage Batch API | 监控列表API")
+@Slf4j
 @RestController
 @RequestMapping(path = "/api/monitors", produces = {APPLICATION_JSON_VALUE})
 public class MonitorsController {
@@ -59,9 +75,25 @@ public class MonitorsController {
 
 	private static final int TAG_LENGTH = 2;
 
+	/**
+	 * streaming import timeout, 1 hour
+	 */
+	private static final long IMPORT_STREAM_TIMEOUT = 3_600_000L;
+
+	private static final int IMPORT_QUEUE_SIZE = 16;
+
 	@Autowired
 	private MonitorService monitorService;
 
+	/**
+	 * the streaming imports run one at a time, the others wait in the bounded queue
+	 */
+	private final ThreadPoolExecutor importExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+			new LinkedBlockingQueue<>(IMPORT_QUEUE_SIZE), new ThreadFactoryBuilder()
+			.setNameFormat("monitor-import-%d")
+			.setDaemon(true)
+			.build());
+
 	@GetMapping
 	@Operation(summary = "Obtain a list of monitoring information based on query filter items",
 			description = "根据查询过滤项获取监控信息列表")
@@ -201,9 +233,63 @@ public class MonitorsController {
 
 	@PostMapping("/import")
 	@Operation(summary = "import monitor config", description = "导入监控配置")
-	public ResponseEntity<Message<Void>> export(MultipartFile file) throws Exception {
-		monitorService.importConfig(file);
-		return ResponseEntity.ok(Message.success("Import success"));
+	public ResponseEntity<Message<ImportResult>> export(MultipartFile file) throws Exception {
+		ImportResult result = monitorService.importConfig(file);
+		if (result.getFailed() == 0) {
+			Message<ImportResult> message = Message.success(result);
+			message.setMsg("Import success");
+			return ResponseEntity.ok(message);
+		}
+		Message<ImportResult> message = Message.fail(CommonConstants.FAIL_CODE,
+				"Import " + result.getSuccess() + " monitors, " + result.getFailed() + " rows failed");
+		message.setData(result);
+		return ResponseEntity.ok(message);
+	}
+
+	@PostMapping(path = "/import/stream", produces = {TEXT_EVENT_STREAM_VALUE})
+	@Operation(summary = "import monitor config, streaming the progress and the rows failed",
+			description = "导入监控配置, 推送导入进度(progress)、失败行(row-error)与导入结果(result)事件")
+	public SseEmitter importStream(MultipartFile file) throws Exception {
+		String fileName = file.getOriginalFilename();
+		// read the file before the request completes, the upload is cleaned up after it
+		byte[] content = file.getBytes();
+		SseEmitter emitter = new SseEmitter(IMPORT_STREAM_TIMEOUT);
+		ImExportService.ImportListener listener = new ImExportService.ImportListener() {
+			@Override
+			public void onProgress(ImportProgress progress) {
+				sendEvent(emitter, "progress", progress);
+			}
+
+			@Override
+			public void onError(ImportResult.RowError error) {
+				sendEvent(emitter, "row-error", error);
+			}
+		};
+		try {
+			importExecutor.execute(() -> {
+				try {
+					ImportResult result = monitorService.importConfig(fileName, new ByteArrayInputStream(content), listener);
+					sendEvent(emitter, "result", result);
+					emitter.complete();
+				} catch (Exception e) {
+					log.error("import monitor config {} failed: {}", fileName, e.getMessage(), e);
+					emitter.completeWithError(e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			log.warn("too many monitor imports waiting, reject the import of {}", fileName);
+			emitter.completeWithError(e);
+		}
+		return emitter;
+	}
+
+	private static void sendEvent(SseEmitter emitter, String name, Object data) {
+		try {
+			emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+		} catch (IOException e) {
+			// the client is gone, the import goes on
+			log.debug("send import event {} failed: {}", name, e.getMessage());
+		}
 	}
 
 
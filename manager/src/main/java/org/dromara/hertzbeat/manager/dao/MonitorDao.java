@@ -18,6 +18,7 @@
 package org.dromara.hertzbeat.manager.dao;
 
 import org.dromara.hertzbeat.manager.pojo.dto.AppCount;
+import org.dromara.hertzbeat.manager.pojo.dto.MonitorTagStatus;
 import org.dromara.hertzbeat.common.entity.manager.Monitor;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
@@ -25,6 +26,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -55,6 +57,16 @@ public interface MonitorDao extends JpaRepository<Monitor, Long>, JpaSpecificati
      */
     List<Monitor> findMonitorsByIdIn(Set<Long> monitorIds);
 
+    /**
+     * Query the monitors with their tags fetched in one query, ordered by monitor ID
+     * 根据监控任务ID列表查询监控及其标签, 按监控任务ID排序
+     *
+     * @param monitorIds Monitoring ID List 监控任务ID列表
+     * @return Monitor List     监控列表
+     */
+    @Query("select distinct mo from Monitor mo left join fetch mo.tags where mo.id in :monitorIds order by mo.id")
+    List<Monitor> findMonitorsWithTagsByIdIn(@Param("monitorIds") Collection<Long> monitorIds);
+
     /**
      * Query monitoring by monitoring type
      * 根据监控类型查询监控
@@ -81,6 +93,17 @@ public interface MonitorDao extends JpaRepository<Monitor, Long>, JpaSpecificati
      */
     Optional<Monitor> findMonitorByNameEquals(String name);
 
+    /**
+     * Query the status of the monitors bound with the tags of the names, a row per monitor tag
+     * 查询绑定了指定名称标签的监控状态, 每个监控标签一行
+     *
+     * @param tagNames tag names
+     * @return monitor status with the tag
+     */
+    @Query("select new org.dromara.hertzbeat.manager.pojo.dto.MonitorTagStatus(mo.id, mo.status, tag.name, tag.value) "
+            + "from Monitor mo join mo.tags tag where tag.name in :tagNames")
+    List<MonitorTagStatus> findMonitorTagStatusByTagNameIn(@Param("tagNames") Collection<String> tagNames);
+
     /**
      * Query the monitoring category - the number of monitoring corresponding to the status
      * 查询监控类别-状态对应的监控数量
@@ -20,6 +20,7 @@ package org.dromara.hertzbeat.manager.dao;
 import org.dromara.hertzbeat.common.entity.manager.Param;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -40,6 +41,15 @@ public interface ParamDao extends JpaRepository<Param, Long> {
      */
     List<Param> findParamsByMonitorId(long monitorId);
 
+    /**
+     * Query the parameters of the monitors by the monitoring ID list
+     * 根据监控任务ID列表查询与之关联的参数列表
+     *
+     * @param monitorIds Monitoring ID List     监控任务ID列表
+     * @return list of parameter values     参数值列表
+     */
+    List<Param> findParamsByMonitorIdIn(Collection<Long> monitorIds);
+
     /**
      * Remove the parameter list associated with the monitoring ID based on it
      * 根据监控任务ID删除与之关联的参数列表
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.manager.dao;
+
+import org.dromara.hertzbeat.common.entity.manager.StatusPageHistoryDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * StatusPageHistoryDaily DAO interface.
+ * @author tom
+ */
+public interface StatusPageHistoryDailyDao extends JpaRepository<StatusPageHistoryDaily, Long>, JpaSpecificationExecutor<StatusPageHistoryDaily> {
+
+    /**
+     * find the daily history of the days.
+     * @param timestamps the start timestamps of the days
+     * @return daily history list
+     */
+    List<StatusPageHistoryDaily> findStatusPageHistoryDailiesByTimestampIn(Collection<Long> timestamps);
+
+    /**
+     * find the daily history of the days between start and end.
+     * @param start start timestamp
+     * @param end end timestamp
+     * @return daily history list
+     */
+    List<StatusPageHistoryDaily> findStatusPageHistoryDailiesByTimestampBetween(long start, long end);
+
+    /**
+     * find the daily history of the component of the days between start and end.
+     * @param componentId component id
+     * @param start start timestamp
+     * @param end end timestamp
+     * @return daily history list
+     */
+    List<StatusPageHistoryDaily> findStatusPageHistoryDailiesByComponentIdAndTimestampBetween(long componentId, long start, long end);
+}
@@ -20,6 +20,9 @@ package org.dromara.hertzbeat.manager.dao;
 import org.dromara.hertzbeat.common.entity.manager.StatusPageHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -46,4 +49,13 @@ public interface StatusPageHistoryDao extends JpaRepository<StatusPageHistory, L
      * @return status page history list
      */
     List<StatusPageHistory> findStatusPageHistoriesByComponentIdAndTimestampBetween(long componentId, long start, long end);
+
+    /**
+     * delete the status page history before the timestamp, the days of them are kept in the daily history
+     * @param timestamp timestamp
+     * @return deleted count
+     */
+    @Modifying
+    @Query("delete from StatusPageHistory history where history.timestamp < :timestamp")
+    int deleteStatusPageHistoriesByTimestampBefore(@Param("timestamp") long timestamp);
 }
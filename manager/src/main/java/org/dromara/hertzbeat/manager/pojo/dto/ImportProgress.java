@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.manager.pojo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Monitor import progress of a phase
+ * 监控导入阶段进度
+ * @author tom
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Monitor import progress | 监控导入进度")
+public class ImportProgress {
+
+    public static final String PHASE_VALIDATE = "validate";
+
+    public static final String PHASE_DETECT = "detect";
+
+    public static final String PHASE_SAVE = "save";
+
+    @Schema(description = "Import phase: validate, detect, save | 导入阶段")
+    private String phase;
+
+    @Schema(description = "Rows done in the phase | 阶段已处理行数")
+    private int done;
+
+    @Schema(description = "Rows of the phase | 阶段总行数")
+    private int total;
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.manager.pojo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Monitor import result, the rows failed are reported with their errors
+ * 监控导入结果, 失败行及其错误信息
+ * @author tom
+ */
+@Data
+@NoArgsConstructor
+@Schema(description = "Monitor import result | 监控导入结果")
+public class ImportResult {
+
+    @Schema(description = "Rows in the import file | 导入文件行数")
+    private int total;
+
+    @Schema(description = "Monitors imported | 导入成功监控数")
+    private int success;
+
+    @Schema(description = "Rows failed | 导入失败行数")
+    private int failed;
+
+    @Schema(description = "Errors of the rows failed | 失败行错误信息")
+    private List<RowError> errors = new ArrayList<>();
+
+    public ImportResult(int total) {
+        this.total = total;
+    }
+
+    /**
+     * error of a row failed
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Import row error | 导入行错误")
+    public static class RowError {
+
+        @Schema(description = "Row number in the import file, from 1 | 行号")
+        private int row;
+
+        @Schema(description = "Monitor name | 监控名称")
+        private String name;
+
+        @Schema(description = "Error message | 错误信息")
+        private String message;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.manager.scheduler;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.hash.Hashing;
+import org.dromara.hertzbeat.common.entity.job.Job;
+import org.dromara.hertzbeat.common.entity.message.ClusterMsg;
+import org.dromara.hertzbeat.common.util.JsonUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Issue the cyclic jobs to the collectors as app templates and per monitor deltas. The template of the app define,
+ * its metrics params and i18n texts, is pushed to a collector connection once, identified by the hash of its
+ * content, so a changed define is a new template. The issued job only carries the ids, interval and configmap.
+ * 采集模板注册表, 应用定义模板按连接只下发一次, 以内容哈希为模板版本, 采集任务只携带ID、间隔与配置参数
+ * @author tom
+ */
+class AppTemplateRegistry {
+
+    private static final int MAX_TEMPLATES = 1024;
+
+    /**
+     * app name and template content hash - template, the jobs of one define version share it
+     * however their metrics are copied, the old versions are evicted by size
+     */
+    private final Cache<String, Template> templates = Caffeine.newBuilder().maximumSize(MAX_TEMPLATES).build();
+
+    /**
+     * cyclic job - its template, the job content is fixed once cached by the scheduler, so its template
+     * is hashed once and a rebalance issues the job again without serializing the define
+     */
+    private final Cache<Job, Template> jobTemplates = Caffeine.newBuilder().weakKeys().build();
+
+    /**
+     * collector connection - ids of the templates pushed, a new connection starts from empty
+     */
+    private final Cache<Object, Set<String>> sentTemplates = Caffeine.newBuilder().weakKeys().build();
+
+    /**
+     * issue the cyclic job to the collector connection, the template is pushed before its first delta job
+     * @param connection collector connection
+     * @param job cyclic job
+     * @param sender send the message to the connection in order
+     */
+    void issueCyclicJob(Object connection, Job job, Consumer<ClusterMsg.Message> sender) {
+        Job issueJob = toIssueJob(connection, job, sender);
+        sender.accept(buildMessage(ClusterMsg.MessageType.ISSUE_CYCLIC_TASK, JsonUtil.toJson(issueJob)));
+    }
+
+    /**
+     * issue the cyclic jobs to the collector connection in one message, the templates are pushed before
+     * @param connection collector connection
+     * @param jobs cyclic jobs
+     * @param sender send the message to the connection in order
+     */
+    void issueCyclicJobs(Object connection, List<Job> jobs, Consumer<ClusterMsg.Message> sender) {
+        List<Job> issueJobs = new ArrayList<>(jobs.size());
+        for (Job job : jobs) {
+            issueJobs.add(toIssueJob(connection, job, sender));
+        }
+        sender.accept(buildMessage(ClusterMsg.MessageType.ISSUE_CYCLIC_TASKS, JsonUtil.toJson(issueJobs)));
+    }
+
+    private Job toIssueJob(Object connection, Job job, Consumer<ClusterMsg.Message> sender) {
+        if (job.getMetrics() == null) {
+            return job;
+        }
+        Template template = jobTemplates.get(job, this::resolveTemplate);
+        Set<String> sent = sentTemplates.get(connection, key -> ConcurrentHashMap.newKeySet());
+        if (!sent.contains(template.id)) {
+            synchronized (sent) {
+                if (!sent.contains(template.id)) {
+                    sender.accept(template.message);
+                    sent.add(template.id);
+                }
+            }
+        }
+        return buildDelta(job, template.id);
+    }
+
+    /**
+     * hash the template content of the job, the template message is only built when the version is new
+     */
+    private Template resolveTemplate(Job job) {
+        Job content = Job.builder()
+                .category(job.getCategory())
+                .name(job.getName())
+                .help(job.getHelp())
+                .helpLink(job.getHelpLink())
+                .params(job.getParams())
+                .metrics(job.getMetrics())
+                .build();
+        String id = Hashing.murmur3_128().hashString(JsonUtil.toJson(content), StandardCharsets.UTF_8).toString();
+        return templates.get(job.getApp() + ":" + id, key -> {
+            content.setTemplateId(id);
+            return new Template(id, buildMessage(ClusterMsg.MessageType.ISSUE_APP_TEMPLATE, JsonUtil.toJson(content)));
+        });
+    }
+
+    private static Job buildDelta(Job job, String templateId) {
+        return Job.builder()
+                .id(job.getId())
+                .tenantId(job.getTenantId())
+                .monitorId(job.getMonitorId())
+                .app(job.getApp())
+                .timestamp(job.getTimestamp())
+                .interval(job.getInterval())
+                .isCyclic(job.isCyclic())
+                .configmap(job.getConfigmap())
+                .templateId(templateId)
+                .nextFireTime(job.getNextFireTime())
+                .build();
+    }
+
+    private static ClusterMsg.Message buildMessage(ClusterMsg.MessageType type, String msg) {
+        return ClusterMsg.Message.newBuilder()
+                .setType(type)
+                .setDirection(ClusterMsg.Direction.REQUEST)
+                .setMsg(msg)
+                .build();
+    }
+
+    private static final class Template {
+        private final String id;
+        private final ClusterMsg.Message message;
+
+        private Template(String id, ClusterMsg.Message message) {
+            this.id = id;
+            this.message = message;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import org.dromara.hertzbeat.common.entity.job.Job;
 import org.dromara.hertzbeat.common.entity.message.CollectRep;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Collection job management provides api interface
@@ -58,6 +59,16 @@ public interface CollectJobScheduling {
      */
     long addAsyncCollectJob(Job job, String collector);
 
+    /**
+     * Issue periodic asynchronous collection tasks in bulk, the tasks are grouped and issued per collector
+     * 批量下发周期性异步采集任务, 按采集器分组下发
+     *
+     * @param jobs Collect task details list      采集任务详情列表
+     * @param monitorCollectorMap monitor id - pinned collector identity name
+     * @return Job ID list in the order of the jobs     采集任务ID列表
+     */
+    List<Long> addAsyncCollectJobs(List<Job> jobs, Map<Long, String> monitorCollectorMap);
+
     /**
      * Update the periodic asynchronous collection tasks that have been delivered
      * 更新已经下发的周期性异步采集任务
@@ -90,4 +101,12 @@ public interface CollectJobScheduling {
      * @param metricsDataList collect data
      */
     void collectSyncJobResponse(List<CollectRep.MetricsData> metricsDataList);
+
+    /**
+     * cyclic collect job response data reported by the collector
+     * @param identity collector identity name
+     * @param metricsData collect data
+     * @return false when the data is a duplicate collected during the job handoff and dropped
+     */
+    boolean collectAsyncJobResponse(String identity, CollectRep.MetricsData metricsData);
 }
@@ -1,10 +1,15 @@
 package org.dromara.hertzbeat.manager.scheduler;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.channel.Channel;
 import lombok.extern.slf4j.Slf4j;
 import org.dromara.hertzbeat.collector.dispatch.entrance.internal.CollectJobService;
 import org.dromara.hertzbeat.collector.dispatch.entrance.internal.CollectResponseEventListener;
 import org.dromara.hertzbeat.common.constants.CommonConstants;
 import org.dromara.hertzbeat.common.entity.dto.CollectorInfo;
+import org.dromara.hertzbeat.common.entity.dto.CollectorLoad;
+import org.dromara.hertzbeat.common.entity.dto.CollectorLoadScore;
+import org.dromara.hertzbeat.common.entity.dto.JobHandoffStats;
 import org.dromara.hertzbeat.common.entity.job.Configmap;
 import org.dromara.hertzbeat.common.entity.job.Job;
 import org.dromara.hertzbeat.common.entity.manager.Collector;
@@ -22,12 +27,16 @@ import org.dromara.hertzbeat.manager.dao.MonitorDao;
 import org.dromara.hertzbeat.manager.dao.ParamDao;
 import org.dromara.hertzbeat.manager.scheduler.netty.ManageServer;
 import org.dromara.hertzbeat.manager.service.AppService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -36,6 +45,8 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -47,12 +58,29 @@ import java.util.stream.Collectors;
 @Component
 @AutoConfigureAfter(value = {SchedulerProperties.class})
 @Slf4j
-public class CollectorAndJobScheduler implements CollectorScheduling, CollectJobScheduling {
+public class CollectorAndJobScheduler implements CollectorScheduling, CollectJobScheduling, InitializingBean, DisposableBean {
+
+    private static final long HANDOFF_SWEEP_SECONDS = 5L;
+
+    /**
+     * the collect phase of the monitors not collected in a day is forgotten
+     */
+    private static final long PHASE_RETENTION_MILLIS = TimeUnit.DAYS.toMillis(1);
 
     private final Map<Long, Job> jobContentCache = new ConcurrentHashMap<>(16);
 
     private final Map<Long, CollectResponseEventListener> eventListeners = new ConcurrentHashMap<>(16);
 
+    private final AppTemplateRegistry appTemplateRegistry = new AppTemplateRegistry();
+
+    private CollectorIssuePacer issuePacer;
+
+    private ScheduledExecutorService issueExecutor;
+
+    private CollectorLoadBalancer loadBalancer;
+
+    private JobHandoffTracker handoffTracker;
+
     @Autowired
     private CollectorDao collectorDao;
 
@@ -74,8 +102,45 @@ public class CollectorAndJobScheduler implements CollectorScheduling, CollectJob
     @Autowired
     private ParamDao paramDao;
 
+    @Autowired
+    private SchedulerProperties schedulerProperties;
+
     private ManageServer manageServer;
 
+    @Override
+    public void afterPropertiesSet() {
+        SchedulerProperties.IssueProperties issueProperties = schedulerProperties.getIssue() == null
+                ? new SchedulerProperties.IssueProperties() : schedulerProperties.getIssue();
+        this.issuePacer = new CollectorIssuePacer(issueProperties.getJobsPerSecond());
+        this.issueExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("manager-job-issue-%d")
+                .build());
+        this.handoffTracker = new JobHandoffTracker(getHandoffProperties().getTimeoutIntervals(), this::releaseHandoffJob);
+        this.issueExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                handoffTracker.expire(System.currentTimeMillis());
+            } catch (Exception e) {
+                log.error("expire job handoff error: {}.", e.getMessage(), e);
+            }
+        }, HANDOFF_SWEEP_SECONDS, HANDOFF_SWEEP_SECONDS, TimeUnit.SECONDS);
+        this.issueExecutor.scheduleWithFixedDelay(
+                () -> handoffTracker.pruneBefore(System.currentTimeMillis() - PHASE_RETENTION_MILLIS),
+                1, 1, TimeUnit.HOURS);
+        SchedulerProperties.BalanceProperties balanceProperties = getBalanceProperties();
+        if (SchedulerProperties.BalanceProperties.MODE_LOAD.equalsIgnoreCase(balanceProperties.getMode())) {
+            this.loadBalancer = new CollectorLoadBalancer(balanceProperties.getThreshold(), balanceProperties.getMaxMoves());
+            int interval = Math.max(balanceProperties.getInterval(), 1);
+            this.issueExecutor.scheduleWithFixedDelay(() -> {
+                try {
+                    balanceCollectorLoad();
+                } catch (Exception e) {
+                    log.error("balance collector load error: {}.", e.getMessage(), e);
+                }
+            }, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
     @Override
     public void collectorGoOnline(String identity, CollectorInfo collectorInfo) {
         Optional<Collector> collectorOptional = collectorDao.findCollectorByName(identity);
@@ -157,12 +222,22 @@ public class CollectorAndJobScheduler implements CollectorScheduling, CollectJob
             collector.setStatus(CommonConstants.COLLECTOR_STATUS_OFFLINE);
             collectorDao.save(collector);
             consistentHash.removeNode(identity);
+            issuePacer.remove(identity);
             reBalanceCollectorAssignJobs();
         }
     }
 
     @Override
     public void reBalanceCollectorAssignJobs() {
+        // jobId - the collector the job is moving to, the previous collector hands the job over to it
+        Map<Long, String> movingJobs = new HashMap<>(16);
+        if (getHandoffProperties().isEnabled()) {
+            consistentHash.getAllNodes().forEach((identity, node) -> {
+                if (!CommonConstants.MAIN_COLLECTOR_NODE.equals(identity)) {
+                    node.getAssignJobs().getAddingJobs().forEach(jobId -> movingJobs.put(jobId, identity));
+                }
+            });
+        }
         consistentHash.getAllNodes().entrySet().parallelStream().forEach(entry -> {
             String collectorName = entry.getKey();
             AssignJobs assignJobs = entry.getValue().getAssignJobs();
@@ -177,6 +252,7 @@ public class CollectorAndJobScheduler implements CollectorScheduling, CollectJob
                                 continue;
                             }
                             addedJobIds.add(addingJobId);
+                            alignFireTime(job, System.currentTimeMillis());
                             collectJobService.addAsyncCollectJob(job);
                         }
                         assignJobs.addAssignJobs(addedJobIds);
@@ -189,6 +265,7 @@ public class CollectorAndJobScheduler implements CollectorScheduling, CollectJob
                 } else {
                     if (!assignJobs.getAddingJobs().isEmpty()) {
                         Set<Long> addedJobIds = new HashSet<>(8);
+                        List<Job> addedJobs = new LinkedList<>();
                         for (Long addingJobId : assignJobs.getAddingJobs()) {
                             Job job = jobContentCache.get(addingJobId);
                             if (job == null) {
@@ -196,23 +273,34 @@ public class CollectorAndJobScheduler implements CollectorScheduling, CollectJob
                                 continue;
                             }
                             addedJobIds.add(addingJobId);
-                            ClusterMsg.Message message = ClusterMsg.Message.newBuilder()
-                                    .setDirection(ClusterMsg.Direction.REQUEST)
-                                    .setType(ClusterMsg.MessageType.ISSUE_CYCLIC_TASK)
-                                    .setMsg(JsonUtil.toJson(job))
-                                    .build();
-                            this.manageServer.sendMsg(collectorName, message);
+                            addedJobs.add(job);
                         }
+                        issueCyclicJobs(collectorName, addedJobs);
                         assignJobs.addAssignJobs(addedJobIds);
                         assignJobs.removeAddingJobs(addedJobIds);
                     }
                     if (!assignJobs.getRemovingJobs().isEmpty()) {
-                        ClusterMsg.Message message = ClusterMsg.Message.newBuilder()
-                                .setDirection(ClusterMsg.Direction.REQUEST)
-                                .setType(ClusterMsg.MessageType.DELETE_CYCLIC_TASK)
-                                .setMsg(JsonUtil.toJson(assignJobs.getRemovingJobs()))
-                                .build();
-                        this.manageServer.sendMsg(collectorName, message);
+                        Set<Long> deletedJobIds = new HashSet<>(assignJobs.getRemovingJobs().size());
+                        long now = System.currentTimeMillis();
+                        for (Long removingJobId : assignJobs.getRemovingJobs()) {
+                            String movingTo = movingJobs.get(removingJobId);
+                            Job job = jobContentCache.get(removingJobId);
+                            if (movingTo == null || job == null) {
+                                deletedJobIds.add(removingJobId);
+                                continue;
+                            }
+                            // keep collecting until the first successful collect of the new collector
+                            handoffTracker.begin(removingJobId, job.getMonitorId(), job.getInterval(),
+                                    collectorName, movingTo, now);
+                        }
+                        if (!deletedJobIds.isEmpty()) {
+                            ClusterMsg.Message message = ClusterMsg.Message.newBuilder()
+                                    .setDirection(ClusterMsg.Direction.REQUEST)
+                                    .setType(ClusterMsg.MessageType.DELETE_CYCLIC_TASK)
+                                    .setMsg(JsonUtil.toJson(deletedJobIds))
+                                    .build();
+                            this.manageServer.sendMsg(collectorName, message);
+                        }
                         assignJobs.clearRemovingJobs();
                     }
                 }
@@ -374,19 +462,110 @@ public class CollectorAndJobScheduler implements CollectorScheduling, CollectJob
             }
             node.getAssignJobs().addPinnedJob(jobId);
         }
-        if (CommonConstants.MAIN_COLLECTOR_NODE.equals(node.getIdentity())) {
-            collectJobService.addAsyncCollectJob(job);
-        } else {
-            ClusterMsg.Message message = ClusterMsg.Message.newBuilder()
-                    .setType(ClusterMsg.MessageType.ISSUE_CYCLIC_TASK)
-                    .setDirection(ClusterMsg.Direction.REQUEST)
-                    .setMsg(JsonUtil.toJson(job))
-                    .build();
-            this.manageServer.sendMsg(node.getIdentity(), message);
-        }
+        issueCyclicJobs(node.getIdentity(), Collections.singletonList(job));
         return jobId;
     }
 
+    @Override
+    public List<Long> addAsyncCollectJobs(List<Job> jobs, Map<Long, String> monitorCollectorMap) {
+        List<Long> jobIds = new ArrayList<>(jobs.size());
+        Map<String, List<Job>> nodeJobsMap = new HashMap<>(8);
+        int unassignedNum = 0;
+        for (Job job : jobs) {
+            long jobId = SnowFlakeIdGenerator.generateId();
+            job.setId(jobId);
+            jobContentCache.put(jobId, job);
+            jobIds.add(jobId);
+            String collector = monitorCollectorMap.get(job.getMonitorId());
+            ConsistentHash.Node node;
+            if (collector == null) {
+                node = consistentHash.dispatchJob(String.valueOf(job.getMonitorId()), jobId);
+            } else {
+                node = consistentHash.getNode(collector);
+                if (node != null) {
+                    node.getAssignJobs().addPinnedJob(jobId);
+                }
+            }
+            if (node == null) {
+                unassignedNum++;
+                continue;
+            }
+            nodeJobsMap.computeIfAbsent(node.getIdentity(), key -> new ArrayList<>()).add(job);
+        }
+        if (unassignedNum > 0) {
+            log.warn("there is no collector online to assign {} jobs, they are assigned when the collector online.", unassignedNum);
+        }
+        nodeJobsMap.forEach(this::issueCyclicJobs);
+        return jobIds;
+    }
+
+    private void issueCyclicJobs(String identity, List<Job> jobs) {
+        if (CommonConstants.MAIN_COLLECTOR_NODE.equals(identity)) {
+            long now = System.currentTimeMillis();
+            for (Job job : jobs) {
+                alignFireTime(job, now);
+                collectJobService.addAsyncCollectJob(job);
+            }
+            return;
+        }
+        if (jobs.isEmpty()) {
+            return;
+        }
+        // the app template is pushed once per collector connection, the jobs only carry their own params
+        if (jobs.size() == 1) {
+            Channel channel = this.manageServer.getChannel(identity);
+            if (channel != null) {
+                alignFireTime(jobs.get(0), System.currentTimeMillis());
+                appTemplateRegistry.issueCyclicJob(channel, jobs.get(0), message -> this.manageServer.sendMsg(channel, message));
+            }
+            return;
+        }
+        // more jobs are issued in chunks paced per collector, a joining collector is not flooded
+        ConsistentHash.Node node = consistentHash.getNode(identity);
+        if (node == null) {
+            return;
+        }
+        SchedulerProperties.IssueProperties issueProperties = schedulerProperties.getIssue() == null
+                ? new SchedulerProperties.IssueProperties() : schedulerProperties.getIssue();
+        int chunkSize = Math.max(issueProperties.getChunkSize(), 1);
+        for (int from = 0; from < jobs.size(); from += chunkSize) {
+            List<Job> chunk = new ArrayList<>(jobs.subList(from, Math.min(from + chunkSize, jobs.size())));
+            long delay = issuePacer.reserve(identity, chunk.size(), System.currentTimeMillis());
+            if (delay <= 0) {
+                issueCyclicJobChunk(node, chunk);
+            } else {
+                issueExecutor.schedule(() -> issueCyclicJobChunk(node, chunk), delay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void issueCyclicJobChunk(ConsistentHash.Node node, List<Job> chunk) {
+        try {
+            String identity = node.getIdentity();
+            // the collector went offline or the jobs were canceled while waiting
+            if (consistentHash.getNode(identity) != node) {
+                return;
+            }
+            Channel channel = this.manageServer.getChannel(identity);
+            if (channel == null) {
+                return;
+            }
+            AssignJobs assignJobs = node.getAssignJobs();
+            List<Job> assignedJobs = chunk.stream()
+                    .filter(job -> assignJobs.getJobs().contains(job.getId())
+                            || assignJobs.getAddingJobs().contains(job.getId())
+                            || assignJobs.getPinnedJobs().contains(job.getId()))
+                    .collect(Collectors.toList());
+            if (!assignedJobs.isEmpty()) {
+                long now = System.currentTimeMillis();
+                assignedJobs.forEach(job -> alignFireTime(job, now));
+                appTemplateRegistry.issueCyclicJobs(channel, assignedJobs, message -> this.manageServer.sendMsg(channel, message));
+            }
+        } catch (Exception e) {
+            log.error("issue cyclic jobs to collector {} error: {}.", node.getIdentity(), e.getMessage(), e);
+        }
+    }
+
     @Override
     public long updateAsyncCollectJob(Job modifyJob) {
         // delete and add
@@ -409,6 +588,9 @@ public class CollectorAndJobScheduler implements CollectorScheduling, CollectJob
 
     @Override
     public void cancelAsyncCollectJob(Long jobId) {
+        if (jobId != null) {
+            handoffTracker.cancel(jobId);
+        }
         for (ConsistentHash.Node node : consistentHash.getAllNodes().values()) {
             AssignJobs assignJobs = node.getAssignJobs();
             if (assignJobs.getPinnedJobs().remove(jobId)
@@ -442,8 +624,176 @@ public class CollectorAndJobScheduler implements CollectorScheduling, CollectJob
         }
     }
 
+    @Override
+    public boolean collectAsyncJobResponse(String identity, CollectRep.MetricsData metricsData) {
+        return handoffTracker.collect(identity, metricsData.getId(), metricsData.getPriority(), metricsData.getTime(),
+                metricsData.getCode() == CollectRep.Code.SUCCESS);
+    }
+
+    @Override
+    public void updateCollectorLoad(String identity, CollectorLoad collectorLoad) {
+        ConsistentHash.Node node = consistentHash.getNode(identity);
+        if (node != null && collectorLoad != null) {
+            node.setLoad(collectorLoad);
+        }
+    }
+
+    @Override
+    public List<CollectorLoadScore> getCollectorLoadScores() {
+        Map<String, Double> appCosts = getAppCosts();
+        List<CollectorLoadScore> scores = new LinkedList<>();
+        for (ConsistentHash.Node node : consistentHash.getAllNodes().values()) {
+            AssignJobs assignJobs = node.getAssignJobs();
+            CollectorLoadBalancer.CollectorState state = collectorState(node, appCosts);
+            long capacity = node.getLoad() == null ? 0 : node.getLoad().getCapacity();
+            scores.add(CollectorLoadScore.builder()
+                    .collector(node.getIdentity())
+                    .jobNum(assignJobs.getJobs().size() + assignJobs.getPinnedJobs().size())
+                    .load(state.getLoad())
+                    .capacity(capacity)
+                    .score(state.score())
+                    .overloaded(node.isOverloaded())
+                    .build());
+        }
+        return scores;
+    }
+
+    @Override
+    public JobHandoffStats getJobHandoffStats() {
+        return handoffTracker.getStats();
+    }
+
+    /**
+     * move the jobs of the overloaded collectors to the least loaded ones, and mark the overloaded collectors
+     * skipped by the new jobs
+     */
+    void balanceCollectorLoad() {
+        Map<String, Double> appCosts = getAppCosts();
+        List<CollectorLoadBalancer.CollectorState> states = new LinkedList<>();
+        for (ConsistentHash.Node node : consistentHash.getAllNodes().values()) {
+            if (node.isPrivateMode() || node.getLoad() == null || node.getLoad().getCapacity() <= 0) {
+                continue;
+            }
+            states.add(collectorState(node, appCosts));
+        }
+        List<CollectorLoadBalancer.Move> moves = loadBalancer.plan(states);
+        int movedNum = 0;
+        for (CollectorLoadBalancer.Move move : moves) {
+            ConsistentHash.Node from = consistentHash.getNode(move.getFrom());
+            ConsistentHash.Node to = consistentHash.getNode(move.getTo());
+            if (from != null && to != null && consistentHash.moveJob(move.getJobId(), from, to)) {
+                movedNum++;
+            }
+        }
+        Set<String> overloaded = loadBalancer.overloaded(states);
+        consistentHash.getAllNodes().forEach((identity, node) -> node.setOverloaded(overloaded.contains(identity)));
+        if (movedNum > 0) {
+            log.info("balance collector load, move {} jobs, overloaded collectors: {}.", movedNum, overloaded);
+            reBalanceCollectorAssignJobs();
+        }
+    }
+
+    /**
+     * the load of the collector summed over its movable and pinned jobs, shared by the load scores and the balance
+     * @param node collector node
+     * @param appCosts app - average collect milliseconds of one job
+     * @return collector state with the costs of the movable jobs
+     */
+    private CollectorLoadBalancer.CollectorState collectorState(ConsistentHash.Node node, Map<String, Double> appCosts) {
+        AssignJobs assignJobs = node.getAssignJobs();
+        Map<Long, Double> movableJobCosts = new HashMap<>(assignJobs.getJobs().size());
+        double load = 0;
+        for (Long jobId : assignJobs.getJobs()) {
+            double cost = getJobCost(jobId, appCosts);
+            movableJobCosts.put(jobId, cost);
+            load += cost;
+        }
+        for (Long jobId : assignJobs.getPinnedJobs()) {
+            load += getJobCost(jobId, appCosts);
+        }
+        long capacity = node.getLoad() == null ? 0 : node.getLoad().getCapacity();
+        return new CollectorLoadBalancer.CollectorState(node.getIdentity(), capacity, load, movableJobCosts);
+    }
+
+    /**
+     * @return app - average collect milliseconds of one job reported by the collectors
+     */
+    private Map<String, Double> getAppCosts() {
+        Map<String, double[]> sums = new HashMap<>(16);
+        for (ConsistentHash.Node node : consistentHash.getAllNodes().values()) {
+            if (node.getLoad() == null || node.getLoad().getAppCosts() == null) {
+                continue;
+            }
+            node.getLoad().getAppCosts().forEach((app, cost) -> {
+                double[] sum = sums.computeIfAbsent(app, key -> new double[2]);
+                sum[0] += cost;
+                sum[1]++;
+            });
+        }
+        Map<String, Double> appCosts = new HashMap<>(sums.size());
+        sums.forEach((app, sum) -> appCosts.put(app, sum[0] / sum[1]));
+        return appCosts;
+    }
+
+    /**
+     * @return estimated collect milliseconds per second of the job
+     */
+    private double getJobCost(Long jobId, Map<String, Double> appCosts) {
+        Job job = jobContentCache.get(jobId);
+        if (job == null) {
+            return 0;
+        }
+        Double cost = appCosts.get(job.getApp());
+        return cost == null ? 0 : cost / Math.max(job.getInterval(), 1);
+    }
+
+    /**
+     * the job handed over from another collector fires its first collect in the collect phase of the previous one
+     */
+    private void alignFireTime(Job job, long now) {
+        job.setNextFireTime(handoffTracker.nextFireTime(job.getMonitorId(), job.getInterval(), now));
+    }
+
+    /**
+     * delete the handed over job from the previous collector, unless it is assigned to the collector again
+     */
+    private void releaseHandoffJob(String identity, Long jobId) {
+        ConsistentHash.Node node = consistentHash.getNode(identity);
+        if (node == null) {
+            return;
+        }
+        AssignJobs assignJobs = node.getAssignJobs();
+        if (assignJobs.getJobs().contains(jobId) || assignJobs.getAddingJobs().contains(jobId)
+                || assignJobs.getPinnedJobs().contains(jobId)) {
+            return;
+        }
+        ClusterMsg.Message message = ClusterMsg.Message.newBuilder()
+                .setDirection(ClusterMsg.Direction.REQUEST)
+                .setType(ClusterMsg.MessageType.DELETE_CYCLIC_TASK)
+                .setMsg(JsonUtil.toJson(List.of(jobId)))
+                .build();
+        this.manageServer.sendMsg(identity, message);
+    }
+
+    private SchedulerProperties.HandoffProperties getHandoffProperties() {
+        return schedulerProperties.getHandoff() == null
+                ? new SchedulerProperties.HandoffProperties() : schedulerProperties.getHandoff();
+    }
+
+    private SchedulerProperties.BalanceProperties getBalanceProperties() {
+        return schedulerProperties.getBalance() == null
+                ? new SchedulerProperties.BalanceProperties() : schedulerProperties.getBalance();
+    }
+
     public void setManageServer(ManageServer manageServer) {
         this.manageServer = manageServer;
     }
 
+    @Override
+    public void destroy() {
+        if (issueExecutor != null) {
+            issueExecutor.shutdownNow();
+        }
+    }
+
 }
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.manager.scheduler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pace the cyclic jobs issued to each collector at the configured jobs per second. Every chunk reserves the
+ * time after the chunks reserved before for the same collector, the first chunk of an idle collector is issued now.
+ * 按采集器限速下发周期任务, 每个分块顺延在同一采集器已预留的分块之后
+ * @author tom
+ */
+class CollectorIssuePacer {
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+
+    private final int jobsPerSecond;
+
+    /**
+     * collector identity - time the next chunk can be issued
+     */
+    private final Map<String, Long> nextIssueTimes = new ConcurrentHashMap<>(16);
+
+    CollectorIssuePacer(int jobsPerSecond) {
+        this.jobsPerSecond = jobsPerSecond;
+    }
+
+    /**
+     * reserve the issue time of the chunk
+     * @param identity collector identity
+     * @param jobNum job number of the chunk
+     * @param now current time milliseconds
+     * @return delay milliseconds to issue the chunk
+     */
+    long reserve(String identity, int jobNum, long now) {
+        if (jobsPerSecond <= 0) {
+            return 0;
+        }
+        long cost = jobNum * MILLIS_PER_SECOND / jobsPerSecond;
+        long[] issueTime = new long[1];
+        nextIssueTimes.compute(identity, (key, next) -> {
+            issueTime[0] = next == null ? now : Math.max(next, now);
+            return issueTime[0] + cost;
+        });
+        return issueTime[0] - now;
+    }
+
+    /**
+     * forget the reservations of the offline collector
+     * @param identity collector identity
+     */
+    void remove(String identity) {
+        nextIssueTimes.remove(identity);
+    }
+}
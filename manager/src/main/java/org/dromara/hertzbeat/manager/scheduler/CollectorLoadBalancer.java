@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.manager.scheduler;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plan the job moves balancing the collect cost of the collectors. The load score of a collector is its estimated
+ * collect milliseconds per second divided by its capacity. Only a collector beyond the average score by the
+ * threshold is rebalanced, and its jobs are moved to the least loaded collectors until it is within half of the
+ * threshold, so the collectors near the average are left alone and the jobs do not bounce between them.
+ * 采集器负载均衡规划, 负载分超过平均值阈值的采集器才迁移任务, 迁移至阈值一半以内, 避免任务来回迁移
+ * @author tom
+ */
+class CollectorLoadBalancer {
+
+    private static final double HALF = 0.5;
+
+    private static final int MIN_COLLECTORS = 2;
+
+    private final double threshold;
+
+    private final int maxMoves;
+
+    CollectorLoadBalancer(double threshold, int maxMoves) {
+        this.threshold = Math.max(threshold, 0);
+        this.maxMoves = Math.max(maxMoves, 0);
+    }
+
+    /**
+     * plan the job moves, the loads of the collector states are updated as planned
+     * @param collectors collectors reported their capacity
+     * @return job moves
+     */
+    List<Move> plan(List<CollectorState> collectors) {
+        List<Move> moves = new ArrayList<>();
+        double average = averageScore(collectors);
+        if (collectors.size() < MIN_COLLECTORS || average <= 0) {
+            return moves;
+        }
+        double upper = average * (1 + threshold);
+        double target = average * (1 + threshold * HALF);
+        List<CollectorState> sources = new ArrayList<>();
+        for (CollectorState collector : collectors) {
+            if (collector.score() > upper) {
+                sources.add(collector);
+            }
+        }
+        sources.sort(Comparator.comparingDouble(CollectorState::score).reversed());
+        for (CollectorState source : sources) {
+            Set<Long> movedJobs = new HashSet<>();
+            while (moves.size() < maxMoves && source.score() > target) {
+                CollectorState destination = collectors.stream()
+                        .filter(collector -> collector != source)
+                        .min(Comparator.comparingDouble(CollectorState::score))
+                        .orElse(null);
+                if (destination == null) {
+                    break;
+                }
+                // the destination is kept within the target, so it never becomes a source
+                double room = target * destination.capacity - destination.load;
+                Map.Entry<Long, Double> job = pickJob(source, movedJobs, room);
+                if (job == null) {
+                    break;
+                }
+                movedJobs.add(job.getKey());
+                source.load -= job.getValue();
+                destination.load += job.getValue();
+                destination.movableJobCosts.put(job.getKey(), job.getValue());
+                moves.add(new Move(job.getKey(), source.identity, destination.identity));
+            }
+            movedJobs.forEach(source.movableJobCosts::remove);
+        }
+        return moves;
+    }
+
+    /**
+     * @param collectors collectors reported their capacity
+     * @return the identities of the collectors beyond the average score by the threshold
+     */
+    Set<String> overloaded(List<CollectorState> collectors) {
+        Set<String> overloaded = new HashSet<>();
+        double average = averageScore(collectors);
+        if (collectors.size() < MIN_COLLECTORS || average <= 0) {
+            return overloaded;
+        }
+        double upper = average * (1 + threshold);
+        for (CollectorState collector : collectors) {
+            if (collector.score() > upper) {
+                overloaded.add(collector.identity);
+            }
+        }
+        return overloaded;
+    }
+
+    /**
+     * the heaviest job not above the limit
+     */
+    private static Map.Entry<Long, Double> pickJob(CollectorState source, Set<Long> movedJobs, double limit) {
+        Map.Entry<Long, Double> picked = null;
+        for (Map.Entry<Long, Double> entry : source.movableJobCosts.entrySet()) {
+            double cost = entry.getValue();
+            if (cost <= 0 || cost > limit || movedJobs.contains(entry.getKey())) {
+                continue;
+            }
+            if (picked == null || cost > picked.getValue()) {
+                picked = entry;
+            }
+        }
+        return picked;
+    }
+
+    private static double averageScore(List<CollectorState> collectors) {
+        double load = 0;
+        double capacity = 0;
+        for (CollectorState collector : collectors) {
+            load += collector.load;
+            capacity += collector.capacity;
+        }
+        return capacity <= 0 ? 0 : load / capacity;
+    }
+
+    /**
+     * load state of a collector
+     */
+    static final class CollectorState {
+        private final String identity;
+        private final double capacity;
+        private double load;
+        /**
+         * jobId - collect milliseconds per second, the pinned jobs are not movable
+         */
+        private final Map<Long, Double> movableJobCosts;
+
+        CollectorState(String identity, double capacity, double load, Map<Long, Double> movableJobCosts) {
+            this.identity = identity;
+            this.capacity = capacity;
+            this.load = load;
+            this.movableJobCosts = movableJobCosts;
+        }
+
+        double score() {
+            return capacity <= 0 ? 0 : load / capacity;
+        }
+
+        double getLoad() {
+            return load;
+        }
+    }
+
+    /**
+     * job move from a collector to another
+     */
+    static final class Move {
+        private final long jobId;
+        private final String from;
+        private final String to;
+
+        Move(long jobId, String from, String to) {
+            this.jobId = jobId;
+            this.from = from;
+            this.to = to;
+        }
+
+        long getJobId() {
+            return jobId;
+        }
+
+        String getFrom() {
+            return from;
+        }
+
+        String getTo() {
+            return to;
+        }
+    }
+}
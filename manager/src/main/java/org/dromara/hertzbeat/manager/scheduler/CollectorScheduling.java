@@ -18,6 +18,11 @@
 package org.dromara.hertzbeat.manager.scheduler;
 
 import org.dromara.hertzbeat.common.entity.dto.CollectorInfo;
+import org.dromara.hertzbeat.common.entity.dto.CollectorLoad;
+import org.dromara.hertzbeat.common.entity.dto.CollectorLoadScore;
+import org.dromara.hertzbeat.common.entity.dto.JobHandoffStats;
+
+import java.util.List;
 
 /**
  * slave collector service
@@ -56,4 +61,23 @@ public interface CollectorScheduling {
      * @return true/false
      */
     boolean onlineCollector(String identity);
+
+    /**
+     * update the collector load reported in the heartbeat
+     * @param identity collector identity name
+     * @param collectorLoad collector load
+     */
+    void updateCollectorLoad(String identity, CollectorLoad collectorLoad);
+
+    /**
+     * get the load scores of the online collectors
+     * @return collector load scores
+     */
+    List<CollectorLoadScore> getCollectorLoadScores();
+
+    /**
+     * get the job handoff statistics between the collectors
+     * @return job handoff statistics
+     */
+    JobHandoffStats getJobHandoffStats();
 }
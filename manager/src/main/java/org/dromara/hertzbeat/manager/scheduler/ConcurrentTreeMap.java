@@ -46,6 +46,26 @@ public class ConcurrentTreeMap<K,V> extends TreeMap<K,V> {
         }
     }
 
+    @Override
+    public Map.Entry<K, V> lastEntry() {
+        readWriteLock.readLock().lock();
+        try {
+            return super.lastEntry();
+        } finally {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map.Entry<K, V> lowerEntry(K key) {
+        readWriteLock.readLock().lock();
+        try {
+            return super.lowerEntry(key);
+        } finally {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
     @Override
     public Map.Entry<K, V> higherEntry(K key) {
         readWriteLock.readLock().lock();
@@ -4,10 +4,10 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.dromara.hertzbeat.common.entity.dto.CollectorLoad;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 /**
  * 一致性hash实现的采集器与任务映射调度
@@ -52,36 +52,34 @@ public class ConsistentHash {
             byte virtualNodeNum = newNode.quality == null ? VIRTUAL_NODE_DEFAULT_SIZE : newNode.quality;
             for (byte i = 0; i < virtualNodeNum; i++) {
                 int virtualHashKey = hash(newNode.identity + i);
-                hashCircle.put(virtualHashKey, newNode);
-                newNode.addVirtualNodeJobs(virtualHashKey, ConcurrentHashMap.newKeySet(16));
+                Map.Entry<Integer, Node> lowerVirtualNode = hashCircle.lowerEntry(virtualHashKey);
+                if (lowerVirtualNode == null) {
+                    lowerVirtualNode = hashCircle.lastEntry();
+                }
                 Map.Entry<Integer, Node> higherVirtualNode = hashCircle.higherEntry(virtualHashKey);
                 if (higherVirtualNode == null) {
                     higherVirtualNode = hashCircle.firstEntry();
                 }
-                // 将路由到 higherVirtualNode 虚拟节点的任务重新分配
-                // 任务不是在原虚拟节点 就是在新虚拟节点
+                hashCircle.put(virtualHashKey, newNode);
+                newNode.addVirtualNodeJobs(virtualHashKey, null);
+                if (lowerVirtualNode == null || higherVirtualNode == null) {
+                    continue;
+                }
+                // 路由到 higherVirtualNode 虚拟节点且hash在(lowerVirtualNode, 新虚拟节点]区间的任务迁移到新虚拟节点
+                // the jobs in the ring range (lower, new] are split from the higher virtual node, others stay
                 Integer higherVirtualNodeKey = higherVirtualNode.getKey();
                 Node higherNode = higherVirtualNode.getValue();
-                Set<Long[]> dispatchJobs = higherNode.clearVirtualNodeJobs(higherVirtualNodeKey);
-                if (dispatchJobs != null && !dispatchJobs.isEmpty()) {
-                    Set<Long[]> reDispatchJobs = ConcurrentHashMap.newKeySet(dispatchJobs.size());
-                    Iterator<Long[]> iterator = dispatchJobs.iterator();
-                    while (iterator.hasNext()) {
-                        Long[] jobHash = iterator.next();
-                        int dispatchHash = jobHash[1].intValue();
-                        if (dispatchHash <= virtualHashKey) {
-                            reDispatchJobs.add(jobHash);
-                            iterator.remove();
-                        }
-                    }
-                    higherNode.virtualNodeMap.put(higherVirtualNodeKey, dispatchJobs);
-                    Set<Long> jobIds = reDispatchJobs.stream().map(item -> item[0]).collect(Collectors.toSet());
-                    newNode.addVirtualNodeJobs(virtualHashKey, reDispatchJobs);
-                    if (higherNode != newNode) {
-                        higherNode.assignJobs.removeAssignJobs(jobIds);
-                        higherNode.assignJobs.addRemovingJobs(jobIds);
-                        newNode.assignJobs.addAddingJobs(jobIds);
-                    }
+                VirtualNodeJobs reDispatchJobs = higherNode.splitVirtualNodeJobs(higherVirtualNodeKey,
+                        lowerVirtualNode.getKey(), virtualHashKey);
+                if (reDispatchJobs.isEmpty()) {
+                    continue;
+                }
+                newNode.addVirtualNodeJobs(virtualHashKey, reDispatchJobs);
+                if (higherNode != newNode) {
+                    Set<Long> jobIds = reDispatchJobs.jobIdSet();
+                    higherNode.assignJobs.removeAssignJobs(jobIds);
+                    higherNode.assignJobs.addRemovingJobs(jobIds);
+                    newNode.assignJobs.addAddingJobs(jobIds);
                 }
             }   
         }
@@ -104,12 +102,11 @@ public class ConsistentHash {
         if (deletedNode == null) {
             return null;
         }
-        for (Map.Entry<Integer, Set<Long[]>> virtualNodeEntry : deletedNode.virtualNodeMap.entrySet()) {
-            Integer virtualNodeHash = virtualNodeEntry.getKey();
-            Set<Long[]> removeJobHashSet = virtualNodeEntry.getValue();
-            // 将 virtualNodeEntry 的采集任务迁移到比他大的最近的虚拟节点
+        for (Integer virtualNodeHash : deletedNode.virtualNodeMap.keySet()) {
+            // 将 virtualNode 的采集任务迁移到比他大的最近的虚拟节点
             hashCircle.remove(virtualNodeHash);
-            if (removeJobHashSet == null || removeJobHashSet.isEmpty()) {
+            VirtualNodeJobs removeJobs = deletedNode.clearVirtualNodeJobs(virtualNodeHash);
+            if (removeJobs == null || removeJobs.isEmpty()) {
                 continue;
             }
             Map.Entry<Integer, Node> higherVirtualEntry = hashCircle.higherEntry(virtualNodeHash);
@@ -120,23 +117,16 @@ public class ConsistentHash {
                 higherVirtualEntry = null;
             }
             // jobId
-            Set<Long> removeJobIds = removeJobHashSet.stream().map(item -> item[0]).collect(Collectors.toSet());
+            Set<Long> removeJobIds = removeJobs.jobIdSet();
             deletedNode.assignJobs.removeAssignJobs(removeJobIds);
             deletedNode.assignJobs.addRemovingJobs(removeJobIds);
             if (higherVirtualEntry == null) {
-                // jobId-dispatchHash
-                virtualNodeEntry.getValue().forEach(value -> {
-                    Long jobId = value[0];
-                    Integer dispatchHash = value[1].intValue();
-                    if (removeJobIds.contains(jobId)) {
-                        dispatchJobCache.add(new DispatchJob(dispatchHash, jobId));
-                    } else {
-                        log.error("Get job {} from removeJobMap null.", jobId);
-                    }
-                });
+                for (int index = 0; index < removeJobs.size(); index++) {
+                    dispatchJobCache.add(new DispatchJob(removeJobs.hashAt(index), removeJobs.jobIdAt(index)));
+                }
             } else {
                 Node higherVirtualNode = higherVirtualEntry.getValue();
-                higherVirtualNode.addVirtualNodeJobs(higherVirtualEntry.getKey(), removeJobHashSet);
+                higherVirtualNode.addVirtualNodeJobs(higherVirtualEntry.getKey(), removeJobs);
                 higherVirtualNode.assignJobs.addAddingJobs(removeJobIds);
             }
         }
@@ -225,12 +215,49 @@ public class ConsistentHash {
         if (ceilEntry == null) {
             ceilEntry = hashCircle.firstEntry();
         }
+        if (ceilEntry.getValue().overloaded) {
+            // bounded load, the overloaded collectors are skipped clockwise
+            Map.Entry<Integer, Node> entry = ceilEntry;
+            do {
+                entry = hashCircle.higherEntry(entry.getKey());
+                if (entry == null) {
+                    entry = hashCircle.firstEntry();
+                }
+            } while (entry.getValue().overloaded && !entry.getKey().equals(ceilEntry.getKey()));
+            if (!entry.getValue().overloaded) {
+                ceilEntry = entry;
+            }
+        }
         int virtualKey = ceilEntry.getKey();
         Node curNode = ceilEntry.getValue();
 
         curNode.addJob(virtualKey, dispatchHash, jobId, isFlushed);
         return curNode;
     }
+
+    /**
+     * 将已分配的采集任务从一个采集器迁移到另一个采集器, 由后续reBalance下发与删除
+     * move the assigned job to another collector, it is issued and removed by the following rebalance
+     *
+     * @param jobId jobId
+     * @param from the collector assigned the job
+     * @param to the collector to assign the job
+     * @return true when moved, the pinned or not assigned jobs are not moved
+     */
+    public synchronized boolean moveJob(Long jobId, Node from, Node to) {
+        if (from == to || to.virtualNodeMap == null || to.virtualNodeMap.isEmpty()
+                || !from.assignJobs.getJobs().remove(jobId)) {
+            return false;
+        }
+        long dispatchHash = from.takeVirtualNodeJob(jobId);
+        if (dispatchHash == Node.ABSENT_HASH) {
+            from.assignJobs.addAssignJob(jobId);
+            return false;
+        }
+        from.assignJobs.addRemovingJob(jobId);
+        to.addJob(to.coveringVirtualNode((int) dispatchHash), (int) dispatchHash, jobId, false);
+        return true;
+    }
     
     /**
      * 预先根据采集任务信息获取其分配到的采集器节点
@@ -304,6 +331,11 @@ public class ConsistentHash {
      * 采集器节点的机器地址
      */
     public static class Node {
+        /**
+         * 未找到任务时的路由hash
+         * the dispatch hash returned when the job is not found
+         */
+        private static final long ABSENT_HASH = Long.MIN_VALUE;
         /**
          * 采集器唯一标识
          */
@@ -332,10 +364,20 @@ public class ConsistentHash {
          */
         private AssignJobs assignJobs;
         /**
-         * 此节点所对应的每个虚拟节点所映射的采集采集任务ID列表
-         * Long[] [0]-jobId, [1]-dispatchHash
+         * 此节点所对应的每个虚拟节点所映射的采集采集任务ID列表, 按路由hash排序
+         * the jobs routed to each virtual node of this node, sorted by the dispatch hash
          */
-        private Map<Integer, Set<Long[]>> virtualNodeMap;
+        private Map<Integer, VirtualNodeJobs> virtualNodeMap;
+        /**
+         * 采集器心跳上报的负载
+         * the load reported in the collector heartbeat
+         */
+        private volatile CollectorLoad load;
+        /**
+         * 负载过高时新任务跳过此采集器
+         * new jobs skip this collector when it is overloaded
+         */
+        private volatile boolean overloaded;
 
         public Node(String identity, String mode, String ip, long uptime, Byte quality) {
             this.identity = identity;
@@ -354,8 +396,7 @@ public class ConsistentHash {
             if (assignJobs == null) {
                 assignJobs = new AssignJobs();
             }
-            Set<Long[]> virtualNodeJob = virtualNodeMap.computeIfAbsent(virtualNodeKey, k -> ConcurrentHashMap.newKeySet(16));
-            virtualNodeJob.add(new Long[]{jobId, dispatchHash.longValue()});
+            virtualNodeMap.computeIfAbsent(virtualNodeKey, k -> new VirtualNodeJobs()).add(dispatchHash, jobId);
             if (isFlushed) {
                 assignJobs.addAssignJob(jobId);   
             } else {
@@ -368,47 +409,105 @@ public class ConsistentHash {
          * @param virtualNodeKey 虚拟节点key
          * @return 采集任务
          */
-        private Set<Long[]> clearVirtualNodeJobs(Integer virtualNodeKey) {
+        private synchronized VirtualNodeJobs clearVirtualNodeJobs(Integer virtualNodeKey) {
             if (virtualNodeMap == null || virtualNodeMap.isEmpty()) {
                 return null;
             }
-            Set<Long[]> virtualNodeJobs = virtualNodeMap.remove(virtualNodeKey);
-            virtualNodeMap.put(virtualNodeKey, ConcurrentHashMap.newKeySet(16));
-            return virtualNodeJobs;
+            return virtualNodeMap.put(virtualNodeKey, new VirtualNodeJobs());
         }
 
-        private void addVirtualNodeJobs(Integer virtualHashKey, Set<Long[]> reDispatchJobs) {
-            if (reDispatchJobs == null) {
-                return;
+        /**
+         * 拆分出指定虚拟节点路由hash在环区间(fromHash, toHash]内的采集任务
+         * split the jobs of the virtual node whose dispatch hash is in the ring range (fromHash, toHash]
+         * @param virtualNodeKey 虚拟节点key
+         * @param fromHash exclusive range start
+         * @param toHash inclusive range end
+         * @return 采集任务
+         */
+        private synchronized VirtualNodeJobs splitVirtualNodeJobs(Integer virtualNodeKey, int fromHash, int toHash) {
+            VirtualNodeJobs virtualNodeJobs = virtualNodeMap == null ? null : virtualNodeMap.get(virtualNodeKey);
+            if (virtualNodeJobs == null) {
+                return new VirtualNodeJobs();
             }
+            return virtualNodeJobs.removeRange(fromHash, toHash);
+        }
+
+        private synchronized void addVirtualNodeJobs(Integer virtualHashKey, VirtualNodeJobs reDispatchJobs) {
             if (virtualNodeMap == null) {
                 virtualNodeMap = new ConcurrentHashMap<>(16);
             }
-            Set<Long[]> virtualNodeJobs = virtualNodeMap.get(virtualHashKey);
-            if (virtualNodeJobs != null) {
-                reDispatchJobs.addAll(virtualNodeJobs);
+            virtualNodeMap.computeIfAbsent(virtualHashKey, k -> new VirtualNodeJobs()).addAll(reDispatchJobs);
+        }
+
+        /**
+         * @param jobId jobId
+         * @return the dispatch hash of the removed job, ABSENT_HASH when not found
+         */
+        private synchronized long takeVirtualNodeJob(long jobId) {
+            if (virtualNodeMap == null) {
+                return ABSENT_HASH;
+            }
+            for (VirtualNodeJobs virtualNodeJobs : virtualNodeMap.values()) {
+                int index = virtualNodeJobs.indexOf(jobId);
+                if (index >= 0) {
+                    int dispatchHash = virtualNodeJobs.hashAt(index);
+                    virtualNodeJobs.removeAt(index);
+                    return dispatchHash;
+                }
             }
-            virtualNodeMap.put(virtualHashKey, reDispatchJobs);
+            return ABSENT_HASH;
         }
         
-        public void removeVirtualNodeJob(Long jobId) {
-            if (jobId == null || virtualNodeMap == null) {
-                return;
-            }
-            for (Set<Long[]> jobSet : virtualNodeMap.values()) {
-                Optional<Long[]> optional = jobSet.stream().filter(item -> Objects.equals(item[0], jobId)).findFirst();
-                if (optional.isPresent()) {
-                    jobSet.remove(optional.get());
-                    break;
+        /**
+         * 此节点顺时针方向第一个覆盖路由hash的虚拟节点, 与跳过高负载节点的路由一致
+         * the first virtual node of this node clockwise from the dispatch hash, the same as the overloaded
+         * collectors skipped by the dispatch, so the ring operations keep splitting the job by its hash
+         * @param dispatchHash dispatch hash
+         * @return virtual node key
+         */
+        private synchronized Integer coveringVirtualNode(int dispatchHash) {
+            Integer ceilingKey = null;
+            Integer firstKey = null;
+            for (Integer virtualKey : virtualNodeMap.keySet()) {
+                if (virtualKey >= dispatchHash && (ceilingKey == null || virtualKey < ceilingKey)) {
+                    ceilingKey = virtualKey;
+                }
+                if (firstKey == null || virtualKey < firstKey) {
+                    firstKey = virtualKey;
                 }
             }
+            return ceilingKey == null ? firstKey : ceilingKey;
+        }
+
+        public boolean removeVirtualNodeJob(Long jobId) {
+            return jobId != null && takeVirtualNodeJob(jobId) != ABSENT_HASH;
         }
 
         public AssignJobs getAssignJobs() {
             return assignJobs;
         }
 
-        public void destroy() {
+        public boolean isPrivateMode() {
+            return CommonConstants.MODE_PRIVATE.equals(mode);
+        }
+
+        public CollectorLoad getLoad() {
+            return load;
+        }
+
+        public void setLoad(CollectorLoad load) {
+            this.load = load;
+        }
+
+        public boolean isOverloaded() {
+            return overloaded;
+        }
+
+        public void setOverloaded(boolean overloaded) {
+            this.overloaded = overloaded;
+        }
+
+        public synchronized void destroy() {
             if (assignJobs != null) {
                 assignJobs.clear();
             }
@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.manager.scheduler;
+
+import org.dromara.hertzbeat.common.entity.dto.JobHandoffStats;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Track the handoff of the jobs moved between the collectors. The collect phase of every monitor is learned from
+ * its collect data, so the new owner fires its first collect at the next fire time of the previous owner. The
+ * previous owner keeps collecting until the first successful collect of the new owner, the collect of the same
+ * interval from both of them is dropped as a duplicate, and a missed interval is counted as a gap.
+ * 采集器间任务交接跟踪, 新采集器按原采集器相位首次采集, 原采集器持续采集直至新采集器首次采集成功, 重叠采集去重
+ * @author tom
+ */
+class JobHandoffTracker {
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+
+    private static final long HALF_DIVISOR = 2L;
+
+    private static final double GAP_FACTOR = 1.5;
+
+    private static final int AVAILABLE_PRIORITY = 0;
+
+    /**
+     * the intervals to wait the first successful collect of the new owner
+     */
+    private final int timeoutIntervals;
+
+    /**
+     * previous owner identity, jobId - release the job from the previous owner
+     */
+    private final BiConsumer<String, Long> releaser;
+
+    /**
+     * monitorId - collector time of the last available metrics collected
+     */
+    private final Map<Long, Long> lastCollectTimes = new ConcurrentHashMap<>(16);
+
+    /**
+     * monitorId - handoff
+     */
+    private final Map<Long, Handoff> handoffs = new ConcurrentHashMap<>(16);
+
+    private final AtomicLong completed = new AtomicLong();
+
+    private final AtomicLong expired = new AtomicLong();
+
+    private final AtomicLong gaps = new AtomicLong();
+
+    private final AtomicLong duplicates = new AtomicLong();
+
+    JobHandoffTracker(int timeoutIntervals, BiConsumer<String, Long> releaser) {
+        this.timeoutIntervals = Math.max(timeoutIntervals, 1);
+        this.releaser = releaser;
+    }
+
+    /**
+     * @param monitorId monitorId
+     * @param interval collect interval seconds
+     * @param now current time milliseconds
+     * @return the time to fire the first collect aligned with the last collect, 0 when never collected
+     */
+    long nextFireTime(long monitorId, long interval, long now) {
+        Long lastCollectTime = lastCollectTimes.get(monitorId);
+        if (lastCollectTime == null) {
+            return 0;
+        }
+        return Math.max(lastCollectTime + Math.max(interval, 1) * MILLIS_PER_SECOND, now);
+    }
+
+    /**
+     * the job is moving between the collectors, the previous owner keeps collecting it until released
+     * @param jobId jobId
+     * @param monitorId monitorId
+     * @param interval collect interval seconds
+     * @param from previous owner
+     * @param to new owner
+     * @param now current time milliseconds
+     */
+    void begin(long jobId, long monitorId, long interval, String from, String to, long now) {
+        Long lastCollectTime = lastCollectTimes.get(monitorId);
+        Handoff handoff = new Handoff(jobId, from, to, Math.max(interval, 1) * MILLIS_PER_SECOND, now,
+                lastCollectTime == null ? 0 : lastCollectTime);
+        Handoff previous = handoffs.put(monitorId, handoff);
+        if (previous != null) {
+            release(previous, from, to);
+        }
+    }
+
+    /**
+     * record the collect data of the cyclic job, and acknowledge the handoff by the first successful collect of
+     * the new owner
+     * @param identity collector identity
+     * @param monitorId monitorId
+     * @param priority metrics priority
+     * @param time collect time milliseconds of the collector
+     * @param success whether the collect is successful
+     * @return false when the data is a duplicate of the other collector and dropped
+     */
+    boolean collect(String identity, long monitorId, int priority, long time, boolean success) {
+        Handoff handoff = handoffs.get(monitorId);
+        if (handoff == null) {
+            recordCollect(monitorId, priority, time);
+            return true;
+        }
+        synchronized (handoff) {
+            if (handoff.from.equals(identity)) {
+                if (handoff.boundary > 0 && time >= handoff.boundary) {
+                    duplicates.incrementAndGet();
+                    return false;
+                }
+                if (priority == AVAILABLE_PRIORITY) {
+                    handoff.fromLastCollect = Math.max(handoff.fromLastCollect, time);
+                }
+                recordCollect(monitorId, priority, time);
+                return true;
+            }
+            if (!handoff.to.equals(identity)) {
+                recordCollect(monitorId, priority, time);
+                return true;
+            }
+            if (handoff.boundary == 0) {
+                if (!success) {
+                    // the previous owner still collects, the failures of the cold new owner are not reported
+                    return false;
+                }
+                acknowledge(handoff, time);
+            }
+            if (time < handoff.boundary) {
+                duplicates.incrementAndGet();
+                return false;
+            }
+            recordCollect(monitorId, priority, time);
+            return true;
+        }
+    }
+
+    /**
+     * release the previous owners not acknowledged in time, and drop the finished handoffs
+     * @param now current time milliseconds
+     */
+    void expire(long now) {
+        Iterator<Map.Entry<Long, Handoff>> iterator = handoffs.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Handoff handoff = iterator.next().getValue();
+            synchronized (handoff) {
+                long timeout = handoff.intervalMillis * timeoutIntervals;
+                if (handoff.boundary == 0 && now - handoff.startTime > timeout) {
+                    expired.incrementAndGet();
+                    handoff.boundary = Math.max(handoff.fromLastCollect + handoff.intervalMillis / HALF_DIVISOR, 1);
+                    handoff.releasedTime = now;
+                    releaser.accept(handoff.from, handoff.jobId);
+                }
+                // the late collect data of the previous owner is still deduplicated for an interval
+                if (handoff.releasedTime > 0 && now - handoff.releasedTime > handoff.intervalMillis) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * the job is canceled, release it from the previous owner still collecting it
+     * @param jobId jobId
+     */
+    void cancel(long jobId) {
+        Iterator<Map.Entry<Long, Handoff>> iterator = handoffs.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Handoff> entry = iterator.next();
+            if (entry.getValue().jobId == jobId) {
+                iterator.remove();
+                release(entry.getValue(), null, null);
+            }
+        }
+    }
+
+    /**
+     * forget the collect phase of the monitors not collected since the time
+     * @param time collector time milliseconds
+     */
+    void pruneBefore(long time) {
+        lastCollectTimes.values().removeIf(lastCollectTime -> lastCollectTime < time);
+    }
+
+    JobHandoffStats getStats() {
+        return JobHandoffStats.builder()
+                .pending((int) handoffs.values().stream().filter(handoff -> handoff.boundary == 0).count())
+                .completed(completed.get())
+                .expired(expired.get())
+                .gaps(gaps.get())
+                .duplicates(duplicates.get())
+                .build();
+    }
+
+    private void acknowledge(Handoff handoff, long time) {
+        long halfInterval = handoff.intervalMillis / HALF_DIVISOR;
+        if (handoff.fromLastCollect > 0 && time - handoff.fromLastCollect < halfInterval) {
+            // the previous owner has collected this interval, the new owner takes over from the next one
+            handoff.boundary = handoff.fromLastCollect + halfInterval;
+        } else {
+            handoff.boundary = time;
+        }
+        if (handoff.fromLastCollect > 0 && time - handoff.fromLastCollect > handoff.intervalMillis * GAP_FACTOR) {
+            gaps.incrementAndGet();
+        }
+        completed.incrementAndGet();
+        handoff.releasedTime = System.currentTimeMillis();
+        releaser.accept(handoff.from, handoff.jobId);
+    }
+
+    /**
+     * release the previous owner not released yet, unless it is still involved in the job
+     */
+    private void release(Handoff handoff, String from, String to) {
+        synchronized (handoff) {
+            if (handoff.releasedTime == 0 && !handoff.from.equals(from) && !handoff.from.equals(to)) {
+                handoff.releasedTime = System.currentTimeMillis();
+                releaser.accept(handoff.from, handoff.jobId);
+            }
+        }
+    }
+
+    private void recordCollect(long monitorId, int priority, long time) {
+        if (priority == AVAILABLE_PRIORITY) {
+            lastCollectTimes.merge(monitorId, time, Math::max);
+        }
+    }
+
+    /**
+     * job handoff from a collector to another
+     */
+    private static final class Handoff {
+        private final long jobId;
+        private final String from;
+        private final String to;
+        private final long intervalMillis;
+        /**
+         * manager time the handoff begins
+         */
+        private final long startTime;
+        /**
+         * collector time of the last available metrics collected by the previous owner
+         */
+        private long fromLastCollect;
+        /**
+         * collector time the new owner takes over from, 0 when not acknowledged
+         */
+        private long boundary;
+        /**
+         * manager time the previous owner is released, 0 when not released
+         */
+        private long releasedTime;
+
+        private Handoff(long jobId, String from, String to, long intervalMillis, long startTime, long fromLastCollect) {
+            this.jobId = jobId;
+            this.from = from;
+            this.to = to;
+            this.intervalMillis = intervalMillis;
+            this.startTime = startTime;
+            this.fromLastCollect = fromLastCollect;
+        }
+    }
+}
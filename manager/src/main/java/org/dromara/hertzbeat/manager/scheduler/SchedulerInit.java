@@ -1,12 +1,10 @@
 package org.dromara.hertzbeat.manager.scheduler;
 
 import lombok.extern.slf4j.Slf4j;
-import org.dromara.hertzbeat.collector.util.CollectUtil;
 import org.dromara.hertzbeat.common.constants.CommonConstants;
 import org.dromara.hertzbeat.common.entity.dto.CollectorInfo;
 import org.dromara.hertzbeat.common.entity.job.Configmap;
 import org.dromara.hertzbeat.common.entity.job.Job;
-import org.dromara.hertzbeat.common.entity.job.Metrics;
 import org.dromara.hertzbeat.common.entity.manager.*;
 import org.dromara.hertzbeat.manager.dao.CollectorDao;
 import org.dromara.hertzbeat.manager.dao.CollectorMonitorBindDao;
@@ -18,16 +16,23 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.StopWatch;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
- * scheduler init
+ * scheduler init, the monitor jobs are built in bulk from the shared app defines and issued per collector
  *
  * @author tom
  */
@@ -43,6 +48,10 @@ public class SchedulerInit implements CommandLineRunner {
     private CollectJobScheduling collectJobScheduling;
    
     private static final String MAIN_COLLECTOR_NODE_IP = "127.0.0.1";
+
+    private static final String UPDATE_JOB_ID_SQL = "update hzb_monitor set job_id = ? where id = ?";
+
+    private static final int JOB_ID_UPDATE_BATCH_SIZE = 1000;
     
     @Autowired
     private AppService appService;
@@ -58,9 +67,14 @@ public class SchedulerInit implements CommandLineRunner {
     
     @Autowired
     private CollectorMonitorBindDao collectorMonitorBindDao;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
     
     @Override
     public void run(String... args) throws Exception {
+        StopWatch stopWatch = new StopWatch("scheduler init");
+        stopWatch.start("init collectors");
         // init pre collector status
         List<Collector> collectors = collectorDao.findAll().stream()
                 .peek(item -> item.setStatus(CommonConstants.COLLECTOR_STATUS_OFFLINE))
@@ -72,45 +86,102 @@ public class SchedulerInit implements CommandLineRunner {
                                               .ip(MAIN_COLLECTOR_NODE_IP)
                                               .build();
         collectorScheduling.collectorGoOnline(CommonConstants.MAIN_COLLECTOR_NODE, collectorInfo);
+        stopWatch.stop();
         // init jobs
+        stopWatch.start("load monitors");
         List<Monitor> monitors = monitorDao.findMonitorsByStatusNotInAndAndJobIdNotNull(List.of((byte) 0));
         List<CollectorMonitorBind> monitorBinds = collectorMonitorBindDao.findAll();
         Map<Long, String> monitorIdCollectorMap = monitorBinds.stream().collect(
                 Collectors.toMap(CollectorMonitorBind::getMonitorId, CollectorMonitorBind::getCollector));
-        for (Monitor monitor : monitors) {
-            try {
-                // 构造采集任务Job实体
-                Job appDefine = appService.getAppDefine(monitor.getApp());
-                if (CommonConstants.PROMETHEUS.equals(monitor.getApp())) {
-                    appDefine.setApp(CommonConstants.PROMETHEUS_APP_PREFIX + monitor.getName());
-                }
-                appDefine.setId(monitor.getJobId());
-                appDefine.setMonitorId(monitor.getId());
-                appDefine.setInterval(monitor.getIntervals());
-                appDefine.setCyclic(true);
-                appDefine.setTimestamp(System.currentTimeMillis());
-                List<Param> params = paramDao.findParamsByMonitorId(monitor.getId());
-                List<Configmap> configmaps = params.stream()
-                        .map(param -> new Configmap(param.getField(), param.getValue(),
-                                param.getType())).collect(Collectors.toList());
-                List<ParamDefine> paramDefaultValue = appDefine.getParams().stream()
-                        .filter(item -> StringUtils.hasText(item.getDefaultValue()))
-                        .collect(Collectors.toList());
-                paramDefaultValue.forEach(defaultVar -> {
-                    if (configmaps.stream().noneMatch(item -> item.getKey().equals(defaultVar.getField()))) {
-                        // todo type
-                        Configmap configmap = new Configmap(defaultVar.getField(), defaultVar.getDefaultValue(), (byte) 1);
-                        configmaps.add(configmap);
+        Map<Long, List<Param>> monitorParamsMap = paramDao.findAll().stream()
+                .filter(param -> param.getMonitorId() != null)
+                .collect(Collectors.groupingBy(Param::getMonitorId));
+        stopWatch.stop();
+        stopWatch.start("build jobs");
+        Map<String, Job> appDefineMap = new ConcurrentHashMap<>(64);
+        List<Monitor> jobMonitors = new ArrayList<>(monitors.size());
+        List<Job> jobs = new ArrayList<>(monitors.size());
+        monitors.parallelStream()
+                .map(monitor -> {
+                    try {
+                        Job appDefine = appDefineMap.computeIfAbsent(monitor.getApp(), appService::getAppDefine);
+                        return Map.entry(monitor, buildJob(appDefine, monitor,
+                                monitorParamsMap.getOrDefault(monitor.getId(), Collections.emptyList())));
+                    } catch (Exception e) {
+                        log.error("init monitor job: {} error,continue next monitor", monitor, e);
+                        return null;
                     }
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList())
+                .forEach(entry -> {
+                    jobMonitors.add(entry.getKey());
+                    jobs.add(entry.getValue());
                 });
-                appDefine.setConfigmap(configmaps);
-                String collector = monitorIdCollectorMap.get(monitor.getId());
-                long jobId = collectJobScheduling.addAsyncCollectJob(appDefine, collector);
-                monitor.setJobId(jobId);
-                monitorDao.save(monitor);
-            } catch (Exception e) {
-                log.error("init monitor job: {} error,continue next monitor", monitor, e);
+        stopWatch.stop();
+        stopWatch.start("dispatch jobs");
+        List<Long> jobIds = collectJobScheduling.addAsyncCollectJobs(jobs, monitorIdCollectorMap);
+        stopWatch.stop();
+        stopWatch.start("update job ids");
+        List<Object[]> jobIdArgs = new ArrayList<>(jobIds.size());
+        for (int index = 0; index < jobIds.size(); index++) {
+            jobIdArgs.add(new Object[]{jobIds.get(index), jobMonitors.get(index).getId()});
+        }
+        for (int from = 0; from < jobIdArgs.size(); from += JOB_ID_UPDATE_BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(UPDATE_JOB_ID_SQL,
+                    jobIdArgs.subList(from, Math.min(from + JOB_ID_UPDATE_BATCH_SIZE, jobIdArgs.size())));
+        }
+        stopWatch.stop();
+        log.info("init {} monitor jobs of {} monitors in {} ms, phases: {}", jobs.size(), monitors.size(),
+                stopWatch.getTotalTimeMillis(), phaseTimings(stopWatch));
+    }
+
+    /**
+     * build the collect job of the monitor. The define is shared by the monitors of the same app and read only,
+     * the manager only keeps and serializes the jobs, the collector always works on its own copy.
+     *
+     * @param appDefine app define
+     * @param monitor monitor
+     * @param params monitor params
+     * @return collect job
+     */
+    static Job buildJob(Job appDefine, Monitor monitor, List<Param> params) {
+        String app = CommonConstants.PROMETHEUS.equals(monitor.getApp())
+                ? CommonConstants.PROMETHEUS_APP_PREFIX + monitor.getName() : appDefine.getApp();
+        List<Configmap> configmaps = new ArrayList<>(params.size());
+        Set<String> fields = new HashSet<>(params.size() * 2);
+        for (Param param : params) {
+            configmaps.add(new Configmap(param.getField(), param.getValue(), param.getType()));
+            fields.add(param.getField());
+        }
+        if (appDefine.getParams() != null) {
+            for (ParamDefine defaultVar : appDefine.getParams()) {
+                if (StringUtils.hasText(defaultVar.getDefaultValue()) && !fields.contains(defaultVar.getField())) {
+                    // todo type
+                    configmaps.add(new Configmap(defaultVar.getField(), defaultVar.getDefaultValue(), (byte) 1));
+                }
             }
         }
+        return Job.builder()
+                .tenantId(appDefine.getTenantId())
+                .monitorId(monitor.getId())
+                .category(appDefine.getCategory())
+                .app(app)
+                .name(appDefine.getName())
+                .help(appDefine.getHelp())
+                .helpLink(appDefine.getHelpLink())
+                .timestamp(System.currentTimeMillis())
+                .interval(monitor.getIntervals())
+                .isCyclic(true)
+                .params(appDefine.getParams())
+                .metrics(appDefine.getMetrics())
+                .configmap(configmaps)
+                .build();
+    }
+
+    private static String phaseTimings(StopWatch stopWatch) {
+        return Arrays.stream(stopWatch.getTaskInfo())
+                .map(task -> task.getTaskName() + " " + task.getTimeMillis() + " ms")
+                .collect(Collectors.joining(", "));
     }
 }
@@ -12,6 +12,12 @@ import org.springframework.stereotype.Component;
 public class SchedulerProperties {
     
     private ServerProperties server;
+
+    private IssueProperties issue = new IssueProperties();
+
+    private BalanceProperties balance = new BalanceProperties();
+
+    private HandoffProperties handoff = new HandoffProperties();
     
     public ServerProperties getServer() {
         return server;
@@ -20,6 +26,30 @@ public class SchedulerProperties {
     public void setServer(ServerProperties server) {
         this.server = server;
     }
+
+    public IssueProperties getIssue() {
+        return issue;
+    }
+
+    public void setIssue(IssueProperties issue) {
+        this.issue = issue;
+    }
+
+    public BalanceProperties getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BalanceProperties balance) {
+        this.balance = balance;
+    }
+
+    public HandoffProperties getHandoff() {
+        return handoff;
+    }
+
+    public void setHandoff(HandoffProperties handoff) {
+        this.handoff = handoff;
+    }
     
     public static class ServerProperties {
         
@@ -59,4 +89,124 @@ public class SchedulerProperties {
         }
     }
     
+    public static class IssueProperties {
+
+        /**
+         * max cyclic jobs in one issue message
+         */
+        private int chunkSize = 500;
+
+        /**
+         * max cyclic jobs issued to one collector per second, not limited when less than 1
+         */
+        private int jobsPerSecond = 2000;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getJobsPerSecond() {
+            return jobsPerSecond;
+        }
+
+        public void setJobsPerSecond(int jobsPerSecond) {
+            this.jobsPerSecond = jobsPerSecond;
+        }
+    }
+
+    public static class BalanceProperties {
+
+        public static final String MODE_HASH = "hash";
+
+        public static final String MODE_LOAD = "load";
+
+        /**
+         * job placement mode, hash: balance the job number by consistent hash,
+         * load: also balance the collect cost reported by the collectors
+         */
+        private String mode = MODE_HASH;
+
+        /**
+         * load balance check interval, unit: s
+         */
+        private int interval = 60;
+
+        /**
+         * a collector is rebalanced when its load score exceeds the average by this ratio,
+         * and its jobs are moved until it is within half of the ratio
+         */
+        private double threshold = 0.2;
+
+        /**
+         * max jobs moved in one balance check
+         */
+        private int maxMoves = 200;
+
+        public String getMode() {
+            return mode;
+        }
+
+        public void setMode(String mode) {
+            this.mode = mode;
+        }
+
+        public int getInterval() {
+            return interval;
+        }
+
+        public void setInterval(int interval) {
+            this.interval = interval;
+        }
+
+        public double getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(double threshold) {
+            this.threshold = threshold;
+        }
+
+        public int getMaxMoves() {
+            return maxMoves;
+        }
+
+        public void setMaxMoves(int maxMoves) {
+            this.maxMoves = maxMoves;
+        }
+    }
+
+    public static class HandoffProperties {
+
+        /**
+         * whether the previous collector keeps collecting the moved job until the first successful collect of the
+         * new collector, the moved job is deleted from the previous collector at once when disabled
+         */
+        private boolean enabled = true;
+
+        /**
+         * the collect intervals to wait the first successful collect of the new collector
+         */
+        private int timeoutIntervals = 3;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getTimeoutIntervals() {
+            return timeoutIntervals;
+        }
+
+        public void setTimeoutIntervals(int timeoutIntervals) {
+            this.timeoutIntervals = timeoutIntervals;
+        }
+    }
+
 }
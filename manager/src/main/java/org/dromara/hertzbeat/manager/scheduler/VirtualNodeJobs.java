@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.dromara.hertzbeat.manager.scheduler;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Jobs routed to one virtual node, kept in primitive arrays sorted by the dispatch hash. The jobs of a hash range
+ * are split off or merged in by array copies, nothing is boxed. Not thread safe, guarded by the owner node.
+ * 虚拟节点路由的采集任务, 以按路由hash排序的原始类型数组保存, 按hash区间拆分合并只需数组拷贝, 由所属节点加锁
+ * @author tom
+ */
+class VirtualNodeJobs {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] hashes;
+
+    private long[] jobIds;
+
+    private int size;
+
+    VirtualNodeJobs() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    VirtualNodeJobs(int capacity) {
+        int initialCapacity = Math.max(capacity, 1);
+        this.hashes = new int[initialCapacity];
+        this.jobIds = new long[initialCapacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int hashAt(int index) {
+        return hashes[index];
+    }
+
+    long jobIdAt(int index) {
+        return jobIds[index];
+    }
+
+    /**
+     * @param dispatchHash dispatch hash of the job
+     * @param jobId jobId
+     */
+    void add(int dispatchHash, long jobId) {
+        ensureCapacity(size + 1);
+        int index = upperBound(dispatchHash);
+        System.arraycopy(hashes, index, hashes, index + 1, size - index);
+        System.arraycopy(jobIds, index, jobIds, index + 1, size - index);
+        hashes[index] = dispatchHash;
+        jobIds[index] = jobId;
+        size++;
+    }
+
+    /**
+     * @param jobId jobId
+     * @return index of the job, -1 when not found
+     */
+    int indexOf(long jobId) {
+        for (int index = 0; index < size; index++) {
+            if (jobIds[index] == jobId) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    void removeAt(int index) {
+        System.arraycopy(hashes, index + 1, hashes, index, size - index - 1);
+        System.arraycopy(jobIds, index + 1, jobIds, index, size - index - 1);
+        size--;
+    }
+
+    /**
+     * remove the jobs whose dispatch hash is in the ring range (fromHash, toHash], the range wraps around the
+     * ring when fromHash is not less than toHash, and is empty when they are equal
+     * @param fromHash exclusive range start
+     * @param toHash inclusive range end
+     * @return removed jobs
+     */
+    VirtualNodeJobs removeRange(int fromHash, int toHash) {
+        if (fromHash == toHash || size == 0) {
+            return new VirtualNodeJobs();
+        }
+        int start = upperBound(fromHash);
+        int end = upperBound(toHash);
+        if (fromHash < toHash) {
+            VirtualNodeJobs removed = copyOf(start, end);
+            compact(start, end);
+            return removed;
+        }
+        // wrapped, [0, end) and [start, size) are removed, the lower hashes first
+        VirtualNodeJobs removed = new VirtualNodeJobs(end + size - start);
+        removed.append(this, 0, end);
+        removed.append(this, start, size);
+        int remain = start - end;
+        System.arraycopy(hashes, end, hashes, 0, remain);
+        System.arraycopy(jobIds, end, jobIds, 0, remain);
+        size = remain;
+        return removed;
+    }
+
+    /**
+     * merge the other jobs in, both are sorted so the merge is linear
+     * @param other other jobs
+     */
+    void addAll(VirtualNodeJobs other) {
+        if (other == null || other.size == 0) {
+            return;
+        }
+        int total = size + other.size;
+        int[] mergedHashes = new int[Math.max(total, DEFAULT_CAPACITY)];
+        long[] mergedJobIds = new long[mergedHashes.length];
+        int left = 0;
+        int right = 0;
+        for (int index = 0; index < total; index++) {
+            if (right >= other.size || (left < size && hashes[left] <= other.hashes[right])) {
+                mergedHashes[index] = hashes[left];
+                mergedJobIds[index] = jobIds[left++];
+            } else {
+                mergedHashes[index] = other.hashes[right];
+                mergedJobIds[index] = other.jobIds[right++];
+            }
+        }
+        hashes = mergedHashes;
+        jobIds = mergedJobIds;
+        size = total;
+    }
+
+    /**
+     * @return the job ids, boxed for the assign job sets
+     */
+    Set<Long> jobIdSet() {
+        Set<Long> jobIdSet = new HashSet<>(Math.max(size * 4 / 3 + 1, DEFAULT_CAPACITY));
+        for (int index = 0; index < size; index++) {
+            jobIdSet.add(jobIds[index]);
+        }
+        return jobIdSet;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return the first index whose hash is greater than the hash
+     */
+    private int upperBound(int hash) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (hashes[middle] <= hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private VirtualNodeJobs copyOf(int start, int end) {
+        VirtualNodeJobs copy = new VirtualNodeJobs(end - start);
+        copy.append(this, start, end);
+        return copy;
+    }
+
+    private void append(VirtualNodeJobs source, int start, int end) {
+        int length = end - start;
+        if (length <= 0) {
+            return;
+        }
+        ensureCapacity(size + length);
+        System.arraycopy(source.hashes, start, hashes, size, length);
+        System.arraycopy(source.jobIds, start, jobIds, size, length);
+        size += length;
+    }
+
+    private void compact(int start, int end) {
+        System.arraycopy(hashes, end, hashes, start, size - end);
+        System.arraycopy(jobIds, end, jobIds, start, size - end);
+        size -= end - start;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > hashes.length) {
+            int newCapacity = Math.max(capacity, hashes.length + (hashes.length >> 1));
+            hashes = Arrays.copyOf(hashes, newCapacity);
+            jobIds = Arrays.copyOf(jobIds, newCapacity);
+        }
+    }
+}
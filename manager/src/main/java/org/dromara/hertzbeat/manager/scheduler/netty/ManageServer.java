@@ -65,7 +65,7 @@ public class ManageServer implements CommandLineRunner {
         this.remotingServer.registerProcessor(ClusterMsg.MessageType.GO_ONLINE, new CollectorOnlineProcessor(this));
         this.remotingServer.registerProcessor(ClusterMsg.MessageType.GO_OFFLINE, new CollectorOfflineProcessor(this));
         this.remotingServer.registerProcessor(ClusterMsg.MessageType.RESPONSE_ONE_TIME_TASK_DATA, new CollectOneTimeDataResponseProcessor(this));
-        this.remotingServer.registerProcessor(ClusterMsg.MessageType.RESPONSE_CYCLIC_TASK_DATA, new CollectCyclicDataResponseProcessor());
+        this.remotingServer.registerProcessor(ClusterMsg.MessageType.RESPONSE_CYCLIC_TASK_DATA, new CollectCyclicDataResponseProcessor(this));
 
         this.channelSchedule = Executors.newSingleThreadScheduledExecutor();
     }
@@ -140,6 +140,10 @@ public class ManageServer implements CommandLineRunner {
         return false;
     }
 
+    public void sendMsg(final Channel channel, final ClusterMsg.Message message) {
+        this.remotingServer.sendMsg(channel, message);
+    }
+
     public ClusterMsg.Message sendMsgSync(final String identityId, final ClusterMsg.Message message) {
         Channel channel = this.getChannel(identityId);
         if (channel != null) {
@@ -7,6 +7,7 @@ import org.dromara.hertzbeat.common.entity.message.CollectRep;
 import org.dromara.hertzbeat.common.queue.CommonDataQueue;
 import org.dromara.hertzbeat.common.support.SpringContextHolder;
 import org.dromara.hertzbeat.common.util.ProtoJsonUtil;
+import org.dromara.hertzbeat.manager.scheduler.netty.ManageServer;
 import org.dromara.hertzbeat.remoting.netty.NettyRemotingProcessor;
 
 /**
@@ -14,12 +15,21 @@ import org.dromara.hertzbeat.remoting.netty.NettyRemotingProcessor;
  */
 @Slf4j
 public class CollectCyclicDataResponseProcessor implements NettyRemotingProcessor {
+
+    private final ManageServer manageServer;
+
+    public CollectCyclicDataResponseProcessor(final ManageServer manageServer) {
+        this.manageServer = manageServer;
+    }
+
     @Override
     public ClusterMsg.Message handle(ChannelHandlerContext ctx, ClusterMsg.Message message) {
         CommonDataQueue dataQueue = SpringContextHolder.getBean(CommonDataQueue.class);
         CollectRep.MetricsData metricsData = (CollectRep.MetricsData) ProtoJsonUtil.toProtobuf(message.getMsg(),
                 CollectRep.MetricsData.newBuilder());
-        if (metricsData != null) {
+        // the duplicate data collected by both collectors during the job handoff is dropped
+        if (metricsData != null && this.manageServer.getCollectorAndJobScheduler()
+                .collectAsyncJobResponse(message.getIdentity(), metricsData)) {
             dataQueue.sendMetricsData(metricsData);
         }
         return null;
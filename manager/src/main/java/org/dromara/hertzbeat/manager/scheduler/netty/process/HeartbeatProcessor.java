@@ -2,7 +2,9 @@ package org.dromara.hertzbeat.manager.scheduler.netty.process;
 
 import io.netty.channel.ChannelHandlerContext;
 import lombok.extern.slf4j.Slf4j;
+import org.dromara.hertzbeat.common.entity.dto.CollectorLoad;
 import org.dromara.hertzbeat.common.entity.message.ClusterMsg;
+import org.dromara.hertzbeat.common.util.JsonUtil;
 import org.dromara.hertzbeat.manager.scheduler.netty.ManageServer;
 import org.dromara.hertzbeat.remoting.netty.NettyRemotingProcessor;
 
@@ -25,6 +27,10 @@ public class HeartbeatProcessor implements NettyRemotingProcessor {
         if (!isChannelExist) {
             log.info("the collector {} is not online.", identity);
         }
+        if (!message.getMsg().isEmpty()) {
+            CollectorLoad collectorLoad = JsonUtil.fromJson(message.getMsg(), CollectorLoad.class);
+            this.manageServer.getCollectorAndJobScheduler().updateCollectorLoad(identity, collectorLoad);
+        }
         if (log.isDebugEnabled()) {
             log.debug("server receive collector {} heartbeat", message.getIdentity());
         }
@@ -17,6 +17,9 @@
 
 package org.dromara.hertzbeat.manager.service;
 
+import org.dromara.hertzbeat.manager.pojo.dto.ImportProgress;
+import org.dromara.hertzbeat.manager.pojo.dto.ImportResult;
+
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.List;
@@ -34,9 +37,11 @@ public interface ImExportService {
      * Import Configuration
      * 导入配置
      *
-     * @param is 输入流
+     * @param is       输入流
+     * @param listener import listener
+     * @return import result with the rows failed
      */
-    void importConfig(InputStream is);
+    ImportResult importConfig(InputStream is, ImportListener listener);
 
     /**
      * Export Configuration
@@ -63,4 +68,25 @@ public interface ImExportService {
      */
     String getFileName();
 
+    /**
+     * Import progress listener, called on the import thread
+     * 导入进度监听器, 在导入线程中回调
+     */
+    interface ImportListener {
+
+        ImportListener NONE = new ImportListener() {};
+
+        /**
+         * progress of the import phase
+         * @param progress progress
+         */
+        default void onProgress(ImportProgress progress) {}
+
+        /**
+         * a row failed
+         * @param error row error
+         */
+        default void onError(ImportResult.RowError error) {}
+    }
+
 }
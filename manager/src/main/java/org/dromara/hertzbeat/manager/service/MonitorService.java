@@ -21,6 +21,7 @@ import org.dromara.hertzbeat.common.entity.job.Job;
 import org.dromara.hertzbeat.common.entity.manager.Monitor;
 import org.dromara.hertzbeat.common.entity.manager.Param;
 import org.dromara.hertzbeat.manager.pojo.dto.AppCount;
+import org.dromara.hertzbeat.manager.pojo.dto.ImportResult;
 import org.dromara.hertzbeat.manager.pojo.dto.MonitorDto;
 import org.dromara.hertzbeat.manager.support.exception.MonitorDetectException;
 import org.springframework.data.domain.Page;
@@ -29,6 +30,8 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.servlet.http.HttpServletResponse;
+import java.io.InputStream;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -62,6 +65,15 @@ public interface MonitorService {
      */
     void addMonitor(Monitor monitor, List<Param> params, String collector) throws RuntimeException;
 
+    /**
+     * Add monitors in bulk, the collect jobs are issued in one batch and the monitors are saved in one transaction
+     * 批量新增监控, 采集任务批量下发, 监控在同一事务中保存
+     *
+     * @param monitorDtos monitors validated, with params and collector pinned
+     * @throws RuntimeException Add process exception throw, none of the monitors is added     新增过程异常抛出
+     */
+    void addMonitors(List<MonitorDto> monitorDtos) throws RuntimeException;
+
     /**
      * Verify the correctness of request data parameters
      * 校验请求数据参数正确性
@@ -111,6 +123,15 @@ public interface MonitorService {
      */
     MonitorDto getMonitorDto(long id) throws RuntimeException;
 
+    /**
+     * Obtain the monitor information of the monitors in bulk, ordered by monitor ID
+     * 批量获取监控信息, 按监控任务ID排序
+     *
+     * @param ids Monitor ID List, a page of the ids to load at once     监控任务ID列表
+     * @return MonitorDto list, the monitors not existed are skipped
+     */
+    List<MonitorDto> getMonitorDtos(Collection<Long> ids);
+
     /**
      * Dynamic conditional query
      * 动态条件查询
@@ -205,9 +226,21 @@ public interface MonitorService {
      * 导入监控配置
      *
      * @param file 配置文件
+     * @return import result with the rows failed
      * @throws Exception This exception will be thrown if the export fails
      */
-    void importConfig(MultipartFile file) throws Exception;
+    ImportResult importConfig(MultipartFile file) throws Exception;
+
+    /**
+     * Import Monitoring Configuration, reporting the progress and the rows failed to the listener
+     * 导入监控配置, 向监听器报告进度与失败行
+     *
+     * @param fileName file name, the import type is decided by its suffix
+     * @param is       file input stream
+     * @param listener import listener
+     * @return import result with the rows failed
+     */
+    ImportResult importConfig(String fileName, InputStream is, ImExportService.ImportListener listener);
 
     /**
      * 根据id，批量复制monitor
@@ -16,6 +16,7 @@
 package org.dromara.hertzbeat.manager.service.impl;
 
 import cn.afterturn.easypoi.excel.annotation.*;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
@@ -24,6 +25,8 @@ import org.dromara.hertzbeat.common.constants.CommonConstants;
 import org.dromara.hertzbeat.common.entity.manager.Monitor;
 import org.dromara.hertzbeat.common.entity.manager.Param;
 import org.dromara.hertzbeat.common.entity.manager.Tag;
+import org.dromara.hertzbeat.manager.pojo.dto.ImportProgress;
+import org.dromara.hertzbeat.manager.pojo.dto.ImportResult;
 import org.dromara.hertzbeat.manager.pojo.dto.MonitorDto;
 import org.dromara.hertzbeat.manager.service.ImExportService;
 import org.dromara.hertzbeat.manager.service.MonitorService;
@@ -33,12 +36,23 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.util.CollectionUtils;
 
 import javax.annotation.Resource;
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.Collections;
 
@@ -56,31 +70,174 @@ abstract class AbstractImExportServiceImpl implements ImExportService {
     @Resource
     private TagService tagService;
 
+    /**
+     * monitors loaded in one page of an export
+     */
+    private static final int EXPORT_PAGE_SIZE = 500;
+
+    /**
+     * max monitors detected at the same time in an import
+     */
+    private static final int DETECT_CONCURRENCY = 16;
+
+    /**
+     * monitors issued and saved in one batch
+     */
+    private static final int SAVE_BATCH_SIZE = 500;
+
+    /**
+     * rows between the progress reports
+     */
+    private static final int PROGRESS_STEP = 50;
+
     @Override
-    public void importConfig(InputStream is) {
-        var formList = parseImport(is)
-                .stream()
-                .map(this::convert)
-                .collect(Collectors.toUnmodifiableList());
-        if (!CollectionUtils.isEmpty(formList)) {
-            formList.forEach(monitorDto -> {
-                monitorService.validate(monitorDto, false);
-                if (monitorDto.isDetected()) {
-                    monitorService.detectMonitor(monitorDto.getMonitor(), monitorDto.getParams(), monitorDto.getCollector());
+    public ImportResult importConfig(InputStream is, ImportListener listener) {
+        var formList = parseImport(is);
+        var result = new ImportResult(formList == null ? 0 : formList.size());
+        if (CollectionUtils.isEmpty(formList)) {
+            return result;
+        }
+        var rows = validateRows(formList, result, listener);
+        rows = detectRows(rows, result, listener);
+        saveRows(rows, result, listener);
+        result.getErrors().sort(Comparator.comparingInt(ImportResult.RowError::getRow));
+        return result;
+    }
+
+    /**
+     * convert and validate the rows one by one, the monitor names must be unique in the file
+     */
+    private List<ImportRow> validateRows(List<ExportMonitorDTO> formList, ImportResult result, ImportListener listener) {
+        List<ImportRow> rows = new ArrayList<>(formList.size());
+        Set<String> names = new HashSet<>(formList.size() * 4 / 3 + 1);
+        for (int index = 0; index < formList.size(); index++) {
+            var form = formList.get(index);
+            var row = new ImportRow(index + 1, form == null || form.monitor == null ? null : form.monitor.getName());
+            try {
+                row.monitorDto = convert(form);
+                monitorService.validate(row.monitorDto, false);
+                row.name = row.monitorDto.getMonitor().getName();
+                if (!names.add(row.name)) {
+                    throw new IllegalArgumentException("Monitoring name is duplicated in the import file!");
+                }
+                rows.add(row);
+            } catch (Exception e) {
+                row.error = errorMessage(e);
+                fail(row, result, listener);
+            }
+            progress(listener, ImportProgress.PHASE_VALIDATE, index + 1, formList.size());
+        }
+        return rows;
+    }
+
+    /**
+     * detect the rows required in parallel with bounded concurrency, the results are drained on the import thread
+     */
+    private List<ImportRow> detectRows(List<ImportRow> rows, ImportResult result, ImportListener listener) {
+        var detectRows = rows.stream()
+                .filter(row -> row.monitorDto.isDetected())
+                .collect(Collectors.toList());
+        if (detectRows.isEmpty()) {
+            return rows;
+        }
+        int concurrency = Math.min(DETECT_CONCURRENCY, detectRows.size());
+        var executor = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new ThreadFactoryBuilder()
+                .setNameFormat("monitor-import-detect-%d")
+                .setDaemon(true)
+                .build());
+        CompletionService<ImportRow> completionService = new ExecutorCompletionService<>(executor);
+        try {
+            for (ImportRow row : detectRows) {
+                completionService.submit(() -> {
+                    try {
+                        var monitorDto = row.monitorDto;
+                        monitorService.detectMonitor(monitorDto.getMonitor(), monitorDto.getParams(), monitorDto.getCollector());
+                    } catch (Exception e) {
+                        row.error = errorMessage(e);
+                    }
+                    return row;
+                });
+            }
+            for (int done = 1; done <= detectRows.size(); done++) {
+                var row = completionService.take().get();
+                if (row.error != null) {
+                    fail(row, result, listener);
                 }
-                monitorService.addMonitor(monitorDto.getMonitor(), monitorDto.getParams(), monitorDto.getCollector());
-            });
+                progress(listener, ImportProgress.PHASE_DETECT, done, detectRows.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Monitor import is interrupted.");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
+        return rows.stream()
+                .filter(row -> row.error == null)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * save the rows in batches, every batch is issued and saved at once, a failed batch fails all its rows
+     */
+    private void saveRows(List<ImportRow> rows, ImportResult result, ImportListener listener) {
+        for (int from = 0; from < rows.size(); from += SAVE_BATCH_SIZE) {
+            var batch = rows.subList(from, Math.min(from + SAVE_BATCH_SIZE, rows.size()));
+            try {
+                monitorService.addMonitors(batch.stream()
+                        .map(row -> row.monitorDto)
+                        .collect(Collectors.toList()));
+                result.setSuccess(result.getSuccess() + batch.size());
+            } catch (Exception e) {
+                log.error("Import monitors of rows {} - {} failed: {}", batch.get(0).row,
+                        batch.get(batch.size() - 1).row, e.getMessage(), e);
+                for (ImportRow row : batch) {
+                    row.error = errorMessage(e);
+                    fail(row, result, listener);
+                }
+            }
+            listener.onProgress(new ImportProgress(ImportProgress.PHASE_SAVE, from + batch.size(), rows.size()));
+        }
+    }
+
+    private static void fail(ImportRow row, ImportResult result, ImportListener listener) {
+        var error = new ImportResult.RowError(row.row, row.name, row.error);
+        result.setFailed(result.getFailed() + 1);
+        result.getErrors().add(error);
+        listener.onError(error);
+    }
+
+    private static void progress(ImportListener listener, String phase, int done, int total) {
+        if (done % PROGRESS_STEP == 0 || done == total) {
+            listener.onProgress(new ImportProgress(phase, done, total));
+        }
+    }
+
+    private static String errorMessage(Exception e) {
+        return e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
     }
 
     @Override
     public void exportConfig(OutputStream os, List<Long> configList) {
-        var monitorList = configList.stream()
-                .map(it -> monitorService.getMonitorDto(it))
+        var ids = configList.stream()
                 .filter(Objects::nonNull)
-                .map(this::convert)
-                .collect(Collectors.toUnmodifiableList());
-        writeOs(monitorList, os);
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+        try (var writer = exportWriter(os)) {
+            // the sorted ids are paged by id, a page of monitors is loaded in bulk and written before the next one
+            for (int from = 0; from < ids.size(); from += EXPORT_PAGE_SIZE) {
+                var page = ids.subList(from, Math.min(from + EXPORT_PAGE_SIZE, ids.size()));
+                for (MonitorDto monitorDto : monitorService.getMonitorDtos(page)) {
+                    writer.write(convert(monitorDto));
+                }
+            }
+        } catch (IOException ex) {
+            log.error("export monitor failed.", ex);
+            throw new RuntimeException("export monitor failed");
+        }
     }
 
     /**
@@ -93,13 +250,14 @@ abstract class AbstractImExportServiceImpl implements ImExportService {
     abstract List<ExportMonitorDTO> parseImport(InputStream is);
 
     /**
-     * Export Configuration to Output Stream
-     * 导出配置到输出流
+     * Open the streaming writer of the export file on the output stream
+     * 在输出流上打开导出文件的流式写入器
      *
-     * @param monitorList 配置列表
-     * @param os          输出流
+     * @param os 输出流
+     * @return export writer, the file is finished when it is closed
+     * @throws IOException write failed
      */
-    abstract void writeOs(List<ExportMonitorDTO> monitorList, OutputStream os);
+    abstract ExportWriter exportWriter(OutputStream os) throws IOException;
 
     private ExportMonitorDTO convert(MonitorDto dto) {
         var exportMonitor = new ExportMonitorDTO();
@@ -129,7 +287,7 @@ abstract class AbstractImExportServiceImpl implements ImExportService {
         }
 
         var monitorDto = new MonitorDto();
-        monitorDto.setDetected(exportMonitor.getDetected());
+        monitorDto.setDetected(Boolean.TRUE.equals(exportMonitor.getDetected()));
         var monitor = new Monitor();
         log.debug("exportMonitor.monitor{}", exportMonitor.monitor);
         if (exportMonitor.monitor != null) { //多增加一个null检测
@@ -167,6 +325,34 @@ abstract class AbstractImExportServiceImpl implements ImExportService {
         return "hertzbeat_monitor_" + LocalDate.now();
     }
 
+    /**
+     * Streaming writer of the export file, the monitors are written one by one
+     */
+    interface ExportWriter extends Closeable {
+
+        /**
+         * write a monitor to the export file
+         * @param exportMonitor monitor
+         * @throws IOException write failed
+         */
+        void write(ExportMonitorDTO exportMonitor) throws IOException;
+    }
+
+    /**
+     * row of the import file
+     */
+    private static final class ImportRow {
+        private final int row;
+        private String name;
+        private MonitorDto monitorDto;
+        private volatile String error;
+
+        private ImportRow(int row, String name) {
+            this.row = row;
+            this.name = name;
+        }
+    }
+
     @Data
     @JsonInclude(JsonInclude.Include.NON_NULL)
     @JsonIgnoreProperties(ignoreUnknown = true)
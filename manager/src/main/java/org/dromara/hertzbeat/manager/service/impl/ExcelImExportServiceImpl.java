@@ -5,6 +5,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.ss.util.RegionUtil;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -197,21 +199,47 @@ public class ExcelImExportServiceImpl extends AbstractImExportServiceImpl{
 
 
     /**
-     * Export Configuration to Output Stream
-     * 导出配置到输出流
+     * Open the streaming writer of the export file, only a window of the rows is kept in memory
+     * 打开导出文件流式写入器, 仅在内存中保留窗口内的行
      *
-     * @param monitorList 配置列表
-     * @param os          输出流
+     * @param os 输出流
+     * @return export writer
      */
     @Override
-    void writeOs(List<ExportMonitorDTO> monitorList, OutputStream os) {
-        try {
-            Workbook workbook = WorkbookFactory.create(true);
-            String sheetName = "Export Monitor";
-            Sheet sheet = workbook.createSheet(sheetName);
-            sheet.setDefaultColumnWidth(20);
-            sheet.setColumnWidth(9, 40 * 256);
-            sheet.setColumnWidth(10, 40 * 256);
+    ExportWriter exportWriter(OutputStream os) {
+        return new ExcelExportWriter(os);
+    }
+
+    /**
+     * SXSSF streaming writer, the rows beyond the access window are flushed to a temp file
+     */
+    private static final class ExcelExportWriter implements ExportWriter {
+
+        private static final int ROW_ACCESS_WINDOW = 1000;
+
+        private static final int DEFAULT_COLUMN_WIDTH = 20;
+
+        private static final int PARAM_COLUMN_WIDTH = 40 * 256;
+
+        private static final int LAST_BORDER_COLUMN = 10;
+
+        private final OutputStream os;
+
+        private final SXSSFWorkbook workbook;
+
+        private final SXSSFSheet sheet;
+
+        private final CellStyle cellStyle;
+
+        private int rowIndex = 1;
+
+        private ExcelExportWriter(OutputStream os) {
+            this.os = os;
+            this.workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+            this.sheet = workbook.createSheet("Export Monitor");
+            sheet.setDefaultColumnWidth(DEFAULT_COLUMN_WIDTH);
+            sheet.setColumnWidth(9, PARAM_COLUMN_WIDTH);
+            sheet.setColumnWidth(10, PARAM_COLUMN_WIDTH);
             // 设置表头样式
             CellStyle headerCellStyle = workbook.createCellStyle();
             Font headerFont = workbook.createFont();
@@ -219,7 +247,7 @@ public class ExcelImExportServiceImpl extends AbstractImExportServiceImpl{
             headerCellStyle.setFont(headerFont);
             headerCellStyle.setAlignment(HorizontalAlignment.CENTER);
             // 设置表格内容样式
-            CellStyle cellStyle = workbook.createCellStyle();
+            cellStyle = workbook.createCellStyle();
             cellStyle.setAlignment(HorizontalAlignment.CENTER);
             // 设置表头
             String[] headers = { "name", "app", "host", "intervals", "status", "description", "tags", "collector(default null if system dispatch)", "field", "type", "value", "metrics", "detected" };
@@ -229,81 +257,70 @@ public class ExcelImExportServiceImpl extends AbstractImExportServiceImpl{
                 cell.setCellValue(headers[i]);
                 cell.setCellStyle(headerCellStyle);
             }
+        }
 
-            // 遍历监控列表，每个监控对象对应一行数据
-            int rowIndex = 1;
-            for (ExportMonitorDTO monitor : monitorList) {
-                // 获取监控信息
-                MonitorDTO monitorDTO = monitor.getMonitor();
-                // 获取监控参数
-                List<ParamDTO> paramList = monitor.getParams();
-                // 获取监控指标
-                List<String> metricList = monitor.getMetrics();
-                // 将监控信息和参数信息合并到一行中
-                for (int i = 0; i < Math.max(paramList.size(), 1); i++) {
-                    Row row = sheet.createRow(rowIndex++);
-                    if (i == 0) {
-                        // 监控信息只需要填写一次
-                        Cell nameCell = row.createCell(0);
-                        nameCell.setCellValue(monitorDTO.getName());
-                        nameCell.setCellStyle(cellStyle);
-                        Cell appCell = row.createCell(1);
-                        appCell.setCellValue(monitorDTO.getApp());
-                        appCell.setCellStyle(cellStyle);
-                        Cell hostCell = row.createCell(2);
-                        hostCell.setCellValue(monitorDTO.getHost());
-                        hostCell.setCellStyle(cellStyle);
-                        Cell intervalsCell = row.createCell(3);
-                        intervalsCell.setCellValue(monitorDTO.getIntervals());
-                        intervalsCell.setCellStyle(cellStyle);
-                        Cell statusCell = row.createCell(4);
-                        statusCell.setCellValue(monitorDTO.getStatus());
-                        statusCell.setCellStyle(cellStyle);
-                        Cell descriptionCell = row.createCell(5);
-                        descriptionCell.setCellValue(monitorDTO.getDescription());
-                        descriptionCell.setCellStyle(cellStyle);
-                        Cell tagsCell = row.createCell(6);
-                        tagsCell.setCellValue(monitorDTO.getTags().stream().map(Object::toString).collect(Collectors.joining(",")));
-                        tagsCell.setCellStyle(cellStyle);
-                        Cell collectorCell = row.createCell(7);
-                        collectorCell.setCellValue(monitorDTO.getCollector());
-                        collectorCell.setCellStyle(cellStyle);
-                        if (metricList != null && i < metricList.size()) {
-                            Cell metricCell = row.createCell(11);
-                            metricCell.setCellValue(String.join(",", metricList));
-                            metricCell.setCellStyle(cellStyle);
-                        }
-                        Cell detectedCell = row.createCell(12);
-                        detectedCell.setCellValue(monitor.getDetected() != null && monitor.getDetected());
-                        detectedCell.setCellStyle(cellStyle);
-                    }
-                    // 填写参数信息
-                    if (i < paramList.size()) {
-                        ParamDTO paramDTO = paramList.get(i);
-                        Cell fieldCell = row.createCell(8);
-                        fieldCell.setCellValue(paramDTO.getField());
-                        fieldCell.setCellStyle(cellStyle);
-                        Cell typeCell = row.createCell(9);
-                        typeCell.setCellValue(paramDTO.getType());
-                        typeCell.setCellStyle(cellStyle);
-                        Cell valueCell = row.createCell(10);
-                        valueCell.setCellValue(paramDTO.getValue());
-                        valueCell.setCellStyle(cellStyle);
+        @Override
+        public void write(ExportMonitorDTO monitor) {
+            // 获取监控信息
+            MonitorDTO monitorDTO = monitor.getMonitor();
+            // 获取监控参数
+            List<ParamDTO> paramList = monitor.getParams();
+            // 获取监控指标
+            List<String> metricList = monitor.getMetrics();
+            // 将监控信息和参数信息合并到一行中
+            for (int i = 0; i < Math.max(paramList.size(), 1); i++) {
+                Row row = sheet.createRow(rowIndex++);
+                if (i == 0) {
+                    // 监控信息只需要填写一次
+                    createCell(row, 0).setCellValue(monitorDTO.getName());
+                    createCell(row, 1).setCellValue(monitorDTO.getApp());
+                    createCell(row, 2).setCellValue(monitorDTO.getHost());
+                    createCell(row, 3).setCellValue(monitorDTO.getIntervals());
+                    createCell(row, 4).setCellValue(monitorDTO.getStatus());
+                    createCell(row, 5).setCellValue(monitorDTO.getDescription());
+                    String tags = monitorDTO.getTags() == null ? ""
+                            : monitorDTO.getTags().stream().map(Object::toString).collect(Collectors.joining(","));
+                    createCell(row, 6).setCellValue(tags);
+                    createCell(row, 7).setCellValue(monitorDTO.getCollector());
+                    if (metricList != null && i < metricList.size()) {
+                        createCell(row, 11).setCellValue(String.join(",", metricList));
                     }
+                    createCell(row, 12).setCellValue(monitor.getDetected() != null && monitor.getDetected());
                 }
-                if (paramList.size() > 0) {
-                    RegionUtil.setBorderTop(BorderStyle.THICK, new CellRangeAddress(rowIndex - paramList.size(), rowIndex - 1, 0, 10), sheet);
-                    RegionUtil.setBorderBottom(BorderStyle.THICK, new CellRangeAddress(rowIndex - paramList.size(), rowIndex - 1, 0, 10), sheet);
-                    RegionUtil.setBorderLeft(BorderStyle.THICK, new CellRangeAddress(rowIndex - paramList.size(), rowIndex - 1, 0, 10), sheet);
-                    RegionUtil.setBorderRight(BorderStyle.THICK, new CellRangeAddress(rowIndex - paramList.size(), rowIndex - 1, 0, 10), sheet);
+                // 填写参数信息
+                if (i < paramList.size()) {
+                    ParamDTO paramDTO = paramList.get(i);
+                    createCell(row, 8).setCellValue(paramDTO.getField());
+                    createCell(row, 9).setCellValue(paramDTO.getType());
+                    createCell(row, 10).setCellValue(paramDTO.getValue());
                 }
             }
-            workbook.write(os);
-            os.close();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+            // the rows of the monitor are still in the access window unless it has too many params
+            if (paramList.size() > 0 && paramList.size() <= ROW_ACCESS_WINDOW) {
+                CellRangeAddress region = new CellRangeAddress(rowIndex - paramList.size(), rowIndex - 1, 0, LAST_BORDER_COLUMN);
+                RegionUtil.setBorderTop(BorderStyle.THICK, region, sheet);
+                RegionUtil.setBorderBottom(BorderStyle.THICK, region, sheet);
+                RegionUtil.setBorderLeft(BorderStyle.THICK, region, sheet);
+                RegionUtil.setBorderRight(BorderStyle.THICK, region, sheet);
+            }
         }
-    }
 
+        @Override
+        public void close() throws IOException {
+            try {
+                workbook.write(os);
+                os.flush();
+            } finally {
+                // delete the temp files of the flushed rows
+                workbook.dispose();
+                workbook.close();
+            }
+        }
 
+        private Cell createCell(Row row, int column) {
+            Cell cell = row.createCell(column);
+            cell.setCellStyle(cellStyle);
+            return cell;
+        }
+    }
 }
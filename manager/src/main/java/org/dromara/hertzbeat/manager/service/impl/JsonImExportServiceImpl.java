@@ -15,6 +15,7 @@
 
 package org.dromara.hertzbeat.manager.service.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -54,13 +55,21 @@ public class JsonImExportServiceImpl extends AbstractImExportServiceImpl {
     }
 
     @Override
-    void writeOs(List<ExportMonitorDTO> monitorList, OutputStream os) {
-        try {
-            objectMapper.writeValue(os, monitorList);
-        } catch (IOException ex) {
-            log.error("export monitor failed.", ex);
-            throw new RuntimeException("export monitor failed");
-        }
+    ExportWriter exportWriter(OutputStream os) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(os);
+        generator.writeStartArray();
+        return new ExportWriter() {
+            @Override
+            public void write(ExportMonitorDTO exportMonitor) throws IOException {
+                objectMapper.writeValue(generator, exportMonitor);
+            }
+
+            @Override
+            public void close() throws IOException {
+                generator.writeEndArray();
+                generator.close();
+            }
+        };
     }
 
     @Override
@@ -17,8 +17,6 @@
 
 package org.dromara.hertzbeat.manager.service.impl;
 
-import freemarker.cache.StringTemplateLoader;
-import freemarker.template.Configuration;
 import freemarker.template.TemplateException;
 import org.dromara.hertzbeat.alert.AlerterProperties;
 import org.dromara.hertzbeat.common.entity.alerter.Alert;
@@ -26,19 +24,18 @@ import org.dromara.hertzbeat.common.constants.CommonConstants;
 import org.dromara.hertzbeat.common.entity.manager.NoticeTemplate;
 import org.dromara.hertzbeat.common.support.event.SystemConfigChangeEvent;
 import org.dromara.hertzbeat.common.util.ResourceBundleUtil;
+import org.dromara.hertzbeat.manager.component.alerter.NoticeTemplateCache;
 import org.dromara.hertzbeat.manager.service.MailService;
 import lombok.extern.slf4j.Slf4j;
 import org.dromara.hertzbeat.manager.service.NoticeConfigService;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.ui.freemarker.FreeMarkerTemplateUtils;
 
 import javax.annotation.Resource;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
 
@@ -59,13 +56,14 @@ public class MailServiceImpl implements MailService {
     @Resource
     protected NoticeConfigService noticeConfigService;
 
+    @Resource
+    private NoticeTemplateCache noticeTemplateCache;
+
     private ResourceBundle bundle = ResourceBundleUtil.getBundle("alerter");
     private final SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
 
     @Override
     public String buildAlertHtmlTemplate(final Alert alert, NoticeTemplate noticeTemplate) throws IOException, TemplateException {
-        freemarker.template.Template templateMail = null;
-        Configuration cfg = new Configuration(Configuration.VERSION_2_3_0);
         String monitorId = null;
         String monitorName = null;
         String monitorHost = null;
@@ -106,12 +104,7 @@ public class MailServiceImpl implements MailService {
         if (noticeTemplate == null) {
             throw new NullPointerException("email does not have mapping default notice template");
         }
-        StringTemplateLoader stringLoader = new StringTemplateLoader();
-        String templateName = "mailTemplate";
-        stringLoader.putTemplate(templateName, noticeTemplate.getContent());
-        cfg.setTemplateLoader(stringLoader);
-        templateMail = cfg.getTemplate(templateName, Locale.CHINESE);
-        return FreeMarkerTemplateUtils.processTemplateIntoString(templateMail, model);
+        return noticeTemplateCache.render(noticeTemplate, model);
     }
 
     @EventListener(SystemConfigChangeEvent.class)
@@ -32,6 +32,7 @@ import org.dromara.hertzbeat.common.entity.manager.Param;
 import org.dromara.hertzbeat.common.entity.manager.ParamDefine;
 import org.dromara.hertzbeat.common.entity.manager.Tag;
 import org.dromara.hertzbeat.common.entity.message.CollectRep;
+import org.dromara.hertzbeat.common.support.event.MonitorChangeEvent;
 import org.dromara.hertzbeat.common.support.event.MonitorDeletedEvent;
 import org.dromara.hertzbeat.common.util.*;
 import org.dromara.hertzbeat.manager.dao.CollectorDao;
@@ -40,6 +41,7 @@ import org.dromara.hertzbeat.manager.dao.MonitorDao;
 import org.dromara.hertzbeat.manager.dao.ParamDao;
 import org.dromara.hertzbeat.manager.dao.TagMonitorBindDao;
 import org.dromara.hertzbeat.manager.pojo.dto.AppCount;
+import org.dromara.hertzbeat.manager.pojo.dto.ImportResult;
 import org.dromara.hertzbeat.manager.pojo.dto.MonitorDto;
 import org.dromara.hertzbeat.manager.scheduler.CollectJobScheduling;
 import org.dromara.hertzbeat.manager.service.AppService;
@@ -50,6 +52,7 @@ import org.dromara.hertzbeat.manager.support.exception.MonitorDatabaseException;
 import org.dromara.hertzbeat.manager.support.exception.MonitorDetectException;
 import org.dromara.hertzbeat.manager.support.exception.MonitorMetricsException;
 import org.dromara.hertzbeat.warehouse.service.WarehouseService;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.data.domain.Page;
@@ -57,12 +60,16 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import javax.servlet.http.HttpServletResponse;
+import java.io.InputStream;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
@@ -119,6 +126,9 @@ public class MonitorServiceImpl implements MonitorService {
     @Autowired
     private WarehouseService warehouseService;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private final Map<String, ImExportService> imExportServiceMap = new HashMap<>();
 
     public MonitorServiceImpl(List<ImExportService> imExportServiceList) {
@@ -212,6 +222,73 @@ public class MonitorServiceImpl implements MonitorService {
         }
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void addMonitors(List<MonitorDto> monitorDtos) throws RuntimeException {
+        if (CollectionUtils.isEmpty(monitorDtos)) {
+            return;
+        }
+        List<Job> jobs = new ArrayList<>(monitorDtos.size());
+        List<Tag> defaultTags = new ArrayList<>(monitorDtos.size() * 2);
+        List<Param> params = new LinkedList<>();
+        List<CollectorMonitorBind> binds = new LinkedList<>();
+        Map<Long, String> monitorCollectorMap = new HashMap<>(8);
+        for (MonitorDto monitorDto : monitorDtos) {
+            Monitor monitor = monitorDto.getMonitor();
+            long monitorId = SnowFlakeIdGenerator.generateId();
+            // the tags imported may be immutable
+            List<Tag> tags = monitor.getTags() == null ? new LinkedList<>() : new LinkedList<>(monitor.getTags());
+            Tag monitorIdTag = Tag.builder().name(CommonConstants.TAG_MONITOR_ID).value(String.valueOf(monitorId)).type((byte) 0).build();
+            Tag monitorNameTag = Tag.builder().name(CommonConstants.TAG_MONITOR_NAME).value(String.valueOf(monitor.getName())).type((byte) 0).build();
+            tags.add(monitorIdTag);
+            tags.add(monitorNameTag);
+            defaultTags.add(monitorIdTag);
+            defaultTags.add(monitorNameTag);
+            monitor.setTags(tags);
+            monitor.setId(monitorId);
+            Job appDefine = appService.getAppDefine(monitor.getApp());
+            if (CommonConstants.PROMETHEUS.equals(monitor.getApp())) {
+                appDefine.setApp(CommonConstants.PROMETHEUS_APP_PREFIX + monitor.getName());
+            }
+            appDefine.setMonitorId(monitorId);
+            appDefine.setInterval(monitor.getIntervals());
+            appDefine.setCyclic(true);
+            appDefine.setTimestamp(System.currentTimeMillis());
+            List<Configmap> configmaps = monitorDto.getParams().stream().map(param -> {
+                param.setMonitorId(monitorId);
+                params.add(param);
+                return new Configmap(param.getField(), param.getValue(), param.getType());
+            }).collect(Collectors.toList());
+            appDefine.setConfigmap(configmaps);
+            jobs.add(appDefine);
+            if (monitorDto.getCollector() != null) {
+                monitorCollectorMap.put(monitorId, monitorDto.getCollector());
+                binds.add(CollectorMonitorBind.builder().collector(monitorDto.getCollector()).monitorId(monitorId).build());
+            }
+        }
+        // issue the jobs in one batch, then save the monitors in one transaction
+        List<Long> jobIds = collectJobScheduling.addAsyncCollectJobs(jobs, monitorCollectorMap);
+        try {
+            tagService.addTags(defaultTags);
+            Session session = entityManager.unwrap(Session.class);
+            for (int index = 0; index < monitorDtos.size(); index++) {
+                Monitor monitor = monitorDtos.get(index).getMonitor();
+                monitor.setJobId(jobIds.get(index));
+                monitor.setStatus(CommonConstants.AVAILABLE_CODE);
+                // the monitor id is assigned, the session save inserts it without the select of merge,
+                // persist rejects the entity with an id as detached
+                session.save(monitor);
+            }
+            paramDao.saveAll(params);
+            collectorMonitorBindDao.saveAll(binds);
+            session.flush();
+        } catch (Exception e) {
+            log.error("Error while adding monitors: {}", e.getMessage(), e);
+            jobIds.forEach(collectJobScheduling::cancelAsyncCollectJob);
+            throw new MonitorDatabaseException(e.getMessage());
+        }
+    }
+
     @Override
     public void addNewMonitorOptionalMetrics(List<String> metrics, Monitor monitor, List<Param> params) {
         long monitorId = SnowFlakeIdGenerator.generateId();
@@ -283,10 +360,18 @@ public class MonitorServiceImpl implements MonitorService {
     }
 
     @Override
-    public void importConfig(MultipartFile file) throws Exception {
-        var fileName = file.getOriginalFilename();
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImportResult importConfig(MultipartFile file) throws Exception {
+        try (InputStream is = file.getInputStream()) {
+            return importConfig(file.getOriginalFilename(), is, ImExportService.ImportListener.NONE);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImportResult importConfig(String fileName, InputStream is, ImExportService.ImportListener listener) {
         if (!StringUtils.hasText(fileName)) {
-            return;
+            return new ImportResult(0);
         }
         var type = "";
         if (fileName.toLowerCase().endsWith(JsonImExportServiceImpl.FILE_SUFFIX)) {
@@ -301,8 +386,9 @@ public class MonitorServiceImpl implements MonitorService {
         if (!imExportServiceMap.containsKey(type)) {
             throw new RuntimeException("file " + fileName + " is not supported.");
         }
+        // every batch of the import is saved in its own transaction, a failed batch does not roll back the others
         var imExportService = imExportServiceMap.get(type);
-        imExportService.importConfig(file.getInputStream());
+        return imExportService.importConfig(is, listener);
     }
 
 
@@ -556,6 +642,7 @@ public class MonitorServiceImpl implements MonitorService {
             if (params != null) {
                 paramDao.saveAll(params);
             }
+            applicationContext.publishEvent(new MonitorChangeEvent(applicationContext, monitorId));
         } catch (Exception e) {
             log.error(e.getMessage(), e);
             // Repository brushing abnormally cancels the previously delivered task
@@ -632,6 +719,39 @@ public class MonitorServiceImpl implements MonitorService {
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<MonitorDto> getMonitorDtos(Collection<Long> ids) {
+        if (CollectionUtils.isEmpty(ids)) {
+            return Collections.emptyList();
+        }
+        List<Monitor> monitors = monitorDao.findMonitorsWithTagsByIdIn(ids);
+        Map<Long, List<Param>> paramMap = paramDao.findParamsByMonitorIdIn(ids).stream()
+                .collect(Collectors.groupingBy(Param::getMonitorId));
+        Map<Long, String> collectorMap = collectorMonitorBindDao.findCollectorMonitorBindsByMonitorIdIn(new HashSet<>(ids)).stream()
+                .collect(Collectors.toMap(CollectorMonitorBind::getMonitorId, CollectorMonitorBind::getCollector, (first, second) -> first));
+        // the visible metrics are the same for the monitors of an app
+        Map<String, List<String>> appMetricsMap = new HashMap<>(8);
+        List<MonitorDto> monitorDtos = new ArrayList<>(monitors.size());
+        for (Monitor monitor : monitors) {
+            MonitorDto monitorDto = new MonitorDto();
+            monitorDto.setMonitor(monitor);
+            monitorDto.setParams(paramMap.getOrDefault(monitor.getId(), Collections.emptyList()));
+            if (DispatchConstants.PROTOCOL_PROMETHEUS.equalsIgnoreCase(monitor.getApp())) {
+                List<CollectRep.MetricsData> metricsDataList = warehouseService.queryMonitorMetricsData(monitor.getId());
+                monitorDto.setMetrics(metricsDataList.stream().map(CollectRep.MetricsData::getMetrics).collect(Collectors.toList()));
+            } else {
+                monitorDto.setMetrics(appMetricsMap.computeIfAbsent(monitor.getApp(), app -> appService.getAppDefine(app)
+                        .getMetrics().stream()
+                        .filter(Metrics::isVisible)
+                        .map(Metrics::getName).collect(Collectors.toList())));
+            }
+            monitorDto.setCollector(collectorMap.get(monitor.getId()));
+            monitorDtos.add(monitorDto);
+        }
+        return monitorDtos;
+    }
+
     @Override
     public Page<Monitor> getMonitors(Specification<Monitor> specification, PageRequest pageRequest) {
         return monitorDao.findAll(specification, pageRequest);
@@ -651,6 +771,7 @@ public class MonitorServiceImpl implements MonitorService {
         if (!managedMonitors.isEmpty()) {
             for (Monitor monitor : managedMonitors) {
                 collectJobScheduling.cancelAsyncCollectJob(monitor.getJobId());
+                applicationContext.publishEvent(new MonitorChangeEvent(applicationContext, monitor.getId()));
             }
             monitorDao.saveAll(managedMonitors);
         }
@@ -820,6 +941,7 @@ public class MonitorServiceImpl implements MonitorService {
     @Override
     public void updateMonitorStatus(Long monitorId, byte status) {
         monitorDao.updateMonitorStatus(monitorId, status);
+        applicationContext.publishEvent(new MonitorChangeEvent(applicationContext, monitorId, status));
     }
 
     @Override
@@ -20,12 +20,15 @@ package org.dromara.hertzbeat.manager.service.impl;
 import lombok.extern.slf4j.Slf4j;
 import org.dromara.hertzbeat.common.cache.CacheFactory;
 import org.dromara.hertzbeat.common.cache.ICacheService;
+import org.dromara.hertzbeat.common.cache.TagRuleIndex;
 import org.dromara.hertzbeat.common.constants.CommonConstants;
 import org.dromara.hertzbeat.common.entity.alerter.Alert;
 import org.dromara.hertzbeat.common.entity.manager.NoticeReceiver;
 import org.dromara.hertzbeat.common.entity.manager.NoticeRule;
 import org.dromara.hertzbeat.common.entity.manager.NoticeTemplate;
 import org.dromara.hertzbeat.manager.component.alerter.DispatcherAlarm;
+import org.dromara.hertzbeat.manager.component.alerter.NoticeTemplateCache;
+import org.dromara.hertzbeat.manager.component.alerter.NotifyDeliveryEngine;
 import org.dromara.hertzbeat.manager.dao.NoticeReceiverDao;
 import org.dromara.hertzbeat.manager.dao.NoticeRuleDao;
 import org.dromara.hertzbeat.manager.dao.NoticeTemplateDao;
@@ -79,6 +82,13 @@ public class NoticeConfigServiceImpl implements NoticeConfigService, CommandLine
     @Lazy
     private DispatcherAlarm dispatcherAlarm;
 
+    @Autowired
+    @Lazy
+    private NotifyDeliveryEngine notifyDeliveryEngine;
+
+    @Autowired
+    private NoticeTemplateCache noticeTemplateCache;
+
 
     @Override
     public List<NoticeReceiver> getNoticeReceivers(Specification<NoticeReceiver> specification) {
@@ -105,11 +115,13 @@ public class NoticeConfigServiceImpl implements NoticeConfigService, CommandLine
     @Override
     public void editReceiver(NoticeReceiver noticeReceiver) {
         noticeReceiverDao.save(noticeReceiver);
+        notifyDeliveryEngine.resetReceiver(noticeReceiver.getId());
     }
 
     @Override
     public void deleteReceiver(Long receiverId) {
         noticeReceiverDao.deleteById(receiverId);
+        notifyDeliveryEngine.resetReceiver(receiverId);
     }
 
     @Override
@@ -135,39 +147,17 @@ public class NoticeConfigServiceImpl implements NoticeConfigService, CommandLine
     public List<NoticeRule> getReceiverFilterRule(Alert alert) {
         // use cache
         ICacheService<String, Object> noticeCache = CacheFactory.getNoticeCache();
-        List<NoticeRule> rules = (List<NoticeRule>) noticeCache.get(CommonConstants.CACHE_NOTICE_RULE);
-        if (rules == null) {
-            rules = noticeRuleDao.findNoticeRulesByEnableTrue();
-            noticeCache.put(CommonConstants.CACHE_NOTICE_RULE, rules);
+        TagRuleIndex<NoticeRule> ruleIndex = (TagRuleIndex<NoticeRule>) noticeCache.get(CommonConstants.CACHE_NOTICE_RULE);
+        if (ruleIndex == null) {
+            ruleIndex = TagRuleIndex.build(noticeRuleDao.findNoticeRulesByEnableTrue(), NoticeRule::isFilterAll,
+                    NoticeRule::getTags, NoticeRule::getPriorities, true, false);
+            noticeCache.put(CommonConstants.CACHE_NOTICE_RULE, ruleIndex);
         }
 
         // The temporary rule is to forward all, and then implement more matching rules: alarm status selection, monitoring type selection, etc.
-        // 规则是全部转发, 告警状态选择, 监控类型选择等(按照tags标签和告警级别过滤匹配)
-        return rules.stream()
+        // 规则是全部转发, 告警状态选择, 监控类型选择等(按照tags标签和告警级别过滤匹配, 通过倒排索引匹配)
+        return ruleIndex.match(alert.getTags(), alert.getPriority()).stream()
                 .filter(rule -> {
-                    if (!rule.isFilterAll()) {
-                        // filter priorities
-                        if (rule.getPriorities() != null && !rule.getPriorities().isEmpty()) {
-                            boolean priorityMatch = rule.getPriorities().stream().anyMatch(item -> item != null && item == alert.getPriority());
-                            if (!priorityMatch) {
-                                return false;
-                            }
-                        }
-                        // filter tags
-                        if (rule.getTags() != null && !rule.getTags().isEmpty()) {
-                            boolean tagMatch = rule.getTags().stream().anyMatch(tagItem -> {
-                                if (!alert.getTags().containsKey(tagItem.getName())) {
-                                    return false;
-                                }
-                                String alertTagValue = alert.getTags().get(tagItem.getName());
-                                return Objects.equals(tagItem.getValue(), alertTagValue);
-                            });
-                            if (!tagMatch) {
-                                return false;
-                            }
-                        }
-                    }
-                    
                     LocalDateTime nowDate = LocalDateTime.now();
                     // filter day
                     int currentDayOfWeek = nowDate.toLocalDate().getDayOfWeek().getValue();
@@ -220,12 +210,14 @@ public class NoticeConfigServiceImpl implements NoticeConfigService, CommandLine
     @Override
     public void editNoticeTemplate(NoticeTemplate noticeTemplate) {
         noticeTemplateDao.save(noticeTemplate);
+        noticeTemplateCache.invalidate(noticeTemplate.getId());
         clearNoticeRulesCache();
     }
 
     @Override
     public void deleteNoticeTemplate(Long templateId) {
         noticeTemplateDao.deleteById(templateId);
+        noticeTemplateCache.invalidate(templateId);
         clearNoticeRulesCache();
     }
 
@@ -1,13 +1,16 @@
 package org.dromara.hertzbeat.manager.service.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.dromara.hertzbeat.common.constants.CommonConstants;
 import org.dromara.hertzbeat.common.entity.manager.StatusPageComponent;
 import org.dromara.hertzbeat.common.entity.manager.StatusPageHistory;
+import org.dromara.hertzbeat.common.entity.manager.StatusPageHistoryDaily;
 import org.dromara.hertzbeat.common.entity.manager.StatusPageIncident;
 import org.dromara.hertzbeat.common.entity.manager.StatusPageOrg;
 import org.dromara.hertzbeat.manager.component.status.CalculateStatus;
 import org.dromara.hertzbeat.manager.dao.StatusPageComponentDao;
-import org.dromara.hertzbeat.manager.dao.StatusPageHistoryDao;
+import org.dromara.hertzbeat.manager.dao.StatusPageHistoryDailyDao;
 import org.dromara.hertzbeat.manager.dao.StatusPageIncidentDao;
 import org.dromara.hertzbeat.manager.dao.StatusPageOrgDao;
 import org.dromara.hertzbeat.manager.pojo.dto.ComponentStatus;
@@ -16,12 +19,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.time.ZoneId;
-import java.time.ZoneOffset;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * status page service implement.
@@ -31,6 +38,20 @@ import java.util.List;
 public class StatusPageServiceImpl implements StatusPageService {
     
     private static final int HISTORY_SPAN_DAYS = 29;
+
+    private static final long MILLIS_PER_SECOND = 1000L;
+
+    private static final long PUBLIC_CACHE_TTL_SECONDS = 10;
+
+    private static final long PUBLIC_CACHE_MAX_SIZE = 1024;
+
+    private static final String ORG_CACHE_KEY = "org";
+
+    private static final String COMPONENTS_CACHE_KEY = "components";
+
+    private static final String COMPONENT_CACHE_KEY_PREFIX = "component-";
+
+    private static final String INCIDENTS_CACHE_KEY = "incidents";
     
     @Autowired
     private StatusPageOrgDao statusPageOrgDao;
@@ -39,22 +60,37 @@ public class StatusPageServiceImpl implements StatusPageService {
     private StatusPageComponentDao statusPageComponentDao;
 
     @Autowired
-    private StatusPageHistoryDao statusPageHistoryDao;
+    private StatusPageHistoryDailyDao statusPageHistoryDailyDao;
     
     @Autowired
     private StatusPageIncidentDao statusPageIncidentDao;
     
     @Autowired
     private CalculateStatus calculateStatus;
+
+    /**
+     * key - query  value - the status page query result
+     */
+    private final Cache<String, Object> publicCache = Caffeine.newBuilder()
+            .expireAfterWrite(PUBLIC_CACHE_TTL_SECONDS, TimeUnit.SECONDS)
+            .maximumSize(PUBLIC_CACHE_MAX_SIZE)
+            .build();
+
+    /**
+     * the state version of the cached results
+     */
+    private volatile long cachedStateVersion;
     
     @Override
     public StatusPageOrg queryStatusPageOrg() {
-        return statusPageOrgDao.findAll().stream().findFirst().orElse(null);
+        return cached(ORG_CACHE_KEY, () -> statusPageOrgDao.findAll().stream().findFirst().orElse(null));
     }
 
     @Override
     public StatusPageOrg saveStatusPageOrg(StatusPageOrg statusPageOrg) {
-        return statusPageOrgDao.save(statusPageOrg);
+        StatusPageOrg org = statusPageOrgDao.save(statusPageOrg);
+        publicCache.invalidateAll();
+        return org;
     }
 
     @Override
@@ -68,6 +104,8 @@ public class StatusPageServiceImpl implements StatusPageService {
             statusPageComponent.setState(statusPageComponent.getConfigState());
         }
         statusPageComponentDao.save(statusPageComponent);
+        calculateStatus.refresh();
+        publicCache.invalidateAll();
     }
 
     @Override
@@ -76,11 +114,15 @@ public class StatusPageServiceImpl implements StatusPageService {
             statusPageComponent.setState(statusPageComponent.getConfigState());
         }
         statusPageComponentDao.save(statusPageComponent);
+        calculateStatus.refresh();
+        publicCache.invalidateAll();
     }
 
     @Override
     public void deleteStatusPageComponent(long id) {
         statusPageComponentDao.deleteById(id);
+        calculateStatus.refresh();
+        publicCache.invalidateAll();
     }
 
     @Override
@@ -90,98 +132,54 @@ public class StatusPageServiceImpl implements StatusPageService {
 
     @Override
     public List<ComponentStatus> queryComponentsStatus() {
-        List<StatusPageComponent> components = statusPageComponentDao.findAll();
-        List<ComponentStatus> componentStatusList = new LinkedList<>();
-        for (StatusPageComponent component : components) {
-            ComponentStatus componentStatus = new ComponentStatus();
-            componentStatus.setInfo(component);
-            List<StatusPageHistory> histories = new LinkedList<>();
-            // query today status
-            LocalDateTime nowTime = LocalDateTime.now();
-            LocalDateTime todayStartTime = nowTime.withHour(0).withMinute(0).withSecond(0).withNano(0);
-            ZoneOffset zoneOffset = ZoneId.systemDefault().getRules().getOffset(Instant.now());
-            long nowTimestamp = nowTime.toInstant(zoneOffset).toEpochMilli();
-            long todayStartTimestamp = todayStartTime.toInstant(zoneOffset).toEpochMilli();
-            List<StatusPageHistory> todayStatusPageHistoryList = statusPageHistoryDao
-                    .findStatusPageHistoriesByComponentIdAndTimestampBetween(component.getId(), todayStartTimestamp, nowTimestamp);
-            StatusPageHistory todayStatus = StatusPageHistory.builder().timestamp(nowTimestamp)
-                    .normal(0).abnormal(0).unknown(0)
-                    .componentId(component.getId()).state(component.getState()).build();
-            for (StatusPageHistory statusPageHistory : todayStatusPageHistoryList) {
-                if (statusPageHistory.getState() == CommonConstants.STATUS_PAGE_COMPONENT_STATE_ABNORMAL) {
-                    todayStatus.setAbnormal(todayStatus.getAbnormal() + calculateStatus.getCalculateStatusIntervals());
-                } else if (statusPageHistory.getState() == CommonConstants.STATUS_PAGE_COMPONENT_STATE_UNKNOWN) {
-                    todayStatus.setUnknown(todayStatus.getUnknown() + calculateStatus.getCalculateStatusIntervals());
-                } else {
-                    todayStatus.setNormal(todayStatus.getNormal() + calculateStatus.getCalculateStatusIntervals());
-                }
+        return cached(COMPONENTS_CACHE_KEY, () -> {
+            List<StatusPageComponent> components = statusPageComponentDao.findAll();
+            LocalDate today = LocalDate.now();
+            // query the daily history of all the components at once
+            Map<Long, List<StatusPageHistoryDaily>> dailyMap = statusPageHistoryDailyDao
+                    .findStatusPageHistoryDailiesByTimestampBetween(dayStart(today.minusDays(HISTORY_SPAN_DAYS)), dayStart(today))
+                    .stream().collect(Collectors.groupingBy(StatusPageHistoryDaily::getComponentId));
+            List<ComponentStatus> componentStatusList = new LinkedList<>();
+            for (StatusPageComponent component : components) {
+                componentStatusList.add(componentStatus(component, today,
+                        dailyMap.getOrDefault(component.getId(), Collections.emptyList())));
             }
-            double uptime = (double) todayStatus.getNormal() / (double) (todayStatus.getNormal() + todayStatus.getAbnormal() + todayStatus.getUnknown());
-            todayStatus.setUptime(uptime);
-            if (todayStatus.getAbnormal() > 0) {
-                todayStatus.setState(CommonConstants.STATUS_PAGE_COMPONENT_STATE_ABNORMAL);
-            } else if (todayStatus.getNormal() > 0) {
-                todayStatus.setState(CommonConstants.STATUS_PAGE_COMPONENT_STATE_NORMAL);
-            } else {
-                todayStatus.setState(CommonConstants.STATUS_PAGE_COMPONENT_STATE_UNKNOWN);
-            }
-            histories.add(todayStatus);
-
-            // query 30d component status history
-            LocalDateTime preTime = todayStartTime.minusDays(HISTORY_SPAN_DAYS);
-            long preTimestamp = preTime.toInstant(zoneOffset).toEpochMilli();
-            List<StatusPageHistory> history = statusPageHistoryDao
-                    .findStatusPageHistoriesByComponentIdAndTimestampBetween(component.getId(), preTimestamp, todayStartTimestamp);
-            LinkedList<StatusPageHistory> historyList = new LinkedList<>(history);
-            historyList.sort((o1, o2) -> (int) (o1.getTimestamp() - o2.getTimestamp()));
-            LocalDateTime endTime = todayStartTime.minusSeconds(1);
-            LocalDateTime startTime = endTime.withHour(0).withMinute(0).withSecond(0).withNano(0);
-            for (int index = 0; index < HISTORY_SPAN_DAYS; index++) {
-                long startTimestamp = startTime.toInstant(zoneOffset).toEpochMilli();
-                long endTimestamp = endTime.toInstant(zoneOffset).toEpochMilli();
-                if (!historyList.isEmpty() && historyList.peekFirst().getTimestamp() >= startTimestamp
-                        && historyList.peekFirst().getTimestamp() <= endTimestamp) {
-                    StatusPageHistory statusPageHistory = historyList.pop();
-                    histories.add(statusPageHistory);
-                } else {
-                    StatusPageHistory statusPageHistory = StatusPageHistory.builder().timestamp(endTimestamp)
-                            .componentId(component.getId()).state(CommonConstants.STATUS_PAGE_COMPONENT_STATE_UNKNOWN).build();
-                    histories.add(statusPageHistory);
-                }
-                startTime = startTime.minusDays(1);
-                endTime = endTime.minusDays(1);
-            }
-            componentStatus.setHistory(histories);
-            componentStatusList.add(componentStatus);
-        }
-        return componentStatusList;
+            return componentStatusList;
+        });
     }
 
     @Override
     public ComponentStatus queryComponentStatus(long id) {
-        StatusPageComponent component = statusPageComponentDao.findById(id).orElseThrow(() -> new IllegalArgumentException("component not found"));
+        return cached(COMPONENT_CACHE_KEY_PREFIX + id, () -> {
+            StatusPageComponent component = statusPageComponentDao.findById(id).orElseThrow(() -> new IllegalArgumentException("component not found"));
+            LocalDate today = LocalDate.now();
+            List<StatusPageHistoryDaily> dailies = statusPageHistoryDailyDao
+                    .findStatusPageHistoryDailiesByComponentIdAndTimestampBetween(id,
+                            dayStart(today.minusDays(HISTORY_SPAN_DAYS)), dayStart(today));
+            return componentStatus(component, today, dailies);
+        });
+    }
+
+    /**
+     * today status and 30d status history of the component from its daily history
+     */
+    private ComponentStatus componentStatus(StatusPageComponent component, LocalDate today, List<StatusPageHistoryDaily> dailies) {
+        Map<Long, StatusPageHistoryDaily> dailyMap = dailies.stream()
+                .collect(Collectors.toMap(StatusPageHistoryDaily::getTimestamp, Function.identity(), (pre, next) -> next));
         ComponentStatus componentStatus = new ComponentStatus();
         componentStatus.setInfo(component);
         List<StatusPageHistory> histories = new LinkedList<>();
-        // query today status
-        LocalDateTime nowTime = LocalDateTime.now();
-        LocalDateTime todayStartTime = nowTime.withHour(0).withMinute(0).withSecond(0).withNano(0);
-        ZoneOffset zoneOffset = ZoneId.systemDefault().getRules().getOffset(Instant.now());
-        long nowTimestamp = nowTime.toInstant(zoneOffset).toEpochMilli();
-        long todayStartTimestamp = todayStartTime.toInstant(zoneOffset).toEpochMilli();
-        List<StatusPageHistory> todayStatusPageHistoryList = statusPageHistoryDao
-                .findStatusPageHistoriesByComponentIdAndTimestampBetween(component.getId(), todayStartTimestamp, nowTimestamp);
-        StatusPageHistory todayStatus = StatusPageHistory.builder().timestamp(nowTimestamp)
-                .normal(0).abnormal(0).unknown(0)
+        // today status
+        StatusPageHistoryDaily todayDaily = dailyMap.get(dayStart(today));
+        StatusPageHistory todayStatus = StatusPageHistory.builder().timestamp(System.currentTimeMillis())
+                .normal(todayDaily == null ? 0 : todayDaily.getNormal())
+                .abnormal(todayDaily == null ? 0 : todayDaily.getAbnormal())
+                .unknown(todayDaily == null ? 0 : todayDaily.getUnknown())
                 .componentId(component.getId()).state(component.getState()).build();
-        for (StatusPageHistory statusPageHistory : todayStatusPageHistoryList) {
-            if (statusPageHistory.getState() == CommonConstants.STATUS_PAGE_COMPONENT_STATE_ABNORMAL) {
-                todayStatus.setAbnormal(todayStatus.getAbnormal() + calculateStatus.getCalculateStatusIntervals());
-            } else if (statusPageHistory.getState() == CommonConstants.STATUS_PAGE_COMPONENT_STATE_UNKNOWN) {
-                todayStatus.setUnknown(todayStatus.getUnknown() + calculateStatus.getCalculateStatusIntervals());
-            } else {
-                todayStatus.setNormal(todayStatus.getNormal() + calculateStatus.getCalculateStatusIntervals());
-            }
+        // the current state segment is not written to the history yet
+        StatusPageHistory openSegment = calculateStatus.getOpenSegment(component.getId());
+        if (openSegment != null) {
+            calculateStatus.accumulate(todayStatus, openSegment);
         }
         double uptime = (double) todayStatus.getNormal() / (double) (todayStatus.getNormal() + todayStatus.getAbnormal() + todayStatus.getUnknown());
         todayStatus.setUptime(uptime);
@@ -194,38 +192,35 @@ public class StatusPageServiceImpl implements StatusPageService {
         }
         histories.add(todayStatus);
 
-        // query 30d component status history
-        LocalDateTime preTime = todayStartTime.minusDays(HISTORY_SPAN_DAYS);
-        long preTimestamp = preTime.toInstant(zoneOffset).toEpochMilli();
-        List<StatusPageHistory> history = statusPageHistoryDao
-                .findStatusPageHistoriesByComponentIdAndTimestampBetween(component.getId(), preTimestamp, todayStartTimestamp);
-        LinkedList<StatusPageHistory> historyList = new LinkedList<>(history);
-        historyList.sort((o1, o2) -> (int) (o1.getTimestamp() - o2.getTimestamp()));
-        LocalDateTime endTime = todayStartTime.minusSeconds(1);
-        LocalDateTime startTime = endTime.withHour(0).withMinute(0).withSecond(0).withNano(0);
-        for (int index = 0; index < HISTORY_SPAN_DAYS; index++) {
-            long startTimestamp = startTime.toInstant(zoneOffset).toEpochMilli();
-            long endTimestamp = endTime.toInstant(zoneOffset).toEpochMilli();
-            if (!historyList.isEmpty() && historyList.peekFirst().getTimestamp() >= startTimestamp
-                    && historyList.peekFirst().getTimestamp() <= endTimestamp) {
-                StatusPageHistory statusPageHistory = historyList.pop();
-                histories.add(statusPageHistory);
+        // 30d component status history
+        for (int index = 1; index <= HISTORY_SPAN_DAYS; index++) {
+            LocalDate day = today.minusDays(index);
+            StatusPageHistoryDaily daily = dailyMap.get(dayStart(day));
+            if (daily != null) {
+                histories.add(StatusPageHistory.builder().id(daily.getId()).componentId(component.getId())
+                        .timestamp(daily.getTimestamp()).state(daily.getState()).uptime(daily.getUptime())
+                        .normal(daily.getNormal()).abnormal(daily.getAbnormal()).unknown(daily.getUnknown())
+                        .build());
             } else {
-                StatusPageHistory statusPageHistory = StatusPageHistory.builder().timestamp(endTimestamp)
-                        .componentId(component.getId()).state(CommonConstants.STATUS_PAGE_COMPONENT_STATE_UNKNOWN).build();
-                histories.add(statusPageHistory);
+                long endTimestamp = dayStart(day.plusDays(1)) - MILLIS_PER_SECOND;
+                histories.add(StatusPageHistory.builder().timestamp(endTimestamp)
+                        .componentId(component.getId()).state(CommonConstants.STATUS_PAGE_COMPONENT_STATE_UNKNOWN).build());
             }
-            startTime = startTime.minusDays(1);
-            endTime = endTime.minusDays(1);
         }
         componentStatus.setHistory(histories);
         return componentStatus;
     }
 
+    private static long dayStart(LocalDate day) {
+        return day.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
     @Override
     public List<StatusPageIncident> queryStatusPageIncidents() {
-        Sort sort = Sort.by(Sort.Direction.DESC, "startTime");
-        return statusPageIncidentDao.findAll(sort);
+        return cached(INCIDENTS_CACHE_KEY, () -> {
+            Sort sort = Sort.by(Sort.Direction.DESC, "startTime");
+            return statusPageIncidentDao.findAll(sort);
+        });
     }
 
     @Override
@@ -240,6 +235,7 @@ public class StatusPageServiceImpl implements StatusPageService {
             statusPageIncident.setEndTime(System.currentTimeMillis());
         }
         statusPageIncidentDao.save(statusPageIncident);
+        publicCache.invalidateAll();
     }
 
     @Override
@@ -248,10 +244,26 @@ public class StatusPageServiceImpl implements StatusPageService {
             statusPageIncident.setEndTime(System.currentTimeMillis());
         }
         statusPageIncidentDao.save(statusPageIncident);
+        publicCache.invalidateAll();
     }
 
     @Override
     public void deleteStatusPageIncident(long id) {
         statusPageIncidentDao.deleteById(id);
+        publicCache.invalidateAll();
+    }
+
+    /**
+     * the public status page is read by the anonymous visitors, the rendered results are cached for seconds and
+     * invalidated when the status page is edited or the component states change
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T cached(String key, Supplier<T> loader) {
+        long stateVersion = calculateStatus.getStateVersion();
+        if (stateVersion != cachedStateVersion) {
+            publicCache.invalidateAll();
+            cachedStateVersion = stateVersion;
+        }
+        return (T) publicCache.get(key, cacheKey -> loader.get());
     }
 }
@@ -5,9 +5,12 @@ import org.springframework.stereotype.Service;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.Yaml;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 /**
@@ -60,19 +63,36 @@ public class YamlImExportServiceImpl extends AbstractImExportServiceImpl{
     }
 
     /**
-     * Export Configuration to Output Stream
-     * 导出配置到输出流
+     * Open the streaming writer of the export file, every monitor is dumped as an item of the yaml list
+     * 打开导出文件流式写入器, 每个监控作为yaml列表的一项输出
      *
-     * @param monitorList 配置列表
-     * @param os          输出流
+     * @param os 输出流
+     * @return export writer
      */
     @Override
-    void writeOs(List<ExportMonitorDTO> monitorList, OutputStream os) {
+    ExportWriter exportWriter(OutputStream os) {
         DumperOptions options = new DumperOptions();
         options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
         options.setIndent(2);
         options.setPrettyFlow(true);
         Yaml yaml = new Yaml(options);
-        yaml.dump(monitorList, new OutputStreamWriter(os, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+        return new ExportWriter() {
+            private boolean empty = true;
+
+            @Override
+            public void write(ExportMonitorDTO exportMonitor) {
+                yaml.dump(List.of(exportMonitor), writer);
+                empty = false;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (empty) {
+                    yaml.dump(List.of(), writer);
+                }
+                writer.flush();
+            }
+        };
     }
 }
@@ -0,0 +1,98 @@
+package org.dromara.hertzbeat.manager.component.alerter;
+
+import org.dromara.hertzbeat.alert.AlerterProperties;
+import org.dromara.hertzbeat.alert.service.AlertService;
+import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.dromara.hertzbeat.common.entity.alerter.Alert;
+import org.dromara.hertzbeat.manager.service.MonitorService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test case for {@link AlertStoreBuffer}
+ */
+@ExtendWith(MockitoExtension.class)
+class AlertStoreBufferTest {
+
+    @Mock
+    private AlertService alertService;
+
+    @Mock
+    private MonitorService monitorService;
+
+    private AlertStoreBuffer alertStoreBuffer;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (alertStoreBuffer != null) {
+            alertStoreBuffer.destroy();
+        }
+    }
+
+    private AlertStoreBuffer create(boolean durable) {
+        AlerterProperties properties = new AlerterProperties();
+        properties.getStore().setBatchSize(3);
+        properties.getStore().setFlushInterval(20);
+        properties.getStore().setDurable(durable);
+        return new AlertStoreBuffer(alertService, monitorService, properties);
+    }
+
+    @Test
+    void flushInBatches() {
+        alertStoreBuffer = create(false);
+        List<AlertStoreBuffer.PendingAlert> batch = new ArrayList<>();
+        for (int index = 0; index < 3; index++) {
+            batch.add(new AlertStoreBuffer.PendingAlert(Alert.builder().content("a" + index).build(), null));
+        }
+        alertStoreBuffer.flush(batch);
+        verify(alertService, times(1)).addAlerts(argThat(alerts -> alerts.size() == 3));
+        verify(alertService, never()).addAlert(any());
+        assertEquals(3, alertStoreBuffer.getStoredCount());
+    }
+
+    @Test
+    void fallbackToSingleStore() {
+        alertStoreBuffer = create(false);
+        doThrow(new RuntimeException("batch error")).when(alertService).addAlerts(anyList());
+        List<AlertStoreBuffer.PendingAlert> batch = List.of(
+                new AlertStoreBuffer.PendingAlert(Alert.builder().content("a").build(), null),
+                new AlertStoreBuffer.PendingAlert(Alert.builder().content("b").build(), null));
+        alertStoreBuffer.flush(batch);
+        verify(alertService, times(2)).addAlert(any());
+        assertEquals(2, alertStoreBuffer.getStoredCount());
+    }
+
+    @Test
+    void coalesceMonitorStatus() {
+        alertStoreBuffer = create(false);
+        alertStoreBuffer.updateMonitorStatus(1L, CommonConstants.UN_AVAILABLE_CODE);
+        alertStoreBuffer.updateMonitorStatus(1L, CommonConstants.AVAILABLE_CODE);
+        alertStoreBuffer.updateMonitorStatus(2L, CommonConstants.UN_AVAILABLE_CODE);
+        assertEquals(CommonConstants.AVAILABLE_CODE, alertStoreBuffer.getPendingStatus(1L));
+        alertStoreBuffer.flush(new ArrayList<>());
+        verify(monitorService, times(1)).updateMonitorStatus(1L, CommonConstants.AVAILABLE_CODE);
+        verify(monitorService, times(1)).updateMonitorStatus(2L, CommonConstants.UN_AVAILABLE_CODE);
+        verifyNoMoreInteractions(monitorService);
+        assertNull(alertStoreBuffer.getPendingStatus(1L));
+    }
+
+    @Test
+    void durableStoreWaitsForFlush() throws Exception {
+        alertStoreBuffer = create(true);
+        alertStoreBuffer.afterPropertiesSet();
+        alertStoreBuffer.store(Alert.builder().content("a").build());
+        verify(alertService, times(1)).addAlerts(anyList());
+        assertEquals(1, alertStoreBuffer.getStoredCount());
+    }
+}
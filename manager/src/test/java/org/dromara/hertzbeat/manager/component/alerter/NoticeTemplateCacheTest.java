@@ -0,0 +1,58 @@
+package org.dromara.hertzbeat.manager.component.alerter;
+
+import freemarker.template.Template;
+import org.dromara.hertzbeat.common.entity.manager.NoticeTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for {@link NoticeTemplateCache}
+ */
+class NoticeTemplateCacheTest {
+
+    private NoticeTemplateCache noticeTemplateCache;
+
+    @BeforeEach
+    void setUp() {
+        noticeTemplateCache = new NoticeTemplateCache();
+    }
+
+    @Test
+    void compileOnceAndRender() throws Exception {
+        LocalDateTime version = LocalDateTime.now();
+        NoticeTemplate noticeTemplate = NoticeTemplate.builder().id(1L).content("${target} ${times}").gmtUpdate(version).build();
+        Template template = noticeTemplateCache.getTemplate(noticeTemplate);
+        NoticeTemplate loadedAgain = NoticeTemplate.builder().id(1L).content("${target} ${times}").gmtUpdate(version).build();
+        assertSame(template, noticeTemplateCache.getTemplate(loadedAgain));
+        assertEquals("cpu 12345", noticeTemplateCache.render(loadedAgain, Map.of("target", "cpu", "times", 12345)));
+        assertEquals(1, noticeTemplateCache.size());
+    }
+
+    @Test
+    void recompileWhenEdited() throws Exception {
+        LocalDateTime version = LocalDateTime.now();
+        NoticeTemplate noticeTemplate = NoticeTemplate.builder().id(1L).content("old ${target}").gmtUpdate(version).build();
+        Template template = noticeTemplateCache.getTemplate(noticeTemplate);
+        noticeTemplate.setContent("new ${target}");
+        assertEquals("new cpu", noticeTemplateCache.render(noticeTemplate, Map.of("target", "cpu")));
+        noticeTemplate.setGmtUpdate(version.plusSeconds(1));
+        Template edited = noticeTemplateCache.getTemplate(noticeTemplate);
+        assertNotSame(template, edited);
+        noticeTemplateCache.invalidate(1L);
+        assertNotSame(edited, noticeTemplateCache.getTemplate(noticeTemplate));
+    }
+
+    @Test
+    void presetAndUnsavedTemplate() throws Exception {
+        NoticeTemplate preset = NoticeTemplate.builder().type((byte) 2).preset(true).content("preset").build();
+        assertSame(noticeTemplateCache.getTemplate(preset), noticeTemplateCache.getTemplate(preset));
+        NoticeTemplate unsaved = NoticeTemplate.builder().content("unsaved").build();
+        assertEquals("unsaved", noticeTemplateCache.render(unsaved, Map.of()));
+        assertEquals(1, noticeTemplateCache.size());
+    }
+}
@@ -0,0 +1,254 @@
+package org.dromara.hertzbeat.manager.component.alerter;
+
+import org.dromara.hertzbeat.alert.AlerterProperties;
+import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.dromara.hertzbeat.common.entity.alerter.Alert;
+import org.dromara.hertzbeat.common.entity.manager.NoticeReceiver;
+import org.dromara.hertzbeat.common.entity.manager.NoticeTemplate;
+import org.dromara.hertzbeat.manager.support.exception.AlertNoticeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for {@link NotifyDeliveryEngine} and {@link NotifyEndpointGuard}
+ */
+class NotifyDeliveryEngineTest {
+
+    private static final byte TYPE = 2;
+
+    private final AtomicInteger sendCount = new AtomicInteger();
+
+    private final List<Alert> sentAlerts = new CopyOnWriteArrayList<>();
+
+    private volatile int failTimes;
+
+    private NotifyDeliveryEngine engine;
+
+    private NoticeReceiver receiver;
+
+    private AlertNotifyHandler handler;
+
+    private AlerterProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AlerterProperties();
+        properties.getNotify().setRetryBackoff(10);
+        properties.getNotify().setMaxRetries(2);
+        properties.getNotify().setBreakerFailureThreshold(3);
+        properties.getNotify().setReceiverRateLimit(0);
+        AlertNotifyHandler handler = new AlertNotifyHandler() {
+            @Override
+            public void send(NoticeReceiver receiver, NoticeTemplate noticeTemplate, Alert alert) {
+                if (sendCount.incrementAndGet() <= failTimes) {
+                    throw new AlertNoticeException("mock send error");
+                }
+                sentAlerts.add(alert);
+            }
+
+            @Override
+            public byte type() {
+                return TYPE;
+            }
+        };
+        this.handler = handler;
+        engine = new NotifyDeliveryEngine(properties, List.of(handler));
+        receiver = NoticeReceiver.builder().id(1L).name("ops").type(TYPE).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.destroy();
+    }
+
+    @Test
+    void deliverWithRetry() throws Exception {
+        failTimes = 2;
+        assertTrue(engine.deliver(receiver, null, Alert.builder().content("cpu").build()));
+        await(() -> engine.getDeliveredCount() == 1);
+        assertEquals(3, sendCount.get());
+        assertEquals(0, engine.getFailedCount());
+    }
+
+    @Test
+    void breakerOpenAfterFailures() throws Exception {
+        failTimes = Integer.MAX_VALUE;
+        engine.deliver(receiver, null, Alert.builder().content("cpu").build());
+        await(() -> engine.getFailedCount() == 1);
+        assertEquals(3, sendCount.get());
+        engine.deliver(receiver, null, Alert.builder().content("cpu").build());
+        await(() -> engine.getParkedCount() == 1);
+        // parked until the breaker is half open, not dropped
+        assertEquals(3, sendCount.get());
+        assertEquals(1, engine.getPendingCount());
+    }
+
+    @Test
+    void parkedUntilHalfOpen() throws Exception {
+        engine.destroy();
+        properties.getNotify().setMaxRetries(0);
+        properties.getNotify().setBreakerFailureThreshold(1);
+        properties.getNotify().setBreakerOpenSeconds(1);
+        engine = new NotifyDeliveryEngine(properties, List.of(handler));
+        failTimes = 1;
+        engine.deliver(receiver, null, Alert.builder().content("firing").build());
+        await(() -> engine.getFailedCount() == 1);
+        engine.deliver(receiver, null, Alert.builder().content("recovered").build());
+        await(() -> engine.getDeliveredCount() == 1);
+        assertEquals(1, engine.getParkedCount());
+        assertEquals("recovered", sentAlerts.get(0).getContent());
+    }
+
+    @Test
+    void deliverInOrderOfReceiver() throws Exception {
+        failTimes = 1;
+        engine.deliver(receiver, null, Alert.builder().content("firing").build());
+        engine.deliver(receiver, null, Alert.builder().content("recovered").build());
+        await(() -> engine.getDeliveredCount() == 2);
+        // the recovery waits for the retry of the firing alert
+        assertEquals("firing", sentAlerts.get(0).getContent());
+        assertEquals("recovered", sentAlerts.get(1).getContent());
+    }
+
+    @Test
+    void dropWhenReceiverQueueFull() throws Exception {
+        engine.destroy();
+        properties.getNotify().setMaxRetries(0);
+        properties.getNotify().setBreakerFailureThreshold(1);
+        properties.getNotify().setReceiverQueueCapacity(2);
+        engine = new NotifyDeliveryEngine(properties, List.of(handler));
+        failTimes = Integer.MAX_VALUE;
+        engine.deliver(receiver, null, Alert.builder().content("cpu").build());
+        await(() -> engine.getFailedCount() == 1 && engine.getPendingCount() == 0);
+        assertTrue(engine.deliver(receiver, null, Alert.builder().content("cpu").build()));
+        assertTrue(engine.deliver(receiver, null, Alert.builder().content("cpu").build()));
+        assertFalse(engine.deliver(receiver, null, Alert.builder().content("cpu").build()));
+        assertEquals(1, engine.getRejectedCount());
+        assertEquals(2, engine.getPendingCount());
+    }
+
+    @Test
+    void foldAlertStormIntoDigest() throws Exception {
+        engine.destroy();
+        properties.getNotify().setDigestWindow(200);
+        properties.getNotify().setDigestThreshold(1);
+        properties.getNotify().setDigestSamples(2);
+        engine = new NotifyDeliveryEngine(properties, List.of(handler));
+        for (int index = 0; index < 5; index++) {
+            Alert alert = Alert.builder().content("cpu high " + index).priority((byte) (index == 3 ? 0 : 2))
+                    .status(CommonConstants.ALERT_STATUS_CODE_PENDING).lastAlarmTime(1000L + index).build();
+            assertTrue(engine.deliver(receiver, null, alert));
+        }
+        assertEquals(4, engine.getFoldedCount());
+        await(() -> engine.getDeliveredCount() == 2);
+        Alert digest = sentAlerts.get(1);
+        assertEquals(NotifyDigest.DIGEST_TARGET, digest.getTarget());
+        assertEquals(4, digest.getTimes());
+        assertEquals(CommonConstants.ALERT_PRIORITY_CODE_EMERGENCY, digest.getPriority());
+        assertEquals(1001L, digest.getFirstAlarmTime());
+        assertEquals(1004L, digest.getLastAlarmTime());
+        String[] lines = digest.getContent().split("\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[1].endsWith("cpu high 3"));
+        assertTrue(lines[2].endsWith("cpu high 4"));
+    }
+
+    @Test
+    void singleFoldedAlertSentAsIs() throws Exception {
+        engine.destroy();
+        properties.getNotify().setDigestWindow(100);
+        properties.getNotify().setDigestThreshold(1);
+        engine = new NotifyDeliveryEngine(properties, List.of(handler));
+        engine.deliver(receiver, null, Alert.builder().content("first").build());
+        engine.deliver(receiver, null, Alert.builder().content("second").build());
+        await(() -> engine.getDeliveredCount() == 2);
+        assertEquals("second", sentAlerts.get(1).getContent());
+    }
+
+    @Test
+    void digestQueuedBeforeNextWindow() throws Exception {
+        engine.destroy();
+        properties.getNotify().setDigestWindow(200);
+        properties.getNotify().setDigestThreshold(1);
+        engine = new NotifyDeliveryEngine(properties, List.of(handler));
+        engine.deliver(receiver, null, Alert.builder().content("firing-1").build());
+        engine.deliver(receiver, null, Alert.builder().content("firing-2").build());
+        Thread.sleep(200);
+        engine.deliver(receiver, null, Alert.builder().content("recovered").build());
+        await(() -> engine.getDeliveredCount() == 3);
+        assertEquals("firing-1", sentAlerts.get(0).getContent());
+        assertEquals("firing-2", sentAlerts.get(1).getContent());
+        assertEquals("recovered", sentAlerts.get(2).getContent());
+    }
+
+    @Test
+    void digestWindowOfTemplate() throws Exception {
+        engine.destroy();
+        properties.getNotify().setDigestWindow(1000);
+        properties.getNotify().setDigestThreshold(1);
+        engine = new NotifyDeliveryEngine(properties, List.of(handler));
+        NoticeTemplate first = NoticeTemplate.builder().id(1L).build();
+        NoticeTemplate second = NoticeTemplate.builder().id(2L).build();
+        engine.deliver(receiver, first, Alert.builder().content("cpu").build());
+        engine.deliver(receiver, second, Alert.builder().content("disk").build());
+        assertEquals(0, engine.getFoldedCount());
+        engine.deliver(receiver, first, Alert.builder().content("memory").build());
+        assertEquals(1, engine.getFoldedCount());
+        await(() -> engine.getDeliveredCount() == 3);
+    }
+
+    @Test
+    void unknownReceiverType() {
+        NoticeReceiver unknown = NoticeReceiver.builder().id(2L).type((byte) 100).build();
+        assertFalse(engine.deliver(unknown, null, Alert.builder().build()));
+        assertFalse(engine.deliver(null, null, Alert.builder().build()));
+    }
+
+    @Test
+    void guardRateLimit() {
+        long now = 0L;
+        NotifyEndpointGuard guard = new NotifyEndpointGuard(2, 1, 1, now);
+        assertEquals(0, guard.reserve(now));
+        assertEquals(0, guard.reserve(now));
+        long wait = guard.reserve(now);
+        assertTrue(Math.abs(TimeUnit.MILLISECONDS.toNanos(500) - wait) <= 1);
+        // the permit is reserved, the next caller waits for the one after it
+        assertTrue(Math.abs(TimeUnit.MILLISECONDS.toNanos(1000) - guard.reserve(now)) <= 1);
+        long later = now + TimeUnit.MILLISECONDS.toNanos(1000);
+        assertTrue(Math.abs(TimeUnit.MILLISECONDS.toNanos(500) - guard.reserve(later)) <= 1);
+    }
+
+    @Test
+    void guardHalfOpen() {
+        long now = 1L;
+        NotifyEndpointGuard guard = new NotifyEndpointGuard(0, 1, 1, now);
+        assertTrue(guard.allowRequest(now));
+        guard.onFailure(now);
+        assertTrue(guard.isOpen(now));
+        assertFalse(guard.allowRequest(now));
+        assertEquals(TimeUnit.SECONDS.toNanos(1), guard.openRemaining(now));
+        long later = now + TimeUnit.SECONDS.toNanos(1);
+        assertTrue(guard.allowRequest(later));
+        assertFalse(guard.allowRequest(later));
+        guard.onSuccess();
+        assertFalse(guard.isOpen(later));
+        assertTrue(guard.allowRequest(later));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -1,18 +1,55 @@
 package org.dromara.hertzbeat.manager.component.alerter.impl;
 
+import org.dromara.hertzbeat.alert.reduce.MonitorMetadataCache;
+import org.dromara.hertzbeat.common.entity.alerter.Alert;
+import org.dromara.hertzbeat.manager.component.alerter.AlertStoreBuffer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
 
 /**
  * Test case for {@link DbAlertStoreHandlerImpl}
  */
+@ExtendWith(MockitoExtension.class)
 class DbAlertStoreHandlerImplTest {
 
+    @Mock
+    private MonitorMetadataCache monitorMetadataCache;
+
+    @Mock
+    private AlertStoreBuffer alertStoreBuffer;
+
+    private DbAlertStoreHandlerImpl dbAlertStoreHandler;
+
     @BeforeEach
     void setUp() {
+        dbAlertStoreHandler = new DbAlertStoreHandlerImpl(monitorMetadataCache, alertStoreBuffer);
     }
 
     @Test
-    void store() {
+    void store() throws Exception {
+        Map<String, String> tags = new HashMap<>(Map.of("env", "prod"));
+        Alert alert = Alert.builder().target("external").content("content").tags(tags).build();
+
+        dbAlertStoreHandler.store(alert);
+
+        ArgumentCaptor<Alert> captor = ArgumentCaptor.forClass(Alert.class);
+        verify(alertStoreBuffer).store(captor.capture());
+        Alert stored = captor.getValue();
+        // the id is assigned for the notify, the buffer stores a snapshot not changed by the notify handlers
+        assertNotNull(alert.getId());
+        assertEquals(alert.getId(), stored.getId());
+        assertNotSame(alert, stored);
+        alert.getTags().clear();
+        assertEquals(Map.of("env", "prod"), stored.getTags());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,111 @@
+package org.dromara.hertzbeat.manager.component.status;
+
+import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.dromara.hertzbeat.common.entity.manager.StatusPageComponent;
+import org.dromara.hertzbeat.common.entity.manager.StatusPageHistory;
+import org.dromara.hertzbeat.common.entity.manager.TagItem;
+import org.dromara.hertzbeat.manager.pojo.dto.MonitorTagStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for {@link ComponentStateTracker}
+ */
+class ComponentStateTrackerTest {
+
+    private static final long ORG_ID = 1L;
+
+    private static final long START = 1_700_000_000_000L;
+
+    private final ComponentStateTracker tracker = new ComponentStateTracker();
+
+    @Test
+    void rebuildComponentStatesFromMonitorTags() {
+        tracker.rebuild(List.of(
+                        tagComponent(1L, "env", "prod"),
+                        tagComponent(2L, "env", null),
+                        tagComponent(3L, "region", "east"),
+                        manualComponent(4L, CommonConstants.STATUS_PAGE_COMPONENT_STATE_ABNORMAL)),
+                List.of(
+                        new MonitorTagStatus(10L, CommonConstants.AVAILABLE_CODE, "env", "prod"),
+                        new MonitorTagStatus(11L, CommonConstants.UN_AVAILABLE_CODE, "env", "test")),
+                START);
+
+        Map<Long, Byte> states = tracker.drainChangedStates();
+        // component 1 stays normal as persisted, the tag without value matches every value
+        assertEquals(Map.of(2L, CommonConstants.STATUS_PAGE_COMPONENT_STATE_ABNORMAL,
+                3L, CommonConstants.STATUS_PAGE_COMPONENT_STATE_UNKNOWN,
+                4L, CommonConstants.STATUS_PAGE_COMPONENT_STATE_ABNORMAL), states);
+        assertEquals(CommonConstants.STATUS_PAGE_ORG_STATE_SOME_ABNORMAL, tracker.orgState(ORG_ID));
+        assertTrue(tracker.drainHistories().isEmpty());
+    }
+
+    @Test
+    void writeHistoryOnlyOnChangeAndCheckpoint() {
+        tracker.rebuild(List.of(tagComponent(1L, "env", "prod")),
+                List.of(new MonitorTagStatus(10L, CommonConstants.AVAILABLE_CODE, "env", "prod"),
+                        new MonitorTagStatus(11L, CommonConstants.AVAILABLE_CODE, "env", "prod")),
+                START);
+        assertFalse(tracker.updateMonitorStatus(99L, CommonConstants.UN_AVAILABLE_CODE, START));
+
+        // the status does not change the component state
+        assertTrue(tracker.updateMonitorStatus(10L, CommonConstants.AVAILABLE_CODE, START + 30_000));
+        assertTrue(tracker.drainHistories().isEmpty());
+
+        tracker.updateMonitorStatus(11L, CommonConstants.UN_AVAILABLE_CODE, START + 60_500);
+        List<StatusPageHistory> histories = tracker.drainHistories();
+        assertEquals(1, histories.size());
+        assertEquals(CommonConstants.STATUS_PAGE_COMPONENT_STATE_NORMAL, histories.get(0).getState());
+        assertEquals(60, histories.get(0).getNormal());
+        assertEquals(0, histories.get(0).getAbnormal());
+        assertEquals(Map.of(1L, CommonConstants.STATUS_PAGE_COMPONENT_STATE_ABNORMAL), tracker.drainChangedStates());
+        assertEquals(CommonConstants.STATUS_PAGE_ORG_STATE_ALL_ABNORMAL, tracker.orgState(ORG_ID));
+
+        StatusPageHistory openSegment = tracker.openSegment(1L, START + 90_500);
+        assertEquals(30, openSegment.getAbnormal());
+
+        tracker.checkpoint(START + 120_500);
+        histories = tracker.drainHistories();
+        assertEquals(1, histories.size());
+        assertEquals(60, histories.get(0).getAbnormal());
+        tracker.checkpoint(START + 120_600);
+        assertTrue(tracker.drainHistories().isEmpty());
+    }
+
+    @Test
+    void keepSegmentOnRebuildAndDropRemovedComponent() {
+        List<StatusPageComponent> components = List.of(tagComponent(1L, "env", "prod"), tagComponent(2L, "env", "test"));
+        List<MonitorTagStatus> monitorTags = List.of(new MonitorTagStatus(10L, CommonConstants.AVAILABLE_CODE, "env", "prod"));
+        tracker.rebuild(components, monitorTags, START);
+        tracker.drainChangedStates();
+
+        tracker.rebuild(List.of(components.get(0)), monitorTags, START + 60_000);
+        tracker.checkpoint(START + 120_000);
+
+        List<StatusPageHistory> histories = tracker.drainHistories();
+        assertEquals(1, histories.size());
+        assertEquals(1L, histories.get(0).getComponentId());
+        assertEquals(120, histories.get(0).getNormal());
+        assertNull(tracker.openSegment(2L, START + 120_000));
+    }
+
+    private static StatusPageComponent tagComponent(long id, String name, String value) {
+        return StatusPageComponent.builder().id(id).orgId(ORG_ID)
+                .method((byte) 0)
+                .state(CommonConstants.STATUS_PAGE_COMPONENT_STATE_NORMAL)
+                .tag(new TagItem(name, value))
+                .build();
+    }
+
+    private static StatusPageComponent manualComponent(long id, byte configState) {
+        return StatusPageComponent.builder().id(id).orgId(ORG_ID)
+                .method(CommonConstants.STATUS_PAGE_CALCULATE_METHOD_MANUAL)
+                .configState(configState)
+                .state(CommonConstants.STATUS_PAGE_COMPONENT_STATE_NORMAL)
+                .build();
+    }
+}
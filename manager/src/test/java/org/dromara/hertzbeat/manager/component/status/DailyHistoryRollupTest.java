@@ -0,0 +1,70 @@
+package org.dromara.hertzbeat.manager.component.status;
+
+import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.dromara.hertzbeat.common.entity.manager.StatusPageHistory;
+import org.dromara.hertzbeat.common.entity.manager.StatusPageHistoryDaily;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for {@link DailyHistoryRollup}
+ */
+class DailyHistoryRollupTest {
+
+    private static final ZoneId ZONE_ID = ZoneId.of("Asia/Shanghai");
+
+    private static final long DAY = LocalDate.of(2023, 11, 15).atStartOfDay(ZONE_ID).toInstant().toEpochMilli();
+
+    private static final long NEXT_DAY = LocalDate.of(2023, 11, 16).atStartOfDay(ZONE_ID).toInstant().toEpochMilli();
+
+    private final DailyHistoryRollup rollup = new DailyHistoryRollup(300, ZONE_ID);
+
+    @Test
+    void rollupHistoriesIntoTheirDays() {
+        List<StatusPageHistory> histories = List.of(
+                history(1L, DAY + 3_600_000, 3600, 0),
+                history(1L, NEXT_DAY - 1, 0, 600),
+                history(1L, NEXT_DAY + 60_000, 60, 0),
+                history(2L, DAY + 60_000, 60, 0));
+        assertEquals(Set.of(DAY, NEXT_DAY), rollup.days(histories));
+
+        List<StatusPageHistoryDaily> dailies = new ArrayList<>(rollup.rollup(histories, List.of()));
+        assertEquals(3, dailies.size());
+        StatusPageHistoryDaily daily = dailies.get(0);
+        assertEquals(DAY, daily.getTimestamp());
+        assertEquals(3600, daily.getNormal());
+        assertEquals(600, daily.getAbnormal());
+        assertEquals(CommonConstants.STATUS_PAGE_COMPONENT_STATE_ABNORMAL, daily.getState());
+        assertEquals(3600.0 / 4200.0, daily.getUptime());
+        assertEquals(NEXT_DAY, dailies.get(1).getTimestamp());
+        assertEquals(CommonConstants.STATUS_PAGE_COMPONENT_STATE_NORMAL, dailies.get(1).getState());
+    }
+
+    @Test
+    void addToExistingDailyAndCountLegacyRows() {
+        StatusPageHistoryDaily existing = StatusPageHistoryDaily.builder().id(5L).componentId(1L).timestamp(DAY)
+                .normal(1000).abnormal(0).unknown(0).build();
+        StatusPageHistory legacy = StatusPageHistory.builder().componentId(1L).timestamp(DAY + 1)
+                .state(CommonConstants.STATUS_PAGE_COMPONENT_STATE_UNKNOWN).build();
+
+        List<StatusPageHistoryDaily> dailies = new ArrayList<>(rollup.rollup(
+                List.of(history(1L, DAY + 1000, 100, 0), legacy), List.of(existing)));
+        assertEquals(1, dailies.size());
+        assertSame(existing, dailies.get(0));
+        assertEquals(1100, existing.getNormal());
+        assertEquals(300, existing.getUnknown());
+        assertEquals(CommonConstants.STATUS_PAGE_COMPONENT_STATE_NORMAL, existing.getState());
+    }
+
+    private static StatusPageHistory history(long componentId, long timestamp, int normal, int abnormal) {
+        return StatusPageHistory.builder().componentId(componentId).timestamp(timestamp)
+                .normal(normal).abnormal(abnormal).unknown(0).build();
+    }
+}
@@ -1,8 +1,10 @@
 package org.dromara.hertzbeat.manager.dao;
 
 import org.dromara.hertzbeat.common.entity.manager.Monitor;
+import org.dromara.hertzbeat.common.entity.manager.Tag;
 import org.dromara.hertzbeat.manager.AbstractSpringIntegrationTest;
 import org.dromara.hertzbeat.manager.pojo.dto.AppCount;
+import org.dromara.hertzbeat.manager.pojo.dto.MonitorTagStatus;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -88,6 +90,19 @@ class MonitorDaoTest extends AbstractSpringIntegrationTest {
         assertFalse(appCounts.isEmpty());
     }
 
+    @Test
+    void findMonitorTagStatusByTagNameIn() {
+        Monitor monitor = monitorDao.findById(1L).orElseThrow();
+        monitor.setTags(new ArrayList<>(List.of(Tag.builder().name("env").value("prod").type((byte) 1).build())));
+        monitorDao.saveAndFlush(monitor);
+        List<MonitorTagStatus> monitorTags = monitorDao.findMonitorTagStatusByTagNameIn(Set.of("env"));
+        assertEquals(1, monitorTags.size());
+        assertEquals(1L, monitorTags.get(0).getMonitorId());
+        assertEquals((byte) 1, monitorTags.get(0).getStatus());
+        assertEquals("prod", monitorTags.get(0).getTagValue());
+        assertTrue(monitorDao.findMonitorTagStatusByTagNameIn(Set.of("region")).isEmpty());
+    }
+
     @Test
     void updateMonitorStatus() {
         Optional<Monitor> monitorOptional = monitorDao.findById(1L);
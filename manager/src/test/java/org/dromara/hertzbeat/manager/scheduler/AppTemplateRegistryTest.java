@@ -0,0 +1,124 @@
+package org.dromara.hertzbeat.manager.scheduler;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.dromara.hertzbeat.common.entity.job.Configmap;
+import org.dromara.hertzbeat.common.entity.job.Job;
+import org.dromara.hertzbeat.common.entity.job.Metrics;
+import org.dromara.hertzbeat.common.entity.message.ClusterMsg;
+import org.dromara.hertzbeat.common.util.JsonUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for {@link AppTemplateRegistry}
+ */
+class AppTemplateRegistryTest {
+
+    private final AppTemplateRegistry appTemplateRegistry = new AppTemplateRegistry();
+
+    @Test
+    void pushTemplateOncePerConnection() {
+        List<Metrics> metrics = List.of(Metrics.builder().name("basic").protocol("jdbc").build());
+        Object connection = new Object();
+        List<ClusterMsg.Message> messages = new ArrayList<>();
+
+        appTemplateRegistry.issueCyclicJob(connection, buildJob(1L, metrics), messages::add);
+        appTemplateRegistry.issueCyclicJob(connection, buildJob(2L, metrics), messages::add);
+
+        assertEquals(3, messages.size());
+        assertEquals(ClusterMsg.MessageType.ISSUE_APP_TEMPLATE, messages.get(0).getType());
+        assertEquals(ClusterMsg.MessageType.ISSUE_CYCLIC_TASK, messages.get(1).getType());
+        assertEquals(ClusterMsg.MessageType.ISSUE_CYCLIC_TASK, messages.get(2).getType());
+        Job template = JsonUtil.fromJson(messages.get(0).getMsg(), Job.class);
+        Job delta = JsonUtil.fromJson(messages.get(2).getMsg(), Job.class);
+        assertNotNull(template);
+        assertNotNull(delta);
+        assertEquals(1, template.getMetrics().size());
+        assertNull(delta.getMetrics());
+        assertEquals(template.getTemplateId(), delta.getTemplateId());
+        assertEquals(2L, delta.getMonitorId());
+        assertEquals(30L, delta.getInterval());
+        assertEquals("127.0.0.2", delta.getConfigmap().get(0).getValue());
+
+        // a new connection receives the template again
+        List<ClusterMsg.Message> reconnected = new ArrayList<>();
+        appTemplateRegistry.issueCyclicJob(new Object(), buildJob(3L, metrics), reconnected::add);
+        assertEquals(ClusterMsg.MessageType.ISSUE_APP_TEMPLATE, reconnected.get(0).getType());
+        assertEquals(2, reconnected.size());
+        // the template message is built once and shared
+        assertSame(messages.get(0), reconnected.get(0));
+    }
+
+    @Test
+    void templateIdVersionedByContent() {
+        Object connection = new Object();
+        List<ClusterMsg.Message> messages = new ArrayList<>();
+        appTemplateRegistry.issueCyclicJob(connection,
+                buildJob(1L, List.of(Metrics.builder().name("basic").build())), messages::add);
+        appTemplateRegistry.issueCyclicJob(connection,
+                buildJob(2L, List.of(Metrics.builder().name("basic").build())), messages::add);
+        appTemplateRegistry.issueCyclicJob(connection,
+                buildJob(3L, List.of(Metrics.builder().name("status").build())), messages::add);
+
+        String first = JsonUtil.fromJson(messages.get(1).getMsg(), Job.class).getTemplateId();
+        String same = JsonUtil.fromJson(messages.get(2).getMsg(), Job.class).getTemplateId();
+        assertEquals(first, same);
+        assertEquals(ClusterMsg.MessageType.ISSUE_APP_TEMPLATE, messages.get(3).getType());
+        assertNotEquals(first, JsonUtil.fromJson(messages.get(4).getMsg(), Job.class).getTemplateId());
+    }
+
+    @Test
+    void shareTemplateOfCopiedMetrics() {
+        Object connection = new Object();
+        List<ClusterMsg.Message> messages = new ArrayList<>();
+        Job first = buildJob(1L, List.of(Metrics.builder().name("basic").protocol("jdbc").build()));
+        Job second = buildJob(2L, List.of(Metrics.builder().name("basic").protocol("jdbc").build()));
+
+        appTemplateRegistry.issueCyclicJob(connection, first, messages::add);
+        appTemplateRegistry.issueCyclicJob(connection, second, messages::add);
+        appTemplateRegistry.issueCyclicJob(connection, first, messages::add);
+
+        assertEquals(4, messages.size());
+        assertEquals(1, messages.stream().filter(message -> message.getType() == ClusterMsg.MessageType.ISSUE_APP_TEMPLATE).count());
+        String templateId = JsonUtil.fromJson(messages.get(1).getMsg(), Job.class).getTemplateId();
+        assertEquals(templateId, JsonUtil.fromJson(messages.get(2).getMsg(), Job.class).getTemplateId());
+        assertEquals(templateId, JsonUtil.fromJson(messages.get(3).getMsg(), Job.class).getTemplateId());
+    }
+
+    @Test
+    void issueJobsInOneMessage() {
+        List<Metrics> linux = List.of(Metrics.builder().name("cpu").build());
+        List<Metrics> mysql = List.of(Metrics.builder().name("basic").build());
+        List<ClusterMsg.Message> messages = new ArrayList<>();
+
+        appTemplateRegistry.issueCyclicJobs(new Object(),
+                List.of(buildJob(1L, linux), buildJob(2L, mysql), buildJob(3L, linux)), messages::add);
+
+        assertEquals(3, messages.size());
+        assertEquals(ClusterMsg.MessageType.ISSUE_APP_TEMPLATE, messages.get(0).getType());
+        assertEquals(ClusterMsg.MessageType.ISSUE_APP_TEMPLATE, messages.get(1).getType());
+        assertEquals(ClusterMsg.MessageType.ISSUE_CYCLIC_TASKS, messages.get(2).getType());
+        List<Job> jobs = JsonUtil.fromJson(messages.get(2).getMsg(), new TypeReference<>() {});
+        assertNotNull(jobs);
+        assertEquals(3, jobs.size());
+        assertEquals(jobs.get(0).getTemplateId(), jobs.get(2).getTemplateId());
+        assertTrue(jobs.stream().allMatch(job -> job.getMetrics() == null));
+    }
+
+    private static Job buildJob(long monitorId, List<Metrics> metrics) {
+        return Job.builder()
+                .id(monitorId * 10)
+                .monitorId(monitorId)
+                .app("mysql")
+                .category("db")
+                .interval(30L)
+                .isCyclic(true)
+                .metrics(metrics)
+                .configmap(List.of(new Configmap("host", "127.0.0." + monitorId, (byte) 1)))
+                .build();
+    }
+}
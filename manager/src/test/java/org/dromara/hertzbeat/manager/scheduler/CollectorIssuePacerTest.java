@@ -0,0 +1,33 @@
+package org.dromara.hertzbeat.manager.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for {@link CollectorIssuePacer}
+ */
+class CollectorIssuePacerTest {
+
+    @Test
+    void paceChunksPerCollector() {
+        CollectorIssuePacer pacer = new CollectorIssuePacer(1000);
+        long now = 100_000L;
+        assertEquals(0, pacer.reserve("collector-1", 500, now));
+        assertEquals(500, pacer.reserve("collector-1", 500, now));
+        assertEquals(1000, pacer.reserve("collector-1", 200, now));
+        // other collectors are paced on their own
+        assertEquals(0, pacer.reserve("collector-2", 500, now));
+        // the passed reservations are not delayed
+        assertEquals(0, pacer.reserve("collector-1", 500, now + 5000));
+        pacer.remove("collector-2");
+        assertEquals(0, pacer.reserve("collector-2", 500, now));
+    }
+
+    @Test
+    void notLimited() {
+        CollectorIssuePacer pacer = new CollectorIssuePacer(0);
+        assertEquals(0, pacer.reserve("collector-1", 500, 0));
+        assertEquals(0, pacer.reserve("collector-1", 500, 0));
+    }
+}
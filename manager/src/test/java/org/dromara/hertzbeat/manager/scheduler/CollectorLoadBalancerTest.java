@@ -0,0 +1,64 @@
+package org.dromara.hertzbeat.manager.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for {@link CollectorLoadBalancer}
+ */
+class CollectorLoadBalancerTest {
+
+    private final CollectorLoadBalancer loadBalancer = new CollectorLoadBalancer(0.2, 100);
+
+    @Test
+    void moveHeavyJobsFromOverloaded() {
+        Map<Long, Double> heavyJobs = new HashMap<>(8);
+        for (long jobId = 1; jobId <= 10; jobId++) {
+            heavyJobs.put(jobId, 10.0);
+        }
+        Map<Long, Double> cheapJobs = new HashMap<>(8);
+        for (long jobId = 11; jobId <= 20; jobId++) {
+            cheapJobs.put(jobId, 1.0);
+        }
+        CollectorLoadBalancer.CollectorState heavy = new CollectorLoadBalancer.CollectorState("heavy", 1000, 100, heavyJobs);
+        CollectorLoadBalancer.CollectorState cheap = new CollectorLoadBalancer.CollectorState("cheap", 1000, 10, cheapJobs);
+        List<CollectorLoadBalancer.CollectorState> states = List.of(heavy, cheap);
+        assertTrue(loadBalancer.overloaded(states).contains("heavy"));
+
+        List<CollectorLoadBalancer.Move> moves = loadBalancer.plan(states);
+
+        assertFalse(moves.isEmpty());
+        assertTrue(moves.stream().allMatch(move -> "heavy".equals(move.getFrom()) && "cheap".equals(move.getTo())));
+        // within half of the threshold above the average 0.055
+        assertTrue(heavy.score() <= 0.055 * 1.1);
+        assertTrue(cheap.score() <= 0.055 * 1.1);
+        assertTrue(loadBalancer.overloaded(states).isEmpty());
+    }
+
+    @Test
+    void keepBalancedWithinThreshold() {
+        CollectorLoadBalancer.CollectorState first = new CollectorLoadBalancer.CollectorState("first", 1000, 55,
+                new HashMap<>(Map.of(1L, 5.0, 2L, 50.0)));
+        CollectorLoadBalancer.CollectorState second = new CollectorLoadBalancer.CollectorState("second", 1000, 50,
+                new HashMap<>(Map.of(3L, 50.0)));
+        assertTrue(loadBalancer.plan(List.of(first, second)).isEmpty());
+        // a single collector is never rebalanced
+        assertTrue(loadBalancer.plan(List.of(first)).isEmpty());
+    }
+
+    @Test
+    void respectCapacity() {
+        CollectorLoadBalancer.CollectorState small = new CollectorLoadBalancer.CollectorState("small", 100, 20,
+                new HashMap<>(Map.of(1L, 10.0, 2L, 10.0)));
+        CollectorLoadBalancer.CollectorState large = new CollectorLoadBalancer.CollectorState("large", 1000, 20,
+                new HashMap<>(Map.of(3L, 10.0, 4L, 10.0)));
+        List<CollectorLoadBalancer.Move> moves = loadBalancer.plan(List.of(small, large));
+        assertEquals(2, moves.size());
+        assertTrue(moves.stream().allMatch(move -> "large".equals(move.getTo())));
+    }
+}
@@ -0,0 +1,80 @@
+package org.dromara.hertzbeat.manager.scheduler;
+
+import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the collector join and leave cost of the consistent hash with the jobs assigned,
+ * the join splits the hash ranges of the new virtual nodes and the leave merges them back.
+ * run the main method with the manager test classpath, it is not executed by the unit test phase
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class ConsistentHashBenchmark {
+
+    @Param({"100000"})
+    private int jobCount;
+
+    @Param({"50"})
+    private int collectorCount;
+
+    private ConsistentHash consistentHash;
+
+    private long nextJobId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        consistentHash = new ConsistentHash();
+        for (int index = 0; index < collectorCount; index++) {
+            consistentHash.addNode(new ConsistentHash.Node("collector-" + index, CommonConstants.MODE_PUBLIC,
+                    "10.0.0." + index, 0, null));
+        }
+        for (long jobId = 1; jobId <= jobCount; jobId++) {
+            consistentHash.dispatchJob("192.168." + jobId + "linux", jobId);
+        }
+        nextJobId = jobCount;
+    }
+
+    @Benchmark
+    public void collectorJoinAndLeave(Blackhole blackhole) {
+        consistentHash.addNode(new ConsistentHash.Node("collector-join", CommonConstants.MODE_PUBLIC,
+                "10.0.1.1", 0, null));
+        blackhole.consume(consistentHash.removeNode("collector-join"));
+    }
+
+    @Benchmark
+    public void dispatchJob(Blackhole blackhole) {
+        long jobId = ++nextJobId;
+        ConsistentHash.Node node = consistentHash.dispatchJob("192.168." + jobId + "linux", jobId);
+        blackhole.consume(node);
+        node.removeVirtualNodeJob(jobId);
+        node.getAssignJobs().getJobs().remove(jobId);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ConsistentHashBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
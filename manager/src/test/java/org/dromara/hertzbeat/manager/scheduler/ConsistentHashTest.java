@@ -0,0 +1,99 @@
+package org.dromara.hertzbeat.manager.scheduler;
+
+import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for {@link ConsistentHash}
+ */
+class ConsistentHashTest {
+
+    private static final long JOB_NUM = 2000;
+
+    @Test
+    void skipOverloadedCollector() {
+        ConsistentHash consistentHash = new ConsistentHash();
+        ConsistentHash.Node first = new ConsistentHash.Node("first", CommonConstants.MODE_PUBLIC, "127.0.0.1", 0, null);
+        ConsistentHash.Node second = new ConsistentHash.Node("second", CommonConstants.MODE_PUBLIC, "127.0.0.2", 0, null);
+        consistentHash.addNode(first);
+        consistentHash.addNode(second);
+        first.setOverloaded(true);
+        for (long jobId = 1; jobId <= 50; jobId++) {
+            assertSame(second, consistentHash.dispatchJob(String.valueOf(jobId), jobId));
+        }
+        // all overloaded, dispatch by hash
+        second.setOverloaded(true);
+        assertNotNull(consistentHash.dispatchJob("51", 51L));
+    }
+
+    @Test
+    void moveAssignedJob() {
+        ConsistentHash consistentHash = new ConsistentHash();
+        ConsistentHash.Node first = new ConsistentHash.Node("first", CommonConstants.MODE_PUBLIC, "127.0.0.1", 0, null);
+        ConsistentHash.Node second = new ConsistentHash.Node("second", CommonConstants.MODE_PUBLIC, "127.0.0.2", 0, null);
+        consistentHash.addNode(first);
+        consistentHash.addNode(second);
+        ConsistentHash.Node node = consistentHash.dispatchJob("1", 1L);
+        ConsistentHash.Node other = node == first ? second : first;
+
+        assertTrue(consistentHash.moveJob(1L, node, other));
+
+        assertFalse(node.getAssignJobs().getJobs().contains(1L));
+        assertTrue(node.getAssignJobs().getRemovingJobs().contains(1L));
+        assertTrue(other.getAssignJobs().getAddingJobs().contains(1L));
+        // moved again only after assigned
+        assertFalse(consistentHash.moveJob(1L, node, other));
+        node.getAssignJobs().addPinnedJob(2L);
+        assertFalse(consistentHash.moveJob(2L, node, other));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void moveJobToCoveringVirtualNode() {
+        ConsistentHash consistentHash = new ConsistentHash();
+        ConsistentHash.Node first = new ConsistentHash.Node("first", CommonConstants.MODE_PUBLIC, "127.0.0.1", 0, null);
+        ConsistentHash.Node second = new ConsistentHash.Node("second", CommonConstants.MODE_PUBLIC, "127.0.0.2", 0, null);
+        consistentHash.addNode(first);
+        consistentHash.addNode(second);
+        for (long jobId = 1; jobId <= 50; jobId++) {
+            ConsistentHash.Node node = consistentHash.dispatchJob("job" + jobId, jobId);
+            ConsistentHash.Node other = node == first ? second : first;
+            assertTrue(consistentHash.moveJob(jobId, node, other));
+            // the moved job shares the virtual node of the same hash dispatched skipping the overloaded collector
+            node.setOverloaded(true);
+            long skippedJobId = jobId + JOB_NUM;
+            assertSame(other, consistentHash.dispatchJob("job" + jobId, skippedJobId));
+            node.setOverloaded(false);
+            Map<Integer, VirtualNodeJobs> virtualNodeMap = (Map<Integer, VirtualNodeJobs>) ReflectionTestUtils.getField(other, "virtualNodeMap");
+            assertNotNull(virtualNodeMap);
+            long finalJobId = jobId;
+            assertTrue(virtualNodeMap.values().stream()
+                    .anyMatch(jobs -> jobs.indexOf(finalJobId) >= 0 && jobs.indexOf(skippedJobId) >= 0));
+        }
+    }
+
+    @Test
+    void jobsFollowRingOnJoinAndLeave() {
+        ConsistentHash consistentHash = new ConsistentHash();
+        consistentHash.addNode(new ConsistentHash.Node("first", CommonConstants.MODE_PUBLIC, "127.0.0.1", 0, null));
+        consistentHash.addNode(new ConsistentHash.Node("second", CommonConstants.MODE_PUBLIC, "127.0.0.2", 0, null));
+        for (long jobId = 1; jobId <= JOB_NUM; jobId++) {
+            consistentHash.dispatchJob("job" + jobId, jobId);
+        }
+        ConsistentHash.Node third = new ConsistentHash.Node("third", CommonConstants.MODE_PUBLIC, "127.0.0.3", 0, null);
+        consistentHash.addNode(third);
+        assertFalse(third.getAssignJobs().getAddingJobs().isEmpty());
+        consistentHash.removeNode("first");
+
+        for (long jobId = 1; jobId <= JOB_NUM; jobId++) {
+            ConsistentHash.Node node = consistentHash.preDispatchJob("job" + jobId);
+            assertTrue(node.removeVirtualNodeJob(jobId), "job " + jobId + " not owned by " + node.getIdentity());
+        }
+        assertTrue(consistentHash.getDispatchJobCache().isEmpty());
+    }
+}
@@ -0,0 +1,88 @@
+package org.dromara.hertzbeat.manager.scheduler;
+
+import org.dromara.hertzbeat.common.entity.dto.JobHandoffStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for {@link JobHandoffTracker}
+ */
+class JobHandoffTrackerTest {
+
+    private static final long MONITOR_ID = 1L;
+
+    private static final long JOB_ID = 10L;
+
+    private static final long START = 1_700_000_000_000L;
+
+    private final List<String> released = new ArrayList<>();
+
+    private final JobHandoffTracker tracker = new JobHandoffTracker(3, (identity, jobId) -> released.add(identity + "-" + jobId));
+
+    @Test
+    void nextFireTimeAlignedWithLastCollect() {
+        assertEquals(0, tracker.nextFireTime(MONITOR_ID, 60, START));
+        tracker.collect("a", MONITOR_ID, 0, START, true);
+        // only the available metrics marks the collect phase
+        tracker.collect("a", MONITOR_ID, 1, START + 3_000, true);
+
+        assertEquals(START + 60_000, tracker.nextFireTime(MONITOR_ID, 60, START + 10_000));
+        assertEquals(START + 90_000, tracker.nextFireTime(MONITOR_ID, 60, START + 90_000));
+        tracker.pruneBefore(START + 1);
+        assertEquals(0, tracker.nextFireTime(MONITOR_ID, 60, START));
+    }
+
+    @Test
+    void previousOwnerCollectsUntilAcknowledged() {
+        tracker.collect("a", MONITOR_ID, 0, START, true);
+        tracker.begin(JOB_ID, MONITOR_ID, 60, "a", "b", START + 1_000);
+
+        // the cold new owner fails, the previous owner still reports
+        assertFalse(tracker.collect("b", MONITOR_ID, 0, START + 59_000, false));
+        assertTrue(tracker.collect("a", MONITOR_ID, 0, START + 60_000, true));
+        assertTrue(released.isEmpty());
+
+        // the new owner collects the same interval, it takes over from the next one
+        assertFalse(tracker.collect("b", MONITOR_ID, 0, START + 61_000, true));
+        assertEquals(List.of("a-10"), released);
+        assertFalse(tracker.collect("a", MONITOR_ID, 0, START + 120_000, true));
+        assertTrue(tracker.collect("b", MONITOR_ID, 0, START + 121_000, true));
+
+        JobHandoffStats stats = tracker.getStats();
+        assertEquals(0, stats.getPending());
+        assertEquals(1, stats.getCompleted());
+        assertEquals(0, stats.getGaps());
+        assertEquals(2, stats.getDuplicates());
+    }
+
+    @Test
+    void countGapAndExpire() {
+        tracker.collect("a", MONITOR_ID, 0, START, true);
+        tracker.begin(JOB_ID, MONITOR_ID, 60, "a", "b", START);
+        assertTrue(tracker.collect("b", MONITOR_ID, 0, START + 150_000, true));
+        assertEquals(1, tracker.getStats().getGaps());
+
+        tracker.begin(JOB_ID + 1, MONITOR_ID + 1, 60, "a", "b", START);
+        tracker.expire(START + 100_000);
+        assertEquals(List.of("a-10"), released);
+        tracker.expire(START + 200_000);
+        assertEquals(List.of("a-10", "a-11"), released);
+        assertEquals(1, tracker.getStats().getExpired());
+    }
+
+    @Test
+    void releaseOnCancelAndMoveBack() {
+        tracker.begin(JOB_ID, MONITOR_ID, 60, "a", "b", START);
+        // the job moves back to the previous owner, it is not released
+        tracker.begin(JOB_ID, MONITOR_ID, 60, "b", "a", START);
+        assertTrue(released.isEmpty());
+
+        tracker.cancel(JOB_ID);
+        assertEquals(List.of("b-10"), released);
+        assertEquals(0, tracker.getStats().getPending());
+    }
+}
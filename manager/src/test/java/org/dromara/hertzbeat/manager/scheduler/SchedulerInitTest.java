@@ -0,0 +1,60 @@
+package org.dromara.hertzbeat.manager.scheduler;
+
+import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.dromara.hertzbeat.common.entity.job.Configmap;
+import org.dromara.hertzbeat.common.entity.job.Job;
+import org.dromara.hertzbeat.common.entity.job.Metrics;
+import org.dromara.hertzbeat.common.entity.manager.Monitor;
+import org.dromara.hertzbeat.common.entity.manager.Param;
+import org.dromara.hertzbeat.common.entity.manager.ParamDefine;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for {@link SchedulerInit}
+ */
+class SchedulerInitTest {
+
+    @Test
+    void buildJobFromSharedDefine() {
+        Job appDefine = new Job();
+        appDefine.setApp("mysql");
+        appDefine.setCategory("db");
+        appDefine.setParams(List.of(
+                ParamDefine.builder().field("host").build(),
+                ParamDefine.builder().field("port").defaultValue("3306").build(),
+                ParamDefine.builder().field("timeout").defaultValue("6000").build()));
+        appDefine.setMetrics(List.of(Metrics.builder().name("basic").build()));
+        Monitor monitor = Monitor.builder().id(1L).jobId(2L).app("mysql").name("db").intervals(30).build();
+        List<Param> params = List.of(
+                Param.builder().monitorId(1L).field("host").value("127.0.0.1").type((byte) 1).build(),
+                Param.builder().monitorId(1L).field("port").value("3307").type((byte) 0).build());
+
+        Job job = SchedulerInit.buildJob(appDefine, monitor, params);
+
+        assertEquals(1L, job.getMonitorId());
+        assertEquals("mysql", job.getApp());
+        assertEquals(30, job.getInterval());
+        assertTrue(job.isCyclic());
+        assertSame(appDefine.getMetrics(), job.getMetrics());
+        Map<String, String> configmap = job.getConfigmap().stream()
+                .collect(Collectors.toMap(Configmap::getKey, item -> String.valueOf(item.getValue())));
+        assertEquals(Map.of("host", "127.0.0.1", "port", "3307", "timeout", "6000"), configmap);
+        assertNull(appDefine.getConfigmap());
+    }
+
+    @Test
+    void buildPrometheusJob() {
+        Job appDefine = new Job();
+        appDefine.setApp(CommonConstants.PROMETHEUS);
+        Monitor monitor = Monitor.builder().id(1L).app(CommonConstants.PROMETHEUS).name("node").intervals(60).build();
+        Job job = SchedulerInit.buildJob(appDefine, monitor, List.of());
+        assertEquals(CommonConstants.PROMETHEUS_APP_PREFIX + "node", job.getApp());
+        assertTrue(job.getConfigmap().isEmpty());
+    }
+}
@@ -0,0 +1,78 @@
+package org.dromara.hertzbeat.manager.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test case for {@link VirtualNodeJobs}
+ */
+class VirtualNodeJobsTest {
+
+    @Test
+    void addSortedByHash() {
+        VirtualNodeJobs jobs = new VirtualNodeJobs(1);
+        jobs.add(30, 3L);
+        jobs.add(10, 1L);
+        jobs.add(20, 2L);
+
+        assertEquals(3, jobs.size());
+        assertEquals(10, jobs.hashAt(0));
+        assertEquals(2L, jobs.jobIdAt(1));
+        assertEquals(30, jobs.hashAt(2));
+        assertEquals(Set.of(1L, 2L, 3L), jobs.jobIdSet());
+
+        int index = jobs.indexOf(2L);
+        assertEquals(1, index);
+        jobs.removeAt(index);
+        assertEquals(-1, jobs.indexOf(2L));
+        assertEquals(30, jobs.hashAt(1));
+    }
+
+    @Test
+    void removeRange() {
+        VirtualNodeJobs jobs = build(10, 20, 30, 40);
+
+        VirtualNodeJobs removed = jobs.removeRange(10, 30);
+
+        assertEquals(Set.of(20L, 30L), removed.jobIdSet());
+        assertEquals(Set.of(10L, 40L), jobs.jobIdSet());
+        assertTrue(jobs.removeRange(20, 20).isEmpty());
+    }
+
+    @Test
+    void removeWrappedRange() {
+        VirtualNodeJobs jobs = build(10, 20, 30, 40);
+
+        VirtualNodeJobs removed = jobs.removeRange(30, 10);
+
+        assertEquals(2, removed.size());
+        assertEquals(10, removed.hashAt(0));
+        assertEquals(40, removed.hashAt(1));
+        assertEquals(Set.of(20L, 30L), jobs.jobIdSet());
+    }
+
+    @Test
+    void mergeSorted() {
+        VirtualNodeJobs jobs = build(10, 30);
+        jobs.addAll(build(20, 40, 50));
+        jobs.addAll(null);
+
+        assertEquals(5, jobs.size());
+        for (int index = 1; index < jobs.size(); index++) {
+            assertTrue(jobs.hashAt(index - 1) <= jobs.hashAt(index));
+        }
+        jobs.clear();
+        assertTrue(jobs.isEmpty());
+    }
+
+    private static VirtualNodeJobs build(int... hashes) {
+        VirtualNodeJobs jobs = new VirtualNodeJobs();
+        for (int hash : hashes) {
+            jobs.add(hash, hash);
+        }
+        return jobs;
+    }
+}
@@ -0,0 +1,170 @@
+package org.dromara.hertzbeat.manager.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.dromara.hertzbeat.common.entity.manager.Monitor;
+import org.dromara.hertzbeat.common.entity.manager.Param;
+import org.dromara.hertzbeat.manager.pojo.dto.ImportProgress;
+import org.dromara.hertzbeat.manager.pojo.dto.ImportResult;
+import org.dromara.hertzbeat.manager.pojo.dto.MonitorDto;
+import org.dromara.hertzbeat.manager.service.impl.ExcelImExportServiceImpl;
+import org.dromara.hertzbeat.manager.service.impl.JsonImExportServiceImpl;
+import org.dromara.hertzbeat.manager.service.impl.YamlImExportServiceImpl;
+import org.dromara.hertzbeat.manager.support.exception.MonitorDetectException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test case for {@link ImExportService}
+ */
+@ExtendWith(MockitoExtension.class)
+class ImExportServiceTest {
+
+    @Mock
+    private MonitorService monitorService;
+
+    @Mock
+    private TagService tagService;
+
+    private ImExportService imExportService;
+
+    @BeforeEach
+    void setUp() {
+        imExportService = new JsonImExportServiceImpl(new ObjectMapper());
+        ReflectionTestUtils.setField(imExportService, "monitorService", monitorService);
+        ReflectionTestUtils.setField(imExportService, "tagService", tagService);
+    }
+
+    @Test
+    void importReportsRowErrorsAndSavesTheOthers() {
+        String json = "["
+                + monitorJson("memory", "127.0.0.1", false) + ","
+                + monitorJson("memory", "127.0.0.2", false) + ","
+                + monitorJson("cpu", "127.0.0.3", true) + ","
+                + monitorJson("disk", "127.0.0.4", true)
+                + "]";
+        doThrow(new MonitorDetectException("connect timeout")).when(monitorService)
+                .detectMonitor(any(), any(), isNull());
+        List<ImportProgress> progresses = new ArrayList<>();
+        List<ImportResult.RowError> errors = new ArrayList<>();
+
+        ImportResult result = imExportService.importConfig(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+                new ImExportService.ImportListener() {
+                    @Override
+                    public void onProgress(ImportProgress progress) {
+                        progresses.add(progress);
+                    }
+
+                    @Override
+                    public void onError(ImportResult.RowError error) {
+                        errors.add(error);
+                    }
+                });
+
+        assertEquals(4, result.getTotal());
+        assertEquals(1, result.getSuccess());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(2, 3, 4), errors.stream().map(ImportResult.RowError::getRow).sorted().collect(Collectors.toList()));
+        assertEquals("Monitoring name is duplicated in the import file!", result.getErrors().get(0).getMessage());
+        assertEquals("connect timeout", result.getErrors().get(1).getMessage());
+        assertEquals(ImportProgress.PHASE_VALIDATE, progresses.get(0).getPhase());
+        assertEquals(4, progresses.get(0).getTotal());
+    }
+
+    @Test
+    void importSavesValidRowsInOneBatch() {
+        String json = "["
+                + monitorJson("memory", "127.0.0.1", false) + ","
+                + monitorJson("cpu", "127.0.0.2", true)
+                + "]";
+        List<ImportProgress> progresses = new ArrayList<>();
+
+        ImportResult result = imExportService.importConfig(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+                new ImExportService.ImportListener() {
+                    @Override
+                    public void onProgress(ImportProgress progress) {
+                        progresses.add(progress);
+                    }
+                });
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MonitorDto>> captor = ArgumentCaptor.forClass(List.class);
+        verify(monitorService).addMonitors(captor.capture());
+        assertEquals(List.of("memory", "cpu"), captor.getValue().stream()
+                .map(dto -> dto.getMonitor().getName()).collect(Collectors.toList()));
+        verify(monitorService).detectMonitor(any(), anyList(), eq(null));
+        assertEquals(2, result.getSuccess());
+        assertEquals(0, result.getFailed());
+        assertEquals(List.of(ImportProgress.PHASE_VALIDATE, ImportProgress.PHASE_DETECT, ImportProgress.PHASE_SAVE),
+                progresses.stream().map(ImportProgress::getPhase).collect(Collectors.toList()));
+    }
+
+    @Test
+    void exportStreamsMonitorPagesInEveryFormat() throws Exception {
+        MonitorDto first = monitorDto(1L, "memory", "127.0.0.1");
+        MonitorDto second = monitorDto(2L, "cpu", "127.0.0.2");
+        when(monitorService.getMonitorDtos(List.of(1L, 2L))).thenReturn(List.of(first, second));
+
+        for (ImExportService service : List.of(imExportService, new YamlImExportServiceImpl(), new ExcelImExportServiceImpl())) {
+            ReflectionTestUtils.setField(service, "monitorService", monitorService);
+            ReflectionTestUtils.setField(service, "tagService", tagService);
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            service.exportConfig(os, List.of(2L, 1L, 2L));
+
+            ImportResult result = service.importConfig(new ByteArrayInputStream(os.toByteArray()), ImExportService.ImportListener.NONE);
+            assertEquals(2, result.getSuccess(), service.type());
+        }
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MonitorDto>> captor = ArgumentCaptor.forClass(List.class);
+        verify(monitorService, times(3)).addMonitors(captor.capture());
+        for (List<MonitorDto> imported : captor.getAllValues()) {
+            assertEquals(List.of("memory", "cpu"), imported.stream()
+                    .map(dto -> dto.getMonitor().getName()).collect(Collectors.toList()));
+            assertEquals("127.0.0.2", imported.get(1).getParams().get(0).getValue());
+        }
+    }
+
+    @Test
+    void exportEmptyFile() {
+        for (ImExportService service : List.of(imExportService, new YamlImExportServiceImpl())) {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            service.exportConfig(os, List.of());
+            ImportResult result = service.importConfig(new ByteArrayInputStream(os.toByteArray()), ImExportService.ImportListener.NONE);
+            assertEquals(0, result.getTotal(), service.type());
+        }
+    }
+
+    private static MonitorDto monitorDto(long id, String name, String host) {
+        MonitorDto monitorDto = new MonitorDto();
+        monitorDto.setMonitor(Monitor.builder().id(id).name(name).app("website").host(host).intervals(60).status((byte) 1).build());
+        monitorDto.setParams(List.of(Param.builder().field("host").type((byte) 1).value(host).build()));
+        monitorDto.setMetrics(List.of("summary"));
+        return monitorDto;
+    }
+
+    private static String monitorJson(String name, String host, boolean detected) {
+        return "{\"monitor\":{\"name\":\"" + name + "\",\"app\":\"website\",\"host\":\"" + host + "\",\"intervals\":60,\"status\":1},"
+                + "\"params\":[{\"field\":\"host\",\"type\":1,\"value\":\"" + host + "\"}],\"detected\":" + detected + "}";
+    }
+}
@@ -5,6 +5,7 @@ import org.dromara.hertzbeat.alert.AlerterProperties;
 import org.dromara.hertzbeat.common.constants.CommonConstants;
 import org.dromara.hertzbeat.common.entity.alerter.Alert;
 import org.dromara.hertzbeat.common.entity.manager.NoticeTemplate;
+import org.dromara.hertzbeat.manager.component.alerter.NoticeTemplateCache;
 import org.dromara.hertzbeat.manager.service.impl.MailServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -37,6 +38,9 @@ class MailServiceTest {
     @Mock
     private ResourceBundle bundle;
 
+    @Spy
+    private NoticeTemplateCache noticeTemplateCache = new NoticeTemplateCache();
+
 
     @Test
     void buildAlertHtmlTemplate() throws TemplateException, IOException {
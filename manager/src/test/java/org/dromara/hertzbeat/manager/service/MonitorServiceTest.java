@@ -4,6 +4,7 @@ import org.dromara.hertzbeat.alert.dao.AlertDefineBindDao;
 import org.dromara.hertzbeat.common.entity.alerter.Alert;
 import org.dromara.hertzbeat.common.entity.job.Job;
 import org.dromara.hertzbeat.common.entity.job.Metrics;
+import org.dromara.hertzbeat.common.entity.manager.CollectorMonitorBind;
 import org.dromara.hertzbeat.common.entity.manager.Monitor;
 import org.dromara.hertzbeat.common.entity.manager.Param;
 import org.dromara.hertzbeat.common.entity.manager.ParamDefine;
@@ -21,6 +22,7 @@ import org.dromara.hertzbeat.manager.service.impl.MonitorServiceImpl;
 import org.dromara.hertzbeat.manager.support.exception.MonitorDatabaseException;
 import org.dromara.hertzbeat.manager.support.exception.MonitorDetectException;
 import org.dromara.hertzbeat.manager.support.exception.MonitorMetricsException;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -36,6 +38,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
 
+import javax.persistence.EntityManager;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -98,6 +101,12 @@ class MonitorServiceTest {
     @Mock
     private ApplicationContext applicationContext;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Session session;
+
     @Mock
     Map<String, Alert> triggeredAlertMap = spy(new HashMap<>());
 
@@ -184,6 +193,48 @@ class MonitorServiceTest {
         assertThrows(MonitorDatabaseException.class, () -> monitorService.addMonitor(monitor, params, null));
     }
 
+    @Test
+    void addMonitorsInOneBatch() {
+        MonitorDto pinned = new MonitorDto();
+        pinned.setMonitor(Monitor.builder().intervals(60).name("memory").app("demoApp").tags(Collections.emptyList()).build());
+        pinned.setParams(List.of(new Param()));
+        pinned.setCollector("collector-1");
+        MonitorDto unpinned = new MonitorDto();
+        unpinned.setMonitor(Monitor.builder().intervals(60).name("cpu").app("demoApp").build());
+        unpinned.setParams(List.of(new Param()));
+        when(appService.getAppDefine("demoApp")).thenAnswer(invocation -> new Job());
+        when(collectJobScheduling.addAsyncCollectJobs(anyList(), anyMap())).thenReturn(List.of(11L, 12L));
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+
+        monitorService.addMonitors(List.of(pinned, unpinned));
+
+        verify(collectJobScheduling).addAsyncCollectJobs(argThat(jobs -> jobs.size() == 2),
+                eq(Map.of(pinned.getMonitor().getId(), "collector-1")));
+        verify(tagService).addTags(argThat(tags -> tags.size() == 4));
+        verify(session, times(2)).save(any(Monitor.class));
+        verify(paramDao).saveAll(argThat(params -> ((List<Param>) params).size() == 2));
+        verify(collectorMonitorBindDao).saveAll(argThat(binds -> ((List<?>) binds).size() == 1));
+        verify(session).flush();
+        assertEquals(11L, pinned.getMonitor().getJobId());
+        assertEquals(12L, unpinned.getMonitor().getJobId());
+        assertEquals(2, pinned.getMonitor().getTags().size());
+        assertEquals(unpinned.getMonitor().getId(), unpinned.getParams().get(0).getMonitorId());
+    }
+
+    @Test
+    void addMonitorsExceptionCancelJobs() {
+        MonitorDto dto = new MonitorDto();
+        dto.setMonitor(Monitor.builder().intervals(60).name("memory").app("demoApp").build());
+        dto.setParams(List.of(new Param()));
+        when(appService.getAppDefine("demoApp")).thenReturn(new Job());
+        when(collectJobScheduling.addAsyncCollectJobs(anyList(), anyMap())).thenReturn(List.of(11L));
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        doThrow(RuntimeException.class).when(session).save(any(Monitor.class));
+
+        assertThrows(MonitorDatabaseException.class, () -> monitorService.addMonitors(List.of(dto)));
+        verify(collectJobScheduling).cancelAsyncCollectJob(11L);
+    }
+
     /**
      * 参数校验-数据库已经存在相同的任务名称
      */
@@ -623,6 +674,30 @@ class MonitorServiceTest {
         assertNotNull(monitorDto);
     }
 
+    @Test
+    void getMonitorDtosInBulk() {
+        List<Long> ids = List.of(1L, 2L);
+        Monitor first = Monitor.builder().id(1L).app("app").name("memory").build();
+        Monitor second = Monitor.builder().id(2L).app("app").name("cpu").build();
+        when(monitorDao.findMonitorsWithTagsByIdIn(ids)).thenReturn(List.of(first, second));
+        when(paramDao.findParamsByMonitorIdIn(ids)).thenReturn(List.of(Param.builder().monitorId(2L).field("host").build()));
+        when(collectorMonitorBindDao.findCollectorMonitorBindsByMonitorIdIn(new HashSet<>(ids)))
+                .thenReturn(List.of(CollectorMonitorBind.builder().monitorId(1L).collector("collector-1").build()));
+        Job job = new Job();
+        job.setMetrics(new ArrayList<>());
+        when(appService.getAppDefine("app")).thenReturn(job);
+
+        List<MonitorDto> monitorDtos = monitorService.getMonitorDtos(ids);
+
+        assertEquals(2, monitorDtos.size());
+        assertEquals("collector-1", monitorDtos.get(0).getCollector());
+        assertTrue(monitorDtos.get(0).getParams().isEmpty());
+        assertNull(monitorDtos.get(1).getCollector());
+        assertEquals("host", monitorDtos.get(1).getParams().get(0).getField());
+        // the app define is loaded once for the monitors of the app
+        verify(appService, times(1)).getAppDefine("app");
+    }
+
     @Test
     void getMonitors() {
         Specification<Monitor> specification = mock(Specification.class);
@@ -8,6 +8,8 @@ import org.dromara.hertzbeat.common.entity.manager.NoticeRule;
 import org.dromara.hertzbeat.common.entity.manager.NoticeTemplate;
 import org.dromara.hertzbeat.common.entity.manager.TagItem;
 import org.dromara.hertzbeat.manager.component.alerter.DispatcherAlarm;
+import org.dromara.hertzbeat.manager.component.alerter.NoticeTemplateCache;
+import org.dromara.hertzbeat.manager.component.alerter.NotifyDeliveryEngine;
 import org.dromara.hertzbeat.manager.dao.NoticeReceiverDao;
 import org.dromara.hertzbeat.manager.dao.NoticeRuleDao;
 import org.dromara.hertzbeat.manager.dao.NoticeTemplateDao;
@@ -42,6 +44,10 @@ class NoticeConfigServiceTest {
     NoticeRuleDao noticeRuleDao;
     @Mock
     DispatcherAlarm dispatcherAlarm;
+    @Mock
+    NotifyDeliveryEngine notifyDeliveryEngine;
+    @Mock
+    NoticeTemplateCache noticeTemplateCache;
     @InjectMocks
     private NoticeConfigServiceImpl noticeConfigService;
 
@@ -0,0 +1,108 @@
+package org.dromara.hertzbeat.manager.service;
+
+import org.dromara.hertzbeat.common.constants.CommonConstants;
+import org.dromara.hertzbeat.common.entity.manager.StatusPageComponent;
+import org.dromara.hertzbeat.common.entity.manager.StatusPageHistory;
+import org.dromara.hertzbeat.common.entity.manager.StatusPageHistoryDaily;
+import org.dromara.hertzbeat.common.entity.manager.StatusPageOrg;
+import org.dromara.hertzbeat.manager.component.status.CalculateStatus;
+import org.dromara.hertzbeat.manager.dao.StatusPageComponentDao;
+import org.dromara.hertzbeat.manager.dao.StatusPageHistoryDailyDao;
+import org.dromara.hertzbeat.manager.dao.StatusPageIncidentDao;
+import org.dromara.hertzbeat.manager.dao.StatusPageOrgDao;
+import org.dromara.hertzbeat.manager.pojo.dto.ComponentStatus;
+import org.dromara.hertzbeat.manager.service.impl.StatusPageServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test case for {@link StatusPageService}
+ */
+@ExtendWith(MockitoExtension.class)
+class StatusPageServiceTest {
+
+    @InjectMocks
+    private StatusPageServiceImpl statusPageService;
+
+    @Mock
+    private StatusPageOrgDao statusPageOrgDao;
+
+    @Mock
+    private StatusPageComponentDao statusPageComponentDao;
+
+    @Mock
+    private StatusPageHistoryDailyDao statusPageHistoryDailyDao;
+
+    @Mock
+    private StatusPageIncidentDao statusPageIncidentDao;
+
+    @Mock
+    private CalculateStatus calculateStatus;
+
+    @Test
+    void queryComponentsStatusFromDailyHistory() {
+        LocalDate today = LocalDate.now();
+        long todayStart = dayStart(today);
+        long yesterdayStart = dayStart(today.minusDays(1));
+        StatusPageComponent component = StatusPageComponent.builder().id(1L)
+                .state(CommonConstants.STATUS_PAGE_COMPONENT_STATE_NORMAL).build();
+        when(statusPageComponentDao.findAll()).thenReturn(List.of(component));
+        when(statusPageHistoryDailyDao.findStatusPageHistoryDailiesByTimestampBetween(anyLong(), anyLong())).thenReturn(List.of(
+                StatusPageHistoryDaily.builder().componentId(1L).timestamp(todayStart).normal(3600).abnormal(0).unknown(0).build(),
+                StatusPageHistoryDaily.builder().componentId(1L).timestamp(yesterdayStart).normal(86000).abnormal(400).unknown(0)
+                        .state(CommonConstants.STATUS_PAGE_COMPONENT_STATE_ABNORMAL).uptime(0.99).build()));
+
+        List<ComponentStatus> componentStatusList = statusPageService.queryComponentsStatus();
+        List<StatusPageHistory> histories = componentStatusList.get(0).getHistory();
+        assertEquals(30, histories.size());
+        assertEquals(3600, histories.get(0).getNormal());
+        assertEquals(1.0, histories.get(0).getUptime());
+        assertEquals(CommonConstants.STATUS_PAGE_COMPONENT_STATE_NORMAL, histories.get(0).getState());
+        assertEquals(yesterdayStart, histories.get(1).getTimestamp());
+        assertEquals(CommonConstants.STATUS_PAGE_COMPONENT_STATE_ABNORMAL, histories.get(1).getState());
+        assertEquals(400, histories.get(1).getAbnormal());
+        assertEquals(CommonConstants.STATUS_PAGE_COMPONENT_STATE_UNKNOWN, histories.get(2).getState());
+        assertEquals(yesterdayStart - 1000L, histories.get(2).getTimestamp());
+        verify(statusPageHistoryDailyDao).findStatusPageHistoryDailiesByTimestampBetween(dayStart(today.minusDays(29)), todayStart);
+    }
+
+    @Test
+    void cachePublicStatusUntilStateChanges() {
+        when(statusPageComponentDao.findAll()).thenReturn(List.of());
+        when(calculateStatus.getStateVersion()).thenReturn(0L, 0L, 1L);
+
+        assertSame(statusPageService.queryComponentsStatus(), statusPageService.queryComponentsStatus());
+        verify(statusPageComponentDao, times(1)).findAll();
+        statusPageService.queryComponentsStatus();
+        verify(statusPageComponentDao, times(2)).findAll();
+    }
+
+    @Test
+    void invalidatePublicStatusOnEdit() {
+        StatusPageOrg org = StatusPageOrg.builder().id(1L).name("hertzbeat").build();
+        when(statusPageOrgDao.findAll()).thenReturn(List.of(org));
+        when(statusPageOrgDao.save(org)).thenReturn(org);
+
+        assertEquals(org, statusPageService.queryStatusPageOrg());
+        assertEquals(org, statusPageService.queryStatusPageOrg());
+        verify(statusPageOrgDao, times(1)).findAll();
+        statusPageService.saveStatusPageOrg(org);
+        statusPageService.queryStatusPageOrg();
+        verify(statusPageOrgDao, times(2)).findAll();
+    }
+
+    private static long dayStart(LocalDate day) {
+        return day.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
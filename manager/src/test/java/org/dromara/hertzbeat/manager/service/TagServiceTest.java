@@ -8,6 +8,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationContext;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.domain.Specification;
@@ -32,6 +33,9 @@ class TagServiceTest {
     @Mock
     private TagDao tagDao;
 
+    @Mock
+    private ApplicationContext applicationContext;
+
     @Test
     void addTags() {
         when(tagDao.saveAll(anyList())).thenReturn(anyList());